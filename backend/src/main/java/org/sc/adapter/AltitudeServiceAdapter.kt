@@ -1,68 +1,48 @@
 package org.sc.adapter
 
-import com.fasterxml.jackson.databind.ObjectMapper
-import org.sc.adapter.response.AltitudeApiRequestPoint
-import org.sc.adapter.response.AltitudeApiResponse
-import org.sc.adapter.response.AltitudeServiceRequest
+import org.sc.adapter.elevation.ElevationProvider
+import org.sc.adapter.elevation.OpenElevationProvider
+import org.sc.adapter.elevation.SrtmElevationProvider
 import org.sc.common.rest.CoordinatesDto
 import org.sc.configuration.AppProperties
 import org.sc.data.model.Coordinates
 import org.sc.data.model.Coordinates2D
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Service
-import java.io.BufferedReader
-import java.io.DataInputStream
-import java.io.DataOutputStream
-import java.io.InputStreamReader
-import java.net.HttpURLConnection
-import java.net.URL
-import java.nio.charset.StandardCharsets
-import java.util.concurrent.TimeUnit
 import java.util.logging.Logger
 
-const val ALTITUDE_CALL_RETRIES = 3
-const val ALTITUDE_CALL_CHUNK_SIZE = 500
-
+/**
+ * Entry point for point elevations. Lookups are de-duplicated, served from a bounded cache
+ * when possible, then resolved by the local DEM tiles and, for whatever is left,
+ * by the remote Open-Elevation service.
+ */
 @Service
 class AltitudeServiceAdapter @Autowired constructor(appProperties: AppProperties,
-                                                    private val objectMapper: ObjectMapper) {
+                                                    private val srtmElevationProvider: SrtmElevationProvider,
+                                                    private val openElevationProvider: OpenElevationProvider) {
     private val logger: Logger = Logger.getLogger(AltitudeServiceAdapter::class.java.name)
-    private val portToAltitudeService : Int = appProperties.altitudeServicePort
-    private val hostToAltitudeService : String = appProperties.altitudeServiceHost
-    private val pathToServiceApi: String = "$hostToAltitudeService:$portToAltitudeService/api/v1/lookup"
+    private val elevationProviders: List<ElevationProvider> =
+            if (srtmElevationProvider.isEnabled) listOf(srtmElevationProvider, openElevationProvider)
+            else listOf(openElevationProvider)
+    private val elevationCache = ElevationCache(appProperties.altitudeServiceCacheSize)
 
     fun getElevationsByLongLat(latitude: Double,
                                longitude: Double): List<Double> {
-        val apiGetEndpoint = "http://$pathToServiceApi?locations=$latitude,$longitude"
-        return try {
-            val getCall = URL(apiGetEndpoint).readText()
-            val gsonBuilder: AltitudeApiResponse =
-                    objectMapper.readValue(getCall, AltitudeApiResponse::class.java)
-            listOf(gsonBuilder.results.first().elevation)
-        } catch (e: Exception) {
-            logger.severe("Could not connect to altitude service or read its response")
-            emptyList()
-        }
+        val key = ElevationCache.keyOf(latitude, longitude)
+        return listOfNotNull(lookupElevations(mapOf(key to Pair(latitude, longitude)))[key])
     }
 
+    /**
+     * Returns one elevation per given (latitude, longitude) pair, in the same order.
+     * Points no provider could resolve are set to 0.0.
+     */
     fun getElevationsByLongLat(coordinates: List<Pair<Double, Double>>): List<Double> {
+        val keys = coordinates.map { ElevationCache.keyOf(it.first, it.second) }
+        val distinctPoints = LinkedHashMap<Long, Pair<Double, Double>>()
+        keys.forEachIndexed { index, key -> distinctPoints.putIfAbsent(key, coordinates[index]) }
 
-        val coordinatesChunks = coordinates.chunked(ALTITUDE_CALL_CHUNK_SIZE)
-
-        val result : MutableList<Double> = mutableListOf()
-
-        coordinatesChunks.forEach { chunk ->
-            val coordinateAltitudeList = callAltitudeWithExponentialBackoff(chunk)
-
-            if(chunk.size == coordinateAltitudeList.size) {
-                result.addAll(coordinateAltitudeList)
-            } else {
-                //in case of error the result contains the same number of elements of the input
-                logger.info("chunk.size ${chunk.size} different than coordinateAltitudeList.size ${coordinateAltitudeList.size}")
-                result.addAll(MutableList(coordinates.size) { 0.0 })
-            }
-        }
-        return result
+        val elevations = lookupElevations(distinctPoints)
+        return keys.map { elevations[it] ?: 0.0 }
     }
 
     fun mapCoordsWithElevations(coordinates: List<Coordinates2D>): List<Coordinates> =
@@ -71,64 +51,33 @@ class AltitudeServiceAdapter @Autowired constructor(appProperties: AppProperties
                 CoordinatesDto(coordinates[index].latitude,
                     coordinates[index].longitude, altitude) }
 
+    /**
+     * Checks the remote altitude service directly, without going through the cache.
+     */
+    fun isServiceReachable(): Boolean = openElevationProvider.isServiceReachable()
+
+    private fun lookupElevations(points: Map<Long, Pair<Double, Double>>): Map<Long, Double> {
+        val result = HashMap<Long, Double>(points.size)
+        var missing = points.keys.filter { key ->
+            val cached = elevationCache.get(key)
+            if (cached != null) result[key] = cached
+            cached == null
+        }
 
-    private fun callAltitudeWithExponentialBackoff(coordinates: List<Pair<Double, Double>>) : List<Double> {
-
-        val postData: ByteArray = buildAltitudeRequest(coordinates)
-
-        var retryCounter = 1
-        while(retryCounter <= ALTITUDE_CALL_RETRIES) {
-
-            try {
-                val connection = buildAltitudeRequestConnection(postData.size)
-                val outputStream = DataOutputStream(connection.outputStream)
-
-                outputStream.write(postData)
-                outputStream.flush()
-
-                if(connection.responseCode == HttpURLConnection.HTTP_OK) {
-
-                    val inputStream = DataInputStream(connection.inputStream)
-                    val reader = BufferedReader(InputStreamReader(inputStream))
-                    val output: String = reader.readLine()
-
-                    val gsonBuilder: AltitudeApiResponse = objectMapper.readValue(output, AltitudeApiResponse::class.java)
-                    return gsonBuilder.results.map { elem -> elem.elevation }
-
-                } else {
-                    retryCounter++
-                    logger.warning("retrying... $retryCounter time(s)")
-                    TimeUnit.SECONDS.sleep((retryCounter * retryCounter * 1L))
-                }
-            } catch (exception: Exception) {
-                retryCounter++
-                logger.severe("exception retrying... $retryCounter time(s)")
-                TimeUnit.SECONDS.sleep((retryCounter * retryCounter * 1L))
+        elevationProviders.forEach { provider ->
+            if (missing.isEmpty()) return result
+            val elevations = provider.getElevations(missing.map { points.getValue(it) })
+            val resolved = HashMap<Long, Double>()
+            missing = missing.filterIndexed { index, key ->
+                val elevation = elevations[index]
+                if (elevation != null) resolved[key] = elevation
+                elevation == null
             }
+            elevationCache.putAll(resolved)
+            result.putAll(resolved)
         }
 
-        return listOf()
-    }
-
-    private fun buildAltitudeRequestConnection(contentSize : Int) : HttpURLConnection {
-
-        val apiGetEndpoint = "http://$pathToServiceApi"
-        val getCall = URL(apiGetEndpoint)
-
-        val connection = getCall.openConnection() as HttpURLConnection
-        connection.requestMethod = "POST"
-        connection.doOutput = true
-
-        connection.setRequestProperty("charset", "utf-8")
-        connection.setRequestProperty("Content-length", contentSize.toString())
-        connection.setRequestProperty("Content-Type", "application/json")
-
-        return connection
-    }
-
-    private fun buildAltitudeRequest(coordinates: List<Pair<Double, Double>>): ByteArray {
-        val requestObject = AltitudeServiceRequest(coordinates.map { elem -> AltitudeApiRequestPoint(elem.first, elem.second) })
-        val requestMessage = objectMapper.writeValueAsString(requestObject)
-        return requestMessage.toByteArray(StandardCharsets.UTF_8)
+        if (missing.isNotEmpty()) logger.info("Could not resolve elevation for ${missing.size} point(s)")
+        return result
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package org.sc.adapter
+
+import kotlin.math.roundToInt
+
+/**
+ * Bounded, least-recently-used cache of elevations keyed by coordinates rounded
+ * to [KEY_PRECISION] (five decimals, roughly one meter), so points repeated across
+ * imports and intersection lookups resolve without calling the altitude service.
+ */
+class ElevationCache(private val maxEntries: Int) {
+
+    companion object {
+        private const val KEY_PRECISION = 100_000.0
+
+        fun keyOf(latitude: Double, longitude: Double): Long {
+            val roundedLatitude = (latitude * KEY_PRECISION).roundToInt()
+            val roundedLongitude = (longitude * KEY_PRECISION).roundToInt()
+            return (roundedLatitude.toLong() shl 32) or (roundedLongitude.toLong() and 0xFFFFFFFFL)
+        }
+    }
+
+    private val entries = object : LinkedHashMap<Long, Double>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Long, Double>?) = size > maxEntries
+    }
+
+    @Synchronized
+    fun get(key: Long): Double? = entries[key]
+
+    @Synchronized
+    fun putAll(elevations: Map<Long, Double>) {
+        if (maxEntries > 0) entries.putAll(elevations)
+    }
+
+    @Synchronized
+    fun size() = entries.size
+}
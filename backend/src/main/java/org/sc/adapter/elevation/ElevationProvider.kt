@@ -0,0 +1,13 @@
+package org.sc.adapter.elevation
+
+/**
+ * Source of point elevations, queried in batches.
+ */
+interface ElevationProvider {
+
+    /**
+     * Returns, in the same order as the given (latitude, longitude) pairs,
+     * the elevation in meters of each point or null where this provider has no data.
+     */
+    fun getElevations(coordinates: List<Pair<Double, Double>>): List<Double?>
+}
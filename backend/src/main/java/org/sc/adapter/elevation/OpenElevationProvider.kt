@@ -0,0 +1,128 @@
+package org.sc.adapter.elevation
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.sc.adapter.response.AltitudeApiRequestPoint
+import org.sc.adapter.response.AltitudeApiResponse
+import org.sc.adapter.response.AltitudeServiceRequest
+import org.sc.configuration.AppProperties
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+import java.net.HttpURLConnection
+import java.net.URI
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.time.Duration
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.logging.Logger
+import javax.annotation.PreDestroy
+
+const val ALTITUDE_CALL_RETRIES = 3
+const val ALTITUDE_CALL_CHUNK_SIZE = 500
+const val ALTITUDE_CALL_TIMEOUT_SECONDS = 30L
+
+/**
+ * Remote Open-Elevation lookups, sent in chunks of [ALTITUDE_CALL_CHUNK_SIZE] points
+ * over a keep-alive client with a bounded number of chunks in flight.
+ */
+@Component
+class OpenElevationProvider @Autowired constructor(appProperties: AppProperties,
+                                                   private val objectMapper: ObjectMapper) : ElevationProvider {
+    private val logger: Logger = Logger.getLogger(OpenElevationProvider::class.java.name)
+    private val portToAltitudeService : Int = appProperties.altitudeServicePort
+    private val hostToAltitudeService : String = appProperties.altitudeServiceHost
+    private val pathToServiceApi: String = "$hostToAltitudeService:$portToAltitudeService/api/v1/lookup"
+
+    // A single client keeps its connections alive and reuses them across calls
+    private val httpClient: HttpClient = HttpClient.newBuilder()
+            // The service is reached over plain http, where HTTP/2 would first try an h2c upgrade
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(ALTITUDE_CALL_TIMEOUT_SECONDS))
+            .build()
+    private val chunkExecutor: ExecutorService =
+            Executors.newFixedThreadPool(appProperties.altitudeServiceParallelChunks, chunkThreadFactory())
+
+    override fun getElevations(coordinates: List<Pair<Double, Double>>): List<Double?> {
+        val chunks = coordinates.chunked(ALTITUDE_CALL_CHUNK_SIZE)
+        val futures = chunks.map { chunk ->
+            chunkExecutor.submit<List<Double>> { callAltitudeWithExponentialBackoff(chunk) }
+        }
+
+        val result = ArrayList<Double?>(coordinates.size)
+        chunks.forEachIndexed { index, chunk ->
+            val coordinateAltitudeList = try {
+                futures[index].get()
+            } catch (e: ExecutionException) {
+                logger.severe("Altitude chunk lookup failed: ${e.cause}")
+                emptyList()
+            }
+
+            if (chunk.size == coordinateAltitudeList.size) {
+                result.addAll(coordinateAltitudeList)
+            } else {
+                logger.info("chunk.size ${chunk.size} different than coordinateAltitudeList.size ${coordinateAltitudeList.size}")
+                result.addAll(arrayOfNulls<Double>(chunk.size))
+            }
+        }
+        return result
+    }
+
+    fun isServiceReachable(): Boolean = callAltitude(listOf(Pair(0.0, 0.0))).isNotEmpty()
+
+    private fun callAltitudeWithExponentialBackoff(coordinates: List<Pair<Double, Double>>) : List<Double> {
+        var retryCounter = 1
+        while(retryCounter <= ALTITUDE_CALL_RETRIES) {
+            val elevations = callAltitude(coordinates)
+            if (elevations.isNotEmpty()) return elevations
+            retryCounter++
+            logger.warning("retrying... $retryCounter time(s)")
+            TimeUnit.SECONDS.sleep((retryCounter * retryCounter * 1L))
+        }
+        return listOf()
+    }
+
+    private fun callAltitude(coordinates: List<Pair<Double, Double>>): List<Double> =
+        try {
+            val response = httpClient.send(buildAltitudeRequest(coordinates), HttpResponse.BodyHandlers.ofInputStream())
+            response.body().use { body ->
+                if (response.statusCode() == HttpURLConnection.HTTP_OK) {
+                    objectMapper.readValue(body, AltitudeApiResponse::class.java).results.map { elem -> elem.elevation }
+                } else {
+                    logger.warning("Altitude service answered with status ${response.statusCode()}")
+                    listOf()
+                }
+            }
+        } catch (exception: InterruptedException) {
+            Thread.currentThread().interrupt()
+            listOf()
+        } catch (exception: Exception) {
+            logger.severe("Could not connect to altitude service or read its response: $exception")
+            listOf()
+        }
+
+    private fun buildAltitudeRequest(coordinates: List<Pair<Double, Double>>): HttpRequest {
+        val requestObject = AltitudeServiceRequest(coordinates.map { elem -> AltitudeApiRequestPoint(elem.first, elem.second) })
+        return HttpRequest.newBuilder(URI.create("http://$pathToServiceApi"))
+            .timeout(Duration.ofSeconds(ALTITUDE_CALL_TIMEOUT_SECONDS))
+            .header("Content-Type", "application/json; charset=utf-8")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(requestObject)))
+            .build()
+    }
+
+    private fun chunkThreadFactory(): ThreadFactory {
+        val counter = AtomicInteger()
+        return ThreadFactory { runnable ->
+            Thread(runnable, "altitude-lookup-${counter.incrementAndGet()}").apply { isDaemon = true }
+        }
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        chunkExecutor.shutdown()
+    }
+}
@@ -0,0 +1,117 @@
+package org.sc.adapter.elevation
+
+import org.sc.configuration.AppProperties
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+import java.io.IOException
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardOpenOption
+import java.util.Optional
+import java.util.concurrent.ConcurrentHashMap
+import java.util.logging.Logger
+import kotlin.math.abs
+import kotlin.math.floor
+import kotlin.math.min
+import kotlin.math.sqrt
+
+/**
+ * Local elevation lookups on SRTM `.hgt` tiles (e.g. `N44E011.hgt`) kept in a directory.
+ * Each tile is a square grid of big-endian 16 bit samples, rows going from north to south,
+ * and is memory-mapped on first use. Elevations are bilinearly interpolated between
+ * the four samples surrounding a point; points on missing tiles or next to void
+ * samples get no value, so that a fallback provider can resolve them.
+ */
+@Component
+class SrtmElevationProvider(private val demDirectory: Path?) : ElevationProvider {
+
+    companion object {
+        private const val VOID_SAMPLE: Short = -32768
+        private const val SAMPLE_BYTES = 2
+        private const val TILE_EXTENSION = ".hgt"
+    }
+
+    private val logger: Logger = Logger.getLogger(SrtmElevationProvider::class.java.name)
+    private val tiles = ConcurrentHashMap<String, Optional<SrtmTile>>()
+
+    @Autowired
+    constructor(appProperties: AppProperties) : this(
+        appProperties.altitudeServiceDemPath
+            .takeIf { it.isNotBlank() }
+            ?.let { Paths.get(it) }
+            ?.takeIf { Files.isDirectory(it) }
+    )
+
+    val isEnabled: Boolean
+        get() = demDirectory != null
+
+    override fun getElevations(coordinates: List<Pair<Double, Double>>): List<Double?> {
+        if (!isEnabled) return arrayOfNulls<Double>(coordinates.size).asList()
+        return coordinates.map { getElevation(it.first, it.second) }
+    }
+
+    fun getElevation(latitude: Double, longitude: Double): Double? {
+        val tileLatitude = floor(latitude).toInt()
+        val tileLongitude = floor(longitude).toInt()
+        val tile = getTile(tileLatitude, tileLongitude) ?: return null
+
+        val lastIndex = tile.size - 1
+        val row = (tileLatitude + 1 - latitude) * lastIndex
+        val column = (longitude - tileLongitude) * lastIndex
+        val row0 = floor(row).toInt()
+        val column0 = floor(column).toInt()
+        val row1 = min(row0 + 1, lastIndex)
+        val column1 = min(column0 + 1, lastIndex)
+
+        val topLeft = tile.sample(row0, column0)
+        val topRight = tile.sample(row0, column1)
+        val bottomLeft = tile.sample(row1, column0)
+        val bottomRight = tile.sample(row1, column1)
+        if (listOf(topLeft, topRight, bottomLeft, bottomRight).any { it == VOID_SAMPLE }) return null
+
+        val rowWeight = row - row0
+        val columnWeight = column - column0
+        val top = topLeft + (topRight - topLeft) * columnWeight
+        val bottom = bottomLeft + (bottomRight - bottomLeft) * columnWeight
+        return top + (bottom - top) * rowWeight
+    }
+
+    private fun getTile(latitude: Int, longitude: Int): SrtmTile? {
+        val tileName = tileName(latitude, longitude)
+        return tiles.computeIfAbsent(tileName) { Optional.ofNullable(mapTile(it)) }.orElse(null)
+    }
+
+    private fun mapTile(tileName: String): SrtmTile? {
+        val tilePath = demDirectory!!.resolve(tileName)
+        if (!Files.isRegularFile(tilePath)) return null
+        return try {
+            FileChannel.open(tilePath, StandardOpenOption.READ).use { channel ->
+                val samples = channel.size() / SAMPLE_BYTES
+                val size = sqrt(samples.toDouble()).toInt()
+                if (size < 2 || size.toLong() * size != samples) {
+                    logger.warning("Skipping DEM tile '$tilePath': not a square grid of 16 bit samples")
+                    return null
+                }
+                SrtmTile(size, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()))
+            }
+        } catch (e: IOException) {
+            logger.severe("Could not map DEM tile '$tilePath': $e")
+            null
+        }
+    }
+
+    private fun tileName(latitude: Int, longitude: Int): String {
+        val latitudePrefix = if (latitude >= 0) "N" else "S"
+        val longitudePrefix = if (longitude >= 0) "E" else "W"
+        return String.format("%s%02d%s%03d%s", latitudePrefix, abs(latitude),
+            longitudePrefix, abs(longitude), TILE_EXTENSION)
+    }
+
+    private class SrtmTile(val size: Int, private val samples: MappedByteBuffer) {
+        // Absolute reads do not move the buffer position, so tiles can be shared across threads
+        fun sample(row: Int, column: Int): Short = samples.getShort((row * size + column) * SAMPLE_BYTES)
+    }
+}
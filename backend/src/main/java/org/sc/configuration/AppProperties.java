@@ -18,6 +18,18 @@ public class AppProperties {
     private final String tempStorage;
     private final String altitudeServiceHost;
     private final Integer altitudeServicePort;
+    private final int altitudeServiceParallelChunks;
+    private final int altitudeServiceCacheSize;
+    private final String altitudeServiceDemPath;
+    private final int tileCacheSize;
+    private final boolean trailCoordinatesBinary;
+    private final int previewCacheSize;
+    private final int previewCacheVersionRefreshSeconds;
+    private final int resourcesRegenerationWorkers;
+    private final int resourcesQueueDebounceSeconds;
+    private final int resourcesQueueLeaseSeconds;
+    private final int resourcesQueueMaxWaitSeconds;
+    private final int resourcesQueueMaxAttempts;
     private final String mongoDbUri;
     private final String dbName;
     private final String mailFrom;
@@ -30,6 +42,9 @@ public class AppProperties {
     private final String validationAddress;
     private final int jobImageBatchSize;
     private final double jobCrosswayConsistencyDistance;
+    private final long jobCrosswayConsistencyDelaySeconds;
+    private final int importWorkers;
+    private final int importQueueSize;
 
     @Autowired
     public AppProperties(final @Value("${server.port}") String port,
@@ -37,6 +52,9 @@ public class AppProperties {
                          final @Value("${temp.storage.path}") String tempStorage,
                          final @Value("${service.altitude.host:127.0.0.1}") String altitudeServiceHost,
                          final @Value("${service.altitude.port}") Integer altitudeServicePort,
+                         final @Value("${service.altitude.parallel.chunks:4}") int altitudeServiceParallelChunks,
+                         final @Value("${service.altitude.cache.size:200000}") int altitudeServiceCacheSize,
+                         final @Value("${service.altitude.dem.path:}") String altitudeServiceDemPath,
                          final @Value("${db.uri}") String mongoDbUri,
                          final @Value("${db.name}") String dbName,
                          final @Value("${spring.mail.from}") String mailFrom,
@@ -48,13 +66,28 @@ public class AppProperties {
                          final @Value("${instance.hostname:127.0.0.1}") String instanceHostname,
                          final @Value("${instance.report.validation.address}") String validationAddress,
                          final @Value("${jobImage.batchsize}") int jobImageBatchSize,
-                         final @Value("${job.crossway.consistency.distance:100.0}") double jobCrosswayConsistencyDistance
+                         final @Value("${job.crossway.consistency.distance:100.0}") double jobCrosswayConsistencyDistance,
+                         final @Value("${job.crossway.consistency.delay.seconds:300}") long jobCrosswayConsistencyDelaySeconds,
+                         final @Value("${import.workers:2}") int importWorkers,
+                         final @Value("${import.queue.size:4}") int importQueueSize,
+                         final @Value("${tiles.cache.size:2048}") int tileCacheSize,
+                         final @Value("${trail.coordinates.binary:false}") boolean trailCoordinatesBinary,
+                         final @Value("${preview.cache.size:1024}") int previewCacheSize,
+                         final @Value("${preview.cache.version.refresh.seconds:5}") int previewCacheVersionRefreshSeconds,
+                         final @Value("${resources.regeneration.workers:4}") int resourcesRegenerationWorkers,
+                         final @Value("${resources.queue.debounce.seconds:30}") int resourcesQueueDebounceSeconds,
+                         final @Value("${resources.queue.lease.seconds:600}") int resourcesQueueLeaseSeconds,
+                         final @Value("${resources.queue.max.wait.seconds:300}") int resourcesQueueMaxWaitSeconds,
+                         final @Value("${resources.queue.max.attempts:5}") int resourcesQueueMaxAttempts
     ) {
         this.port = port;
         this.trailStorage = storage;
         this.tempStorage = tempStorage;
         this.altitudeServiceHost = altitudeServiceHost;
         this.altitudeServicePort = altitudeServicePort;
+        this.altitudeServiceParallelChunks = altitudeServiceParallelChunks;
+        this.altitudeServiceCacheSize = altitudeServiceCacheSize;
+        this.altitudeServiceDemPath = altitudeServiceDemPath;
         this.mongoDbUri = mongoDbUri;
         this.dbName = dbName;
         this.mailFrom = mailFrom;
@@ -67,6 +100,18 @@ public class AppProperties {
         this.validationAddress = validationAddress;
         this.jobImageBatchSize = jobImageBatchSize;
         this.jobCrosswayConsistencyDistance = jobCrosswayConsistencyDistance;
+        this.jobCrosswayConsistencyDelaySeconds = jobCrosswayConsistencyDelaySeconds;
+        this.importWorkers = importWorkers;
+        this.importQueueSize = importQueueSize;
+        this.tileCacheSize = tileCacheSize;
+        this.trailCoordinatesBinary = trailCoordinatesBinary;
+        this.previewCacheSize = previewCacheSize;
+        this.previewCacheVersionRefreshSeconds = previewCacheVersionRefreshSeconds;
+        this.resourcesRegenerationWorkers = resourcesRegenerationWorkers;
+        this.resourcesQueueDebounceSeconds = resourcesQueueDebounceSeconds;
+        this.resourcesQueueLeaseSeconds = resourcesQueueLeaseSeconds;
+        this.resourcesQueueMaxWaitSeconds = resourcesQueueMaxWaitSeconds;
+        this.resourcesQueueMaxAttempts = resourcesQueueMaxAttempts;
     }
 
     public String getPort() {
@@ -81,6 +126,18 @@ public class AppProperties {
         return altitudeServicePort;
     }
 
+    public int getAltitudeServiceParallelChunks() {
+        return altitudeServiceParallelChunks;
+    }
+
+    public int getAltitudeServiceCacheSize() {
+        return altitudeServiceCacheSize;
+    }
+
+    public String getAltitudeServiceDemPath() {
+        return altitudeServiceDemPath;
+    }
+
     public String getMongoDbUri() {
         return mongoDbUri;
     }
@@ -136,4 +193,52 @@ public class AppProperties {
     public double getJobCrosswayConsistencyDistance() {
         return jobCrosswayConsistencyDistance;
     }
-}
\ No newline at end of file
+
+    public long getJobCrosswayConsistencyDelaySeconds() {
+        return jobCrosswayConsistencyDelaySeconds;
+    }
+
+    public int getImportWorkers() {
+        return importWorkers;
+    }
+
+    public int getImportQueueSize() {
+        return importQueueSize;
+    }
+
+    public int getTileCacheSize() {
+        return tileCacheSize;
+    }
+
+    public boolean isTrailCoordinatesBinary() {
+        return trailCoordinatesBinary;
+    }
+
+    public int getPreviewCacheSize() {
+        return previewCacheSize;
+    }
+
+    public int getPreviewCacheVersionRefreshSeconds() {
+        return previewCacheVersionRefreshSeconds;
+    }
+
+    public int getResourcesRegenerationWorkers() {
+        return resourcesRegenerationWorkers;
+    }
+
+    public int getResourcesQueueDebounceSeconds() {
+        return resourcesQueueDebounceSeconds;
+    }
+
+    public int getResourcesQueueLeaseSeconds() {
+        return resourcesQueueLeaseSeconds;
+    }
+
+    public int getResourcesQueueMaxWaitSeconds() {
+        return resourcesQueueMaxWaitSeconds;
+    }
+
+    public int getResourcesQueueMaxAttempts() {
+        return resourcesQueueMaxAttempts;
+    }
+}
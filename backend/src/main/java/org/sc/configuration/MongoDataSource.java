@@ -5,10 +5,12 @@ import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.event.CommandListener;
 import org.apache.logging.log4j.Logger;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.codecs.pojo.PojoCodecProvider;
 import org.hikit.common.datasource.Datasource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 
@@ -25,8 +27,12 @@ public class MongoDataSource implements Datasource {
     private final String databaseName;
     private final MongoClient mongoClient;
 
+    /**
+     * @param commandListeners notified of every command sent to the database, if any is declared
+     */
     @Autowired
-    public MongoDataSource(final AppProperties appProperties) {
+    public MongoDataSource(final AppProperties appProperties,
+                           final ObjectProvider<CommandListener> commandListeners) {
         this.databaseName = appProperties.getDbName();
         LOGGER.info(format("Setting connection to DB '%s'. Connection String: '%s'",
                 databaseName, appProperties.getMongoDbUri()));
@@ -34,13 +40,13 @@ public class MongoDataSource implements Datasource {
                 fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
                 fromProviders(PojoCodecProvider.builder().automatic(true)
                         .register("org.sc.data.model").build()));
-        final MongoClientSettings mongoSettings = MongoClientSettings.
+        final MongoClientSettings.Builder mongoSettings = MongoClientSettings.
                 builder()
                 .codecRegistry(pojoCodecRegistry)
                 .applyConnectionString(
-                        new ConnectionString(appProperties.getMongoDbUri()))
-                .build();
-        this.mongoClient = MongoClients.create(mongoSettings);
+                        new ConnectionString(appProperties.getMongoDbUri()));
+        commandListeners.orderedStream().forEach(mongoSettings::addCommandListener);
+        this.mongoClient = MongoClients.create(mongoSettings.build());
     }
 
     public MongoClient getClient() {
@@ -1,12 +1,18 @@
 package org.sc.configuration;
 
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import org.apache.logging.log4j.Logger;
+import org.bson.Document;
 import org.hikit.common.datasource.Datasource;
 import org.sc.configuration.tenant.InstanceRegister;
 import org.sc.data.model.AccessibilityNotification;
+import org.sc.data.model.Announcement;
+import org.sc.data.model.Maintenance;
 import org.sc.data.model.Place;
+import org.sc.data.model.RecordDetails;
+import org.sc.data.model.ResourceEntry;
 import org.sc.data.model.Trail;
 import org.sc.data.repository.TrailDatasetVersionDao;
 import org.sc.util.FileManagementUtil;
@@ -20,6 +26,9 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.apache.logging.log4j.LogManager.getLogger;
+import static org.sc.data.repository.KeysetPagination.ID_FIELD;
+import static org.sc.data.repository.MongoUtils.$_EXISTS;
+import static org.sc.data.repository.MongoUtils.DOT;
 
 @Component
 public class StartupChecker {
@@ -49,6 +58,7 @@ public class StartupChecker {
         configureDir(fileManagementUtil.getTrailKmlStoragePath(), "Could not create trail/kml folder");
         configureDir(fileManagementUtil.getTrailPdfStoragePath(), "Could not create trail/pdf folder");
         configureDir(fileManagementUtil.getTrailCsvStoragePath(), "Could not create trail/csv folder");
+        configureDir(fileManagementUtil.getTileCachePath(), "Could not create tiles folder");
 
         instanceRegister.register(
                 appProperties.getInstanceId(),
@@ -74,15 +84,43 @@ public class StartupChecker {
                 .createIndex(Indexes.geo2dsphere(Place.POINTS));
         final String trailGeoIndex = db.getCollection(Trail.COLLECTION_NAME)
                 .createIndex(Indexes.geo2dsphere(Trail.GEO_LINE));
+        // Hinted by the geo queries, which then test the bounding box and the full geoLine on what it finds
+        final String trailSimplifiedGeoIndex = db.getCollection(Trail.COLLECTION_NAME)
+                .createIndex(Indexes.geo2dsphere(Trail.GEO_LINE_SIMPLIFIED));
 
         final String notificationGeoIndex = db.getCollection(AccessibilityNotification.COLLECTION_NAME)
                 .createIndex(Indexes.geo2dsphere(AccessibilityNotification.COORDINATES));
 
+        // One pending regeneration record per trail, records created before the queue coalesced them aside
+        final String resourcePendingIndex = db.getCollection(ResourceEntry.COLLECTION_NAME)
+                .createIndex(Indexes.ascending(ResourceEntry.REALM, ResourceEntry.TARGETING_TRAIL, ResourceEntry.LEASE_OWNER),
+                        new IndexOptions().unique(true)
+                                .partialFilterExpression(new Document(ResourceEntry.REALM,
+                                        new Document($_EXISTS, true))));
+        final String resourceDueIndex = db.getCollection(ResourceEntry.COLLECTION_NAME)
+                .createIndex(Indexes.ascending(ResourceEntry.REALM, ResourceEntry.DUE_ON));
+
+        // Sort keys of the pages read after a continuation token, walked backwards by the descending ones
+        final String trailCodeIndex = db.getCollection(Trail.COLLECTION_NAME)
+                .createIndex(Indexes.ascending(Trail.CODE, ID_FIELD));
+        final String maintenanceDateIndex = db.getCollection(Maintenance.COLLECTION_NAME)
+                .createIndex(Indexes.ascending(Maintenance.DATE, ID_FIELD));
+        final String notificationReportDateIndex = db.getCollection(AccessibilityNotification.COLLECTION_NAME)
+                .createIndex(Indexes.ascending(AccessibilityNotification.REPORT_DATE, ID_FIELD));
+        final String announcementUploadedOnIndex = db.getCollection(Announcement.COLLECTION_NAME)
+                .createIndex(Indexes.ascending(Announcement.RECORD_DETAILS + DOT + RecordDetails.UPLOADED_ON, ID_FIELD));
 
         Arrays.asList(
                 List.of(pointGeoIndex, Place.COLLECTION_NAME),
                 List.of(trailGeoIndex, Trail.COLLECTION_NAME),
-                List.of(notificationGeoIndex, Trail.COLLECTION_NAME))
+                List.of(trailSimplifiedGeoIndex, Trail.COLLECTION_NAME),
+                List.of(notificationGeoIndex, Trail.COLLECTION_NAME),
+                List.of(resourcePendingIndex, ResourceEntry.COLLECTION_NAME),
+                List.of(resourceDueIndex, ResourceEntry.COLLECTION_NAME),
+                List.of(trailCodeIndex, Trail.COLLECTION_NAME),
+                List.of(maintenanceDateIndex, Maintenance.COLLECTION_NAME),
+                List.of(notificationReportDateIndex, AccessibilityNotification.COLLECTION_NAME),
+                List.of(announcementUploadedOnIndex, Announcement.COLLECTION_NAME))
                 .forEach(
                         (indexArr) -> LOGGER.info("Ensured pointGeoIndex name " + indexArr.get(0) +
                                 " for collection: `" + indexArr.get(1) + "`")
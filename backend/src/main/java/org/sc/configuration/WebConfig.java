@@ -2,7 +2,10 @@ package org.sc.configuration;
 
 import org.apache.logging.log4j.Logger;
 import org.sc.controller.MediaController;
+import org.sc.controller.StaticFileHandler;
 import org.sc.controller.TrailController;
+import org.sc.controller.TrailPreviewController;
+import org.sc.controller.TrailPreviewETagInterceptor;
 import org.sc.controller.admin.AdminTrailImporterController;
 import org.sc.manager.MediaManager;
 import org.sc.manager.TrailFileManager;
@@ -11,12 +14,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.servlet.ServletListenerRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 
-import java.io.File;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static org.apache.logging.log4j.LogManager.getLogger;
 
@@ -27,12 +33,23 @@ public class WebConfig implements WebMvcConfigurer {
 
     private final FileManagementUtil fileManagementUtil;
     private final AppProperties appProperties;
+    private final TrailPreviewETagInterceptor trailPreviewETagInterceptor;
 
     @Autowired
     public WebConfig(final FileManagementUtil fileManagementUtil,
-                     final AppProperties appProperties) {
+                     final AppProperties appProperties,
+                     final TrailPreviewETagInterceptor trailPreviewETagInterceptor) {
         this.fileManagementUtil = fileManagementUtil;
         this.appProperties = appProperties;
+        this.trailPreviewETagInterceptor = trailPreviewETagInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        // Only the preview endpoints served from the preview cache
+        registry.addInterceptor(trailPreviewETagInterceptor)
+                .addPathPatterns(TrailPreviewController.PREFIX,
+                        TrailPreviewController.PREFIX + TrailPreviewController.FIND_BY_NAME + "/**");
     }
 
     @Bean
@@ -40,49 +57,26 @@ public class WebConfig implements WebMvcConfigurer {
         return new ServletListenerRegistrationBean<>(new HttpSessionEventPublisher());
     }
 
-    @Override
-    public void addResourceHandlers(final ResourceHandlerRegistry registry) {
-        final String mediaEndpoint = MediaController.PREFIX + "/" + MediaManager.MEDIA_MID + "/**";
-        final String mediaStoragePath = fileManagementUtil.getMediaStoragePath();
-        registry.addResourceHandler(mediaEndpoint)
-                .addResourceLocations("file:" + mediaStoragePath)
-                .setCachePeriod(appProperties.getResourcesCachePeriod())
-                .resourceChain(true)
-                .addResolver(new EncodedResourceResolver());
-
-        LOGGER.info(String.format("Media endpoint: %s -> %s", mediaEndpoint, mediaStoragePath));
-
-        final String gpxEndpoint = TrailController.PREFIX + "/" + TrailFileManager.GPX_TRAIL_MID + "/**";
-        final String trailGpxStoragePath = fileManagementUtil.getTrailGpxStoragePath();
-
-        registry.addResourceHandler(gpxEndpoint)
-                .addResourceLocations("file:" + trailGpxStoragePath)
-                .setCachePeriod(appProperties.getResourcesCachePeriod())
-                .resourceChain(true)
-                .addResolver(new EncodedResourceResolver());
-
-        LOGGER.info(String.format("GPX endpoint: %s -> %s", gpxEndpoint, trailGpxStoragePath));
-
-        final String kmlEndpoint = TrailController.PREFIX + "/" + TrailFileManager.KML_TRAIL_MID + "/**";
-        final String trailKmlStoragePath = fileManagementUtil.getTrailKmlStoragePath();
-
-        registry.addResourceHandler(kmlEndpoint)
-                .addResourceLocations("file:" + trailKmlStoragePath)
-                .setCachePeriod(appProperties.getResourcesCachePeriod())
-                .resourceChain(true)
-                .addResolver(new EncodedResourceResolver());
-
-        LOGGER.info(String.format("KML endpoint: %s -> %s", kmlEndpoint, trailKmlStoragePath));
-
-        final String pdfEndpoint = TrailController.PREFIX + "/" + TrailFileManager.PDF_TRAIL_MID + "/**";
-        final String trailPdfStoragePath = fileManagementUtil.getTrailPdfStoragePath();
-
-        registry.addResourceHandler(pdfEndpoint)
-                .addResourceLocations("file:" + trailPdfStoragePath)
-                .setCachePeriod(appProperties.getResourcesCachePeriod())
-                .resourceChain(true)
-                .addResolver(new EncodedResourceResolver());
+    @Bean
+    public SimpleUrlHandlerMapping staticFileHandlerMapping() {
+        final Map<String, StaticFileHandler> handlers = new LinkedHashMap<>();
+        addStaticFileHandler(handlers, "Media", MediaController.PREFIX + "/" + MediaManager.MEDIA_MID + "/**",
+                fileManagementUtil.getMediaStoragePath());
+        addStaticFileHandler(handlers, "GPX", TrailController.PREFIX + "/" + TrailFileManager.GPX_TRAIL_MID + "/**",
+                fileManagementUtil.getTrailGpxStoragePath());
+        addStaticFileHandler(handlers, "KML", TrailController.PREFIX + "/" + TrailFileManager.KML_TRAIL_MID + "/**",
+                fileManagementUtil.getTrailKmlStoragePath());
+        addStaticFileHandler(handlers, "PDF", TrailController.PREFIX + "/" + TrailFileManager.PDF_TRAIL_MID + "/**",
+                fileManagementUtil.getTrailPdfStoragePath());
+        // Ahead of the controllers, whose mappings share the prefixes
+        return new SimpleUrlHandlerMapping(handlers, Ordered.HIGHEST_PRECEDENCE);
+    }
 
-        LOGGER.info(String.format("PDF endpoint: %s -> %s", pdfEndpoint, trailPdfStoragePath));
+    private void addStaticFileHandler(final Map<String, StaticFileHandler> handlers,
+                                      final String name,
+                                      final String endpoint,
+                                      final String storagePath) {
+        handlers.put(endpoint, new StaticFileHandler(Paths.get(storagePath), appProperties.getResourcesCachePeriod()));
+        LOGGER.info(String.format("%s endpoint: %s -> %s", name, endpoint, storagePath));
     }
 }
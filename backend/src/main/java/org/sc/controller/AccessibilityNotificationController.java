@@ -8,15 +8,21 @@ import org.sc.common.rest.Status;
 import org.sc.common.rest.response.AccessibilityResponse;
 import org.sc.common.rest.response.CountResponse;
 import org.sc.controller.response.AccessibilityIssueResponseHelper;
+import org.sc.data.repository.KeysetPage;
+import org.sc.data.repository.KeysetPagination;
 import org.sc.manager.AccessibilityNotificationManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ;
 import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
+import static org.sc.controller.response.KeysetResponses.INVALID_CONTINUATION_TOKEN;
+import static org.sc.controller.response.KeysetResponses.withContinuationToken;
 import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 
 @RestController
@@ -60,8 +66,17 @@ public class AccessibilityNotificationController {
     public AccessibilityResponse getSolved(
             @RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
             @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
-            @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm) {
+            @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
+            @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return accessibilityIssueResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<AccessibilityNotificationDto> page = accessibilityNotManager.getSolvedAfter(continuationToken, limit, realm);
+            return withContinuationToken(accessibilityIssueResponseHelper.constructResponse(emptySet(), page.getContent(),
+                    accessibilityNotManager.countSolved(realm), Constants.ZERO, limit), page);
+        }
         return accessibilityIssueResponseHelper.constructResponse(emptySet(),
                 accessibilityNotManager.getSolved(skip, limit, realm),
                 accessibilityNotManager.countSolved(realm), skip, limit);
@@ -86,8 +101,17 @@ public class AccessibilityNotificationController {
     public AccessibilityResponse getNotSolved(
             @RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
             @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
-            @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm) {
+            @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
+            @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return accessibilityIssueResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<AccessibilityNotificationDto> page = accessibilityNotManager.getUnresolvedAfter(continuationToken, limit, realm);
+            return withContinuationToken(accessibilityIssueResponseHelper.constructResponse(emptySet(), page.getContent(),
+                    accessibilityNotManager.countNotSolved(realm), Constants.ZERO, limit), page);
+        }
         return accessibilityIssueResponseHelper.constructResponse(emptySet(),
                 accessibilityNotManager.getUnresolved(skip, limit, realm),
                 accessibilityNotManager.countNotSolved(realm), skip, limit);
@@ -7,6 +7,9 @@ import org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ
 import org.sc.controller.AnnouncementController.Companion.PREFIX
 import org.sc.controller.admin.Constants
 import org.sc.controller.response.AnnouncementResponseHelper
+import org.sc.controller.response.KeysetResponses.INVALID_CONTINUATION_TOKEN
+import org.sc.controller.response.KeysetResponses.withContinuationToken
+import org.sc.data.repository.KeysetPagination
 import org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN
 import org.sc.service.AnnouncementService
 import org.springframework.beans.factory.annotation.Autowired
@@ -37,8 +40,24 @@ class AnnouncementController @Autowired constructor(
     fun get(
         @RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) skip: Int,
         @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) limit: Int,
-        @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) realm: String
+        @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) realm: String,
+        @RequestParam(required = false) continuationToken: String?
     ): AnnouncementResponse {
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return announcementResponseHelper.constructResponse(
+                    setOf(INVALID_CONTINUATION_TOKEN),
+                    emptyList(), 0, skip, limit
+                )
+            }
+            val page = announcementService.getAfter(continuationToken, limit, realm)
+            return withContinuationToken(
+                announcementResponseHelper.constructResponse(
+                    emptySet(),
+                    page.content, page.content.size.toLong(), 0, limit
+                ), page
+            )
+        }
         val retrieved = announcementService.get(skip, limit, realm)
         return announcementResponseHelper.constructResponse(
             emptySet(),
@@ -55,7 +55,7 @@ public class GeoToolsController {
         if (!errors.isEmpty()) {
             return Collections.emptyList();
         }
-        return coordinatesDtoList.stream().map(it -> geoToolManager.getCoordinateByLongLat(it.getLatitude(), it.getLongitude())).collect(Collectors.toList());
+        return geoToolManager.getCoordinatesByLongLat(coordinatesDtoList);
     }
 
     @Operation(summary = "Find coordinates distance")
@@ -18,9 +18,12 @@ import org.sc.controller.response.TrailResponseHelper;
 import org.sc.data.validator.GeneralValidator;
 import org.sc.manager.TrailIntersectionManager;
 import org.sc.manager.TrailManager;
+import org.sc.manager.TrailTileManager;
 import org.sc.processor.TrailSimplifierLevel;
+import org.sc.processor.tile.TileKey;
 import org.sc.service.TrailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -36,6 +39,7 @@ import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
 public class GeoTrailController {
 
     public final static String PREFIX = "/geo-trail";
+    public final static String MVT_MEDIA_TYPE = "application/vnd.mapbox-vector-tile";
 
     private final TrailManager trailManager;
     private final TrailIntersectionManager trailIntersectionManager;
@@ -45,6 +49,7 @@ public class GeoTrailController {
     private final ControllerPagination controllerPagination;
     private final TrailPreviewResponseHelper trailPreviewRespHelper;
     private final TrailService trailService;
+    private final TrailTileManager trailTileManager;
 
     @Autowired
     public GeoTrailController(final TrailManager trailManager,
@@ -54,7 +59,8 @@ public class GeoTrailController {
                               final TrailResponseHelper trailResponseHelper,
                               final TrailPreviewResponseHelper trailPreviewResponseHelper,
                               final ControllerPagination controllerPagination,
-                              final TrailService trailService) {
+                              final TrailService trailService,
+                              final TrailTileManager trailTileManager) {
         this.trailManager = trailManager;
         this.trailIntersectionManager = trailIntersectionManager;
         this.trailIntersectionHelper = trailIntersectionHelper;
@@ -63,6 +69,7 @@ public class GeoTrailController {
         this.controllerPagination = controllerPagination;
         this.trailPreviewRespHelper = trailPreviewResponseHelper;
         this.trailService = trailService;
+        this.trailTileManager = trailTileManager;
     }
 
     @Operation(summary = "Find all existing trail intersections for a given multi-coordinate line")
@@ -112,5 +119,15 @@ public class GeoTrailController {
         final List<TrailMappingDto> dtos = trailManager.findTrailMappingsWithinRectangle(rectangleDto);
         return trailPreviewRespHelper.constructMappingResponse(errors, dtos, dtos.size(), 0, 100);
     }
-}
 
+    @Operation(summary = "Retrieve the public trails within a map tile, encoded as a Mapbox Vector Tile")
+    @GetMapping(value = "/tiles/{z}/{x}/{y}.mvt", produces = MVT_MEDIA_TYPE)
+    public ResponseEntity<byte[]> getTrailTile(@PathVariable int z,
+                                               @PathVariable int x,
+                                               @PathVariable int y) {
+        if (!TileKey.isValid(z, x, y)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(trailTileManager.getTile(new TileKey(z, x, y)));
+    }
+}
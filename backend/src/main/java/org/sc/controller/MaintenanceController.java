@@ -2,11 +2,14 @@ package org.sc.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import org.sc.common.rest.CountDto;
+import org.sc.common.rest.MaintenanceDto;
 import org.sc.common.rest.Status;
 import org.sc.common.rest.response.CountResponse;
 import org.sc.common.rest.response.MaintenanceResponse;
 import org.hikit.common.response.ControllerPagination;
 import org.sc.controller.response.MaintenanceResponseHelper;
+import org.sc.data.repository.KeysetPage;
+import org.sc.data.repository.KeysetPagination;
 import org.sc.manager.MaintenanceManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -14,9 +17,13 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Collections;
 import java.util.logging.Logger;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ;
 import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
+import static org.sc.controller.response.KeysetResponses.INVALID_CONTINUATION_TOKEN;
+import static org.sc.controller.response.KeysetResponses.withContinuationToken;
 import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 
 @RestController
@@ -46,8 +53,17 @@ public class MaintenanceController {
     public MaintenanceResponse getFutureMaintenance(
             @RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
             @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
-            @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm) {
+            @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
+            @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return maintenanceResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<MaintenanceDto> page = maintenanceManager.getFutureAfter(continuationToken, limit, realm);
+            return withContinuationToken(maintenanceResponseHelper.constructResponse(emptySet(), page.getContent(),
+                    maintenanceManager.countFutureMaintenance(realm), Constants.ZERO, limit), page);
+        }
         return maintenanceResponseHelper
                 .constructResponse(emptySet(), maintenanceManager.getFuture(skip, limit, realm),
                         maintenanceManager.countFutureMaintenance(realm), skip, limit);
@@ -58,11 +74,20 @@ public class MaintenanceController {
     public MaintenanceResponse getPastMaintenance(
             @RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
             @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
-            @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm) {
+            @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
+            @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return maintenanceResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<MaintenanceDto> page = maintenanceManager.getPastAfter(continuationToken, limit, realm);
+            return withContinuationToken(maintenanceResponseHelper.constructResponse(emptySet(), page.getContent(),
+                    maintenanceManager.countPastMaintenance(realm), Constants.ZERO, limit), page);
+        }
         return maintenanceResponseHelper
                 .constructResponse(emptySet(), maintenanceManager.getPast(skip, limit, realm),
-                        maintenanceManager.countFutureMaintenance(realm), skip, limit);
+                        maintenanceManager.countPastMaintenance(realm), skip, limit);
     }
 
     @Operation(summary = "Retrieve past maintenance by trail ID")
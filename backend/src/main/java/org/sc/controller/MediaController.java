@@ -2,20 +2,29 @@ package org.sc.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import org.apache.commons.lang3.StringUtils;
+import org.sc.common.rest.BatchRequestDto;
 import org.sc.common.rest.MediaDto;
 import org.sc.common.rest.response.MediaResponse;
 import org.hikit.common.response.ControllerPagination;
 import org.sc.controller.response.MediaResponseHelper;
+import org.sc.data.repository.KeysetPage;
+import org.sc.data.repository.KeysetPagination;
+import org.sc.data.validator.GeneralValidator;
 import org.sc.manager.MediaManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ;
 import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
+import static org.sc.controller.response.KeysetResponses.INVALID_CONTINUATION_TOKEN;
+import static org.sc.controller.response.KeysetResponses.withContinuationToken;
 import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 
 @RestController
@@ -28,22 +37,34 @@ public class MediaController {
     private final MediaManager mediaManager;
     private final MediaResponseHelper mediaResponseHelper;
     private final ControllerPagination controllerPagination;
+    private final GeneralValidator generalValidator;
 
     @Autowired
     public MediaController(final MediaManager mediaManager,
                            final MediaResponseHelper mediaResponseHelper,
-                           final ControllerPagination controllerPagination) {
+                           final ControllerPagination controllerPagination,
+                           final GeneralValidator generalValidator) {
         this.mediaManager = mediaManager;
         this.mediaResponseHelper = mediaResponseHelper;
         this.controllerPagination = controllerPagination;
+        this.generalValidator = generalValidator;
     }
 
     @Operation(summary = "Retrieve media")
     @GetMapping
     public MediaResponse getMedia(@RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
                                                  @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
-                                                 @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm) {
+                                                 @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
+                                                 @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return mediaResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<MediaDto> page = mediaManager.getMediaAfter(continuationToken, limit, realm);
+            return withContinuationToken(mediaResponseHelper.constructResponse(emptySet(), page.getContent(),
+                    mediaManager.countMedia(realm), Constants.ZERO, limit), page);
+        }
         return mediaResponseHelper
                 .constructResponse(emptySet(), mediaManager.getMedia(skip, limit, realm),
                         mediaManager.countMedia(realm), skip, limit);
@@ -63,4 +84,17 @@ public class MediaController {
                 .constructResponse(Collections.emptySet(), medias, mediaManager.count(),
                         Constants.ZERO, Constants.ONE);
     }
+
+    @Operation(summary = "Retrieve media by IDs, in the order of the IDs")
+    @PostMapping("/batch")
+    public MediaResponse getByIds(@RequestBody BatchRequestDto batchRequest) {
+        final Set<String> errors = generalValidator.validate(batchRequest);
+        if (!errors.isEmpty()) {
+            return mediaResponseHelper.constructResponse(errors, emptyList(),
+                    0, Constants.ZERO, batchRequest.getIds().size());
+        }
+        final List<MediaDto> medias = mediaManager.getByIds(batchRequest.getIds());
+        return mediaResponseHelper.constructResponse(emptySet(), medias,
+                medias.size(), Constants.ZERO, batchRequest.getIds().size());
+    }
 }
@@ -1,21 +1,32 @@
 package org.sc.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import org.sc.common.rest.BatchRequestDto;
 import org.sc.common.rest.CountDto;
+import org.sc.common.rest.PoiDto;
 import org.sc.common.rest.Status;
 import org.sc.common.rest.response.CountResponse;
 import org.sc.common.rest.response.PoiResponse;
 import org.hikit.common.response.ControllerPagination;
 import org.sc.controller.response.PoiResponseHelper;
+import org.sc.data.repository.KeysetPage;
+import org.sc.data.repository.KeysetPagination;
+import org.sc.data.validator.GeneralValidator;
 import org.sc.manager.PoiManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ;
 import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
+import static org.sc.controller.response.KeysetResponses.INVALID_CONTINUATION_TOKEN;
+import static org.sc.controller.response.KeysetResponses.withContinuationToken;
 import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 
 @RestController
@@ -27,14 +38,17 @@ public class POIController {
     private final PoiManager poiManager;
     private final PoiResponseHelper poiResponseHelper;
     private final ControllerPagination controllerPagination;
+    private final GeneralValidator generalValidator;
 
     @Autowired
     public POIController(final PoiManager poiManager,
                          final PoiResponseHelper poiResponseHelper,
-                         final ControllerPagination controllerPagination) {
+                         final ControllerPagination controllerPagination,
+                         final GeneralValidator generalValidator) {
         this.poiManager = poiManager;
         this.poiResponseHelper = poiResponseHelper;
         this.controllerPagination = controllerPagination;
+        this.generalValidator = generalValidator;
     }
 
     @Operation(summary = "Count all POIs in DB")
@@ -48,8 +62,17 @@ public class POIController {
     @GetMapping
     public PoiResponse get(@RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
                            @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
-                           @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm) {
+                           @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
+                           @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return poiResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<PoiDto> page = poiManager.getPoiAfter(continuationToken, limit, realm);
+            return withContinuationToken(poiResponseHelper.constructResponse(emptySet(), page.getContent(),
+                    poiManager.countByRealm(realm), Constants.ZERO, limit), page);
+        }
         return poiResponseHelper.constructResponse(emptySet(), poiManager.getPoiPaginated(skip, limit, realm),
                 poiManager.countByRealm(realm), skip, limit);
     }
@@ -61,6 +84,19 @@ public class POIController {
                 poiManager.count(), Constants.ZERO, Constants.ONE);
     }
 
+    @Operation(summary = "Retrieve POIs by IDs, in the order of the IDs")
+    @PostMapping("/batch")
+    public PoiResponse getByIds(@RequestBody BatchRequestDto batchRequest) {
+        final Set<String> errors = generalValidator.validate(batchRequest);
+        if (!errors.isEmpty()) {
+            return poiResponseHelper.constructResponse(errors, emptyList(),
+                    0, Constants.ZERO, batchRequest.getIds().size());
+        }
+        final List<PoiDto> pois = poiManager.getByIds(batchRequest.getIds());
+        return poiResponseHelper.constructResponse(emptySet(), pois,
+                pois.size(), Constants.ZERO, batchRequest.getIds().size());
+    }
+
     @Operation(summary = "Retrieve POI by trail id")
     @GetMapping("/trail/{id}")
     public PoiResponse getByTrail(@PathVariable String id,
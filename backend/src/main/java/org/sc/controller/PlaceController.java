@@ -5,6 +5,8 @@ import org.sc.common.rest.*;
 import org.sc.common.rest.response.PlaceResponse;
 import org.hikit.common.response.ControllerPagination;
 import org.sc.controller.response.PlaceResponseHelper;
+import org.sc.data.repository.KeysetPage;
+import org.sc.data.repository.KeysetPagination;
 import org.sc.data.validator.*;
 import org.sc.manager.PlaceManager;
 import org.sc.service.PlaceService;
@@ -16,8 +18,11 @@ import java.util.Set;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ;
 import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
+import static org.sc.controller.response.KeysetResponses.INVALID_CONTINUATION_TOKEN;
+import static org.sc.controller.response.KeysetResponses.withContinuationToken;
 import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 
 @RestController
@@ -48,8 +53,17 @@ public class PlaceController {
     public PlaceResponse get(@RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
                              @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
                              @RequestParam(required = false) Boolean isDynamicShowing,
-                             @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm) {
+                             @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
+                             @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return placeResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<PlaceDto> page = placeService.fetchAfter(continuationToken, limit, realm, isDynamicShowing);
+            return withContinuationToken(placeResponseHelper.constructResponse(emptySet(), page.getContent(),
+                    placeService.countByRealm(realm, isDynamicShowing), Constants.ZERO, limit), page);
+        }
         return placeResponseHelper.constructResponse(emptySet(),
                 placeService.fetchPaginated(skip, limit, realm, isDynamicShowing),
                 placeService.countByRealm(realm, isDynamicShowing), skip, limit);
@@ -64,6 +78,19 @@ public class PlaceController {
                 Constants.ZERO, Constants.ONE);
     }
 
+    @Operation(summary = "Retrieve places by IDs, in the order of the IDs")
+    @PostMapping("/batch")
+    public PlaceResponse getByIds(@RequestBody BatchRequestDto batchRequest) {
+        final Set<String> errors = generalValidator.validate(batchRequest);
+        if (!errors.isEmpty()) {
+            return placeResponseHelper.constructResponse(errors, emptyList(),
+                    0, Constants.ZERO, batchRequest.getIds().size());
+        }
+        final List<PlaceDto> places = placeManager.getByIds(batchRequest.getIds());
+        return placeResponseHelper.constructResponse(emptySet(), places,
+                places.size(), Constants.ZERO, batchRequest.getIds().size());
+    }
+
     @Operation(summary = "Retrieve place by alternative names or tags")
     @GetMapping("/name/{name}")
     public PlaceResponse getLikeNameOrTags(@PathVariable String name,
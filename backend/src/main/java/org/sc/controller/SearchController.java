@@ -0,0 +1,76 @@
+package org.sc.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.hikit.common.response.ControllerPagination;
+import org.sc.common.rest.response.SearchResponse;
+import org.sc.controller.response.SearchResponseHelper;
+import org.sc.data.search.SearchEntryType;
+import org.sc.data.search.SearchPage;
+import org.sc.manager.SearchManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.*;
+
+import static java.lang.String.format;
+import static org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ;
+import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
+import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
+
+@RestController
+@RequestMapping(SearchController.PREFIX)
+public class SearchController {
+
+    public final static String PREFIX = "/search";
+    public final static String UNKNOWN_TYPE_ERROR = "Unknown search result type: '%s'";
+
+    private final SearchManager searchManager;
+    private final SearchResponseHelper searchResponseHelper;
+    private final ControllerPagination controllerPagination;
+
+    @Autowired
+    public SearchController(final SearchManager searchManager,
+                            final SearchResponseHelper searchResponseHelper,
+                            final ControllerPagination controllerPagination) {
+        this.searchManager = searchManager;
+        this.searchResponseHelper = searchResponseHelper;
+        this.controllerPagination = controllerPagination;
+    }
+
+    @Operation(summary = "Search trails by code, name or location names and places by name or tags, best matches first")
+    @GetMapping
+    public SearchResponse search(@RequestParam String query,
+                                 @RequestParam(required = false) String types,
+                                 @RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
+                                 @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
+                                 @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
+                                 @RequestParam(defaultValue = "false") boolean isDraftTrailVisible) {
+        controllerPagination.checkSkipLim(skip, limit);
+        final Set<String> errors = new HashSet<>();
+        final Set<SearchEntryType> selectedTypes = parseTypes(types, errors);
+        if (!errors.isEmpty()) {
+            return searchResponseHelper.constructResponse(errors, Collections.emptyList(), 0, skip, limit);
+        }
+        final SearchPage page = searchManager.search(query, selectedTypes, realm, isDraftTrailVisible, skip, limit);
+        return searchResponseHelper.constructResponse(Collections.emptySet(),
+                searchManager.toResults(page), page.getTotalCount(), skip, limit);
+    }
+
+    private Set<SearchEntryType> parseTypes(final String types, final Set<String> errors) {
+        if (types == null || types.isBlank()) {
+            return EnumSet.allOf(SearchEntryType.class);
+        }
+        final Set<SearchEntryType> selectedTypes = EnumSet.noneOf(SearchEntryType.class);
+        Arrays.stream(types.split(",")).map(String::trim).filter(type -> !type.isEmpty()).forEach(type -> {
+            try {
+                selectedTypes.add(SearchEntryType.valueOf(type.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                errors.add(format(UNKNOWN_TYPE_ERROR, type));
+            }
+        });
+        return selectedTypes;
+    }
+}
@@ -0,0 +1,280 @@
+package org.sc.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serves the files of a storage directory.
+ * <p>
+ * Files are tagged with a strong ETag made of their size and modification time, answer
+ * single byte-range requests and, when the client accepts it, are served from a
+ * precompressed {@code .br} or {@code .gz} variant written next to them, unless older.
+ * The bytes are handed to Tomcat sendfile when the connector supports it, and
+ * otherwise transferred from the file channel.
+ */
+public class StaticFileHandler implements HttpRequestHandler {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String BYTES_UNIT = "bytes";
+    private static final String WEAK_PREFIX = "W/";
+
+    // Preferred first
+    private static final Map<String, String> ENCODED_VARIANTS = new LinkedHashMap<>();
+
+    static {
+        ENCODED_VARIANTS.put("br", ".br");
+        ENCODED_VARIANTS.put("gzip", ".gz");
+    }
+
+    private final Path root;
+    private final String cacheControl;
+
+    public StaticFileHandler(final Path root, final int cachePeriodSeconds) {
+        this.root = root.toAbsolutePath().normalize();
+        this.cacheControl = "max-age=" + cachePeriodSeconds;
+    }
+
+    @Override
+    public void handleRequest(final HttpServletRequest request,
+                              final HttpServletResponse response) throws IOException {
+        final boolean isHead = HttpMethod.HEAD.matches(request.getMethod());
+        if (!isHead && !HttpMethod.GET.matches(request.getMethod())) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        final Path file = resolve(request);
+        if (file == null || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        final String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        final BasicFileAttributes originalAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+        // Ranges are always of the identity encoding
+        final String encoding = rangeHeader == null ? findEncoding(request, file, originalAttributes) : null;
+        final Path served = encoding == null ? file : variantOf(file, encoding);
+        final BasicFileAttributes attributes = encoding == null ? originalAttributes :
+                Files.readAttributes(served, BasicFileAttributes.class);
+
+        final long size = attributes.size();
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        final String eTag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) +
+                (encoding == null ? "" : "-" + encoding) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES_UNIT);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (isNotModified(request, eTag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+
+        long start = 0;
+        long end = size - 1;
+        if (rangeHeader != null && isRangeApplicable(request, eTag, lastModified)) {
+            final long[] range = parseRange(rangeHeader, size);
+            if (range != null && range.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range != null) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " " + start + "-" + end + "/" + size);
+            }
+        }
+
+        final long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if (isHead || length == 0) {
+            return;
+        }
+        send(request, response, served, start, length);
+    }
+
+    private Path resolve(final HttpServletRequest request) {
+        final Object pathWithinMapping = request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        if (pathWithinMapping == null) {
+            return null;
+        }
+        final String relativePath = pathWithinMapping.toString();
+        // Hidden files are the ones still being written
+        if (relativePath.isEmpty() || relativePath.startsWith(".") || relativePath.contains("/.")) {
+            return null;
+        }
+        final Path file = root.resolve(relativePath).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    private String findEncoding(final HttpServletRequest request,
+                                final Path file,
+                                final BasicFileAttributes attributes) throws IOException {
+        final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return null;
+        }
+        for (final String encoding : ENCODED_VARIANTS.keySet()) {
+            if (!accepts(acceptEncoding, encoding)) {
+                continue;
+            }
+            final Path variant = variantOf(file, encoding);
+            // A variant older than the file is left over from a previous version of it
+            if (Files.isRegularFile(variant) &&
+                    Files.getLastModifiedTime(variant).compareTo(attributes.lastModifiedTime()) >= 0) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    private static Path variantOf(final Path file, final String encoding) {
+        return file.resolveSibling(file.getFileName() + ENCODED_VARIANTS.get(encoding));
+    }
+
+    private static boolean accepts(final String acceptEncoding, final String encoding) {
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(token -> {
+                    final String[] parts = token.split(";");
+                    if (!parts[0].trim().equalsIgnoreCase(encoding)) {
+                        return false;
+                    }
+                    return Arrays.stream(parts).skip(1).map(String::trim)
+                            .noneMatch(parameter -> parameter.matches("q=0(\\.0*)?"));
+                });
+    }
+
+    private static boolean isNotModified(final HttpServletRequest request, final String eTag, final long lastModified) {
+        final String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+                    .anyMatch(tag -> tag.equals(eTag) || tag.equals("*"));
+        }
+        final long ifModifiedSince = getDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        // Header dates are in seconds
+        return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * A range is only honoured if the client's copy, per If-Range, is still the current one.
+     */
+    private static boolean isRangeApplicable(final HttpServletRequest request, final String eTag, final long lastModified) {
+        final String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.trim().startsWith("\"")) {
+            return ifRange.trim().equals(eTag);
+        }
+        final long ifRangeDate = getDateHeader(request, HttpHeaders.IF_RANGE);
+        return ifRangeDate != -1 && lastModified / 1000 <= ifRangeDate / 1000;
+    }
+
+    private static long getDateHeader(final HttpServletRequest request, final String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (final IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the first and last byte of a single range, an empty array if it is not
+     * satisfiable, or null to serve the whole file: malformed and multiple ranges are ignored
+     */
+    static long[] parseRange(final String rangeHeader, final long size) {
+        final String prefix = BYTES_UNIT + "=";
+        if (!rangeHeader.startsWith(prefix) || rangeHeader.contains(",")) {
+            return null;
+        }
+        final String range = rangeHeader.substring(prefix.length()).trim();
+        final int dash = range.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            final String first = range.substring(0, dash).trim();
+            final String last = range.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last n bytes
+                final long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0 || size == 0) {
+                    return new long[0];
+                }
+                return new long[]{Math.max(size - suffixLength, 0), size - 1};
+            }
+            final long start = Long.parseLong(first);
+            final long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start < 0 || !last.isEmpty() && Long.parseLong(last) < start) {
+                return null;
+            }
+            return start >= size ? new long[0] : new long[]{start, end};
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void send(final HttpServletRequest request,
+                             final HttpServletResponse response,
+                             final Path file,
+                             final long start,
+                             final long length) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Written by the connector once the request is handled, end excluded
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                final long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.sc.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import org.sc.common.rest.BatchRequestDto;
 import org.sc.common.rest.CountDto;
 import org.sc.common.rest.Status;
 import org.sc.common.rest.TrailDto;
@@ -9,6 +10,9 @@ import org.sc.common.rest.response.TrailResponse;
 import org.sc.configuration.auth.AuthFacade;
 import org.hikit.common.response.ControllerPagination;
 import org.sc.controller.response.TrailResponseHelper;
+import org.sc.data.repository.KeysetPage;
+import org.sc.data.repository.KeysetPagination;
+import org.sc.data.repository.TrailField;
 import org.sc.data.validator.GeneralValidator;
 import org.sc.service.TrailImporterService;
 import org.sc.manager.TrailManager;
@@ -18,10 +22,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+import static java.util.Collections.singleton;
 import static org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ;
 import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
+import static org.sc.controller.response.KeysetResponses.INVALID_CONTINUATION_TOKEN;
+import static org.sc.controller.response.KeysetResponses.withContinuationToken;
 import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 
 @RestController
@@ -29,6 +40,7 @@ import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 public class TrailController {
 
     public final static String PREFIX = "/trail";
+    public final static String UNKNOWN_FIELD_ERROR = "Unknown trail field: '%s'";
 
     protected final TrailManager trailManager;
     protected final GeneralValidator generalValidator;
@@ -60,33 +72,77 @@ public class TrailController {
             @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
             @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
             @RequestParam(defaultValue = "LOW") TrailSimplifierLevel level,
-            @RequestParam(defaultValue = "false") boolean isDraftTrailVisible) {
+            @RequestParam(defaultValue = "false") boolean isDraftTrailVisible,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        final Set<String> errors = new HashSet<>();
+        final Set<TrailField> selectedFields = parseFields(fields, errors);
+        if (!errors.isEmpty()) {
+            return trailResponseHelper.constructResponse(errors, Collections.emptyList(), 0, skip, limit);
+        }
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return trailResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), Collections.emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<TrailDto> page = trailManager.getAfter(continuationToken, limit, level, realm, isDraftTrailVisible, selectedFields);
+            return withContinuationToken(trailResponseHelper.constructResponse(Collections.emptySet(), page.getContent(),
+                    trailManager.count(), Constants.ZERO, limit), page);
+        }
         return trailResponseHelper
                 .constructResponse(Collections.emptySet(), trailManager.
-                                get(skip, limit, level, realm, isDraftTrailVisible),
+                                get(skip, limit, level, realm, isDraftTrailVisible, selectedFields),
                         trailManager.count(), skip, limit);
     }
 
     @Operation(summary = "Retrieve trail by ID")
     @GetMapping("/{id}")
     public TrailResponse getById(@PathVariable String id,
-                                 @RequestParam(defaultValue = "LOW") TrailSimplifierLevel level) {
+                                 @RequestParam(defaultValue = "LOW") TrailSimplifierLevel level,
+                                 @RequestParam(required = false) String fields) {
+        final Set<String> errors = new HashSet<>();
+        final Set<TrailField> selectedFields = parseFields(fields, errors);
+        if (!errors.isEmpty()) {
+            return trailResponseHelper.constructResponse(errors, Collections.emptyList(), 0,
+                    Constants.ONE, Constants.ONE);
+        }
         return trailResponseHelper
-                .constructResponse(Collections.emptySet(), trailManager.getById(id, level),
+                .constructResponse(Collections.emptySet(), trailManager.getById(id, level, selectedFields),
                         trailManager.count(),
                         Constants.ONE, Constants.ONE);
     }
 
+    @Operation(summary = "Retrieve trails by IDs, in the order of the IDs")
+    @PostMapping("/batch")
+    public TrailResponse getByIds(@RequestBody BatchRequestDto batchRequest,
+                                  @RequestParam(defaultValue = "LOW") TrailSimplifierLevel level,
+                                  @RequestParam(required = false) String fields) {
+        final Set<String> errors = new HashSet<>(generalValidator.validate(batchRequest));
+        final Set<TrailField> selectedFields = parseFields(fields, errors);
+        if (!errors.isEmpty()) {
+            return trailResponseHelper.constructResponse(errors, Collections.emptyList(), 0,
+                    Constants.ZERO, batchRequest.getIds().size());
+        }
+        final List<TrailDto> trails = trailManager.getByIds(batchRequest.getIds(), level, selectedFields);
+        return trailResponseHelper.constructResponse(Collections.emptySet(), trails, trails.size(),
+                Constants.ZERO, batchRequest.getIds().size());
+    }
+
     @Operation(summary = "Retrieve trail by place ID")
     @GetMapping("/place/{id}")
     public TrailResponse getByPlaceId(@PathVariable String id,
                                       @RequestParam(defaultValue = "LOW") String level,
                                       @RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
-                                      @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit) {
+                                      @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
+                                      @RequestParam(required = false) String fields) {
         controllerPagination.checkSkipLim(skip, limit);
+        final Set<String> errors = new HashSet<>();
+        final Set<TrailField> selectedFields = parseFields(fields, errors);
+        if (!errors.isEmpty()) {
+            return trailResponseHelper.constructResponse(errors, Collections.emptyList(), 0, skip, limit);
+        }
         final List<TrailDto> byPlaceRefId = trailManager.getByPlaceRefId(id, skip, limit,
-                TrailSimplifierLevel.valueOf(level));
+                TrailSimplifierLevel.valueOf(level), selectedFields);
         return trailResponseHelper.constructResponse(Collections.emptySet(), byPlaceRefId,
                 trailManager.count(),
                 skip, limit);
@@ -99,4 +155,26 @@ public class TrailController {
         return new CountResponse(Status.OK, Collections.emptySet(), new CountDto(count));
     }
 
+    /**
+     * Resolves a comma separated list of field names, e.g. "code,name,stats".
+     * No list means all fields.
+     */
+    private Set<TrailField> parseFields(final String fields, final Set<String> errors) {
+        if (fields == null || fields.isBlank()) {
+            return Collections.emptySet();
+        }
+        final Set<TrailField> selectedFields = EnumSet.noneOf(TrailField.class);
+        for (final String fieldName : fields.split(",")) {
+            if (fieldName.isBlank()) {
+                continue;
+            }
+            final Optional<TrailField> field = TrailField.fromApiName(fieldName);
+            if (field.isPresent()) {
+                selectedFields.add(field.get());
+            } else {
+                errors.add(String.format(UNKNOWN_FIELD_ERROR, fieldName.trim()));
+            }
+        }
+        return selectedFields;
+    }
 }
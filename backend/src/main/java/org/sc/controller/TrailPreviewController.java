@@ -1,10 +1,13 @@
 package org.sc.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import org.sc.common.rest.TrailPreviewDto;
 import org.sc.common.rest.response.TrailMappingResponse;
 import org.sc.common.rest.response.TrailPreviewResponse;
 import org.hikit.common.response.ControllerPagination;
 import org.sc.controller.response.TrailPreviewResponseHelper;
+import org.sc.data.repository.KeysetPage;
+import org.sc.data.repository.KeysetPagination;
 import org.sc.manager.TrailPreviewManager;
 import org.sc.service.TrailPreviewService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,9 +15,13 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ;
 import static org.sc.configuration.AppBoundaries.MIN_DOCS_ON_READ;
+import static org.sc.controller.response.KeysetResponses.INVALID_CONTINUATION_TOKEN;
+import static org.sc.controller.response.KeysetResponses.withContinuationToken;
 import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 
 @RestController
@@ -22,6 +29,7 @@ import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
 public class TrailPreviewController {
 
     public final static String PREFIX = "/preview";
+    public final static String FIND_BY_NAME = "/find/name";
 
     private final TrailPreviewManager trailManager;
     private final TrailPreviewResponseHelper trailPreviewResponseHelper;
@@ -44,8 +52,17 @@ public class TrailPreviewController {
     public TrailPreviewResponse getTrailPreviews(@RequestParam(required = false, defaultValue = MIN_DOCS_ON_READ) int skip,
                                                  @RequestParam(required = false, defaultValue = MAX_DOCS_ON_READ) int limit,
                                                  @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
-                                                 @RequestParam(defaultValue = "false") boolean isDraftTrailVisible) {
+                                                 @RequestParam(defaultValue = "false") boolean isDraftTrailVisible,
+                                                 @RequestParam(required = false) String continuationToken) {
         controllerPagination.checkSkipLim(skip, limit);
+        if (continuationToken != null) {
+            if (!KeysetPagination.isValid(continuationToken)) {
+                return trailPreviewResponseHelper.constructResponse(singleton(INVALID_CONTINUATION_TOKEN), emptyList(), 0, skip, limit);
+            }
+            final KeysetPage<TrailPreviewDto> page = trailPreviewService.getTrailPreviewsAfter(continuationToken, limit, realm, isDraftTrailVisible);
+            return withContinuationToken(trailPreviewResponseHelper.constructResponse(emptySet(), page.getContent(),
+                    trailManager.countPreviewByRealm(realm, isDraftTrailVisible), Constants.ZERO, limit), page);
+        }
         return trailPreviewResponseHelper
                 .constructResponse(emptySet(), trailPreviewService.getTrailPreviews(skip, limit, realm, isDraftTrailVisible),
                         trailManager.countPreviewByRealm(realm, isDraftTrailVisible), skip, limit);
@@ -110,7 +127,7 @@ public class TrailPreviewController {
     }
 
     @Operation(summary = "Retrieve trails by location name, code or trail name")
-    @GetMapping("/find/name/{name}")
+    @GetMapping(FIND_BY_NAME + "/{name}")
     public TrailPreviewResponse findByLocationOrTrailNames(
             @PathVariable(required = false) String name,
             @RequestParam(required = false, defaultValue = NO_FILTERING_TOKEN) String realm,
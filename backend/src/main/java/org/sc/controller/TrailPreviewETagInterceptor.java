@@ -0,0 +1,59 @@
+package org.sc.controller;
+
+import org.sc.manager.TrailPreviewCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+
+/**
+ * Tags cached trail preview responses with the version they are read at and with
+ * whether drafts are listed, answering 304 without running the request when the
+ * client already has it.
+ */
+@Component
+public class TrailPreviewETagInterceptor implements HandlerInterceptor {
+
+    private static final String WEAK_PREFIX = "W/";
+    private static final String DRAFT_VISIBILITY_PARAMETER = "isDraftTrailVisible";
+
+    private final TrailPreviewCache trailPreviewCache;
+
+    @Autowired
+    public TrailPreviewETagInterceptor(final TrailPreviewCache trailPreviewCache) {
+        this.trailPreviewCache = trailPreviewCache;
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request,
+                             final HttpServletResponse response,
+                             final Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        final boolean isDraftTrailVisible = Boolean.parseBoolean(request.getParameter(DRAFT_VISIBILITY_PARAMETER));
+        final String eTag = "\"" + trailPreviewCache.getCurrentVersion() +
+                (isDraftTrailVisible ? "-drafts" : "-public") + "\"";
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(final String ifNoneMatch, final String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+                .anyMatch(tag -> tag.equals(eTag) || tag.equals("*"));
+    }
+}
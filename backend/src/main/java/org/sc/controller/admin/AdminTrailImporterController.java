@@ -13,8 +13,9 @@ import org.sc.controller.response.TrailRawResponseHelper;
 import org.sc.data.validator.GeneralValidator;
 import org.sc.job.CompressImageJob;
 import org.sc.manager.TrailFileManager;
-import org.sc.processor.GpxFileHandlerHelper;
 import org.sc.service.TrailImporterService;
+import org.sc.service.TrailRawImportPipeline;
+import org.sc.service.TrailRawImportResult;
 import org.sc.util.FileProbeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -27,7 +28,6 @@ import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static java.util.Collections.*;
-import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.logging.log4j.LogManager.getLogger;
 import static org.sc.controller.Constants.ONE;
@@ -42,13 +42,15 @@ public class AdminTrailImporterController {
     private static final Logger LOGGER = getLogger(AdminTrailImporterController.class);
 
     public static final String REQUEST_CONTAINS_MISSING_NAMES_ERROR = "File is empty";
+    public static final String FILE_NOT_PROCESSED_ERROR = "%s: %s";
+    public static final String FILE_NOT_STORED_ERROR = "could not be stored for processing";
 
     private final TrailFileManager trailFileManager;
     private final TrailImporterService trailImporterService;
     private final TrailRawResponseHelper trailRawResponseHelper;
     private TrailPreviewResponseHelper trailPreviewResponseHelper;
     private final FileProbeUtil fileProbeUtil;
-    private final GpxFileHandlerHelper gpxFileHandlerHelper;
+    private final TrailRawImportPipeline trailRawImportPipeline;
     private GeneralValidator generalValidator;
     private final AuthFacade authFacade;
 
@@ -59,7 +61,7 @@ public class AdminTrailImporterController {
                                         final TrailRawResponseHelper trailRawResponseHelper,
                                         final TrailPreviewResponseHelper trailResponseHelper,
                                         final FileProbeUtil fileProbeUtil,
-                                        final GpxFileHandlerHelper gpxFileHandlerHelper,
+                                        final TrailRawImportPipeline trailRawImportPipeline,
                                         final GeneralValidator generalValidator,
                                         final AuthFacade authFacade) {
         this.trailFileManager = trailFileManager;
@@ -67,7 +69,7 @@ public class AdminTrailImporterController {
         this.trailPreviewResponseHelper = trailResponseHelper;
         this.fileProbeUtil = fileProbeUtil;
         this.trailRawResponseHelper = trailRawResponseHelper;
-        this.gpxFileHandlerHelper = gpxFileHandlerHelper;
+        this.trailRawImportPipeline = trailRawImportPipeline;
         this.generalValidator = generalValidator;
         this.authFacade = authFacade;
     }
@@ -120,39 +122,21 @@ public class AdminTrailImporterController {
 
         warnOnGpxMimeMismatch(originalFileNamesToExistingPaths);
 
-        final Map<String, Path> gpxValidFiles = originalFileNamesToExistingPaths
-                .entrySet().stream()
-                .filter(nameToPath -> gpxFileHandlerHelper.canRead(nameToPath.getValue()))
-                .collect(toMap(Map.Entry::getKey,
-                        path -> originalFileNamesToExistingPaths
-                                .get(path.getKey())));
-
-
-        final List<TrailRawDto> trailRawDtos = gpxValidFiles
-                .keySet()
-                .parallelStream()
-                .map(originalFilename -> {
-                    final String uniqueFileName = trailFileManager.makeUniqueFileName(originalFilename);
-                    final Path rawGpxPath = trailFileManager.saveRawGpx(uniqueFileName, originalFileNamesToExistingPaths.get(originalFilename));
-                    return trailFileManager
-                            .getTrailRawModel(uniqueFileName, originalFilename, rawGpxPath, authData);
-                }).collect(toList());
-
-        final List<TrailRawDto> savedTrails = trailRawDtos.stream().map(
-                trailImporterService::saveRaw
-        ).collect(toList());
+        final TrailRawImportResult importResult =
+                trailRawImportPipeline.importFiles(originalFileNamesToExistingPaths, authData);
 
+        final List<TrailRawDto> savedTrails = importResult.getImported();
         final int size = savedTrails.size();
 
+        final Set<String> notProcessedFiles = importResult.getFailures().entrySet().stream()
+                .map(failure -> format(FILE_NOT_PROCESSED_ERROR, failure.getKey(), failure.getValue()))
+                .collect(Collectors.toSet());
+        originalFileNamesToTempPaths.keySet().stream()
+                .filter(originalFilename -> !originalFileNamesToExistingPaths.containsKey(originalFilename))
+                .forEach(originalFilename -> notProcessedFiles.add(
+                        format(FILE_NOT_PROCESSED_ERROR, originalFilename, FILE_NOT_STORED_ERROR)));
 
-        if (size != originalFileNamesToExistingPaths.size()) {
-            final Set<String> notProcessedFiles = findNotProcessedFiles(originalFileNamesToExistingPaths.keySet(),
-                    savedTrails.stream().map(a -> a.getFileDetails().getOriginalFilename()).collect(Collectors.toSet()));
-            return trailRawResponseHelper.constructResponse(notProcessedFiles, savedTrails, size,
-                    ZERO, size);
-        }
-
-        return trailRawResponseHelper.constructResponse(emptySet(), savedTrails, size,
+        return trailRawResponseHelper.constructResponse(notProcessedFiles, savedTrails, size,
                 ZERO, size);
     }
 
@@ -166,8 +150,4 @@ public class AdminTrailImporterController {
                 });
     }
 
-    private Set<String> findNotProcessedFiles(Set<String> initialFilenames, Set<String> savedFilenames) {
-        return initialFilenames.stream().filter(a -> !savedFilenames.contains(a)).collect(Collectors.toSet());
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package org.sc.controller.response;
+
+import org.sc.common.rest.response.RESTResponse;
+import org.sc.data.repository.KeysetPage;
+
+/**
+ * Responses of the list endpoints paged with a continuation token rather than skip: an
+ * empty token asks for the first page, and each page but the last carries the token of
+ * the next one.
+ */
+public final class KeysetResponses {
+
+    public static final String INVALID_CONTINUATION_TOKEN = "The continuation token is not valid";
+
+    private KeysetResponses() {
+    }
+
+    public static <R extends RESTResponse> R withContinuationToken(final R response,
+                                                                   final KeysetPage<?> page) {
+        response.setContinuationToken(page.getContinuationToken());
+        return response;
+    }
+}
@@ -0,0 +1,37 @@
+package org.sc.controller.response;
+
+import org.hikit.common.response.ControllerPagination;
+import org.sc.common.rest.SearchResultDto;
+import org.sc.common.rest.Status;
+import org.sc.common.rest.response.SearchResponse;
+import org.sc.controller.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class SearchResponseHelper {
+
+    private final ControllerPagination controllerPagination;
+
+    @Autowired
+    public SearchResponseHelper(final ControllerPagination controllerPagination) {
+        this.controllerPagination = controllerPagination;
+    }
+
+    public SearchResponse constructResponse(Set<String> errors,
+                                            List<SearchResultDto> dtos,
+                                            long totalCount,
+                                            int skip,
+                                            int limit) {
+        if (!errors.isEmpty()) {
+            return new SearchResponse(Status.ERROR, errors, dtos, 1L,
+                    Constants.ONE, limit, totalCount);
+        }
+        return new SearchResponse(Status.OK, errors, dtos,
+                controllerPagination.getCurrentPage(skip, limit),
+                controllerPagination.getTotalPages(totalCount, limit), limit, totalCount);
+    }
+}
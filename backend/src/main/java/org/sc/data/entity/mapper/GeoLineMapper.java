@@ -33,6 +33,39 @@ public class GeoLineMapper implements Mapper<GeoLineString> {
                 .append(GeoLineString.COORDINATES, ownCoords);
     }
 
+    /**
+     * The line through the simplified coordinates, or the given geoLine when they are too few to make one.
+     */
+    public Document mapSimplifiedToDocument(final List<TrailCoordinates> simplifiedCoordinates,
+                                            final Document geoLine) {
+        if (simplifiedCoordinates == null || simplifiedCoordinates.size() < 2) {
+            return geoLine;
+        }
+        return mapCoordsToDocument(simplifiedCoordinates);
+    }
+
+    /**
+     * The longitude and latitude bounds of the given geoLine.
+     */
+    public Document mapBoundingBoxToDocument(final Document geoLine) {
+        double minLongitude = Double.POSITIVE_INFINITY;
+        double minLatitude = Double.POSITIVE_INFINITY;
+        double maxLongitude = Double.NEGATIVE_INFINITY;
+        double maxLatitude = Double.NEGATIVE_INFINITY;
+        for (final List<?> point : geoLine.getList(GeoLineString.COORDINATES, List.class)) {
+            final double longitude = ((Number) point.get(CoordinatesWithAltitude.LONG_INDEX)).doubleValue();
+            final double latitude = ((Number) point.get(CoordinatesWithAltitude.LAT_INDEX)).doubleValue();
+            minLongitude = Math.min(minLongitude, longitude);
+            minLatitude = Math.min(minLatitude, latitude);
+            maxLongitude = Math.max(maxLongitude, longitude);
+            maxLatitude = Math.max(maxLatitude, latitude);
+        }
+        return new Document(BoundingBox.MIN_LONGITUDE, minLongitude)
+                .append(BoundingBox.MIN_LATITUDE, minLatitude)
+                .append(BoundingBox.MAX_LONGITUDE, maxLongitude)
+                .append(BoundingBox.MAX_LATITUDE, maxLatitude);
+    }
+
     public List<List<Double>> getListOfCoordinates(final List<Coordinates2D> coordinate2DS) {
         return coordinate2DS.stream().map(Coordinates2D::getAsList).collect(Collectors.toList());
     }
@@ -0,0 +1,55 @@
+package org.sc.data.entity.mapper;
+
+import org.sc.data.model.TrailCoordinates;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Trail coordinates read in their binary form, decoded the first time they are accessed:
+ * trails are often read only to be listed, with their coordinates never looked at.
+ */
+class LazyTrailCoordinatesList extends AbstractList<TrailCoordinates> {
+
+    private byte[] encoded;
+    private List<TrailCoordinates> decoded;
+
+    LazyTrailCoordinatesList(final byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    @Override
+    public TrailCoordinates get(final int index) {
+        return decoded().get(index);
+    }
+
+    @Override
+    public int size() {
+        return decoded().size();
+    }
+
+    @Override
+    public TrailCoordinates set(final int index, final TrailCoordinates element) {
+        return decoded().set(index, element);
+    }
+
+    @Override
+    public void add(final int index, final TrailCoordinates element) {
+        decoded().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public TrailCoordinates remove(final int index) {
+        modCount++;
+        return decoded().remove(index);
+    }
+
+    private List<TrailCoordinates> decoded() {
+        if (decoded == null) {
+            decoded = TrailCoordinatesCodec.decode(encoded);
+            encoded = null;
+        }
+        return decoded;
+    }
+}
@@ -17,7 +17,10 @@ public class ResourceEntryMapper implements Mapper<ResourceEntry> {
                 document.getString(ResourceEntry.TARGETING_TRAIL),
                 document.getString(ResourceEntry.ACTION),
                 document.getDate(ResourceEntry.CREATED_ON),
-                document.getString(ResourceEntry.USER_PROMPTING)
+                document.getString(ResourceEntry.USER_PROMPTING),
+                document.getString(ResourceEntry.REALM),
+                document.getDate(ResourceEntry.DUE_ON),
+                document.getInteger(ResourceEntry.REQUEST_COUNT, 1)
         );
     }
 
@@ -30,6 +33,9 @@ public class ResourceEntryMapper implements Mapper<ResourceEntry> {
                 .append(ResourceEntry.ENTRY_ID, object.getEntryId())
                 .append(ResourceEntry.CREATED_ON, object.getCreatedOn())
                 .append(ResourceEntry.ACTION, object.getAction())
-                .append(ResourceEntry.USER_PROMPTING, object.getUserPrompting());
+                .append(ResourceEntry.USER_PROMPTING, object.getUserPrompting())
+                .append(ResourceEntry.REALM, object.getRealm())
+                .append(ResourceEntry.DUE_ON, object.getDueOn())
+                .append(ResourceEntry.REQUEST_COUNT, object.getRequestCount());
     }
 }
@@ -18,7 +18,10 @@ public class StaticTrailDetailsMapper implements Mapper<StaticTrailDetails> {
         return new StaticTrailDetails(
                 document.getString(PATH_GPX),
                 document.getString(PATH_KML),
-                document.getString(PATH_PDF));
+                document.getString(PATH_PDF),
+                document.getString(DIGEST_GPX),
+                document.getString(DIGEST_KML),
+                document.getString(DIGEST_PDF));
     }
 
     @Override
@@ -27,6 +30,9 @@ public class StaticTrailDetailsMapper implements Mapper<StaticTrailDetails> {
         return new Document()
                 .append(PATH_GPX, object.getPathGpx())
                 .append(PATH_KML, object.getPathKml())
-                .append(PATH_PDF, object.getPathPdf());
+                .append(PATH_PDF, object.getPathPdf())
+                .append(DIGEST_GPX, object.getDigestGpx())
+                .append(DIGEST_KML, object.getDigestKml())
+                .append(DIGEST_PDF, object.getDigestPdf());
     }
 }
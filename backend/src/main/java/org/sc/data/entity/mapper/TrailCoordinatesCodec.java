@@ -0,0 +1,133 @@
+package org.sc.data.entity.mapper;
+
+import org.sc.data.model.TrailCoordinates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packs trail coordinates in a compact binary form, stored as a BSON Binary
+ * in place of the array of point documents.
+ * <p>
+ * After a version byte and the number of points, each point is written as the
+ * zig-zag varint deltas from the previous one of its latitude and longitude
+ * (fixed point, 1e-7 degrees), altitude (centimetres) and distance from the start (metres).
+ * Neighbouring points are close, so most deltas take one or two bytes.
+ */
+public final class TrailCoordinatesCodec {
+
+    public static final byte VERSION = 1;
+
+    static final double DEGREES_SCALE = 1e7;
+    static final double ALTITUDE_SCALE = 100;
+
+    private TrailCoordinatesCodec() {
+    }
+
+    public static byte[] encode(final List<TrailCoordinates> coordinates) {
+        final Writer writer = new Writer(16 + coordinates.size() * 8);
+        writer.write(VERSION);
+        writer.writeVarint(coordinates.size());
+        long latitude = 0, longitude = 0, altitude = 0, distance = 0;
+        for (final TrailCoordinates point : coordinates) {
+            final long pointLatitude = Math.round(point.getLatitude() * DEGREES_SCALE);
+            final long pointLongitude = Math.round(point.getLongitude() * DEGREES_SCALE);
+            final long pointAltitude = Math.round(point.getAltitude() * ALTITUDE_SCALE);
+            final long pointDistance = point.getDistanceFromTrailStart();
+            writer.writeVarint(zigZag(pointLatitude - latitude));
+            writer.writeVarint(zigZag(pointLongitude - longitude));
+            writer.writeVarint(zigZag(pointAltitude - altitude));
+            writer.writeVarint(zigZag(pointDistance - distance));
+            latitude = pointLatitude;
+            longitude = pointLongitude;
+            altitude = pointAltitude;
+            distance = pointDistance;
+        }
+        return writer.toByteArray();
+    }
+
+    public static List<TrailCoordinates> decode(final byte[] data) {
+        final Reader reader = new Reader(data);
+        final byte version = reader.read();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported trail coordinates encoding version: " + version);
+        }
+        final int size = (int) reader.readVarint();
+        final List<TrailCoordinates> coordinates = new ArrayList<>(size);
+        long latitude = 0, longitude = 0, altitude = 0, distance = 0;
+        for (int i = 0; i < size; i++) {
+            latitude += unZigZag(reader.readVarint());
+            longitude += unZigZag(reader.readVarint());
+            altitude += unZigZag(reader.readVarint());
+            distance += unZigZag(reader.readVarint());
+            coordinates.add(new TrailCoordinates(latitude / DEGREES_SCALE, longitude / DEGREES_SCALE,
+                    altitude / ALTITUDE_SCALE, (int) distance));
+        }
+        return coordinates;
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(final int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void write(final byte value) {
+            if (position == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[position++] = value;
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((byte) value);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(final byte[] data) {
+            this.data = data;
+        }
+
+        byte read() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated trail coordinates data");
+            }
+            return data[position++];
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte current = read();
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in trail coordinates data");
+        }
+    }
+}
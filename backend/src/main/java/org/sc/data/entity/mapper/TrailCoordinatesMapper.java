@@ -2,6 +2,7 @@ package org.sc.data.entity.mapper;
 
 import org.apache.logging.log4j.Logger;
 import org.bson.Document;
+import org.bson.types.Binary;
 import org.sc.data.model.Coordinates;
 import org.sc.data.model.CoordinatesWithAltitude;
 import org.sc.data.model.TrailCoordinates;
@@ -10,6 +11,8 @@ import org.springframework.stereotype.Component;
 import java.util.Arrays;
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
+
 import static org.apache.logging.log4j.LogManager.getLogger;
 
 @Component
@@ -37,4 +40,29 @@ public class TrailCoordinatesMapper implements Mapper<TrailCoordinates> {
                 .append(TrailCoordinates.ALTITUDE, object.getAltitude())
                 .append(TrailCoordinates.DISTANCE_FROM_START, object.getDistanceFromTrailStart());
     }
+
+    /**
+     * Maps a stored coordinates array, either as a list of point documents
+     * or in the binary form written by {@link #mapToBinary(List)}.
+     * The binary form is only decoded when the returned list is first accessed.
+     */
+    public List<TrailCoordinates> mapStoredToObjects(final Object stored) {
+        if (stored instanceof Binary) {
+            return new LazyTrailCoordinatesList(((Binary) stored).getData());
+        }
+        if (stored instanceof byte[]) {
+            return new LazyTrailCoordinatesList((byte[]) stored);
+        }
+        final List<?> list = (List<?>) stored;
+        return list.stream().map(point -> mapToObject((Document) point)).collect(toList());
+    }
+
+    public Binary mapToBinary(final List<TrailCoordinates> coordinates) {
+        LOGGER.trace("mapToBinary TrailCoordinates: {} points", coordinates.size());
+        return new Binary(TrailCoordinatesCodec.encode(coordinates));
+    }
+
+    public List<Document> mapToDocuments(final List<TrailCoordinates> coordinates) {
+        return coordinates.stream().map(this::mapToDocument).collect(toList());
+    }
 }
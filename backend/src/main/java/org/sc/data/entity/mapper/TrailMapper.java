@@ -2,6 +2,7 @@ package org.sc.data.entity.mapper;
 
 import org.apache.logging.log4j.Logger;
 import org.bson.Document;
+import org.sc.configuration.AppProperties;
 import org.sc.data.model.*;
 import org.sc.processor.TrailSimplifierLevel;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,7 +28,7 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
     protected final FileDetailsMapper fileDetailsMapper;
     private final StaticTrailDetailsMapper staticTrailDetailsMapper;
     private final MunicipalityDetailsMapper municipalityDetailsMapper;
-
+    private final boolean binaryCoordinates;
 
     @Autowired
     public TrailMapper(final PlaceRefMapper placeMapper,
@@ -38,7 +39,8 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
                        final CycloMapper cycloMapper,
                        final FileDetailsMapper fileDetailsMapper,
                        final StaticTrailDetailsMapper staticTrailDetailsMapper,
-                       final MunicipalityDetailsMapper municipalityDetailsMapper) {
+                       final MunicipalityDetailsMapper municipalityDetailsMapper,
+                       final AppProperties appProperties) {
         this.placeMapper = placeMapper;
         this.trailCoordinatesMapper = trailCoordinatesMapper;
         this.geoLineMapper = geoLineMapper;
@@ -48,6 +50,7 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
         this.fileDetailsMapper = fileDetailsMapper;
         this.staticTrailDetailsMapper = staticTrailDetailsMapper;
         this.municipalityDetailsMapper = municipalityDetailsMapper;
+        this.binaryCoordinates = appProperties.isTrailCoordinatesBinary();
     }
 
     @Override
@@ -83,6 +86,7 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
     @Override
     public Document mapToDocument(final Trail object) {
         LOGGER.trace("mapToDocument Trail: {} ", object);
+        final Document geoLine = getGeoLineValue(object);
         return new Document()
                 .append(NAME, object.getName())
                 .append(DESCRIPTION, object.getDescription())
@@ -99,18 +103,16 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
                 .append(VARIANT, object.isVariant())
                 .append(TERRITORIAL_CARED_BY, object.getTerritorialDivision())
                 .append(STATS_METADATA, statsTrailMapper.mapToDocument(object.getStatsTrailMetadata()))
-                .append(COORDINATES, object.getCoordinates().stream()
-                        .map(trailCoordinatesMapper::mapToDocument).collect(toList()))
-                .append(COORDINATES_LOW, object.getCoordinatesLow().stream()
-                        .map(trailCoordinatesMapper::mapToDocument).collect(toList()))
-                .append(COORDINATES_MEDIUM, object.getCoordinatesMedium().stream()
-                        .map(trailCoordinatesMapper::mapToDocument).collect(toList()))
-                .append(COORDINATES_HIGH, object.getCoordinatesHigh().stream()
-                        .map(trailCoordinatesMapper::mapToDocument).collect(toList()))
+                .append(COORDINATES, getCoordinatesValue(object.getCoordinates()))
+                .append(COORDINATES_LOW, getCoordinatesValue(object.getCoordinatesLow()))
+                .append(COORDINATES_MEDIUM, getCoordinatesValue(object.getCoordinatesMedium()))
+                .append(COORDINATES_HIGH, getCoordinatesValue(object.getCoordinatesHigh()))
                 .append(MEDIA, object.getMediaList().stream()
                         .map(linkedMediaMapper::mapToDocument)
                         .collect(toList()))
-                .append(GEO_LINE, getGeoLineValue(object))
+                .append(GEO_LINE, geoLine)
+                .append(GEO_LINE_SIMPLIFIED, geoLineMapper.mapSimplifiedToDocument(object.getCoordinatesMedium(), geoLine))
+                .append(BBOX, geoLineMapper.mapBoundingBoxToDocument(geoLine))
                 .append(CYCLO, cycloMapper.mapToDocument(object.getCycloDetails()))
                 .append(RECORD_DETAILS, fileDetailsMapper.mapToDocument(object.getFileDetails()))
                 .append(STATIC_TRAIL_DETAILS, staticTrailDetailsMapper.mapToDocument(object.getStaticTrailDetails()))
@@ -119,6 +121,10 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
                 .append(STATUS, object.getStatus().toString());
     }
 
+    /**
+     * Maps a document read with a projection: fields left out of it are left empty
+     * in the returned trail.
+     */
     @Override
     public Trail mapToObject(final Document doc,
                              final TrailSimplifierLevel precisionLevel) {
@@ -128,28 +134,36 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
                 .name(doc.getString(NAME))
                 .description(doc.getString(DESCRIPTION))
                 .code(doc.getString(CODE))
-                .startLocation(placeMapper.mapToObject(doc.get(START_POS, Document.class)))
-                .endLocation(placeMapper.mapToObject(doc.get(FINAL_POS, Document.class)))
-                .officialEta(doc.getInteger(OFFICIAL_ETA))
-                .variant(doc.getBoolean(VARIANT))
-                .locations(getLocations(doc))
-                .classification(getClassification(doc))
-                .statsTrailMetadata(TrailMapperUtil.getMetadata(doc.get(STATS_METADATA, Document.class)))
+                .startLocation(mapIfPresent(doc, START_POS, placeMapper))
+                .endLocation(mapIfPresent(doc, FINAL_POS, placeMapper))
+                .officialEta(doc.getInteger(OFFICIAL_ETA, 0))
+                .variant(doc.getBoolean(VARIANT, false))
+                .locations(doc.containsKey(LOCATIONS) ? getLocations(doc) : null)
+                .classification(doc.containsKey(CLASSIFICATION) ? getClassification(doc) : null)
+                .statsTrailMetadata(doc.containsKey(STATS_METADATA) ?
+                        TrailMapperUtil.getMetadata(doc.get(STATS_METADATA, Document.class)) : null)
                 .country(doc.getString(COUNTRY))
-                .coordinates(getCoordinatesWithAltitude(doc, precisionLevel))
+                .coordinates(doc.containsKey(getCoordinatesFieldName(precisionLevel)) ?
+                        getCoordinatesWithAltitude(doc, precisionLevel) : null)
                 .lastUpdate(getLastUpdateDate(doc))
                 .maintainingSection(doc.getString(SECTION_CARED_BY))
                 .territorialDivision(doc.getString(TERRITORIAL_CARED_BY))
-                .geoLineString(getGeoLine(doc.get(GEO_LINE, Document.class)))
-                .mediaList(getLinkedMediaMapper(doc))
-                .cycloDetails(cycloMapper.mapToObject(doc.get(CYCLO, Document.class)))
-                .fileDetails(fileDetailsMapper.mapToObject(doc.get(RECORD_DETAILS, Document.class)))
-                .staticTrailDetails(staticTrailDetailsMapper.mapToObject(doc.get(STATIC_TRAIL_DETAILS, Document.class)))
-                .status(getStatus(doc))
-                .municipalities(getMunicipalities(doc))
+                .geoLineString(doc.containsKey(GEO_LINE) ? getGeoLine(doc.get(GEO_LINE, Document.class)) : null)
+                .mediaList(doc.containsKey(MEDIA) ? getLinkedMediaMapper(doc) : null)
+                .cycloDetails(mapIfPresent(doc, CYCLO, cycloMapper))
+                .fileDetails(mapIfPresent(doc, RECORD_DETAILS, fileDetailsMapper))
+                .staticTrailDetails(mapIfPresent(doc, STATIC_TRAIL_DETAILS, staticTrailDetailsMapper))
+                .status(doc.containsKey(STATUS) ? getStatus(doc) : null)
+                .municipalities(doc.containsKey(MUNICIPALITIES) ? getMunicipalities(doc) : null)
                 .build();
     }
 
+    private <T> T mapIfPresent(final Document doc,
+                               final String field,
+                               final Mapper<T> mapper) {
+        return doc.containsKey(field) ? mapper.mapToObject(doc.get(field, Document.class)) : null;
+    }
+
     private Document getGeoLineValue(Trail object) {
         // Update
         if (object.getGeoLineString() == null) {
@@ -175,11 +189,20 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
 
 
 
+    /**
+     * Coordinates are written as binary blobs when enabled, and read back in either form,
+     * so that documents can be migrated while both are around.
+     */
+    private Object getCoordinatesValue(final List<TrailCoordinates> coordinates) {
+        if (binaryCoordinates) {
+            return trailCoordinatesMapper.mapToBinary(coordinates);
+        }
+        return trailCoordinatesMapper.mapToDocuments(coordinates);
+    }
+
     private List<TrailCoordinates> getCoordinatesWithAltitude(final Document doc,
                                                               final TrailSimplifierLevel level) {
-
-        final List<Document> list = doc.getList(getCoordinatesFieldName(level), Document.class);
-        return list.stream().map(trailCoordinatesMapper::mapToObject).collect(toList());
+        return trailCoordinatesMapper.mapStoredToObjects(doc.get(getCoordinatesFieldName(level)));
     }
 
     protected List<PlaceRef> getLocations(final Document doc) {
@@ -187,7 +210,7 @@ public class TrailMapper implements Mapper<Trail>, SelectiveArgumentMapper<Trail
         return list.stream().map(placeMapper::mapToObject).collect(toList());
     }
 
-    private String getCoordinatesFieldName(final TrailSimplifierLevel level) {
+    public static String getCoordinatesFieldName(final TrailSimplifierLevel level) {
         LOGGER.trace("getCoordinatesFieldName TrailSimplifierLevel: {}", level);
         switch (level) {
             case LOW:
@@ -0,0 +1,93 @@
+package org.sc.data.geo
+
+import org.sc.data.model.Coordinates2D
+import org.sc.processor.DistanceProcessor
+import kotlin.math.PI
+import kotlin.math.abs
+import kotlin.math.cos
+import kotlin.math.floor
+import kotlin.math.min
+
+/**
+ * Uniform grid of the points of places, with square cells as wide, in latitude, as the
+ * lookup distance: the places within that distance of a point are found among the few
+ * cells around it, rather than among all the places.
+ *
+ * Not thread-safe, and longitudes do not wrap around the antimeridian.
+ */
+class PlaceGrid(private val distanceMeters: Double) {
+
+    companion object {
+        // As for the earth radius of DistanceProcessor
+        private const val METERS_PER_DEGREE = 6_378_137.0 * PI / 180
+        private const val MAX_LATITUDE = 89.0
+    }
+
+    private val cellDegrees: Double
+    private val cells = HashMap<Long, MutableList<Entry>>()
+    private val pointsById = HashMap<String, List<Coordinates2D>>()
+
+    init {
+        require(distanceMeters > 0) { "The lookup distance must be positive: $distanceMeters" }
+        cellDegrees = distanceMeters / METERS_PER_DEGREE
+    }
+
+    val size: Int
+        get() = pointsById.size
+
+    fun put(id: String, points: List<Coordinates2D>) {
+        remove(id)
+        pointsById[id] = points
+        points.forEach { cells.getOrPut(keyOf(it)) { mutableListOf() }.add(Entry(id, it)) }
+    }
+
+    fun remove(id: String) {
+        val points = pointsById.remove(id) ?: return
+        points.forEach { point ->
+            val key = keyOf(point)
+            val cell = cells[key] ?: return@forEach
+            cell.removeAll { it.id == id }
+            if (cell.isEmpty()) cells.remove(key)
+        }
+    }
+
+    /**
+     * The ids of the places with a point within the distance of the given one.
+     */
+    fun findWithin(point: Coordinates2D): List<String> {
+        val (bottomLeft, topRight) = boxAround(point)
+        val found = LinkedHashSet<String>()
+        for (row in indexOf(bottomLeft.latitude)..indexOf(topRight.latitude)) {
+            for (column in indexOf(bottomLeft.longitude)..indexOf(topRight.longitude)) {
+                cells[keyOf(row, column)]?.forEach {
+                    if (!found.contains(it.id) && DistanceProcessor.getRadialDistance(
+                            point.latitude, point.longitude, it.point.latitude, it.point.longitude) <= distanceMeters) {
+                        found.add(it.id)
+                    }
+                }
+            }
+        }
+        return found.toList()
+    }
+
+    /**
+     * The bottom left and top right corners of a box holding every point within the
+     * distance of the given one.
+     */
+    fun boxAround(point: Coordinates2D): List<Coordinates2D> {
+        // A degree of longitude shrinks towards the poles
+        val longitudeDegrees = cellDegrees /
+                cos(Math.toRadians(min(abs(point.latitude) + cellDegrees, MAX_LATITUDE)))
+        return listOf(
+                Coordinates2D(point.longitude - longitudeDegrees, point.latitude - cellDegrees),
+                Coordinates2D(point.longitude + longitudeDegrees, point.latitude + cellDegrees))
+    }
+
+    private fun indexOf(degrees: Double) = floor(degrees / cellDegrees).toInt()
+
+    private fun keyOf(point: Coordinates2D) = keyOf(indexOf(point.latitude), indexOf(point.longitude))
+
+    private fun keyOf(row: Int, column: Int) = row.toLong() shl 32 or (column.toLong() and 0xffffffffL)
+
+    private class Entry(val id: String, val point: Coordinates2D)
+}
@@ -0,0 +1,6 @@
+package org.sc.data.geo
+
+import org.sc.data.model.GeoLineString
+import org.sc.data.model.TrailStatus
+
+data class TrailGeometry(val trailId: String, val status: TrailStatus, val geoLine: GeoLineString)
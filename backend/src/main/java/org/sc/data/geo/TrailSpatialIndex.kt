@@ -0,0 +1,168 @@
+package org.sc.data.geo
+
+import com.vividsolutions.jts.geom.Coordinate
+import com.vividsolutions.jts.geom.Envelope
+import com.vividsolutions.jts.geom.Geometry
+import com.vividsolutions.jts.geom.GeometryFactory
+import com.vividsolutions.jts.geom.prep.PreparedGeometry
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory
+import com.vividsolutions.jts.index.strtree.STRtree
+import org.sc.data.model.Coordinates2D
+import org.sc.data.model.TrailStatus
+import org.springframework.stereotype.Component
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Node-local STR-tree of the trail geometries, used to answer bounding-box and
+ * line-intersection lookups without querying the database.
+ *
+ * Readers work on an immutable snapshot and never lock; writers are serialised
+ * and swap a new snapshot in. Saved and deleted trails are kept next to the tree
+ * and scanned on each lookup, and only once they outgrow a sixteenth of the tree
+ * is it rebuilt with them, so that a bulk import does not rebuild it per trail.
+ * Until [load] is called the index is not ready and lookups return null,
+ * so that callers can fall back to the database.
+ */
+@Component
+class TrailSpatialIndex {
+
+    private val geometryFactory = GeometryFactory()
+    private val snapshot = AtomicReference<Snapshot?>(null)
+
+    val isReady: Boolean
+        get() = snapshot.get() != null
+
+    val size: Int
+        get() = snapshot.get()?.size ?: 0
+
+    @Synchronized
+    fun load(trailGeometries: List<TrailGeometry>) {
+        val entries = HashMap<String, IndexedTrail>(trailGeometries.size)
+        trailGeometries.forEach { geometry -> toIndexedTrail(geometry)?.let { entries[it.trailId] = it } }
+        snapshot.set(Snapshot.of(entries))
+    }
+
+    @Synchronized
+    fun put(trailGeometry: TrailGeometry) {
+        val current = snapshot.get() ?: return
+        snapshot.set(current.with(trailGeometry.trailId, toIndexedTrail(trailGeometry)))
+    }
+
+    @Synchronized
+    fun remove(trailId: String) {
+        val current = snapshot.get() ?: return
+        if (current.get(trailId) == null) return
+        snapshot.set(current.with(trailId, null))
+    }
+
+    /**
+     * Returns the bounding box of an indexed trail, or null if the trail is not indexed.
+     */
+    fun getBounds(trailId: String): CoordinatesRectangle? {
+        val envelope = snapshot.get()?.get(trailId)?.envelope ?: return null
+        return CoordinatesRectangle(
+            Coordinates2D(envelope.minX, envelope.minY),
+            Coordinates2D(envelope.maxX, envelope.maxY)
+        )
+    }
+
+    /**
+     * Returns the ids of the trails whose bounding box intersects the given rectangle,
+     * sorted by id, or null if the index is not ready. The match is on bounding boxes,
+     * as the database lookup this stands for.
+     */
+    fun findWithinRectangle(rectangle: CoordinatesRectangle,
+                            statuses: Collection<TrailStatus>,
+                            excludedTrailIds: Collection<String>,
+                            limit: Int): List<String>? {
+        val current = snapshot.get() ?: return null
+        val envelope = Envelope(
+            rectangle.bottomLeft.longitude, rectangle.topRight.longitude,
+            rectangle.bottomLeft.latitude, rectangle.topRight.latitude
+        )
+        return current.query(envelope, statuses, excludedTrailIds, limit) { true }
+    }
+
+    /**
+     * Returns the ids of the trails crossing the given line, sorted by id,
+     * or null if the index is not ready.
+     */
+    fun findIntersecting(coordinates: List<Coordinates2D>,
+                         statuses: Collection<TrailStatus>,
+                         limit: Int): List<String>? {
+        val current = snapshot.get() ?: return null
+        val line = toLineString(coordinates) ?: return emptyList()
+        return current.query(line.envelopeInternal, statuses, emptyList(), limit) {
+            it.geometry.intersects(line)
+        }
+    }
+
+    private fun toIndexedTrail(trailGeometry: TrailGeometry): IndexedTrail? {
+        val line = toLineString(trailGeometry.geoLine.coordinates) ?: return null
+        return IndexedTrail(trailGeometry.trailId, trailGeometry.status,
+            PreparedGeometryFactory.prepare(line))
+    }
+
+    private fun toLineString(coordinates: List<Coordinates2D>): Geometry? {
+        if (coordinates.size < 2) return null
+        return geometryFactory.createLineString(
+            coordinates.map { Coordinate(it.longitude, it.latitude) }.toTypedArray()
+        )
+    }
+
+    private class IndexedTrail(val trailId: String,
+                               val status: TrailStatus,
+                               val geometry: PreparedGeometry) {
+        val envelope: Envelope
+            get() = geometry.geometry.envelopeInternal
+    }
+
+    /**
+     * The trails in [tree] as of its last build, plus the ones saved or deleted since then,
+     * mapped to null when deleted.
+     */
+    private class Snapshot private constructor(private val treeEntries: Map<String, IndexedTrail>,
+                                               private val tree: STRtree,
+                                               private val changes: Map<String, IndexedTrail?>,
+                                               val size: Int) {
+        companion object {
+            private const val MIN_CHANGES_BEFORE_REBUILD = 64
+            private const val TREE_TO_CHANGES_RATIO = 16
+
+            fun of(entries: Map<String, IndexedTrail>): Snapshot {
+                val tree = STRtree()
+                entries.values.forEach { tree.insert(it.envelope, it) }
+                // Building eagerly makes the tree read-only before it is shared
+                tree.build()
+                return Snapshot(entries, tree, emptyMap(), entries.size)
+            }
+        }
+
+        fun get(trailId: String): IndexedTrail? =
+            if (changes.containsKey(trailId)) changes[trailId] else treeEntries[trailId]
+
+        fun with(trailId: String, indexedTrail: IndexedTrail?): Snapshot {
+            val sizeChange = (if (indexedTrail != null) 1 else 0) - (if (get(trailId) != null) 1 else 0)
+            val newChanges = changes.plus(trailId to indexedTrail)
+            if (newChanges.size < maxOf(MIN_CHANGES_BEFORE_REBUILD, treeEntries.size / TREE_TO_CHANGES_RATIO)) {
+                return Snapshot(treeEntries, tree, newChanges, size + sizeChange)
+            }
+            val entries = HashMap(treeEntries)
+            newChanges.forEach { (id, changed) -> if (changed == null) entries.remove(id) else entries[id] = changed }
+            return of(entries)
+        }
+
+        fun query(envelope: Envelope,
+                  statuses: Collection<TrailStatus>,
+                  excludedTrailIds: Collection<String>,
+                  limit: Int,
+                  predicate: (IndexedTrail) -> Boolean): List<String> =
+            (tree.query(envelope).map { it as IndexedTrail }.filter { !changes.containsKey(it.trailId) } +
+                changes.values.filterNotNull().filter { it.envelope.intersects(envelope) })
+                .filter { statuses.contains(it.status) && !excludedTrailIds.contains(it.trailId) }
+                .filter(predicate)
+                .map { it.trailId }
+                .sorted()
+                .take(limit)
+    }
+}
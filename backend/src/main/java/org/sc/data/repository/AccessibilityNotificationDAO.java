@@ -52,6 +52,21 @@ public class AccessibilityNotificationDAO {
                 .limit(limit));
     }
 
+    /**
+     * The page of unresolved notifications after the continuation token, the first one
+     * without it, latest reported first as {@link #getUnresolved}.
+     */
+    public KeysetPage<AccessibilityNotification> getUnresolvedAfter(final String continuationToken,
+                                                                    final int limit, final String realm) {
+        final Document filter = MongoUtils.getConditionalEqFilter(realm, COLLECTION_REALM_STRUCTURE)
+                .append(AccessibilityNotification.RESOLUTION, "");
+        return KeysetPagination.toPage(collection.find(KeysetPagination.getFilter(filter, continuationToken,
+                                AccessibilityNotification.REPORT_DATE, false))
+                        .sort(KeysetPagination.getSort(AccessibilityNotification.REPORT_DATE, false))
+                        .limit(limit),
+                limit, AccessibilityNotification.REPORT_DATE, mapper::mapToObject);
+    }
+
     public List<AccessibilityNotification> getUnresolvedByTrailId(final String id, final int skip, final int limit) {
         return toNotificationList(collection.find(
                         new Document(AccessibilityNotification.TRAIL_ID, id)
@@ -75,6 +90,21 @@ public class AccessibilityNotificationDAO {
                 .skip(skip).limit(limit));
     }
 
+    /**
+     * The page of solved notifications after the continuation token, the first one
+     * without it, in id order.
+     */
+    public KeysetPage<AccessibilityNotification> getSolvedAfter(final String continuationToken,
+                                                                final int limit, final String realm) {
+        final Document filter = MongoUtils.getConditionalEqFilter(realm, COLLECTION_REALM_STRUCTURE)
+                .append(AccessibilityNotification.RESOLUTION, new Document($_NOT_EQUAL, ""));
+        return KeysetPagination.toPage(collection.find(KeysetPagination.getFilter(filter, continuationToken,
+                                AccessibilityNotification.ID, true))
+                        .sort(KeysetPagination.getSort(AccessibilityNotification.ID, true))
+                        .limit(limit),
+                limit, AccessibilityNotification.ID, mapper::mapToObject);
+    }
+
     public List<AccessibilityNotification> getNearbyUnsolved(Coordinates2D coordinates,
                                                              double distance) {
         final var foundDocuments = collection.find(
@@ -50,6 +50,22 @@ class AnnouncementDao(
         )
     }
 
+    /**
+     * The page of announcements after the continuation token, the first one without it,
+     * latest uploaded first as [get].
+     */
+    fun getAfter(continuationToken: String?, limit: Int, realm: String): KeysetPage<Announcement> {
+        val realmFilter =
+            MongoUtils.getConditionalEqFilter(realm, Announcement.RECORD_DETAILS + DOT + RecordDetails.REALM)
+        val sortField = Announcement.RECORD_DETAILS + DOT + RecordDetails.UPLOADED_ON
+        return KeysetPagination.toPage(
+            collection.find(KeysetPagination.getFilter(realmFilter, continuationToken, sortField, false))
+                .sort(KeysetPagination.getSort(sortField, false))
+                .limit(limit),
+            limit, sortField
+        ) { announcementsMapper.mapToObject(it) }
+    }
+
     fun create(announcement: Announcement): List<Announcement> {
         val objectId = ObjectId().toHexString()
         collection.findOneAndReplace(
@@ -0,0 +1,33 @@
+package org.sc.data.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A page read with {@link KeysetPagination}, and the token of the page after it,
+ * null on the last page.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final String continuationToken;
+
+    public KeysetPage(final List<T> content, final String continuationToken) {
+        this.content = content;
+        this.continuationToken = continuationToken;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public <R> KeysetPage<R> map(final Function<T, R> mapper) {
+        return new KeysetPage<>(content.stream().map(mapper).collect(toList()), continuationToken);
+    }
+}
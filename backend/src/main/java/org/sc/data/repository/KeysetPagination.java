@@ -0,0 +1,122 @@
+package org.sc.data.repository;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.sc.data.repository.MongoUtils.*;
+
+/**
+ * Keyset pagination: a page starts right after the last document of the previous one,
+ * found from the continuation token carrying its sort key and id, instead of skipping
+ * all the documents before it. Pages are sorted by the sort key then by id, both the
+ * same way, and the documents missing the sort key are not paged through.
+ * An empty token stands for the first page.
+ */
+public final class KeysetPagination {
+
+    public static final String ID_FIELD = "_id";
+
+    private static final String SORT_VALUE = "v";
+    private static final String ID_VALUE = "id";
+    private static final JsonWriterSettings TOKEN_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED).build();
+
+    private KeysetPagination() {
+    }
+
+    public static boolean isValid(final String continuationToken) {
+        if (isFirstPage(continuationToken)) {
+            return true;
+        }
+        try {
+            decode(continuationToken);
+            return true;
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static Document getSort(final String sortField, final boolean isAscending) {
+        final int order = isAscending ? ASCENDING_ORDER : -ASCENDING_ORDER;
+        final Document sort = new Document(sortField, order);
+        if (!sortField.equals(ID_FIELD)) {
+            sort.append(ID_FIELD, order);
+        }
+        return sort;
+    }
+
+    /**
+     * The filter restricted to the documents after the one the token was built from,
+     * or the filter itself on the first page, when there is no token.
+     */
+    public static Document getFilter(final Document filter,
+                                     final String continuationToken,
+                                     final String sortField,
+                                     final boolean isAscending) {
+        if (isFirstPage(continuationToken)) {
+            return filter;
+        }
+        final Document token = decode(continuationToken);
+        final String after = isAscending ? $_GT : $_LT;
+        final Object id = token.get(ID_VALUE);
+        final Document afterFilter = sortField.equals(ID_FIELD) ?
+                new Document(ID_FIELD, new Document(after, id)) :
+                new Document($_OR, Arrays.asList(
+                        new Document(sortField, new Document(after, token.get(SORT_VALUE))),
+                        new Document(sortField, token.get(SORT_VALUE))
+                                .append(ID_FIELD, new Document(after, id))));
+        return new Document($_AND, Arrays.asList(filter, afterFilter));
+    }
+
+    /**
+     * Maps the documents of a page, read with the sort of {@link #getSort} and at most
+     * {@code limit} of them: a full page gets the token of the page after it.
+     */
+    public static <T> KeysetPage<T> toPage(final Iterable<Document> documents,
+                                           final int limit,
+                                           final String sortField,
+                                           final Function<Document, T> mapper) {
+        final List<T> content = new ArrayList<>();
+        Document last = null;
+        for (final Document document : documents) {
+            content.add(mapper.apply(document));
+            last = document;
+        }
+        if (last == null || content.size() < limit) {
+            return new KeysetPage<>(content, null);
+        }
+        final Object sortValue = sortField.equals(ID_FIELD) ? null :
+                last.getEmbedded(Arrays.asList(sortField.split("\\" + DOT)), Object.class);
+        return new KeysetPage<>(content, encode(sortValue, last.get(ID_FIELD)));
+    }
+
+    private static boolean isFirstPage(final String continuationToken) {
+        return continuationToken == null || continuationToken.isEmpty();
+    }
+
+    private static String encode(final Object sortValue, final Object id) {
+        final String json = new Document(SORT_VALUE, sortValue).append(ID_VALUE, id).toJson(TOKEN_SETTINGS);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Document decode(final String continuationToken) {
+        try {
+            final Document token = Document.parse(
+                    new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8));
+            if (token.containsKey(ID_VALUE)) {
+                return token;
+            }
+        } catch (final RuntimeException e) {
+            // Not base64 or not a document, reported below
+        }
+        throw new IllegalArgumentException("Invalid continuation token: " + continuationToken);
+    }
+}
@@ -50,6 +50,40 @@ public class MaintenanceDAO {
                 .skip(from).limit(to));
     }
 
+    /**
+     * The page of future maintenance after the continuation token, the first one without it,
+     * soonest first.
+     */
+    public KeysetPage<Maintenance> getFutureAfter(final String continuationToken,
+                                                  final int limit,
+                                                  final LocalDate date,
+                                                  final String realm) {
+        final Document filter = MongoUtils.getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR)
+                .append(Maintenance.DATE, new Document("$gt", date));
+        return KeysetPagination.toPage(collection.find(
+                                KeysetPagination.getFilter(filter, continuationToken, Maintenance.DATE, true))
+                        .sort(KeysetPagination.getSort(Maintenance.DATE, true))
+                        .limit(limit),
+                limit, Maintenance.DATE, mapper::mapToObject);
+    }
+
+    /**
+     * The page of past maintenance after the continuation token, the first one without it,
+     * latest first as {@link #getPastDate}.
+     */
+    public KeysetPage<Maintenance> getPastDateAfter(final String continuationToken,
+                                                    final int limit,
+                                                    final LocalDate date,
+                                                    final String realm) {
+        final Document filter = MongoUtils.getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR)
+                .append(Maintenance.DATE, new Document("$lt", date));
+        return KeysetPagination.toPage(collection.find(
+                                KeysetPagination.getFilter(filter, continuationToken, Maintenance.DATE, false))
+                        .sort(KeysetPagination.getSort(Maintenance.DATE, false))
+                        .limit(limit),
+                limit, Maintenance.DATE, mapper::mapToObject);
+    }
+
     public List<Maintenance> getPastDate(final int from,
                                          final int to,
                                          final LocalDate date,
@@ -18,15 +18,19 @@ import org.springframework.stereotype.Repository;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Aggregates.match;
 import static java.util.stream.Collectors.toList;
 import static org.apache.logging.log4j.LogManager.getLogger;
+import static org.sc.data.model.Media.COMPRESSION_LEASE_UNTIL;
 import static org.sc.data.model.Media.IS_COMPRESSED;
 import static org.sc.data.model.Media.RESOLUTIONS;
+import static org.sc.data.repository.MongoUtils.$_IN;
 import static org.sc.data.repository.MongoUtils.DOT;
 
 @Repository
@@ -49,6 +53,10 @@ public class MediaDAO {
         return toMediaList(collection.find(new Document(Media.OBJECT_ID, id)));
     }
 
+    public List<Media> getByIds(final List<String> ids) {
+        return toMediaList(collection.find(new Document(Media.OBJECT_ID, new Document($_IN, ids))));
+    }
+
     public List<Media> save(final Media media) {
         final Document mediaDoc = mapper.mapToDocument(media);
         final String objectId = new ObjectId().toHexString();
@@ -80,27 +88,49 @@ public class MediaDAO {
         return collection.countDocuments();
     }
 
-    public FindIterable<Document> getMediaNotGenerated(final String instanceId) {
-        Bson instanceFilter = Filters.eq(Media.RECORD_DETAILS + "." +
+    /**
+     * Claims a media of the instance still to compress, and not claimed by a run
+     * still within its lease, until the given time.
+     */
+    public Optional<Media> claimNotGenerated(final String instanceId, final Date now, final Date leaseUntil) {
+        final Bson instanceFilter = Filters.eq(Media.RECORD_DETAILS + "." +
                 FileDetails.ON_INSTANCE, instanceId);
-        Bson missingField = Filters.not(Filters.exists(IS_COMPRESSED));
-        Bson notGenerated = Filters.eq(IS_COMPRESSED, false);
-        return collection.find(Filters.and(instanceFilter,
-                Filters.or(missingField, notGenerated)));
+        final Bson notGenerated = Filters.ne(IS_COMPRESSED, true);
+        final Bson notClaimed = Filters.or(
+                Filters.not(Filters.exists(COMPRESSION_LEASE_UNTIL)),
+                Filters.lt(COMPRESSION_LEASE_UNTIL, now));
+        return Optional.ofNullable(collection.findOneAndUpdate(
+                        Filters.and(instanceFilter, notGenerated, notClaimed),
+                        Updates.set(COMPRESSION_LEASE_UNTIL, leaseUntil),
+                        new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)))
+                .map(mapper::mapToObject);
     }
 
     public UpdateResult updateCompressed(final Media media) {
         Document query = new Document().append("_id", media.getId());
-        final Bson updates = Updates.combine(Updates.set(IS_COMPRESSED, true));
-        final Bson resolutionUpdates = Updates.combine(Updates.set(RESOLUTIONS, media.getResolutions()));
-        return collection.updateOne(query, Arrays.asList(updates, resolutionUpdates));
+        return collection.updateOne(query, Updates.combine(
+                Updates.set(IS_COMPRESSED, true),
+                Updates.set(RESOLUTIONS, media.getResolutions()),
+                Updates.unset(COMPRESSION_LEASE_UNTIL)));
     }
 
     public List<Media> getMedia(final int skip, final int limit, final String realm) {
         final Document filter = MongoUtils.getConditionalEqFilter(realm, REALM_STRUCT);
         final Bson aLimit = Aggregates.limit(limit);
         final Bson aSkip = Aggregates.skip(skip);
-        return toMediaList(collection.aggregate(Arrays.asList(match(filter), aLimit, aSkip)));
+        return toMediaList(collection.aggregate(Arrays.asList(match(filter), aSkip, aLimit)));
+    }
+
+    /**
+     * The page of media after the continuation token, the first one without it, in id order.
+     */
+    public KeysetPage<Media> getMediaAfter(final String continuationToken, final int limit, final String realm) {
+        final Document filter = MongoUtils.getConditionalEqFilter(realm, REALM_STRUCT);
+        return KeysetPagination.toPage(collection.find(
+                                KeysetPagination.getFilter(filter, continuationToken, Media.OBJECT_ID, true))
+                        .sort(KeysetPagination.getSort(Media.OBJECT_ID, true))
+                        .limit(limit),
+                limit, Media.OBJECT_ID, mapper::mapToObject);
     }
 
     private List<Media> toMediaList(final AggregateIterable<Document> documents) {
@@ -13,6 +13,7 @@ import java.util.regex.Pattern;
 public class MongoUtils {
     public static final int ASCENDING_ORDER = 1;
     public static final int ONE = ASCENDING_ORDER;
+    public static final int ZERO = 0;
 
     public static final String NO_FILTERING_TOKEN = "*";
     public static final String DOLLAR = "$";
@@ -24,6 +25,16 @@ public class MongoUtils {
     public static final String $_SET = "$set";
     public static final String $_IN = "$in";
     public static final String $_NIN = "$nin";
+    public static final String $_EXISTS = "$exists";
+    public static final String $_NOT = "$not";
+    public static final String $_TYPE = "$type";
+    public static final String $_GT = "$gt";
+    public static final String $_GTE = "$gte";
+    public static final String $_LT = "$lt";
+    public static final String $_LTE = "$lte";
+    public static final String $_INC = "$inc";
+    public static final String $_SET_ON_INSERT = "$setOnInsert";
+    public static final String BINARY_TYPE = "binData";
     public static final String NEAR_OPERATOR = "near";
     public static final String LIMIT = "$limit";
     public static final String SKIP = "$skip";
@@ -31,6 +42,7 @@ public class MongoUtils {
     public static final String $PUSH = "$push";
     public static final String $ADD_TO_SET = "$addToSet";
     public static final String $EACH = "$each";
+    public static final String $POSITION = "$position";
     public static final String $_MAX_M_DISTANCE_FILTER = "$maxDistance";
     public static final String $_GEO_NEAR_OPERATOR = "$geoNear";
     public static final String $_GEO_WITHIN = "$geoWithin";
@@ -46,6 +58,7 @@ public class MongoUtils {
     public static final String GEO_TYPE = "type";
     public static final String GEO_POINT = "Point";
     public static final String GEO_POLYGON = "Polygon";
+    public static final String GEO_MULTI_POLYGON = "MultiPolygon";
     public static final String GEO_COORDINATES = "coordinates";
     public static String $_AND = "$and";
     public static final Object DESCENDING_ORDER = -1;
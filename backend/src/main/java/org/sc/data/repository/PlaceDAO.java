@@ -1,11 +1,13 @@
 package org.sc.data.repository;
 
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
 import org.apache.logging.log4j.Logger;
 import org.bson.Document;
-import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.hikit.common.data.mapper.MultiPointCoords2D;
 import org.hikit.common.datasource.Datasource;
@@ -14,14 +16,21 @@ import org.sc.common.rest.CoordinatesDto;
 import org.sc.data.entity.mapper.CoordinatesMapper;
 import org.sc.data.entity.mapper.PlaceMapper;
 import org.sc.data.model.*;
+import org.sc.data.search.SearchEntry;
+import org.sc.data.search.SearchEntryType;
+import org.sc.data.search.SearchField;
+import org.sc.processor.PlaceLink;
 import org.sc.util.coordinates.CoordinatesUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.StreamSupport;
 
 import static java.util.stream.Collectors.toList;
@@ -57,40 +66,60 @@ public class PlaceDAO {
                 .skip(page).limit(count));
     }
 
-    @NotNull
-    public List<Place> getOldest(int page, int count, String realm, boolean isDynamic) {
-        return toPlaceList(collection.find(
-                        MongoUtils.getConditionalEqFilter(realm,
-                                        DB_REALM_STRUCTURE_SELECTOR)
-                                .append(IS_DYNAMIC_CROSSWAY, isDynamic))
-                .sort(new Document(FileDetails.UPLOADED_ON, ASCENDING_ORDER))
-                .skip(page).limit(count));
+    /**
+     * The page of places after the continuation token, the first one without it, in id order.
+     */
+    public KeysetPage<Place> getAfter(final String continuationToken, final int count,
+                                      final String realm, final boolean isDynamic) {
+        final Document filter = MongoUtils.getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR)
+                .append(IS_DYNAMIC_CROSSWAY, isDynamic);
+        return KeysetPagination.toPage(collection.find(
+                                KeysetPagination.getFilter(filter, continuationToken, ID, true))
+                        .sort(KeysetPagination.getSort(ID, true))
+                        .limit(count),
+                count, ID, placeMapper::mapToObject);
     }
 
     public List<Place> getById(final String id) {
         return toPlaceList(collection.find(new Document(ID, id)));
     }
 
-    public List<Place> getLikeName(final String name, int page, int count, String realm) {
-        final Bson filter =
-                getLikeNameFilter(name, realm);
-        return toPlaceList(collection.find(filter).skip(page).limit(count));
+    public List<Place> getByIds(final List<String> ids) {
+        return toPlaceList(collection.find(new Document(ID, new Document($_IN, ids))));
     }
 
-    private Bson getLikeNameFilter(String name, String realm) {
-        return MongoUtils.getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR)
-                .append(MongoUtils.$_OR, Arrays.asList(
-                        new Document(Place.NAME, getStartNameMatchPattern(name)),
-                        new Document(Place.TAGS, getStartNameMatchPattern(name))));
+    public List<SearchEntry> getSearchEntries() {
+        return getSearchEntries(new Document());
     }
 
-    @NotNull
-    private Pattern getStartNameMatchPattern(final String name) {
-        return Pattern.compile("" + name + ".*", Pattern.CASE_INSENSITIVE);
+    public List<SearchEntry> getSearchEntries(final List<String> ids) {
+        return getSearchEntries(new Document(ID, new Document($_IN, ids)));
+    }
+
+    private List<SearchEntry> getSearchEntries(final Document filter) {
+        final Iterable<Document> documents = collection.find(filter)
+                .projection(new Document(ID, ONE)
+                        .append(NAME, ONE)
+                        .append(TAGS, ONE)
+                        .append(DB_REALM_STRUCTURE_SELECTOR, ONE));
+        return StreamSupport.stream(documents.spliterator(), false)
+                .map(doc -> {
+                    final String name = doc.getString(NAME);
+                    final List<SearchField> fields = new ArrayList<>();
+                    if (name != null) fields.add(new SearchField(name, SearchField.NAME_WEIGHT));
+                    doc.getList(TAGS, String.class, Collections.emptyList())
+                            .forEach(tag -> fields.add(new SearchField(tag, SearchField.TAG_WEIGHT)));
+                    final Document recordDetails = doc.get(RECORD_DETAILS, Document.class);
+                    return new SearchEntry(doc.getString(ID), SearchEntryType.PLACE,
+                            name == null ? "" : name,
+                            recordDetails == null ? null : recordDetails.getString(FileDetails.REALM),
+                            null, fields);
+                })
+                .collect(toList());
     }
 
     public List<Place> create(final Place place) {
-        final Document doc = placeMapper.mapToDocument(place);
+        final Document doc = placeMapper.mapToDocument(place).append(LAST_UPDATE_DATE, new Date());
         final String newObjectId =
                 new ObjectId().toHexString();
         Document created = upsertItem(doc, newObjectId);
@@ -113,16 +142,34 @@ public class PlaceDAO {
                         .append(POINTS + DOT + MultiPointCoords2D.COORDINATES,
                                 CoordinatesUtil.INSTANCE.getLongLatFromCoordinates(trailCoordinates)))
                         .append($PUSH, new Document(COORDINATES, coordinatesMapper.mapToDocument(trailCoordinates)))
+                        .append($_SET, new Document(LAST_UPDATE_DATE, new Date()))
         );
         return getById(id);
     }
 
-    public void updatePlacePoints(final String id, final List<List<Double>> trailCoordinates) {
-        trailCoordinates.forEach(it ->
-            collection.updateOne(new Document(ID, id),
-                new Document($ADD_TO_SET,
-                    new Document(POINTS + DOT + MultiPointCoords2D.COORDINATES, it)))
-        );
+    /**
+     * Writes all the links in a single round trip. The coordinates are added once,
+     * however many times the trail is linked to the place.
+     */
+    public void linkTrailsToPlaces(final List<PlaceLink> placeLinks) {
+        if (placeLinks.isEmpty()) {
+            return;
+        }
+        final List<UpdateOneModel<Document>> models = placeLinks.stream()
+                .map(link -> {
+                    final Document update = new Document($ADD_TO_SET, new Document(CROSSING_IDS, link.getTrailId())
+                            .append(POINTS + DOT + MultiPointCoords2D.COORDINATES,
+                                    CoordinatesUtil.INSTANCE.getLongLatFromCoordinates(link.getCoordinates()))
+                            .append(COORDINATES, coordinatesMapper.mapToDocument(link.getCoordinates())));
+                    final Document set = new Document(LAST_UPDATE_DATE, new Date());
+                    if (link.getName() != null) {
+                        set.append(NAME, link.getName());
+                    }
+                    update.append($_SET, set);
+                    return new UpdateOneModel<Document>(new Document(ID, link.getPlaceId()), update);
+                })
+                .collect(toList());
+        collection.bulkWrite(models, new BulkWriteOptions().ordered(false));
     }
 
     public List<Place> removeTrailFromPlace(final String placeId,
@@ -131,7 +178,8 @@ public class PlaceDAO {
 
         collection.updateOne(new Document(ID, placeId),
                 new Document($PULL, new Document(CROSSING_IDS,
-                        trailId)));
+                        trailId))
+                        .append($_SET, new Document(LAST_UPDATE_DATE, new Date())));
 
         final List<Place> afterChange = getById(placeId);
 
@@ -164,6 +212,7 @@ public class PlaceDAO {
                         new Document(DESCRIPTION, place.getDescription())
                                 .append(TAGS, place.getTags())
                                 .append(NAME, place.getName())
+                                .append(LAST_UPDATE_DATE, new Date())
                 )
         );
         return getById(place.getId());
@@ -209,29 +258,95 @@ public class PlaceDAO {
         );
     }
 
-    public List<Place> getNotDynamicsNearExcludingById(double longitude,
-                                                       double latitude,
-                                                       double distance,
-                                                       String idToExclude,
-                                                       String instanceRealm) {
-        return toPlaceList(collection.find(
-                        new Document(POINTS,
-                                getPointNearSearchQuery(longitude, latitude, distance))
-                                .append(IS_DYNAMIC_CROSSWAY, false)
-                                .append(DB_REALM_STRUCTURE_SELECTOR, instanceRealm)
-                                .append(ID,
-                                        new Document($_NOT_EQUAL, idToExclude)))
-                .sort(new Document(FileDetails.UPLOADED_ON, DESCENDING_ORDER))
-        );
+    /**
+     * Walks the non-dynamic places of the realm from a single cursor, without their
+     * description, tags and media.
+     */
+    public void forEachNotDynamicPlace(final String realm, final Consumer<Place> consumer) {
+        forEachNotDynamicPlace(getNotDynamicFilter(realm), consumer);
     }
 
-    public void addTrailsIdToPlace(@NotNull String id, @NotNull List<String> crossingTrailIds) {
-        collection.updateOne(
-                new Document(ID, id),
-                new Document($ADD_TO_SET,
-                        new Document(CROSSING_IDS, new Document($EACH, crossingTrailIds))
-                )
-        );
+    /**
+     * Walks, as above, the non-dynamic places of the realm updated from the given date on;
+     * places stored before their last update date was kept are taken as updated on upload.
+     */
+    public void forEachNotDynamicPlaceUpdatedSince(final String realm,
+                                                   final Date since,
+                                                   final Consumer<Place> consumer) {
+        forEachNotDynamicPlace(getNotDynamicFilter(realm)
+                .append($_OR, Arrays.asList(
+                        new Document(LAST_UPDATE_DATE, new Document($_GTE, since)),
+                        new Document(LAST_UPDATE_DATE, new Document($_EXISTS, false))
+                                .append(RECORD_DETAILS + DOT + RecordDetails.UPLOADED_ON, new Document($_GTE, since)))),
+                consumer);
+    }
+
+    /**
+     * Walks, as above, the non-dynamic places of the realm with a point in any of the boxes,
+     * each given by its bottom left and top right corners, from a single query.
+     */
+    public void forEachNotDynamicPlaceWithin(final String realm,
+                                             final List<List<Coordinates2D>> boxes,
+                                             final Consumer<Place> consumer) {
+        if (boxes.isEmpty()) {
+            return;
+        }
+        final List<List<List<List<Double>>>> polygons = boxes.stream()
+                .map(box -> Collections.singletonList(Arrays.asList(
+                        box.get(0).getAsList(),
+                        Arrays.asList(box.get(0).getLongitude(), box.get(1).getLatitude()),
+                        box.get(1).getAsList(),
+                        Arrays.asList(box.get(1).getLongitude(), box.get(0).getLatitude()),
+                        box.get(0).getAsList())))
+                .collect(toList());
+        forEachNotDynamicPlace(getNotDynamicFilter(realm)
+                .append(POINTS, new Document($_GEO_INTERSECT,
+                        new Document($_GEOMETRY, new Document(GEO_TYPE, GEO_MULTI_POLYGON)
+                                .append(GEO_COORDINATES, polygons)))), consumer);
+    }
+
+    private void forEachNotDynamicPlace(final Document filter, final Consumer<Place> consumer) {
+        try (final MongoCursor<Document> cursor = collection.find(filter)
+                .projection(new Document(DESCRIPTION, ZERO)
+                        .append(TAGS, ZERO)
+                        .append(MEDIA_IDS, ZERO))
+                .iterator()) {
+            cursor.forEachRemaining(document -> consumer.accept(placeMapper.mapToObject(document)));
+        }
+    }
+
+    /**
+     * Adds the crossing trails and the points of the absorbed places to each place, in a
+     * single round trip, then deletes the absorbed places.
+     */
+    public void mergePlaces(final Map<String, List<Place>> absorbedPlacesById) {
+        if (absorbedPlacesById.isEmpty()) {
+            return;
+        }
+        final List<UpdateOneModel<Document>> models = absorbedPlacesById.entrySet().stream()
+                .map(entry -> new UpdateOneModel<Document>(new Document(ID, entry.getKey()),
+                        new Document($ADD_TO_SET, new Document(CROSSING_IDS, new Document($EACH,
+                                entry.getValue().stream()
+                                        .filter(place -> place.getCrossingTrailIds() != null)
+                                        .flatMap(place -> place.getCrossingTrailIds().stream())
+                                        .distinct()
+                                        .collect(toList())))
+                                .append(POINTS + DOT + MultiPointCoords2D.COORDINATES, new Document($EACH,
+                                        entry.getValue().stream()
+                                                .filter(place -> place.getPoints() != null)
+                                                .flatMap(place -> place.getPoints().getCoordinates2D().stream())
+                                                .collect(toList()))))
+                                .append($_SET, new Document(LAST_UPDATE_DATE, new Date()))))
+                .collect(toList());
+        collection.bulkWrite(models, new BulkWriteOptions().ordered(false));
+        collection.deleteMany(new Document(ID, new Document($_IN, absorbedPlacesById.values().stream()
+                .flatMap(places -> places.stream().map(Place::getId))
+                .collect(toList()))));
+    }
+
+    private Document getNotDynamicFilter(final String realm) {
+        return MongoUtils.getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR)
+                .append(IS_DYNAMIC_CROSSWAY, false);
     }
 
     public long count() {
@@ -251,10 +366,6 @@ public class PlaceDAO {
         );
     }
 
-    public long count(String name, String realm) {
-        return collection.countDocuments(getLikeNameFilter(name, realm));
-    }
-
     private List<Place> toPlaceList(final Iterable<Document> documents) {
         return StreamSupport.stream(documents.spliterator(), false).map(placeMapper::mapToObject).collect(toList());
     }
@@ -54,10 +54,29 @@ public class PoiDAO {
         return toPoisList(collection.find(filter).skip(page).limit(count));
     }
 
+    /**
+     * The page of POIs after the continuation token, the first one without it, in id order.
+     */
+    public KeysetPage<Poi> getAfter(final String continuationToken,
+                                    final int count,
+                                    final String realm) {
+        final Document filter = realm.equals(NO_FILTERING_TOKEN) ? new Document() :
+                new Document(Poi.RECORD_DETAILS + DOT + FileDetails.REALM, realm);
+        return KeysetPagination.toPage(collection.find(
+                                KeysetPagination.getFilter(filter, continuationToken, Poi.OBJECT_ID, true))
+                        .sort(KeysetPagination.getSort(Poi.OBJECT_ID, true))
+                        .limit(count),
+                count, Poi.OBJECT_ID, mapper::mapToObject);
+    }
+
     public List<Poi> getById(final String id) {
         return toPoisList(collection.find(new Document(Poi.OBJECT_ID, id)));
     }
 
+    public List<Poi> getByIds(final List<String> ids) {
+        return toPoisList(collection.find(new Document(Poi.OBJECT_ID, new Document($_IN, ids))));
+    }
+
     public List<Poi> getByTrailCode(final String code,
                                     final int page,
                                     final int count) {
@@ -1,7 +1,11 @@
 package org.sc.data.repository;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoCommandException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.hikit.common.datasource.Datasource;
@@ -10,14 +14,31 @@ import org.sc.data.model.ResourceEntry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.StreamSupport;
 
 import static java.util.stream.Collectors.toList;
+import static org.sc.data.repository.MongoUtils.*;
 
+/**
+ * Queue of trails waiting for their resources to be regenerated.
+ * <p>
+ * Each trail has at most one pending record per realm, which further requests
+ * update and postpone, up to the time set by the first one. A pending record is claimed
+ * by a lease owner until a given time: once claimed, new requests for its trail open
+ * a new pending record, so that changes made during the regeneration are not lost when
+ * the claimed record is deleted. Records whose lease ran out can be claimed again,
+ * up to a maximum number of claims.
+ */
 @Component
 public class ResourceDao {
 
+    private static final int DUPLICATE_KEY_ATTEMPTS = 2;
+
     private final MongoCollection<Document> collection;
     private final ResourceEntryMapper mapper;
 
@@ -34,27 +55,113 @@ public class ResourceDao {
         return toEntries(sort);
     }
 
-    public List<ResourceEntry> getByInstanceId(final String instanceId) {
-        final FindIterable<Document> sort =
-                collection.find(new Document(ResourceEntry.INSTANCE_ID, instanceId))
-                        .sort(new Document(ResourceEntry.CREATED_ON, MongoUtils.DESCENDING_ORDER));
+    /**
+     * Entries written one per request, before the queue coalesced them.
+     */
+    public List<ResourceEntry> getUncoalescedByInstanceId(final String instanceId) {
+        return toEntries(collection.find(new Document(ResourceEntry.INSTANCE_ID, instanceId)
+                .append(ResourceEntry.REALM, new Document($_EXISTS, false))));
+    }
 
-        return toEntries(sort);
+    /**
+     * Adds the request to the pending record of its trail, creating it if there is none.
+     * The record is due on the request due date, or by the given date if it was created
+     * by this request.
+     */
+    public List<ResourceEntry> enqueue(final ResourceEntry resourceEntry, final Date dueBy) {
+        final Document filter = new Document(ResourceEntry.REALM, resourceEntry.getRealm())
+                .append(ResourceEntry.TARGETING_TRAIL, resourceEntry.getTargetingTrail())
+                .append(ResourceEntry.LEASE_OWNER, null);
+        final Document update = new Document($_SET, new Document(ResourceEntry.INSTANCE_ID, resourceEntry.getInstanceId())
+                .append(ResourceEntry.ENTRY_TYPE, resourceEntry.getEntryType())
+                .append(ResourceEntry.ENTRY_ID, resourceEntry.getEntryId())
+                .append(ResourceEntry.ACTION, resourceEntry.getAction())
+                .append(ResourceEntry.USER_PROMPTING, resourceEntry.getUserPrompting())
+                .append(ResourceEntry.DUE_ON, resourceEntry.getDueOn()))
+                .append($_SET_ON_INSERT, new Document(ResourceEntry.OBJECT_ID, new ObjectId().toHexString())
+                        .append(ResourceEntry.CREATED_ON, resourceEntry.getCreatedOn())
+                        .append(ResourceEntry.DUE_BY, dueBy))
+                .append($_INC, new Document(ResourceEntry.REQUEST_COUNT, 1));
+        final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
+                .upsert(true)
+                .returnDocument(ReturnDocument.AFTER);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Optional.ofNullable(collection.findOneAndUpdate(filter, update, options))
+                        .map(mapper::mapToObject)
+                        .map(List::of)
+                        .orElse(List.of());
+            } catch (final MongoCommandException e) {
+                // Another instance created the pending record at the same time: update that one
+                if (ErrorCategory.fromErrorCode(e.getErrorCode()) != ErrorCategory.DUPLICATE_KEY
+                        || attempt == DUPLICATE_KEY_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims the longest-due pending record of the realm, or one whose lease ran out,
+     * among the ones claimed less than the given times. The trails the owner already
+     * holds are left out, as an owner can hold a single record per trail.
+     */
+    public Optional<ResourceEntry> claim(final String realm, final String leaseOwner,
+                                         final Date now, final Date leaseUntil,
+                                         final Collection<String> heldTrailIds,
+                                         final int maxClaims) {
+        final Document filter = new Document(ResourceEntry.REALM, realm)
+                .append(ResourceEntry.TARGETING_TRAIL, new Document($_NIN, heldTrailIds))
+                .append(ResourceEntry.CLAIM_COUNT, new Document($_NOT, new Document($_GTE, maxClaims)))
+                .append($_AND, Arrays.asList(
+                        new Document($_OR, Arrays.asList(
+                                new Document(ResourceEntry.DUE_ON, new Document($_LTE, now)),
+                                new Document(ResourceEntry.DUE_BY, new Document($_LTE, now)))),
+                        new Document($_OR, Arrays.asList(
+                                new Document(ResourceEntry.LEASE_OWNER, null),
+                                new Document(ResourceEntry.LEASE_UNTIL, new Document($_LT, now))))));
+        final Document update = new Document($_SET, new Document(ResourceEntry.LEASE_OWNER, leaseOwner)
+                .append(ResourceEntry.LEASE_UNTIL, leaseUntil))
+                .append($_INC, new Document(ResourceEntry.CLAIM_COUNT, 1));
+        return Optional.ofNullable(collection.findOneAndUpdate(filter, update,
+                        new FindOneAndUpdateOptions()
+                                .sort(new Document(ResourceEntry.DUE_ON, ONE))
+                                .returnDocument(ReturnDocument.AFTER)))
+                .map(mapper::mapToObject);
+    }
+
+    /**
+     * Deletes the given records that are still leased to the owner.
+     */
+    public long deleteClaimed(final Collection<String> ids, final String leaseOwner) {
+        if (ids.isEmpty()) return 0;
+        return collection.deleteMany(new Document(ResourceEntry.OBJECT_ID, new Document($_IN, ids))
+                .append(ResourceEntry.LEASE_OWNER, leaseOwner)).getDeletedCount();
     }
 
-    public List<ResourceEntry> insert(final ResourceEntry resourceEntry) {
-        final String objectId = new ObjectId().toHexString();
-        resourceEntry.setId(objectId);
-        final Document document = mapper.mapToDocument(resourceEntry);
-        collection.insertOne(document);
-        return getById(objectId);
+    /**
+     * Deletes the records of the realm claimed the given times whose last lease ran out,
+     * returning the trails they targeted.
+     */
+    public List<String> deleteExhausted(final String realm, final int maxClaims, final Date now) {
+        final Document filter = new Document(ResourceEntry.REALM, realm)
+                .append(ResourceEntry.CLAIM_COUNT, new Document($_GTE, maxClaims))
+                .append(ResourceEntry.LEASE_UNTIL, new Document($_LT, now));
+        final List<ResourceEntry> exhausted = toEntries(collection.find(filter));
+        if (exhausted.isEmpty()) return List.of();
+        collection.deleteMany(new Document(ResourceEntry.OBJECT_ID,
+                new Document($_IN, exhausted.stream().map(ResourceEntry::getId).collect(toList())))
+                .append(ResourceEntry.LEASE_UNTIL, new Document($_LT, now)));
+        return exhausted.stream().map(ResourceEntry::getTargetingTrail).collect(toList());
     }
 
-    public void delete(final String id) {
-        collection.deleteOne(new Document(ResourceEntry.OBJECT_ID, id));
+    public long deleteByIds(final Collection<String> ids) {
+        if (ids.isEmpty()) return 0;
+        return collection.deleteMany(new Document(ResourceEntry.OBJECT_ID, new Document($_IN, ids)))
+                .getDeletedCount();
     }
 
     private List<ResourceEntry> toEntries(final Iterable<Document> documents) {
         return StreamSupport.stream(documents.spliterator(), false).map(mapper::mapToObject).collect(toList());
     }
-}
\ No newline at end of file
+}
@@ -2,25 +2,44 @@ package org.sc.data.repository;
 
 import com.mongodb.client.*;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import org.apache.logging.log4j.Logger;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.hikit.common.datasource.Datasource;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 import org.sc.data.entity.mapper.*;
 import org.sc.data.geo.CoordinatesRectangle;
+import org.sc.data.geo.TrailGeometry;
 import org.sc.data.model.*;
 import org.sc.data.repository.helper.StatusFilterHelper;
+import org.sc.data.search.SearchEntry;
+import org.sc.data.search.SearchEntryType;
+import org.sc.data.search.SearchField;
+import org.sc.processor.TrailLocationsUpdate;
 import org.sc.processor.TrailSimplifierLevel;
+import org.sc.processor.tile.TrailTileFeature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Aggregates.match;
@@ -46,6 +65,13 @@ public class TrailDAO {
     public static final String START_POS_COORDINATES = Trail.START_POS + "." + PlaceRef.COORDINATES + "." + PlaceRef.COORDINATES;
     public static final String FINAL_POS_COORDINATES = Trail.FINAL_POS + "." + PlaceRef.COORDINATES + "." + PlaceRef.COORDINATES;
     public static final String DB_REALM_STRUCTURE_SELECTOR = Trail.RECORD_DETAILS + "." + FileDetails.REALM;
+    public static final List<String> COORDINATES_FIELDS = Arrays.asList(
+            Trail.COORDINATES, Trail.COORDINATES_LOW, Trail.COORDINATES_MEDIUM, Trail.COORDINATES_HIGH);
+
+    // Degrees the query area is widened by for the simplified geoLine, which strays
+    // from the full one by the medium simplification tolerance, 0.00002°, at most
+    public static final double SIMPLIFIED_GEO_LINE_MARGIN = 0.0001;
+    public static final Document SIMPLIFIED_GEO_LINE_INDEX = new Document(Trail.GEO_LINE_SIMPLIFIED, "2dsphere");
 
 
     private final MongoCollection<Document> collection;
@@ -60,7 +86,11 @@ public class TrailDAO {
     private final LinkedMediaMapper linkedMediaMapper;
     private final PlaceRefMapper placeRefMapper;
     private final CycloMapper cycloMapper;
+    private final GeoLineMapper geoLineMapper;
+    private final TrailCoordinatesMapper trailCoordinatesMapper;
 
+    // Whether every trail carries the simplified geoLine, for geo queries to rely on its index
+    private volatile boolean isSimplifiedGeoLineComplete;
 
     @Autowired
     public TrailDAO(final Datasource dataSource,
@@ -73,7 +103,9 @@ public class TrailDAO {
                     final PlaceRefMapper placeRefMapper,
                     final CycloMapper cycloMapper,
                     final TrailCodeMapper trailCodeMapper,
-                    final MunicipalityDetailsMapper municipalityDetailsMapper) {
+                    final MunicipalityDetailsMapper municipalityDetailsMapper,
+                    final GeoLineMapper geoLineMapper,
+                    final TrailCoordinatesMapper trailCoordinatesMapper) {
         this.collection = dataSource.getDB().getCollection(Trail.COLLECTION_NAME);
 
         this.trailMapper = trailMapper;
@@ -86,20 +118,50 @@ public class TrailDAO {
         this.cycloMapper = cycloMapper;
         this.trailCodeMapper = trailCodeMapper;
         this.municipalityDetailsMapper = municipalityDetailsMapper;
+        this.geoLineMapper = geoLineMapper;
+        this.trailCoordinatesMapper = trailCoordinatesMapper;
     }
 
     public List<Trail> getTrails(int skip, int limit,
                                  final TrailSimplifierLevel trailSimplifierLevel,
                                  final String realm,
                                  final boolean isDraftTrailVisible) {
+        return getTrails(skip, limit, trailSimplifierLevel, realm, isDraftTrailVisible, Collections.emptySet());
+    }
+
+    public List<Trail> getTrails(int skip, int limit,
+                                 final TrailSimplifierLevel trailSimplifierLevel,
+                                 final String realm,
+                                 final boolean isDraftTrailVisible,
+                                 final Set<TrailField> fields) {
         final Document realmFilter = getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR);
         return toTrailsList(collection.find(
                                 realmFilter.append(Trail.STATUS,
                                         statusFilterHelper.getInFilterBson(isDraftTrailVisible)))
+                        .projection(getTrailProjection(trailSimplifierLevel, fields))
                         .skip(skip).limit(limit),
                 trailSimplifierLevel);
     }
 
+    /**
+     * The page of trails after the continuation token, the first one without it, in id order.
+     */
+    public KeysetPage<Trail> getTrailsAfter(final String continuationToken,
+                                            final int limit,
+                                            final TrailSimplifierLevel trailSimplifierLevel,
+                                            final String realm,
+                                            final boolean isDraftTrailVisible,
+                                            final Set<TrailField> fields) {
+        final Document filter = getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR)
+                .append(Trail.STATUS, statusFilterHelper.getInFilterBson(isDraftTrailVisible));
+        return KeysetPagination.toPage(collection.find(
+                                KeysetPagination.getFilter(filter, continuationToken, Trail.ID, true))
+                        .projection(getTrailProjection(trailSimplifierLevel, fields))
+                        .sort(KeysetPagination.getSort(Trail.ID, true))
+                        .limit(limit),
+                limit, Trail.ID, document -> trailLevelMapper.mapToObject(document, trailSimplifierLevel));
+    }
+
     @NotNull
     public List<TrailPreview> findByMunicipality(@NotNull String municipality, @NotNull String realm,
                                                  boolean isDraftTrailVisible, int skip, int limit) {
@@ -125,23 +187,251 @@ public class TrailDAO {
     }
 
     public List<TrailPreview> getTrailPreviewById(final String id) {
-        return toTrailsPreviewList(collection.find(new Document(Trail.ID, id)));
+        return toTrailsPreviewList(collection.find(new Document(Trail.ID, id))
+                .projection(getWithoutGeometriesProjection()));
     }
 
     public List<Trail> getTrailById(final String id,
                                     final TrailSimplifierLevel trailSimplifierLevel) {
-        return toTrailsList(collection.find(new Document(Trail.ID, id)), trailSimplifierLevel);
+        return getTrailById(id, trailSimplifierLevel, Collections.emptySet());
+    }
+
+    public List<Trail> getTrailById(final String id,
+                                    final TrailSimplifierLevel trailSimplifierLevel,
+                                    final Set<TrailField> fields) {
+        return toTrailsList(collection.find(new Document(Trail.ID, id))
+                .projection(getTrailProjection(trailSimplifierLevel, fields)), trailSimplifierLevel);
+    }
+
+    public List<Trail> getTrailsByIds(final List<String> ids,
+                                      final TrailSimplifierLevel trailSimplifierLevel) {
+        return getTrailsByIds(ids, trailSimplifierLevel, Collections.emptySet());
+    }
+
+    public List<Trail> getTrailsByIds(final List<String> ids,
+                                      final TrailSimplifierLevel trailSimplifierLevel,
+                                      final Set<TrailField> fields) {
+        return toTrailsList(collection.find(new Document(Trail.ID, new Document($_IN, ids)))
+                        .projection(getTrailProjection(trailSimplifierLevel, fields)),
+                trailSimplifierLevel);
+    }
+
+    public List<TrailGeometry> getTrailGeometries() {
+        final FindIterable<Document> documents = collection.find(new Document(Trail.GEO_LINE, new Document($_EXISTS, true)))
+                .projection(new Document(Trail.ID, ONE)
+                        .append(Trail.STATUS, ONE)
+                        .append(Trail.GEO_LINE, ONE));
+        return StreamSupport.stream(documents.spliterator(), false)
+                .map(doc -> new TrailGeometry(doc.getString(Trail.ID),
+                        TrailStatus.valueOf(doc.getString(Trail.STATUS)),
+                        geoLineMapper.mapToObject(doc.get(Trail.GEO_LINE, Document.class))))
+                .collect(toList());
+    }
+
+    public List<TrailPreview> getTrailPreviewsByIds(final List<String> ids) {
+        return toTrailsPreviewList(collection.find(new Document(Trail.ID, new Document($_IN, ids)))
+                .projection(getWithoutGeometriesProjection()));
+    }
+
+    public List<SearchEntry> getTrailSearchEntries() {
+        return getTrailSearchEntries(new Document());
+    }
+
+    public List<SearchEntry> getTrailSearchEntries(final List<String> ids) {
+        return getTrailSearchEntries(new Document(Trail.ID, new Document($_IN, ids)));
+    }
+
+    private List<SearchEntry> getTrailSearchEntries(final Document filter) {
+        final FindIterable<Document> documents = collection.find(filter)
+                .projection(new Document(Trail.ID, ONE)
+                        .append(Trail.CODE, ONE)
+                        .append(Trail.NAME, ONE)
+                        .append(Trail.STATUS, ONE)
+                        .append(Trail.LOCATIONS + DOT + PlaceRef.NAME, ONE)
+                        .append(DB_REALM_STRUCTURE_SELECTOR, ONE));
+        return StreamSupport.stream(documents.spliterator(), false)
+                .map(this::toSearchEntry)
+                .collect(toList());
+    }
+
+    private SearchEntry toSearchEntry(final Document doc) {
+        final String code = doc.getString(Trail.CODE);
+        final String name = doc.getString(Trail.NAME);
+        final List<SearchField> fields = new ArrayList<>();
+        if (code != null) fields.add(new SearchField(code, SearchField.CODE_WEIGHT));
+        if (name != null) fields.add(new SearchField(name, SearchField.NAME_WEIGHT));
+        doc.getList(Trail.LOCATIONS, Document.class, Collections.emptyList()).stream()
+                .map(location -> location.getString(PlaceRef.NAME))
+                .filter(Objects::nonNull)
+                .forEach(locationName -> fields.add(new SearchField(locationName, SearchField.LOCATION_WEIGHT)));
+        final Document recordDetails = doc.get(Trail.RECORD_DETAILS, Document.class);
+        final String status = doc.getString(Trail.STATUS);
+        return new SearchEntry(doc.getString(Trail.ID),
+                SearchEntryType.TRAIL,
+                Stream.of(code, name).filter(value -> value != null && !value.isBlank())
+                        .collect(Collectors.joining(" - ")),
+                recordDetails == null ? null : recordDetails.getString(FileDetails.REALM),
+                status == null ? null : TrailStatus.valueOf(status),
+                fields);
+    }
+
+    public List<TrailTileFeature> getTrailTileFeatures(final List<String> ids,
+                                                       final TrailSimplifierLevel trailSimplifierLevel) {
+        final String coordinatesField = TrailMapper.getCoordinatesFieldName(trailSimplifierLevel);
+        final FindIterable<Document> documents = collection.find(new Document(Trail.ID, new Document($_IN, ids)))
+                .projection(new Document(Trail.ID, ONE)
+                        .append(Trail.CODE, ONE)
+                        .append(Trail.NAME, ONE)
+                        .append(Trail.CLASSIFICATION, ONE)
+                        // The whole field, as binary coordinates cannot be projected into
+                        .append(coordinatesField, ONE));
+        return StreamSupport.stream(documents.spliterator(), false)
+                .map(doc -> new TrailTileFeature(doc.getString(Trail.ID),
+                        doc.getString(Trail.CODE),
+                        doc.getString(Trail.NAME),
+                        doc.getString(Trail.CLASSIFICATION),
+                        trailCoordinatesMapper.mapStoredToObjects(doc.get(coordinatesField)).stream()
+                                .map(point -> new Coordinates2D(point.getLongitude(), point.getLatitude()))
+                                .collect(toList())))
+                .collect(toList());
+    }
+
+    /**
+     * Rewrites the coordinates arrays of the next trails, by id, still stored in the other format.
+     * A trail changed since it was read is left for a later run.
+     *
+     * @return the ids of the trails looked at, empty when none is left to convert
+     */
+    public List<String> convertCoordinatesFormat(final String afterId,
+                                                 final int limit,
+                                                 final boolean toBinary) {
+        final Document notConverted = toBinary ?
+                new Document(Trail.COORDINATES, new Document($_EXISTS, true)
+                        .append($_NOT, new Document($_TYPE, BINARY_TYPE))) :
+                new Document(Trail.COORDINATES, new Document($_TYPE, BINARY_TYPE));
+        final Document filter = new Document(notConverted);
+        if (afterId != null) {
+            filter.append(Trail.ID, new Document($_GT, afterId));
+        }
+        final Document projection = new Document(Trail.LAST_UPDATE_DATE, ONE);
+        COORDINATES_FIELDS.forEach(field -> projection.append(field, ONE));
+
+        final List<String> ids = new ArrayList<>();
+        for (final Document stored : collection.find(filter).projection(projection)
+                .sort(new Document(Trail.ID, ONE)).limit(limit)) {
+            ids.add(stored.getString(Trail.ID));
+            final Document converted = new Document();
+            COORDINATES_FIELDS.stream()
+                    .filter(stored::containsKey)
+                    .forEach(field -> {
+                        final List<TrailCoordinates> coordinates =
+                                new ArrayList<>(trailCoordinatesMapper.mapStoredToObjects(stored.get(field)));
+                        converted.append(field, toBinary ?
+                                trailCoordinatesMapper.mapToBinary(coordinates) :
+                                trailCoordinatesMapper.mapToDocuments(coordinates));
+                    });
+            collection.updateOne(new Document(notConverted)
+                            .append(Trail.ID, stored.getString(Trail.ID))
+                            .append(Trail.LAST_UPDATE_DATE, stored.getDate(Trail.LAST_UPDATE_DATE)),
+                    new Document($_SET, converted));
+        }
+        return ids;
+    }
+
+    /**
+     * Stores the simplified geoLine and the bounding box of the next trails, by id, still missing them.
+     * A trail changed since it was read is left for a later run.
+     *
+     * @return the ids of the trails looked at, empty when none is left to fill
+     */
+    public List<String> backfillSimplifiedGeoLine(final String afterId,
+                                                  final int limit) {
+        final Document missing = getMissingSimplifiedGeoLineFilter();
+        final Document filter = new Document(missing);
+        if (afterId != null) {
+            filter.append(Trail.ID, new Document($_GT, afterId));
+        }
+        final Document projection = new Document(Trail.LAST_UPDATE_DATE, ONE)
+                .append(Trail.GEO_LINE, ONE)
+                .append(Trail.COORDINATES_MEDIUM, ONE);
+
+        final List<String> ids = new ArrayList<>();
+        for (final Document stored : collection.find(filter).projection(projection)
+                .sort(new Document(Trail.ID, ONE)).limit(limit)) {
+            ids.add(stored.getString(Trail.ID));
+            final Document geoLine = stored.get(Trail.GEO_LINE, Document.class);
+            final List<TrailCoordinates> mediumCoordinates = stored.containsKey(Trail.COORDINATES_MEDIUM) ?
+                    trailCoordinatesMapper.mapStoredToObjects(stored.get(Trail.COORDINATES_MEDIUM)) : null;
+            collection.updateOne(new Document(missing)
+                            .append(Trail.ID, stored.getString(Trail.ID))
+                            .append(Trail.LAST_UPDATE_DATE, stored.getDate(Trail.LAST_UPDATE_DATE)),
+                    new Document($_SET, new Document(Trail.GEO_LINE_SIMPLIFIED,
+                            geoLineMapper.mapSimplifiedToDocument(mediumCoordinates, geoLine))
+                            .append(Trail.BBOX, geoLineMapper.mapBoundingBoxToDocument(geoLine))));
+        }
+        return ids;
+    }
+
+    /**
+     * Checks whether any trail still misses the simplified geoLine: until none does,
+     * geo queries run on the full geoLine alone.
+     */
+    public boolean refreshSimplifiedGeoLineState() {
+        isSimplifiedGeoLineComplete = collection.countDocuments(getMissingSimplifiedGeoLineFilter(),
+                new CountOptions().limit(1)) == 0;
+        return isSimplifiedGeoLineComplete;
+    }
+
+    /**
+     * The trails with any of the given ids or referencing any of the given places.
+     */
+    public List<TrailPreview> getTrailPreviewsByIdsOrPlaceIds(final List<String> ids,
+                                                              final List<String> placeIds) {
+        return toTrailsPreviewList(collection.find(new Document($_OR, Arrays.asList(
+                        new Document(Trail.ID, new Document($_IN, ids)),
+                        new Document(PLACE_ID_IN_LOCATIONS, new Document($_IN, placeIds)))))
+                .projection(getWithoutGeometriesProjection()));
+    }
+
+    private Document getMissingSimplifiedGeoLineFilter() {
+        return new Document(Trail.GEO_LINE, new Document($_EXISTS, true))
+                .append(Trail.GEO_LINE_SIMPLIFIED, new Document($_EXISTS, false));
+    }
+
+    /**
+     * The ids of the trails referring to any of the given places, in their locations
+     * or as their start or final position.
+     */
+    public List<String> getTrailIdsByPlaceIds(final Collection<String> placeIds) {
+        final Document inPlaceIds = new Document($_IN, placeIds);
+        return StreamSupport.stream(collection.find(new Document($_OR, Arrays.asList(
+                                new Document(PLACE_ID_IN_LOCATIONS, inPlaceIds),
+                                new Document(Trail.START_POS + DOT + PlaceRef.PLACE_ID, inPlaceIds),
+                                new Document(Trail.FINAL_POS + DOT + PlaceRef.PLACE_ID, inPlaceIds))))
+                        .projection(new Document(Trail.ID, ONE)).spliterator(), false)
+                .map(document -> document.getString(Trail.ID))
+                .collect(Collectors.toList());
     }
 
     public List<String> getCodesById(final List<String> id) {
-        return toTrailCodeList(collection.find(new Document(Trail.ID, new Document($_IN, id))));
+        return toTrailCodeList(collection.find(new Document(Trail.ID, new Document($_IN, id)))
+                .projection(new Document(Trail.CODE, ONE)));
     }
 
     public List<Trail> getTrailByPlaceId(final String id,
                                          final int page,
                                          final int limit,
                                          final TrailSimplifierLevel trailSimplifierLevel) {
+        return getTrailByPlaceId(id, page, limit, trailSimplifierLevel, Collections.emptySet());
+    }
+
+    public List<Trail> getTrailByPlaceId(final String id,
+                                         final int page,
+                                         final int limit,
+                                         final TrailSimplifierLevel trailSimplifierLevel,
+                                         final Set<TrailField> fields) {
         return toTrailsList(collection.find(new Document(PLACE_ID_IN_LOCATIONS, id))
+                        .projection(getTrailProjection(trailSimplifierLevel, fields))
                         .skip(page)
                         .limit(limit),
                 trailSimplifierLevel);
@@ -191,6 +481,28 @@ public class TrailDAO {
         );
     }
 
+    /**
+     * The page of trail previews after the continuation token, the first one without it,
+     * in code order as {@link #getTrailPreviews}.
+     */
+    public KeysetPage<TrailPreview> getTrailPreviewsAfter(final String continuationToken,
+                                                          final int limit,
+                                                          final String realm,
+                                                          final boolean isDraftTrailVisible) {
+        final Document filter = getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR);
+        return KeysetPagination.toPage(
+                collection.aggregate(
+                        Arrays.asList(
+                                match(KeysetPagination.getFilter(filter, continuationToken, Trail.CODE, true)),
+                                match(getBsonAggregateStatusInFilter(isDraftTrailVisible)),
+                                // Ahead of the projection, the sort and limit are read from the code index
+                                Aggregates.sort(KeysetPagination.getSort(Trail.CODE, true)),
+                                Aggregates.limit(limit),
+                                getTrailPreviewProjection())
+                ),
+                limit, Trail.CODE, trailPreviewMapper::mapToObject);
+    }
+
     public List<TrailPreview> findPreviewsByCode(final String code, final int skip,
                                                  final int limit, final String realm,
                                                  final boolean isDraftTrailVisible) {
@@ -206,7 +518,7 @@ public class TrailDAO {
                         match(statusFilter),
                         match(realmFilter),
                         project, aOrder,
-                        aLimit, aSkip)));
+                        aSkip, aLimit)));
     }
 
     public List<MunicipalityDetails> distinctMunicipality() {
@@ -251,7 +563,8 @@ public class TrailDAO {
             final List<String> excludedTrails) {
         final List<Double> resolvedTopLeftVertex = resolveVertex(geoSquare.getBottomLeft(), geoSquare.getTopRight());
         final List<Double> resolvedBottomRightVertex = resolveVertex(geoSquare.getTopRight(), geoSquare.getBottomLeft());
-        final FindIterable<Document> foundTrails = foundTrailsWithinSquare(geoSquare, skip, limit, resolvedTopLeftVertex, resolvedBottomRightVertex, isDraftTrailVisible, excludedTrails);
+        final FindIterable<Document> foundTrails = foundTrailsWithinSquare(geoSquare, skip, limit, isDraftTrailVisible, excludedTrails)
+                .projection(getTrailProjection(level, Collections.emptySet()));
         LOGGER.trace("findTrailWithinGeoSquare geoSquare: {}, skip: {}, limit: {}, level: {}, resolvedTopLeftVertex: {}, resolvedBottomRightVertex: {}",
                 geoSquare, skip, limit, level, resolvedTopLeftVertex, resolvedBottomRightVertex);
         return toTrailsList(foundTrails, level);
@@ -260,10 +573,8 @@ public class TrailDAO {
     public List<TrailMapping> findTrailMappingWithinGeoSquare(
             final CoordinatesRectangle geoSquare,
             final int skip, final int limit) {
-        final List<Double> resolvedTopLeftVertex = resolveVertex(geoSquare.getBottomLeft(), geoSquare.getTopRight());
-        final List<Double> resolvedBottomRightVertex = resolveVertex(geoSquare.getTopRight(), geoSquare.getBottomLeft());
         final FindIterable<Document> foundTrails = foundTrailsWithinSquare(geoSquare, skip, limit,
-                resolvedTopLeftVertex, resolvedBottomRightVertex, true, Collections.emptyList())
+                true, Collections.emptyList())
                 .projection(new Document(Trail.ID, ONE).append(Trail.CODE, ONE).append(Trail.NAME, ONE));
         return toTrailsMappingList(foundTrails);
     }
@@ -276,7 +587,7 @@ public class TrailDAO {
                         $_BOX,
                         Arrays.asList(outerGeoSquare.getBottomLeft().getAsList(),
                                 outerGeoSquare.getTopRight().getAsList())
-                )))).skip(skip).limit(limit);
+                )))).projection(getTrailProjection(level, Collections.emptySet())).skip(skip).limit(limit);
         return toTrailsList(foundTrails, level);
     }
 
@@ -325,34 +636,67 @@ public class TrailDAO {
                                 .collect(Collectors.toList()))));
     }
 
-    public List<TrailPreview> searchByLocationOrTrailNameCode(
-            String name,
-            String realm,
-            boolean isDraftTrailVisible,
-            int skip, int limit) {
-        final Document realmFilter = getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR);
-        final Bson statusFilter = getBsonAggregateStatusInFilter(isDraftTrailVisible);
-        final Bson aLimit = Aggregates.limit(limit);
-        final Bson aSkip = Aggregates.skip(skip);
-        final Bson aOrder = Aggregates.sort(new Document(Trail.CODE, 1));
-        final Document filter = new Document($_OR, Arrays.asList(
-                new Document("locations.name", getAnyMatchingPattern(name)),
-                new Document("name", getAnyStartingPattern(name)),
-                new Document("code", getAnyStartingPattern(name))
-        ));
-        final AggregateIterable<Document> foundTrails =
-                collection.aggregate(
-                        Arrays.asList(
-                                match(filter),
-                                match(statusFilter),
-                                match(realmFilter),
-                                aOrder,
-                                aLimit,
-                                aSkip));
-        return toTrailsPreviewList(foundTrails);
+    /**
+     * Writes all the updates in a single round trip. The changes are applied to the stored
+     * locations rather than replacing them, so that concurrent updates of a trail are not lost:
+     * a reference is added only if the trail has none to its place yet, and encountered trails
+     * are only ever added.
+     */
+    public void updateLocations(final List<TrailLocationsUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        final List<UpdateOneModel<Document>> models = new ArrayList<>();
+        updates.forEach(update -> {
+            final List<PlaceRef> locations = update.getLocations();
+            for (int position = 0; position < locations.size(); position++) {
+                final PlaceRef location = locations.get(position);
+                if (update.getAddedPlaceIds().contains(location.getPlaceId())) {
+                    models.add(new UpdateOneModel<>(new Document(Trail.ID, update.getTrailId())
+                            .append(PLACE_ID_IN_LOCATIONS, new Document($_NOT_EQUAL, location.getPlaceId())),
+                            new Document($PUSH, new Document(Trail.LOCATIONS,
+                                    new Document($EACH, Collections.singletonList(placeRefMapper.mapToDocument(location)))
+                                            .append($POSITION, position)))));
+                }
+            }
+
+            final Document addToSet = new Document();
+            final Document set = new Document();
+            final List<Document> arrayFilters = new ArrayList<>();
+            final List<PlaceRef> distinctLocations = new ArrayList<>(locations.stream()
+                    .collect(Collectors.toMap(PlaceRef::getPlaceId, location -> location,
+                            (first, second) -> first, LinkedHashMap::new))
+                    .values());
+            for (int index = 0; index < distinctLocations.size(); index++) {
+                final PlaceRef location = distinctLocations.get(index);
+                final String refIdentifier = "ref" + index;
+                final String refPath = Trail.LOCATIONS + ".$[" + refIdentifier + "].";
+                addToSet.append(refPath + PlaceRef.ENCOUNTERED_TRAIL_IDS,
+                        new Document($EACH, location.getEncounteredTrailIds() == null ?
+                                Collections.emptyList() : location.getEncounteredTrailIds()));
+                if (update.getRenamedPlaceIds().contains(location.getPlaceId())) {
+                    set.append(refPath + PlaceRef.NAME, location.getName());
+                }
+                arrayFilters.add(new Document(refIdentifier + DOT + PlaceRef.PLACE_ID, location.getPlaceId()));
+            }
+            if (update.getStartPosName() != null) {
+                set.append(Trail.START_POS + DOT + PlaceRef.NAME, update.getStartPosName());
+            }
+            if (update.getFinalPosName() != null) {
+                set.append(Trail.FINAL_POS + DOT + PlaceRef.NAME, update.getFinalPosName());
+            }
+            final Document changes = new Document();
+            if (!addToSet.isEmpty()) changes.append($ADD_TO_SET, addToSet);
+            if (!set.isEmpty()) changes.append($_SET, set);
+            if (!changes.isEmpty()) {
+                models.add(new UpdateOneModel<>(new Document(Trail.ID, update.getTrailId()), changes,
+                        new UpdateOptions().arrayFilters(arrayFilters)));
+            }
+        });
+        // Ordered, for the references of a trail to be added before they are updated
+        collection.bulkWrite(models, new BulkWriteOptions().ordered(true));
     }
 
-
     public long countTrail() {
         return collection.countDocuments();
     }
@@ -363,6 +707,23 @@ public class TrailDAO {
                         .append(Trail.STATUS, statusFilterHelper.getInFilterBson(isDraftTrailVisible)));
     }
 
+    /**
+     * Walks the ids of the trails in the realm from a single cursor, without holding
+     * them in memory. The consumer may take long on each id.
+     */
+    public void forEachTrailId(final String realm, boolean isDraftTrailVisible,
+                               final Consumer<String> consumer) {
+        try (final MongoCursor<Document> cursor = collection.find(
+                        getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR)
+                                .append(Trail.STATUS, statusFilterHelper.getInFilterBson(isDraftTrailVisible)))
+                .projection(new Document(Trail.ID, ONE))
+                .sort(new Document(Trail.ID, ONE))
+                .noCursorTimeout(true)
+                .iterator()) {
+            cursor.forEachRemaining(document -> consumer.accept(document.getString(Trail.ID)));
+        }
+    }
+
     private List<TrailPreview> toTrailsPreviewList(final Iterable<Document> documents) {
         return StreamSupport.stream(documents.spliterator(), false)
                 .map(trailPreviewMapper::mapToObject).collect(toList());
@@ -393,29 +754,87 @@ public class TrailDAO {
     private FindIterable<Document> foundTrailsWithinSquare(final CoordinatesRectangle geoSquare,
                                                            final int skip,
                                                            final int limit,
-                                                           final List<Double> resolvedTopLeftVertex,
-                                                           final List<Double> resolvedBottomRightVertex,
                                                            final boolean isDraftTrailVisible,
                                                            final List<String> excludedTrails) {
         final List<String> inStatusFilter = statusFilterHelper.getInFilter(isDraftTrailVisible);
-        return collection.find(
-                new Document(Trail.STATUS,
-                        new Document($_IN, inStatusFilter))
-                        .append(Trail.ID, new Document($_NIN, excludedTrails))
-                        .append(Trail.GEO_LINE,
-                                new Document($_GEO_INTERSECT,
-                                        new Document($_GEOMETRY, new Document(GEO_TYPE, GEO_POLYGON)
-                                                .append(GEO_COORDINATES,
-                                                        Collections.singletonList(
-                                                                Arrays.asList(
-                                                                        geoSquare.getBottomLeft().getAsList(),
-                                                                        resolvedTopLeftVertex,
-                                                                        geoSquare.getTopRight().getAsList(),
-                                                                        resolvedBottomRightVertex,
-                                                                        geoSquare.getBottomLeft().getAsList()
-                                                                )
-                                                        )
-                                                ))))).skip(skip).limit(limit);
+        final Document filter = new Document(Trail.STATUS,
+                new Document($_IN, inStatusFilter))
+                .append(Trail.ID, new Document($_NIN, excludedTrails))
+                .append(Trail.GEO_LINE, getIntersectingFilter(geoSquare.getBottomLeft(), geoSquare.getTopRight()));
+        if (!isSimplifiedGeoLineComplete) {
+            return collection.find(filter).skip(skip).limit(limit);
+        }
+        // Candidates from the bounding box and the index on the simplified geoLine,
+        // the full geoLine only tested on them
+        final Coordinates2D bottomLeft = new Coordinates2D(
+                geoSquare.getBottomLeft().getLongitude() - SIMPLIFIED_GEO_LINE_MARGIN,
+                geoSquare.getBottomLeft().getLatitude() - SIMPLIFIED_GEO_LINE_MARGIN);
+        final Coordinates2D topRight = new Coordinates2D(
+                geoSquare.getTopRight().getLongitude() + SIMPLIFIED_GEO_LINE_MARGIN,
+                geoSquare.getTopRight().getLatitude() + SIMPLIFIED_GEO_LINE_MARGIN);
+        filter.append(Trail.BBOX + DOT + BoundingBox.MIN_LONGITUDE, new Document($_LTE, topRight.getLongitude()))
+                .append(Trail.BBOX + DOT + BoundingBox.MAX_LONGITUDE, new Document($_GTE, bottomLeft.getLongitude()))
+                .append(Trail.BBOX + DOT + BoundingBox.MIN_LATITUDE, new Document($_LTE, topRight.getLatitude()))
+                .append(Trail.BBOX + DOT + BoundingBox.MAX_LATITUDE, new Document($_GTE, bottomLeft.getLatitude()))
+                .append(Trail.GEO_LINE_SIMPLIFIED, getIntersectingFilter(bottomLeft, topRight));
+        return collection.find(filter).hint(SIMPLIFIED_GEO_LINE_INDEX).skip(skip).limit(limit);
+    }
+
+    private Document getIntersectingFilter(final Coordinates2D bottomLeft,
+                                           final Coordinates2D topRight) {
+        return new Document($_GEO_INTERSECT,
+                new Document($_GEOMETRY, new Document(GEO_TYPE, GEO_POLYGON)
+                        .append(GEO_COORDINATES,
+                                Collections.singletonList(
+                                        Arrays.asList(
+                                                bottomLeft.getAsList(),
+                                                resolveVertex(bottomLeft, topRight),
+                                                topRight.getAsList(),
+                                                resolveVertex(topRight, bottomLeft),
+                                                bottomLeft.getAsList()
+                                        )
+                                ))));
+    }
+
+    private Document getTrailProjection(final TrailSimplifierLevel level,
+                                        final Set<TrailField> fields) {
+        return getTrailProjection(level, level == TrailSimplifierLevel.FULL, fields);
+    }
+
+    /**
+     * Each trail document carries four coordinates arrays, a full resolution geoLine and a simplified one:
+     * only the array of the requested level is read, the geoLine only when needed and the simplified one never.
+     * When fields are selected, only their document fields are read.
+     */
+    private Document getTrailProjection(final TrailSimplifierLevel level,
+                                        final boolean includeGeoLine,
+                                        final Set<TrailField> fields) {
+        if (!fields.isEmpty()) {
+            final Document projection = new Document(Trail.ID, ONE);
+            fields.forEach(field -> field.getDocumentFields(level)
+                    .forEach(documentField -> projection.append(documentField, ONE)));
+            if (includeGeoLine) {
+                projection.append(Trail.GEO_LINE, ONE);
+            }
+            return projection;
+        }
+        final String levelCoordinatesField = TrailMapper.getCoordinatesFieldName(level);
+        final Document projection = new Document();
+        COORDINATES_FIELDS.stream()
+                .filter(field -> !field.equals(levelCoordinatesField))
+                .forEach(field -> projection.append(field, ZERO));
+        projection.append(Trail.GEO_LINE_SIMPLIFIED, ZERO);
+        if (!includeGeoLine) {
+            projection.append(Trail.GEO_LINE, ZERO);
+        }
+        return projection;
+    }
+
+    private Document getWithoutGeometriesProjection() {
+        final Document projection = new Document(Trail.GEO_LINE, ZERO)
+                .append(Trail.GEO_LINE_SIMPLIFIED, ZERO);
+        COORDINATES_FIELDS.forEach(field -> projection.append(field, ZERO));
+        return projection;
     }
 
     private Bson getTrailPreviewProjection() {
@@ -462,7 +881,10 @@ public class TrailDAO {
                                                 .map(municipalityDetailsMapper::mapToDocument).collect(toSet()))
                                 .append(Trail.TERRITORIAL_CARED_BY, trail.getTerritorialDivision())
                 ));
-        return getTrailById(trail.getId(), TrailSimplifierLevel.LOW);
+        // The geoLine is read back as well, for the caller to keep the spatial index current
+        return toTrailsList(collection.find(new Document(Trail.ID, trail.getId()))
+                        .projection(getTrailProjection(TrailSimplifierLevel.LOW, true, Collections.emptySet())),
+                TrailSimplifierLevel.LOW);
     }
 
     @NotNull
@@ -488,22 +910,39 @@ public class TrailDAO {
         return getTrailById(trailId, TrailSimplifierLevel.LOW);
     }
 
-    public void updateAllPlaceReferencesWithNewPlaceId(@NotNull String oldId,
-                                                       @NotNull String id,
-                                                       @NotNull String name
-    ) {
-        collection.updateMany(
-                new Document(PLACE_ID_IN_LOCATIONS, oldId),
-                new Document($_SET, new Document(PLACE_ID_IN_LOCATIONS_POSITIONAL, id))
-                        .append($_SET, new Document(PLACE_NAME_IN_LOCATIONS_POSITIONAL, name)));
+    /**
+     * Points every reference to each replaced place, in the locations as well as in the start
+     * and final positions, to its replacement, in a single round trip.
+     */
+    public void replacePlaceReferences(final Map<String, Place> replacementsByPlaceId) {
+        if (replacementsByPlaceId.isEmpty()) {
+            return;
+        }
+        final String refIdentifier = "ref";
+        final List<WriteModel<Document>> models = new ArrayList<>();
+        replacementsByPlaceId.forEach((placeId, replacement) -> {
+            models.add(new UpdateManyModel<>(new Document(PLACE_ID_IN_LOCATIONS, placeId),
+                    new Document($_SET, new Document(
+                            Trail.LOCATIONS + ".$[" + refIdentifier + "]." + PlaceRef.PLACE_ID, replacement.getId())
+                            .append(Trail.LOCATIONS + ".$[" + refIdentifier + "]." + PlaceRef.NAME, replacement.getName())),
+                    new UpdateOptions().arrayFilters(Collections.singletonList(
+                            new Document(refIdentifier + DOT + PlaceRef.PLACE_ID, placeId)))));
+            Arrays.asList(Trail.START_POS, Trail.FINAL_POS).forEach(position ->
+                    models.add(new UpdateManyModel<>(new Document(position + DOT + PlaceRef.PLACE_ID, placeId),
+                            new Document($_SET, new Document(position + DOT + PlaceRef.PLACE_ID, replacement.getId())
+                                    .append(position + DOT + PlaceRef.NAME, replacement.getName())))));
+        });
+        collection.bulkWrite(models, new BulkWriteOptions().ordered(false));
     }
 
-
     public List<TrailMapping> getByStartEndPoint(final double startLatitude, final double startLongitude,
                                                  final double endLatitude, final double endLongitude) {
         final FindIterable<Document> documents = collection.find(
                 new Document(START_POS_COORDINATES, Arrays.asList(startLongitude, startLatitude))
-                        .append(FINAL_POS_COORDINATES, Arrays.asList(endLongitude, endLatitude)));
+                        .append(FINAL_POS_COORDINATES, Arrays.asList(endLongitude, endLatitude)))
+                .projection(new Document(Trail.ID, ONE)
+                        .append(Trail.CODE, ONE)
+                        .append(Trail.NAME, ONE));
 
         return toTrailsMappingList(documents);
     }
@@ -520,18 +959,6 @@ public class TrailDAO {
                 topRight.getLatitude());
     }
 
-    public long countFindingByNameOrLocationName(@Nullable String name, @NotNull String realm,
-                                                 boolean draftTrailVisible) {
-        final Document realmFilter = getConditionalEqFilter(realm, DB_REALM_STRUCTURE_SELECTOR);
-        final Bson statusFilter = getBsonAggregateStatusInFilter(draftTrailVisible);
-        return collection.countDocuments(
-                new Document($_OR, Arrays.asList(
-                        new Document("locations.name", getAnyMatchingPattern(name)),
-                        new Document("name", getAnyMatchingPattern(name)),
-                        realmFilter, statusFilter
-                )));
-    }
-
     public void updateStaticResources(final String id,
                                       final Document mapToDocument) {
         collection.updateOne(
@@ -545,7 +972,8 @@ public class TrailDAO {
         return toTrailsList(
                 collection.find(
                         new Document(Trail.MUNICIPALITIES,
-                                Collections.emptyList())),
+                                Collections.emptyList()))
+                        .projection(getTrailProjection(TrailSimplifierLevel.LOW, Collections.emptySet())),
                 TrailSimplifierLevel.LOW);
     }
 
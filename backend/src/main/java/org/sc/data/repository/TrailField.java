@@ -0,0 +1,62 @@
+package org.sc.data.repository;
+
+import org.sc.data.entity.mapper.TrailMapper;
+import org.sc.data.model.Trail;
+import org.sc.processor.TrailSimplifierLevel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Trail fields that can be selected on read, by their REST API name,
+ * with the document fields backing each of them.
+ */
+public enum TrailField {
+    CODE("code", Trail.CODE),
+    NAME("name", Trail.NAME),
+    DESCRIPTION("description", Trail.DESCRIPTION),
+    CLASSIFICATION("classification", Trail.CLASSIFICATION),
+    STATUS("status", Trail.STATUS),
+    COUNTRY("country", Trail.COUNTRY),
+    OFFICIAL_ETA("officialEta", Trail.OFFICIAL_ETA),
+    VARIANT("variant", Trail.VARIANT),
+    STATS("stats", Trail.STATS_METADATA),
+    LOCATIONS("locations", Trail.LOCATIONS, Trail.START_POS, Trail.FINAL_POS),
+    // Resolved to the coordinates array of the requested simplification level
+    COORDINATES("coordinates"),
+    MEDIA("media", Trail.MEDIA),
+    MUNICIPALITIES("municipalities", Trail.MUNICIPALITIES),
+    CYCLO("cyclo", Trail.CYCLO),
+    FILE_DETAILS("fileDetails", Trail.RECORD_DETAILS),
+    STATIC_TRAIL_DETAILS("staticTrailDetails", Trail.STATIC_TRAIL_DETAILS),
+    LAST_UPDATE("lastUpdate", Trail.LAST_UPDATE_DATE),
+    MAINTAINING_SECTION("maintainingSection", Trail.SECTION_CARED_BY),
+    TERRITORIAL_DIVISION("territorialDivision", Trail.TERRITORIAL_CARED_BY);
+
+    private final String apiName;
+    private final List<String> documentFields;
+
+    TrailField(final String apiName, final String... documentFields) {
+        this.apiName = apiName;
+        this.documentFields = Arrays.asList(documentFields);
+    }
+
+    public String getApiName() {
+        return apiName;
+    }
+
+    public List<String> getDocumentFields(final TrailSimplifierLevel level) {
+        if (this == COORDINATES) {
+            return Collections.singletonList(TrailMapper.getCoordinatesFieldName(level));
+        }
+        return documentFields;
+    }
+
+    public static Optional<TrailField> fromApiName(final String apiName) {
+        return Arrays.stream(values())
+                .filter(field -> field.apiName.equalsIgnoreCase(apiName.trim()))
+                .findFirst();
+    }
+}
@@ -0,0 +1,31 @@
+package org.sc.data.search
+
+import org.sc.data.model.TrailStatus
+
+enum class SearchEntryType { TRAIL, PLACE }
+
+/**
+ * Text of a field that can be searched, and how much a match on it counts.
+ */
+data class SearchField(val value: String, val weight: Int) {
+    companion object {
+        const val CODE_WEIGHT = 4
+        const val NAME_WEIGHT = 3
+        const val TAG_WEIGHT = 2
+        const val LOCATION_WEIGHT = 1
+    }
+}
+
+/**
+ * A searchable trail or place, with the realm and status its results are filtered by.
+ */
+data class SearchEntry(val id: String,
+                       val type: SearchEntryType,
+                       val label: String,
+                       val realm: String?,
+                       val status: TrailStatus?,
+                       val fields: List<SearchField>)
+
+data class SearchHit(val entry: SearchEntry, val score: Int)
+
+data class SearchPage(val hits: List<SearchHit>, val totalCount: Long)
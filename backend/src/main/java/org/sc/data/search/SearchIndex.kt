@@ -0,0 +1,145 @@
+package org.sc.data.search
+
+import org.sc.data.model.TrailStatus
+import org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN
+import org.springframework.stereotype.Component
+import java.text.Normalizer
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentSkipListMap
+
+/**
+ * Node-local prefix index of the words in trail codes and names, the names of their
+ * locations and place names and tags, used for typeahead search without regex scans.
+ *
+ * Words are lower-cased and stripped of accents; a query matches an entry when each of its
+ * words is the start of one of the entry words. Results are ranked by the weight of the
+ * fields matched, whole words counting twice and an entry starting with the query scoring more.
+ * Entries are updated one by one as trails and places change; until both types are
+ * loaded the index is not ready and searches return null.
+ */
+@Component
+class SearchIndex {
+
+    companion object {
+        private val NON_WORD = Regex("[^\\p{L}\\p{N}]+")
+        private val MARKS = Regex("\\p{M}+")
+
+        fun tokenize(text: String): List<String> =
+            MARKS.replace(Normalizer.normalize(text, Normalizer.Form.NFD), "")
+                .lowercase(Locale.ROOT)
+                .split(NON_WORD)
+                .filter { it.isNotEmpty() }
+    }
+
+    private val entries = ConcurrentHashMap<EntryKey, IndexedEntry>()
+    private val words = ConcurrentSkipListMap<String, MutableSet<EntryKey>>()
+    private val loadedTypes = ConcurrentHashMap.newKeySet<SearchEntryType>()
+
+    val isReady: Boolean
+        get() = loadedTypes.size == SearchEntryType.values().size
+
+    val size: Int
+        get() = entries.size
+
+    /**
+     * Replaces all the entries of the given type.
+     */
+    @Synchronized
+    fun load(type: SearchEntryType, searchEntries: List<SearchEntry>) {
+        entries.keys.filter { it.type == type }.forEach { removeEntry(it) }
+        searchEntries.forEach { putEntry(it) }
+        loadedTypes.add(type)
+    }
+
+    @Synchronized
+    fun put(searchEntry: SearchEntry) {
+        removeEntry(EntryKey(searchEntry.type, searchEntry.id))
+        putEntry(searchEntry)
+    }
+
+    @Synchronized
+    fun remove(type: SearchEntryType, id: String) {
+        removeEntry(EntryKey(type, id))
+    }
+
+    /**
+     * Returns a page of the ranked entries matching the query, or null if the index is not ready.
+     * Trails are only returned when in one of the given statuses.
+     */
+    fun search(query: String,
+               types: Collection<SearchEntryType>,
+               realm: String,
+               statuses: Collection<TrailStatus>,
+               skip: Int,
+               limit: Int): SearchPage? {
+        if (!isReady) return null
+        val queryWords = tokenize(query).distinct()
+        if (queryWords.isEmpty()) return SearchPage(emptyList(), 0)
+
+        var candidates: Set<EntryKey> = emptySet()
+        // Longer words have fewer matches, narrowing the candidates sooner
+        for ((index, queryWord) in queryWords.sortedByDescending { it.length }.withIndex()) {
+            val matching = HashSet<EntryKey>()
+            words.subMap(queryWord, true, queryWord + Char.MAX_VALUE, false).values.forEach { matching.addAll(it) }
+            candidates = if (index == 0) matching else candidates.intersect(matching)
+            if (candidates.isEmpty()) break
+        }
+
+        val phrase = queryWords.joinToString(" ")
+        val hits = candidates.asSequence()
+            .mapNotNull { entries[it] }
+            .filter { types.contains(it.entry.type) }
+            .filter { realm == NO_FILTERING_TOKEN || realm == it.entry.realm }
+            .filter { it.entry.status == null || statuses.contains(it.entry.status) }
+            .map { SearchHit(it.entry, it.score(queryWords, phrase)) }
+            .sortedWith(compareByDescending<SearchHit> { it.score }
+                .thenBy { it.entry.label.lowercase(Locale.ROOT) }
+                .thenBy { it.entry.id })
+            .toList()
+        return SearchPage(hits.drop(skip).take(limit), hits.size.toLong())
+    }
+
+    private fun putEntry(searchEntry: SearchEntry) {
+        val key = EntryKey(searchEntry.type, searchEntry.id)
+        val indexedEntry = IndexedEntry(searchEntry,
+            searchEntry.fields.map { IndexedField(tokenize(it.value), it.weight) })
+        entries[key] = indexedEntry
+        indexedEntry.fields.flatMap { it.words }.distinct().forEach { word ->
+            words.computeIfAbsent(word) { ConcurrentHashMap.newKeySet() }.add(key)
+        }
+    }
+
+    private fun removeEntry(key: EntryKey) {
+        val indexedEntry = entries.remove(key) ?: return
+        indexedEntry.fields.flatMap { it.words }.distinct().forEach { word ->
+            val keys = words[word] ?: return@forEach
+            keys.remove(key)
+            if (keys.isEmpty()) words.remove(word)
+        }
+    }
+
+    private data class EntryKey(val type: SearchEntryType, val id: String)
+
+    private class IndexedField(val words: List<String>, val weight: Int) {
+        val phrase = words.joinToString(" ")
+    }
+
+    private class IndexedEntry(val entry: SearchEntry, val fields: List<IndexedField>) {
+
+        fun score(queryWords: List<String>, phrase: String): Int {
+            val wordsScore = queryWords.sumOf { queryWord ->
+                fields.maxOfOrNull { field ->
+                    when {
+                        field.words.contains(queryWord) -> field.weight * 2
+                        field.words.any { it.startsWith(queryWord) } -> field.weight
+                        else -> 0
+                    }
+                } ?: 0
+            }
+            val phraseScore = fields.filter { it.phrase.startsWith(phrase) }
+                .maxOfOrNull { it.weight * 2 } ?: 0
+            return wordsScore + phraseScore
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.sc.data.validator
+
+import org.sc.common.rest.BatchRequestDto
+import org.sc.configuration.AppBoundaries.MAX_DOCS_ON_READ
+import org.sc.data.validator.ValidatorUtils.Companion.emptyFieldError
+import org.springframework.stereotype.Component
+
+@Component
+class BatchRequestValidator : Validator<BatchRequestDto> {
+
+    companion object {
+        @JvmField
+        val MAX_IDS : Int = MAX_DOCS_ON_READ.toInt()
+
+        const val TOO_MANY_IDS_ERROR : String = "Too many ids requested. Maximum allowed is %s"
+    }
+
+    override fun validate(request: BatchRequestDto): Set<String> {
+        val errors = mutableSetOf<String>()
+        if (request.ids.isEmpty() || request.ids.any { it.isBlank() }) {
+            errors.add(String.format(emptyFieldError, "ids"))
+        }
+        if (request.ids.size > MAX_IDS) {
+            errors.add(String.format(TOO_MANY_IDS_ERROR, MAX_IDS))
+        }
+        return errors
+    }
+}
@@ -14,6 +14,7 @@ import java.io.File
 class GeneralValidator @Autowired constructor(
     private val trailRawValidator: TrailRawValidator,
     private val accessibilityValidator: AccessibilityValidator,
+    private val batchRequestValidator: BatchRequestValidator,
     private val coordinatesValidator: CoordinatesValidator,
     private val fileNameValidator: FileNameValidator,
     private val keyValValidator: KeyValValidator,
@@ -40,6 +41,7 @@ class GeneralValidator @Autowired constructor(
 ) {
     fun validate(acd: AccessibilityReportDto): Set<String> = accessibilityReportValidator.validate(acd)
     fun validate(acd: AccessibilityNotificationDto): Set<String> = accessibilityValidator.validate(acd)
+    fun validate(br: BatchRequestDto): Set<String> = batchRequestValidator.validate(br)
     fun validate(tpl: LinkedPlaceDto): Set<String> = linkedPlaceValidator.validate(tpl)
     fun validate(cor: CoordinatesDto): Set<String> = coordinatesValidator.validate(cor)
     fun validate(cor: Coordinates2DDto): Set<String> = coordinatesValidator.validate2D(cor)
@@ -1,121 +1,217 @@
 package org.sc.job;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.logging.log4j.Logger;
 import org.sc.configuration.AppProperties;
-import org.sc.data.entity.mapper.MediaMapper;
 import org.sc.data.model.Media;
+import org.sc.job.scalingalgorithms.ImageSource;
 import org.sc.manager.MediaManager;
 import org.sc.util.FileManagementUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.stream.ImageOutputStream;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static org.apache.logging.log4j.LogManager.getLogger;
 
+/**
+ * Compresses the uploaded images into every {@link Resolution}.
+ * <p>
+ * Each run claims a batch of the instance's uncompressed media, leasing them so that
+ * an overlapping run skips them, and compresses them on a pool with a worker per core.
+ * The smaller resolutions decode only the pixels they need, subsampled, and the full-size
+ * ones share a single full-resolution decode. Media that could not be compressed
+ * are claimed again by the first run after their lease.
+ */
 @Component
 public class CompressImageJob {
     private static final Logger LOGGER = getLogger(CompressImageJob.class);
 
+    public static final String METRIC_NAME = "media.compression";
+
+    private static final long LEASE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    // Smallest first: their subsampled reads are done before the full-resolution image is decoded and kept
+    private static final List<Resolution> DECODING_ORDER = decodingOrder();
+
     private static final String STARTING_COMPRESSION_JOB = "Going to run images compression job for instance Id '%s' (batch size: %s)...";
-    private static final String DONE_COMPRESSION_JOB = "Done with images compression job.";
-    private static final String COMPRESSION_PROGRESS = "Compressed image %s of batch with size %s...";
+    private static final String DONE_COMPRESSION_JOB = "Done with images compression job: %s images in %s ms.";
     private static final String COMPRESSION_FILENAME_PROGRESS = "Processing image '%s'...";
     private static final String COMPRESSION_FILENAME_DONE_PROGRESS = "Done Processing image '%s'...";
     private static final String COMPRESSION_BUT_NO_DELETION = "Done compressing, but could not delete '%s'...";
 
-    private final MediaMapper mapper;
     private final MediaManager mediaManager;
     private final FileManagementUtil fileManagementUtil;
     private final AppProperties appProperties;
+    private final ThreadPoolExecutor executor;
+    private final AtomicBoolean isRunning = new AtomicBoolean();
+
+    private final Counter compressedImages;
+    private final Counter failedImages;
+    private final Timer compressionTimer;
+    private final AtomicLong lastBatchImagesPerSecond = new AtomicLong();
 
     @Autowired
     public CompressImageJob(final MediaManager mediaManager,
-                            final MediaMapper mapper,
                             final AppProperties appProperties,
-                            final FileManagementUtil fileManagementUtil) {
+                            final FileManagementUtil fileManagementUtil,
+                            final MeterRegistry meterRegistry) {
         this.mediaManager = mediaManager;
-        this.mapper = mapper;
         this.appProperties = appProperties;
         this.fileManagementUtil = fileManagementUtil;
+
+        final int workers = Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 2),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "image-compression-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.compressedImages = Counter.builder(METRIC_NAME + ".images").tag("result", "done")
+                .register(meterRegistry);
+        this.failedImages = Counter.builder(METRIC_NAME + ".images").tag("result", "failed")
+                .register(meterRegistry);
+        this.compressionTimer = Timer.builder(METRIC_NAME + ".time").register(meterRegistry);
+        meterRegistry.gauge(METRIC_NAME + ".images.per.second", lastBatchImagesPerSecond);
     }
 
     @Scheduled(cron = "0 */2 0-23 * * *")
     public void doCompressImages() {
+        if (!isRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            compressImages();
+        } finally {
+            isRunning.set(false);
+        }
+    }
 
-        int elaboratedImages = 0;
-
+    private void compressImages() {
         final int batchSize = appProperties.getJobImageBatchSize();
         final String instanceId = appProperties.getInstanceId();
 
         LOGGER.trace(format(STARTING_COMPRESSION_JOB, instanceId, batchSize));
 
-        while (hasUncompressImageAndBelowThreshold(elaboratedImages, batchSize, instanceId)) {
-            final Media media = mapper.mapToObject(
-                    mediaManager.getUncompressedMedia(instanceId)
-                    .iterator().next());
-            final String resolvedFileAddress = fileManagementUtil.getMediaStoragePath() + getFileName(media);
-            final File file = new File(resolvedFileAddress);
-            final Resolution[] resolutionValues = Resolution.values();
+        List<Media> claimed;
+        do {
+            claimed = mediaManager.claimUncompressedMedia(instanceId, batchSize, LEASE_MILLIS);
+            if (claimed.isEmpty() || !compressBatch(claimed)) {
+                return;
+            }
+        } while (claimed.size() == batchSize);
+    }
 
-            try {
-                final BufferedImage originalImage = ImageIO.read(file);
-                final String mime = media.getMime();
-                LOGGER.info(format(COMPRESSION_FILENAME_PROGRESS, resolvedFileAddress));
-                for (Resolution resolution : resolutionValues) {
+    /**
+     * @return false if interrupted while waiting for the batch
+     */
+    private boolean compressBatch(final List<Media> claimed) {
+        final long start = System.nanoTime();
+        final List<Future<Boolean>> results = new ArrayList<>(claimed.size());
+        claimed.forEach(media -> results.add(executor.submit(() -> compressionTimer.record(() -> compress(media)))));
 
-                    final File compressedImageFile = new File(generateCompressedFileUrl(resolvedFileAddress, resolution.getSuffix()));
+        int done = 0;
+        for (final Future<Boolean> result : results) {
+            try {
+                if (result.get()) done++;
+            } catch (final ExecutionException e) {
+                LOGGER.error("Unexpected exception when compressing images", e.getCause());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
 
-                    try (OutputStream os = new FileOutputStream(compressedImageFile);
-                         ImageOutputStream ios = ImageIO.createImageOutputStream(os)) {
+        final long elapsedMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+        lastBatchImagesPerSecond.set(done * 1000L / elapsedMillis);
+        LOGGER.info(format(DONE_COMPRESSION_JOB, done, elapsedMillis));
+        return true;
+    }
 
-                        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(mime);
-                        final ImageWriter writer = writers.next();
+    private boolean compress(final Media media) {
+        final String resolvedFileAddress = fileManagementUtil.getMediaStoragePath() + getFileName(media);
+        final File file = new File(resolvedFileAddress);
+        final Resolution[] resolutionValues = Resolution.values();
 
-                        writer.setOutput(ios);
+        try {
+            LOGGER.info(format(COMPRESSION_FILENAME_PROGRESS, resolvedFileAddress));
+            try (ImageSource source = ImageSource.open(file)) {
+                for (final Resolution resolution : DECODING_ORDER) {
+                    final File compressedImageFile = new File(generateCompressedFileUrl(resolvedFileAddress, resolution.getSuffix()));
+                    writeImage(resolution.getScalingAlgorithm().scale(source), media.getMime(),
+                            resolution.getCompressionQuality(), compressedImageFile);
+                }
+            }
+            LOGGER.info(format(COMPRESSION_FILENAME_DONE_PROGRESS, resolvedFileAddress));
+            updateDbOnCompress(media, resolutionValues);
 
-                        final ImageWriteParam param = writer.getDefaultWriteParam();
-                        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-                        param.setCompressionQuality(resolution.getCompressionQuality());
+            final boolean delete = file.delete();
+            if (!delete) {
+                LOGGER.error(format(COMPRESSION_BUT_NO_DELETION, resolvedFileAddress));
+            }
+            compressedImages.increment();
+            return true;
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.error("Exception when compressing image {}", media.getFileUrl(), e);
+            failedImages.increment();
+            return false;
+        }
+    }
 
-                        BufferedImage scaledImage = resolution.getScalingAlgorithm().scale(originalImage);
-                        IIOImage iioImage = new IIOImage(scaledImage, null, null);
-                        writer.write(null, iioImage, param);
-                        writer.dispose();
-                    }
-                }
-                LOGGER.info(format(COMPRESSION_FILENAME_DONE_PROGRESS, resolvedFileAddress));
-                LOGGER.info(format(COMPRESSION_PROGRESS, elaboratedImages, batchSize));
-                updateDbOnCompress(media, resolutionValues);
+    private void writeImage(final BufferedImage image, final String mime,
+                            final float compressionQuality, final File target) throws IOException {
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(target));
+             ImageOutputStream ios = ImageIO.createImageOutputStream(os)) {
 
-                final boolean delete = file.delete();
-                if (!delete) {
-                    LOGGER.error(format(COMPRESSION_BUT_NO_DELETION, resolvedFileAddress));
-                }
+            final Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(mime);
+            final ImageWriter writer = writers.next();
+            try {
+                writer.setOutput(ios);
 
-                elaboratedImages++;
+                final ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(compressionQuality);
 
-            } catch (IOException e) {
-                LOGGER.error("Exception when compressing image {}", media.getFileUrl(), e);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
             }
         }
-
-        LOGGER.trace(DONE_COMPRESSION_JOB);
-
     }
 
     private String getFileName(final Media media) {
@@ -128,14 +224,10 @@ public class CompressImageJob {
         mediaManager.updateCompressed(media);
     }
 
-    private boolean hasUncompressImageAndBelowThreshold(int elaboratedImages, int batchSize, String instanceId) {
-        return areUncompressedMediaPresent(instanceId) && elaboratedImages <=
-                batchSize;
-    }
-
-    private boolean areUncompressedMediaPresent(String instanceId) {
-        return mediaManager.getUncompressedMedia(instanceId)
-                .iterator().hasNext();
+    private static List<Resolution> decodingOrder() {
+        final List<Resolution> resolutions = new ArrayList<>(Arrays.asList(Resolution.values()));
+        Collections.reverse(resolutions);
+        return Collections.unmodifiableList(resolutions);
     }
 
     protected String generateCompressedFileUrl(String fileUrl, String resolution) {
@@ -143,4 +235,8 @@ public class CompressImageJob {
         return fileUrl.substring(0, lastDotIndex) + resolution + fileUrl.substring(lastDotIndex);
     }
 
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 }
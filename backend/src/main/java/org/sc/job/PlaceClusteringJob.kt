@@ -1,94 +1,60 @@
 package org.sc.job
 
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
 import org.apache.logging.log4j.LogManager
-import org.sc.common.rest.PlaceDto
-import org.sc.configuration.AppProperties
-import org.sc.data.model.Place
-import org.sc.manager.PlaceManager
-import org.sc.manager.TrailManager
+import org.sc.service.PlaceClusteringService
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.scheduling.annotation.Scheduled
 import org.springframework.stereotype.Component
-
-
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Reconciles the places the clustering on creation missed: the places updated since
+ * the previous run are clustered with their neighbours.
+ *
+ * The watermark is kept in memory, so the first run of an instance clusters all the
+ * places, from a single cursor into a grid of their points.
+ */
 @Component
 class PlaceClusteringJob @Autowired constructor(
-        private val placeManager: PlaceManager,
-        private val trailManager: TrailManager,
-        private val appProperties: AppProperties) {
+        private val placeClusteringService: PlaceClusteringService,
+        meterRegistry: MeterRegistry) {
 
     private val logger = LogManager.getLogger(PlaceClusteringJob::class.java)
 
     companion object {
-        const val batchSize = 2
+        const val METRIC_NAME = "places.clustering"
     }
 
-    @Scheduled(cron = "0 0 12 * * ?") // at 12.00 every day
-    fun ensurePlacesConsistency() {
-        logger.info("Starting clustering job for non-dynamic places in instance")
-        val countPlaces = placeManager.countByRealm(appProperties.instanceRealm, false)
-        val clusteredInThisRun = mutableListOf<Place>()
-
-        var i = 0;
-        while (i < countPlaces) {
-            val latest = placeManager.getOldestPaginated(i, batchSize,
-                    false, appProperties.instanceRealm)
+    private val clustersFound = Counter.builder("$METRIC_NAME.clusters").register(meterRegistry)
+    @Volatile
+    private var lastRunClustersPerSecond = 0.0
 
-            latest.forEach { subjectPlace ->
-                val nearestMatches =
-                        placeManager.findNearestMatchByCoordinatesExcludingById(
-                                subjectPlace.id, subjectPlace.coordinates,
-                                appProperties.jobCrosswayConsistencyDistance,
-                                appProperties.instanceRealm
-                        )
-                val clusteringPlaces: List<Place> = nearestMatches
-                        .filter { !clusteredInThisRun.any { it.id.equals(subjectPlace.id) } }
-                        .filter { match -> match.name.lowercase().startsWith(subjectPlace.name.lowercase()) }
-                        .filter { it.coordinates.size >= subjectPlace.coordinates.size }
-                        .filter { subjectPlace.recordDetails.uploadedOn.before(it.recordDetails.uploadedOn) }
+    private var watermark: Date? = null
 
-                clusterElectedSpaces(subjectPlace, clusteringPlaces)
-
-                if (clusteringPlaces.isNotEmpty()) {
-                    clusteredInThisRun.addAll(clusteringPlaces)
-                }
-            }
-
-            i += batchSize
-        }
-
-        logger.info("Clustering job for non-dynamic places over, " +
-                "places which were clustered and are going to " +
-                "be removed: ${clusteredInThisRun.map { it.id }}")
-        clusteredInThisRun.forEach {
-            placeManager.deleteById(it.id)
-        }
+    init {
+        meterRegistry.gauge("$METRIC_NAME.clusters.per.second", this) { job -> job.lastRunClustersPerSecond }
     }
 
-    private fun clusterElectedSpaces(subjectPlace: PlaceDto, clusteringPlaces: List<Place>) {
-        clusteringPlaces.forEach { placeForClustering ->
-            logger.info("Going to cluster NOT DYNAMIC places '${subjectPlace.id}' with '${placeForClustering.id}'")
-
-            updateTrailWithPlaceReferences(
-                    placeForClustering.id,
-                    subjectPlace.id,
-                    subjectPlace.name)
-            updatePlaceWithTrailReferences(
-                    subjectPlace.id,
-                    placeForClustering.crossingTrailIds)
-            updatePlacePositions(subjectPlace.id, placeForClustering.id)
-        }
-    }
-
-    private fun updatePlacePositions(placeId: String, placeIdToBeMerged: String) {
-        placeManager.mergePlacePositions(placeId, placeIdToBeMerged)
-    }
-
-    private fun updatePlaceWithTrailReferences(id: String, crossingTrailIds: List<String>) {
-        placeManager.addNotExistingTrailsIdToPlaceId(id, crossingTrailIds)
-    }
-
-    private fun updateTrailWithPlaceReferences(placeIdToBeMerged: String, id: String, name: String) {
-        trailManager.updateTrailPlaceReferences(placeIdToBeMerged, id, name)
+    @Scheduled(cron = "0 0 12 * * ?") // at 12.00 every day
+    fun ensurePlacesConsistency() {
+        val since = watermark
+        logger.info("Starting clustering job for non-dynamic places in instance, updated since: ${since ?: "ever"}")
+        val start = System.nanoTime()
+        // Places updated while running are reconciled again by the next run
+        val runStart = Date()
+
+        val clusters = if (since == null) placeClusteringService.clusterAll()
+        else placeClusteringService.clusterUpdatedSince(since)
+        watermark = runStart
+
+        val elapsedMillis = maxOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1)
+        clustersFound.increment(clusters.size.toDouble())
+        lastRunClustersPerSecond = clusters.size * 1000.0 / elapsedMillis
+        logger.info("Clustering job for non-dynamic places over: ${clusters.size} clusters " +
+                "in $elapsedMillis ms, places which were clustered " +
+                "and removed: ${clusters.flatMap { cluster -> cluster.absorbedPlaces.map { it.id } }}")
     }
-}
\ No newline at end of file
+}
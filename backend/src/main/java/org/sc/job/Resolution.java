@@ -5,6 +5,9 @@ import org.sc.job.scalingalgorithms.ProportionalScaling;
 import org.sc.job.scalingalgorithms.ScalingAlgorithm;
 import org.sc.job.scalingalgorithms.ThumbnailGenerator;
 
+/**
+ * The compressed variants of an uploaded image, from the largest to the smallest.
+ */
 public enum Resolution {
 
     H("_h", 0.8f, new NoScaling()),
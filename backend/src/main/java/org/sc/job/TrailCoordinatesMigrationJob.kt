@@ -0,0 +1,39 @@
+package org.sc.job
+
+import org.apache.logging.log4j.LogManager
+import org.sc.configuration.AppProperties
+import org.sc.manager.TrailManager
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Component
+
+/**
+ * Brings stored trail coordinates to the format set by `trail.coordinates.binary`:
+ * packed binary when enabled, point documents otherwise, so that turning
+ * the flag off again also rolls trails back.
+ */
+@Component
+class TrailCoordinatesMigrationJob @Autowired constructor(
+        private val trailManager: TrailManager,
+        private val appProperties: AppProperties) {
+
+    private val logger = LogManager.getLogger(TrailCoordinatesMigrationJob::class.java)
+
+    companion object {
+        const val batchSize = 50
+    }
+
+    @Scheduled(cron = "0 0 3 * * ?") // at 03.00 every day
+    fun convertCoordinates() {
+        val toBinary = appProperties.isTrailCoordinatesBinary
+        logger.info("Starting trail coordinates migration job (binary: $toBinary)")
+        var converted = 0
+        var lastId: String? = null
+        do {
+            val batch = trailManager.convertCoordinatesFormat(lastId, batchSize, toBinary)
+            converted += batch.size
+            lastId = batch.lastOrNull()
+        } while (batch.size == batchSize)
+        logger.info("Trail coordinates migration job over, converted trails: $converted")
+    }
+}
@@ -0,0 +1,50 @@
+package org.sc.job
+
+import org.apache.logging.log4j.LogManager
+import org.sc.manager.TrailManager
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Component
+import javax.annotation.PostConstruct
+
+/**
+ * Gives the trails stored before it existed, or by older instances sharing the database,
+ * the simplified geoLine and bounding box that geo queries narrow their candidates with.
+ * Until every trail has them, geo queries keep running on the full geoLine alone.
+ */
+@Component
+class TrailGeoLineBackfillJob @Autowired constructor(
+        private val trailManager: TrailManager) {
+
+    private val logger = LogManager.getLogger(TrailGeoLineBackfillJob::class.java)
+
+    companion object {
+        const val batchSize = 50
+    }
+
+    @PostConstruct
+    fun checkSimplifiedGeoLines() {
+        try {
+            if (!trailManager.refreshSimplifiedGeoLineState()) {
+                logger.info("Some trails miss the simplified geoLine, geo queries use the full one until filled")
+            }
+        } catch (e: Exception) {
+            logger.error("Could not check the trails simplified geoLine", e)
+        }
+    }
+
+    @Scheduled(cron = "0 */10 * * * *") // every 10 minutes, a single check once all trails are filled
+    fun backfillSimplifiedGeoLines() {
+        if (trailManager.refreshSimplifiedGeoLineState()) return
+        logger.info("Starting trail simplified geoLine backfill job")
+        var filled = 0
+        var lastId: String? = null
+        do {
+            val batch = trailManager.backfillSimplifiedGeoLine(lastId, batchSize)
+            filled += batch.size
+            lastId = batch.lastOrNull()
+        } while (batch.size == batchSize)
+        val isComplete = trailManager.refreshSimplifiedGeoLineState()
+        logger.info("Trail simplified geoLine backfill job over, filled trails: $filled, complete: $isComplete")
+    }
+}
@@ -0,0 +1,107 @@
+package org.sc.job.scalingalgorithms;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * An encoded image, decoded on demand: either whole, once, or as a region read with
+ * source subsampling, in which case the reader keeps only every n-th pixel of every
+ * n-th row and never holds the full-resolution raster.
+ * <p>
+ * The size is read from the header, so the algorithms can pick the region and the
+ * subsampling before decoding anything.
+ */
+public class ImageSource implements Closeable {
+
+    private final ImageInputStream input;
+    private final ImageReader reader;
+    private final int width;
+    private final int height;
+    private BufferedImage full;
+
+    private ImageSource(final ImageInputStream input, final ImageReader reader) throws IOException {
+        this.input = input;
+        this.reader = reader;
+        this.width = reader.getWidth(0);
+        this.height = reader.getHeight(0);
+    }
+
+    public static ImageSource open(final File file) throws IOException {
+        final ImageInputStream input = ImageIO.createImageInputStream(file);
+        if (input == null) {
+            throw new IOException("Could not open image " + file);
+        }
+        try {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No reader for image " + file);
+            }
+            final ImageReader reader = readers.next();
+            // Not seek-forward-only: each resolution reads the image again
+            reader.setInput(input, false, true);
+            return new ImageSource(input, reader);
+        } catch (final IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * The whole image at full resolution, decoded on the first call.
+     */
+    public BufferedImage read() throws IOException {
+        if (full == null) {
+            full = reader.read(0);
+        }
+        return full;
+    }
+
+    /**
+     * The given region, keeping one pixel out of {@code subsampling} in both directions.
+     * Once the whole image is decoded, its region is returned instead, as a view.
+     */
+    public BufferedImage read(final Rectangle region, final int subsampling) throws IOException {
+        final Rectangle bounded = region.intersection(new Rectangle(width, height));
+        if (full != null) {
+            return full.getSubimage(bounded.x, bounded.y, bounded.width, bounded.height);
+        }
+        if (subsampling <= 1 && bounded.width == width && bounded.height == height) {
+            return read();
+        }
+        final ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(bounded);
+        param.setSourceSubsampling(Math.max(subsampling, 1), Math.max(subsampling, 1), 0, 0);
+        return reader.read(0, param);
+    }
+
+    /**
+     * The largest subsampling keeping at least twice the pixels of the target,
+     * for the resampler to average over.
+     */
+    public static int subsamplingFor(final int sourceSize, final int targetSize) {
+        return Math.max(sourceSize / (2 * Math.max(targetSize, 1)), 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        full = null;
+        reader.dispose();
+        input.close();
+    }
+}
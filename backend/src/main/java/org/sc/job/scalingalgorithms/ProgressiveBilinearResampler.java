@@ -0,0 +1,43 @@
+package org.sc.job.scalingalgorithms;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Shrinks images by halving them with bilinear interpolation until they are less
+ * than twice the target size, then interpolating to the target size.
+ * <p>
+ * Each halving step averages the four source pixels around every target pixel, so the
+ * result is close to area averaging while running on the Java2D bilinear loops, far
+ * faster than {@link java.awt.Image#getScaledInstance}. A single bilinear step over
+ * a large reduction would skip most source pixels and alias.
+ */
+public class ProgressiveBilinearResampler implements Resampler {
+
+    @Override
+    public BufferedImage resize(final BufferedImage image, final int width, final int height) {
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(currentWidth / 2, width);
+            currentHeight = Math.max(currentHeight / 2, height);
+            current = draw(current, currentWidth, currentHeight);
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private BufferedImage draw(final BufferedImage source, final int width, final int height) {
+        final BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
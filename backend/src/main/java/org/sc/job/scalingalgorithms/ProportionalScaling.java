@@ -1,24 +1,36 @@
 package org.sc.job.scalingalgorithms;
 
-import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 
 public class ProportionalScaling implements ScalingAlgorithm {
     private final float resizePercentage;
+    private final Resampler resampler;
 
     public ProportionalScaling(float resizePercentage) {
+        this(resizePercentage, new ProgressiveBilinearResampler());
+    }
+
+    public ProportionalScaling(float resizePercentage, Resampler resampler) {
         this.resizePercentage = resizePercentage;
+        this.resampler = resampler;
     }
 
     @Override
     public BufferedImage scale(BufferedImage image) {
         int outputWidth = (int) (image.getWidth() * resizePercentage);
         int outputHeight = (int) (image.getHeight() * resizePercentage);
-        Image resultingImage = image.getScaledInstance(outputWidth, outputHeight, Image.SCALE_DEFAULT);
-        BufferedImage outputImage = new BufferedImage(outputWidth, outputHeight, BufferedImage.TYPE_INT_RGB);
-        outputImage.getGraphics().drawImage(resultingImage, 0, 0, null);
+        return resampler.resize(image, Math.max(outputWidth, 1), Math.max(outputHeight, 1));
+    }
 
-        return outputImage;
+    @Override
+    public BufferedImage scale(ImageSource source) throws IOException {
+        int outputWidth = Math.max((int) (source.getWidth() * resizePercentage), 1);
+        int outputHeight = Math.max((int) (source.getHeight() * resizePercentage), 1);
+        int subsampling = ImageSource.subsamplingFor(source.getWidth(), outputWidth);
+        BufferedImage decoded = source.read(new Rectangle(source.getWidth(), source.getHeight()), subsampling);
+        return resampler.resize(decoded, outputWidth, outputHeight);
     }
 
 }
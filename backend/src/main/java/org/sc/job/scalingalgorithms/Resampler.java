@@ -0,0 +1,9 @@
+package org.sc.job.scalingalgorithms;
+
+import java.awt.image.BufferedImage;
+
+public interface Resampler {
+
+    BufferedImage resize(BufferedImage image, int width, int height);
+
+}
@@ -1,9 +1,17 @@
 package org.sc.job.scalingalgorithms;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 
 public interface ScalingAlgorithm {
 
     BufferedImage scale(BufferedImage image);
 
+    /**
+     * Scales the image decoding only the pixels needed; by default, the whole image.
+     */
+    default BufferedImage scale(ImageSource source) throws IOException {
+        return scale(source.read());
+    }
+
 }
@@ -1,12 +1,23 @@
 package org.sc.job.scalingalgorithms;
 
-import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 
 public class ThumbnailGenerator implements ScalingAlgorithm {
     private static final int THUMB_WIDTH = 315;
     private static final int THUMB_HEIGHT = 315;
 
+    private final Resampler resampler;
+
+    public ThumbnailGenerator() {
+        this(new ProgressiveBilinearResampler());
+    }
+
+    public ThumbnailGenerator(Resampler resampler) {
+        this.resampler = resampler;
+    }
+
     /**
      * It creates a scaled image of the given-in {@code image} with {@code THUMB_WIDTH} x {@code THUMB_HEIGHT} size.
      *
@@ -48,15 +59,41 @@ public class ThumbnailGenerator implements ScalingAlgorithm {
      */
     @Override
     public BufferedImage scale(BufferedImage image) {
+        int scaledHeight = Math.max(image.getHeight() * THUMB_WIDTH * 2 / image.getWidth(), 1);
         BufferedImage scaledImage = new BufferedImage(THUMB_WIDTH * 2, THUMB_HEIGHT * 2, BufferedImage.TYPE_INT_RGB);
-        Image scaledInstance = image.getScaledInstance(THUMB_WIDTH * 2, -1, BufferedImage.SCALE_FAST);
-        scaledImage.createGraphics().drawImage(scaledInstance, 0, 0, null);
+        scaledImage.createGraphics().drawImage(resampler.resize(image, THUMB_WIDTH * 2, scaledHeight), 0, 0, null);
 
-        int scaledHeight = image.getHeight() * THUMB_WIDTH * 2 / image.getWidth();
         int yCoordinate = Math.max(scaledHeight / 2 - THUMB_WIDTH / 2 - 1, 0);
 
         scaledImage = scaledImage.getSubimage(THUMB_WIDTH / 2 - 1, yCoordinate, THUMB_WIDTH, THUMB_HEIGHT);
 
         return scaledImage;
     }
+
+    /**
+     * Decodes only the thumbnail square of the source, subsampled, and resizes it.
+     * Images too wide to fill the square, which {@link #scale(BufferedImage)} pads,
+     * are read whole, subsampled.
+     */
+    @Override
+    public BufferedImage scale(ImageSource source) throws IOException {
+        final int width = source.getWidth();
+        final int height = source.getHeight();
+        int scaledHeight = Math.max(height * THUMB_WIDTH * 2 / width, 1);
+        int yCoordinate = Math.max(scaledHeight / 2 - THUMB_WIDTH / 2 - 1, 0);
+        if (yCoordinate + THUMB_HEIGHT > scaledHeight) {
+            final int subsampling = ImageSource.subsamplingFor(width, THUMB_WIDTH * 2);
+            return scale(source.read(new Rectangle(width, height), subsampling));
+        }
+
+        // The thumbnail square, in source pixels
+        final double sourcePerScaled = (double) width / (THUMB_WIDTH * 2);
+        final Rectangle region = new Rectangle(
+                (int) ((THUMB_WIDTH / 2 - 1) * sourcePerScaled),
+                (int) (yCoordinate * sourcePerScaled),
+                Math.max((int) (THUMB_WIDTH * sourcePerScaled), 1),
+                Math.max((int) (THUMB_HEIGHT * sourcePerScaled), 1));
+        final int subsampling = ImageSource.subsamplingFor(region.width, THUMB_WIDTH);
+        return resampler.resize(source.read(region, subsampling), THUMB_WIDTH, THUMB_HEIGHT);
+    }
 }
@@ -7,6 +7,7 @@ import org.sc.data.mapper.AccessibilityNotificationMapper
 import org.sc.data.model.Coordinates2D
 import org.sc.data.model.RecordDetails
 import org.sc.data.repository.AccessibilityNotificationDAO
+import org.sc.data.repository.KeysetPage
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Component
 import java.util.*
@@ -26,6 +27,9 @@ class AccessibilityNotificationManager @Autowired constructor(
         return solved.map { accessibilityMapper.map(it) }
     }
 
+    fun getSolvedAfter(continuationToken: String?, limit: Int, realm: String): KeysetPage<AccessibilityNotificationDto> =
+        accessibilityDAO.getSolvedAfter(continuationToken, limit, realm).map { accessibilityMapper.map(it) }
+
     fun findNearbyUnsolved(coordinates: Coordinates2D, distanceInMeters: Double): List<AccessibilityNotificationDto> {
         val nearbyCoords = accessibilityDAO.getNearbyUnsolved(coordinates, distanceInMeters);
         return nearbyCoords.map { accessibilityMapper.map(it) }
@@ -41,6 +45,9 @@ class AccessibilityNotificationManager @Autowired constructor(
         return unresolved.map { accessibilityMapper.map(it) }
     }
 
+    fun getUnresolvedAfter(continuationToken: String?, limit: Int, realm: String): KeysetPage<AccessibilityNotificationDto> =
+        accessibilityDAO.getUnresolvedAfter(continuationToken, limit, realm).map { accessibilityMapper.map(it) }
+
     fun getUnresolvedByTrailId(trailId: String, skip: Int, limit: Int): List<AccessibilityNotificationDto> {
         val unresolved = accessibilityDAO.getUnresolvedByTrailId(trailId, skip, limit)
         return unresolved.map { accessibilityMapper.map(it) }
@@ -3,6 +3,7 @@ package org.sc.manager
 import org.sc.common.rest.AnnouncementDto
 import org.sc.data.mapper.AnnouncementMapper
 import org.sc.data.repository.AnnouncementDao
+import org.sc.data.repository.KeysetPage
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Component
 
@@ -17,6 +18,9 @@ class AnnouncementManager @Autowired constructor(
     fun get(skip: Int, limit: Int, realm: String) : List<AnnouncementDto> =
         announcementDao.get(skip, limit, realm).map { announcementMapper.map(it) }
 
+    fun getAfter(continuationToken: String?, limit: Int, realm: String): KeysetPage<AnnouncementDto> =
+        announcementDao.getAfter(continuationToken, limit, realm).map { announcementMapper.map(it) }
+
     fun delete(id: String) =
         announcementDao.delete(id)
 
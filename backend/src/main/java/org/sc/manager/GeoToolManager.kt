@@ -1,6 +1,7 @@
 package org.sc.manager
 
 import org.sc.adapter.AltitudeServiceAdapter
+import org.sc.common.rest.Coordinates2DDto
 import org.sc.common.rest.CoordinatesDto
 import org.sc.processor.TrailsStatsCalculator
 import org.springframework.beans.factory.annotation.Autowired
@@ -16,6 +17,11 @@ class GeoToolManager @Autowired constructor(private val altitudeService : Altitu
     fun getCoordinateByLongLat(latitude: Double, longitude: Double): CoordinatesDto =
             CoordinatesDto(latitude, longitude, altitudeService.getElevationsByLongLat(latitude, longitude).firstNotNullOf { 0.0 })
 
+    fun getCoordinatesByLongLat(coordinates: List<Coordinates2DDto>): List<CoordinatesDto> {
+        val elevations = altitudeService.getElevationsByLongLat(coordinates.map { Pair(it.latitude, it.longitude) })
+        return coordinates.mapIndexed { index, it -> CoordinatesDto(it.latitude, it.longitude, elevations[index]) }
+    }
+
     fun getDistanceBetweenCoordinates(coords: List<CoordinatesDto>) : Double =
             trailsStatsCalculator.calculateTrailLength(coords)
 }
\ No newline at end of file
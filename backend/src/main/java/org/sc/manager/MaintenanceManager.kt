@@ -4,6 +4,7 @@ import org.sc.common.rest.MaintenanceDto
 import org.sc.common.rest.RecordDetailsDto
 import org.sc.configuration.auth.AuthFacade
 import org.sc.data.mapper.MaintenanceMapper
+import org.sc.data.repository.KeysetPage
 import org.sc.data.repository.MaintenanceDAO
 import org.sc.manager.regeneration.RegenerationActionType
 import org.sc.manager.regeneration.RegenerationEntryType
@@ -24,6 +25,10 @@ class MaintenanceManager @Autowired constructor(
             maintenanceDao.getFuture(page, count, getTomorrowDate().toLocalDate(), realm)
                     .map { maintenanceMapper.map(it) }
 
+    fun getFutureAfter(continuationToken: String?, count: Int, realm: String): KeysetPage<MaintenanceDto> =
+            maintenanceDao.getFutureAfter(continuationToken, count, getTomorrowDate().toLocalDate(), realm)
+                    .map { maintenanceMapper.map(it) }
+
     fun getById(id: String): List<MaintenanceDto> {
         return maintenanceDao.getById(id).map { maintenanceMapper.map(it) }
     }
@@ -40,6 +45,10 @@ class MaintenanceManager @Autowired constructor(
             maintenanceDao.getPastDate(page, count, getTomorrowDate().toLocalDate(), realm)
                     .map { maintenanceMapper.map(it) }
 
+    fun getPastAfter(continuationToken: String?, count: Int, realm: String): KeysetPage<MaintenanceDto> =
+            maintenanceDao.getPastDateAfter(continuationToken, count, getTomorrowDate().toLocalDate(), realm)
+                    .map { maintenanceMapper.map(it) }
+
     fun getPastMaintenanceForTrailId(trailCode: String, page: Int, count: Int): List<MaintenanceDto> =
             maintenanceDao.getPastForTrailCode(trailCode, page, count,
                     getTomorrowDate().toLocalDate())
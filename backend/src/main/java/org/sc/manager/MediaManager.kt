@@ -1,16 +1,14 @@
 package org.sc.manager
 
-import com.mongodb.client.FindIterable
-import org.bson.Document
 import org.sc.common.rest.MediaDto
 import org.sc.configuration.auth.AuthFacade
 import org.sc.controller.MediaController
 import org.sc.data.mapper.MediaMapper
 import org.sc.data.model.FileDetails
 import org.sc.data.model.Media
+import org.sc.data.repository.KeysetPage
 import org.sc.data.repository.MediaDAO
 import org.sc.data.repository.PoiDAO
-import org.sc.data.repository.TrailDAO
 import org.sc.util.FileManagementUtil
 import org.sc.util.FileProbeUtil
 import org.springframework.beans.factory.annotation.Autowired
@@ -24,7 +22,7 @@ import java.util.logging.Logger
 @Component
 class MediaManager @Autowired constructor(
         private val realmHelper: AuthFacade,
-        private val trailDAO: TrailDAO,
+        private val trailManager: TrailManager,
         private val poiDAO: PoiDAO,
         private val mediaDAO: MediaDAO,
         private val mediaMapper: MediaMapper,
@@ -100,11 +98,20 @@ class MediaManager @Autowired constructor(
 
     fun getById(id: String) = mediaDAO.getById(id).map { mediaMapper.map(it) }
 
+    /**
+     * The media with the given ids, in the order of the ids; the ids not found are left out.
+     */
+    fun getByIds(ids: List<String>): List<MediaDto> {
+        if (ids.isEmpty()) return emptyList()
+        val mediaById = mediaDAO.getByIds(ids.distinct()).associateBy { it.id }
+        return ids.mapNotNull { mediaById[it] }.map { mediaMapper.map(it) }
+    }
+
     fun doesMediaExist(id: String) = getById(id).isNotEmpty()
 
     fun deleteById(id: String): List<MediaDto> {
         poiDAO.unlinkMediaByAllPoi(id)
-        trailDAO.unlinkMediaByAllTrails(id)
+        trailManager.unlinkMediaFromAllTrails(id)
         return mediaDAO.deleteById(id).map { mediaMapper.map(it) }
     }
 
@@ -113,7 +120,7 @@ class MediaManager @Autowired constructor(
     private fun hasFileBeenSaved(saveFile: Long) = saveFile != 0L
 
     private fun saveFile(tempFile: Path, fileName: String) =
-            Files.copy(tempFile, FileOutputStream(getPathToFileOut(fileName)))
+            FileOutputStream(getPathToFileOut(fileName)).use { Files.copy(tempFile, it) }
 
     private fun getPathToFileOut(fileName: String) =
             fileManagementUtil.getMediaStoragePath() + fileName
@@ -124,7 +131,15 @@ class MediaManager @Autowired constructor(
     private fun makeFileName(fileName: String, fileExtension: String) =
              fileName + "." + fileExtension
 
-    fun getUncompressedMedia(instanceId: String): FindIterable<Document> = mediaDAO.getMediaNotGenerated(instanceId)
+    /**
+     * Claims up to [max] media of the instance still to compress, for [leaseMillis].
+     */
+    fun claimUncompressedMedia(instanceId: String, max: Int, leaseMillis: Long): List<Media> {
+        val now = Date()
+        val leaseUntil = Date(now.time + leaseMillis)
+        return generateSequence { mediaDAO.claimNotGenerated(instanceId, now, leaseUntil).orElse(null) }
+                .take(max).toList()
+    }
 
     fun updateCompressed(media: Media) {
         val updateCompressed = mediaDAO.updateCompressed(media)
@@ -141,6 +156,9 @@ class MediaManager @Autowired constructor(
     ): List<MediaDto> =
             mediaDAO.getMedia(skip, limit, realm).map { mediaMapper.map(it) }
 
+    fun getMediaAfter(continuationToken: String?, limit: Int, realm: String): KeysetPage<MediaDto> =
+            mediaDAO.getMediaAfter(continuationToken, limit, realm).map { mediaMapper.map(it) }
+
     fun countMedia(filter: String): Long = mediaDAO.countMedia(filter)
 }
 
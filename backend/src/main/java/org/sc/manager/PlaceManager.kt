@@ -6,10 +6,14 @@ import org.sc.configuration.auth.AuthFacade
 import org.sc.data.mapper.LinkedMediaMapper
 import org.sc.data.mapper.PlaceMapper
 import org.sc.data.model.*
+import org.sc.data.repository.KeysetPage
 import org.sc.data.repository.PlaceDAO
+import org.sc.data.search.SearchEntryType
 import org.sc.manager.regeneration.RegenerationActionType
 import org.sc.manager.regeneration.RegenerationEntryType
+import org.sc.processor.PlaceLink
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.stereotype.Component
 import java.util.*
 
@@ -21,17 +25,23 @@ class PlaceManager @Autowired constructor(
         private val linkedMediaMapper: LinkedMediaMapper,
         private val altitudeServiceAdapter: AltitudeServiceAdapter,
         private val resourceManager: ResourceManager,
-        private val authFacade: AuthFacade
+        private val authFacade: AuthFacade,
+        private val searchManager: SearchManager,
+        private val eventPublisher: ApplicationEventPublisher
 ) {
 
     fun getPaginated(skip: Int, limit: Int, realm: String, isDynamic: Boolean): List<PlaceDto> =
             placeDao.get(skip, limit, realm, isDynamic).map { placeMapper.map(it) }
 
-    fun getOldestPaginated(skip: Int, limit: Int, isDynamic: Boolean, realm: String = "*"): List<PlaceDto> =
-            placeDao.getOldest(skip, limit, realm, isDynamic).map { placeMapper.map(it) }
+    fun getAfter(continuationToken: String?, limit: Int, realm: String, isDynamic: Boolean): KeysetPage<PlaceDto> =
+            placeDao.getAfter(continuationToken, limit, realm, isDynamic).map { placeMapper.map(it) }
 
-    fun getLikeNameOrTags(name: String, skip: Int, limit: Int, realm: String): List<PlaceDto> =
-            placeDao.getLikeName(name, skip, limit, realm).map { placeMapper.map(it) }
+    fun getLikeNameOrTags(name: String, skip: Int, limit: Int, realm: String): List<PlaceDto> {
+        val placeIds = searchManager.search(name, listOf(SearchEntryType.PLACE), realm, true, skip, limit)
+                .hits.map { it.entry.id }
+        val placesById = placeDao.getByIds(placeIds).associateBy { it.id }
+        return placeIds.mapNotNull { placesById[it] }.map { placeMapper.map(it) }
+    }
 
     fun getNearPoint(longitude: Double, latitude: Double, distance: Double,
                      skip: Int, limit: Int): List<PlaceDto> =
@@ -40,7 +50,21 @@ class PlaceManager @Autowired constructor(
     fun getById(id: String): List<PlaceDto> =
             placeDao.getById(id).map { placeMapper.map(it) }
 
-    fun create(place: PlaceDto): List<PlaceDto> {
+    /**
+     * The places with the given ids, in the order of the ids; the ids not found are left out.
+     */
+    fun getByIds(ids: List<String>): List<PlaceDto> {
+        if (ids.isEmpty()) return emptyList()
+        val placesById = placeDao.getByIds(ids.distinct()).associateBy { it.id }
+        return ids.mapNotNull { placesById[it] }.map { placeMapper.map(it) }
+    }
+
+    /**
+     * @param isClustered whether the place is checked against its neighbours as soon as
+     * created; a caller which goes on referencing it checks it later, with [requestClustering]
+     */
+    @JvmOverloads
+    fun create(place: PlaceDto, isClustered: Boolean = true): List<PlaceDto> {
         val mapCreation = placeMapper.mapCreation(place)
         mapCreation.recordDetails = RecordDetails(
                 Date(),
@@ -52,17 +76,28 @@ class PlaceManager @Autowired constructor(
 
         // TODO: move to service
         val createdPlace = placeDao.create(mapCreation).first()
+        searchManager.refreshPlace(createdPlace.id)
         createdPlace.crossingTrailIds.forEach {
             resourceManager.addEntry(it, RegenerationEntryType.PLACE,
                     createdPlace.id, authFacade.authHelper.username,
                     RegenerationActionType.CREATE)
         }
+        if (isClustered) requestClustering(listOf(createdPlace.id))
         return listOf(placeMapper.map(createdPlace))
     }
 
+    /**
+     * Queues the places to be checked against their neighbours, and merged into an older
+     * one found to be the same place.
+     */
+    fun requestClustering(placeIds: List<String>) {
+        if (placeIds.isNotEmpty()) eventPublisher.publishEvent(PlacesCreatedEvent(placeIds))
+    }
+
     fun deleteById(placeId: String): List<PlaceDto> {
         trailManager.removePlaceRefFromTrails(placeId)
         val deletablePlace = placeDao.delete(placeId)
+        searchManager.removePlace(placeId)
         if(deletablePlace.isEmpty()) return emptyList()
         val deletedPlace = deletablePlace.first()
         deletedPlace.crossingTrailIds.forEach {
@@ -75,6 +110,7 @@ class PlaceManager @Autowired constructor(
 
     fun update(place: PlaceDto): List<PlaceDto> {
         val update = placeDao.updateNameAndTags(placeMapper.map(place)).first()
+        searchManager.refreshPlace(update.id)
         update.crossingTrailIds.forEach {
             resourceManager.addEntry(it, RegenerationEntryType.PLACE,
                     update.id, authFacade.authHelper.username,
@@ -83,6 +119,21 @@ class PlaceManager @Autowired constructor(
         return listOf(placeMapper.map(update))
     }
 
+    /**
+     * Brings the search index and the resources of the crossing trails up to date
+     * with places renamed while linking trails in bulk.
+     */
+    fun onPlacesRenamed(placeLinks: List<PlaceLink>) {
+        searchManager.refreshPlaces(placeLinks.map { it.placeId })
+        placeLinks.forEach { link ->
+            link.crossingTrailIds.forEach {
+                resourceManager.addEntry(it, RegenerationEntryType.PLACE,
+                        link.placeId, authFacade.authHelper.username,
+                        RegenerationActionType.UPDATE)
+            }
+        }
+    }
+
     fun doesPlaceExist(id: String): Boolean =
             getById(id).isNotEmpty()
 
@@ -115,41 +166,66 @@ class PlaceManager @Autowired constructor(
         }
     }
 
-    fun mergePlacePositions(placeId: String, otherPlaceId: String) {
-        val place = placeDao.getById(placeId).first()
-        val otherPlace = placeDao.getById(otherPlaceId).first()
-        val points = otherPlace.points.coordinates2D
-        placeDao.updatePlacePoints(place.id, points)
-    }
-
-    fun addNotExistingTrailsIdToPlaceId(id: String, crossingTrailIds: List<String>) =
-        placeDao.addTrailsIdToPlace(id, crossingTrailIds)
-
-
-    fun findNearestMatchByCoordinatesExcludingById(
-            id: String, coordinates: List<CoordinatesDto>,
-            distance: Double, instanceRealm: String) : List<Place> {
-        val latitudeMax = coordinates.maxOf { it.latitude }
-        val latitudeMin = coordinates.minOf { it.latitude }
-        val longitudeMax = coordinates.maxOf { it.longitude }
-        val longitudeMin = coordinates.minOf { it.longitude }
-        val middleLatitude = (latitudeMax + latitudeMin) / 2
-        val middleLongitude = (longitudeMax + longitudeMin) / 2
-        return placeDao.getNotDynamicsNearExcludingById(middleLongitude, middleLatitude,
-                distance, id, instanceRealm)
+    /**
+     * Walks the non-dynamic places of the realm, without their description, tags and media.
+     */
+    fun forEachNotDynamicPlace(realm: String, consumer: (Place) -> Unit) =
+            placeDao.forEachNotDynamicPlace(realm) { consumer(it) }
+
+    fun forEachNotDynamicPlaceUpdatedSince(realm: String, since: Date, consumer: (Place) -> Unit) =
+            placeDao.forEachNotDynamicPlaceUpdatedSince(realm, since) { consumer(it) }
+
+    /**
+     * Walks the non-dynamic places of the realm with a point in any of the boxes, each
+     * given by its bottom left and top right corners.
+     */
+    fun forEachNotDynamicPlaceWithin(realm: String, boxes: List<List<Coordinates2D>>, consumer: (Place) -> Unit) =
+            placeDao.forEachNotDynamicPlaceWithin(realm, boxes) { consumer(it) }
+
+    fun getPlacesByIds(ids: List<String>): List<Place> = placeDao.getByIds(ids)
+
+    /**
+     * Merges each cluster into its place: the trails referencing the absorbed places
+     * reference the place instead, which gets their crossing trails and points, and
+     * the absorbed places are deleted.
+     */
+    fun mergePlaces(clusters: List<PlaceCluster>) {
+        if (clusters.isEmpty()) return
+        trailManager.replacePlaceReferences(clusters
+                .flatMap { cluster -> cluster.absorbedPlaces.map { it.id to cluster.place } }
+                .toMap())
+        placeDao.mergePlaces(clusters.associate { cluster -> cluster.place.id to cluster.absorbedPlaces })
+        clusters.flatMap { it.absorbedPlaces }.forEach { absorbedPlace ->
+            searchManager.removePlace(absorbedPlace.id)
+            absorbedPlace.crossingTrailIds.orEmpty().forEach {
+                resourceManager.addEntry(it, RegenerationEntryType.PLACE,
+                        absorbedPlace.id, authFacade.authHelper.username,
+                        RegenerationActionType.DELETE)
+            }
+        }
     }
 
-    private fun ensureCorrectElevation(mapCreation: Place) = mapCreation.coordinates.map {
-        CoordinatesWithAltitude(
-                it.latitude, it.longitude,
-                altitudeServiceAdapter
-                        .getElevationsByLongLat(it.latitude, it.longitude)
-                        .first()
-        )
+    private fun ensureCorrectElevation(mapCreation: Place): List<CoordinatesWithAltitude> {
+        val elevations = altitudeServiceAdapter
+                .getElevationsByLongLat(mapCreation.coordinates.map { Pair(it.latitude, it.longitude) })
+        return mapCreation.coordinates.mapIndexed { index, it ->
+            CoordinatesWithAltitude(it.latitude, it.longitude, elevations[index])
+        }
     }
 
     fun count(): Long = placeDao.count()
     fun countByRealm(realm: String, isDynamic: Boolean = false): Long = placeDao.count(realm, isDynamic)
-    fun countByNameOrTags(name: String, realm: String) = placeDao.count(name, realm)
+    fun countByNameOrTags(name: String, realm: String) =
+            searchManager.search(name, listOf(SearchEntryType.PLACE), realm, true, 0, 0).totalCount
+
+}
+
+/**
+ * A place and the places found to be the same one, to be merged into it.
+ */
+data class PlaceCluster(val place: Place, val absorbedPlaces: List<Place>)
 
-}
\ No newline at end of file
+/**
+ * Published once places are created, for them to be clustered with their neighbours.
+ */
+data class PlacesCreatedEvent(val placeIds: List<String>)
@@ -7,6 +7,7 @@ import org.sc.configuration.auth.AuthFacade
 import org.sc.data.mapper.LinkedMediaMapper
 import org.sc.data.mapper.PoiMapper
 import org.sc.data.model.RecordDetails
+import org.sc.data.repository.KeysetPage
 import org.sc.data.repository.PoiDAO
 import org.sc.manager.regeneration.RegenerationActionType
 import org.sc.manager.regeneration.RegenerationEntryType
@@ -26,10 +27,22 @@ class PoiManager @Autowired constructor(
         return poiDAO.get(page, count, realm).map { poiDtoMapper.poiToPoiDto(it) }
     }
 
+    fun getPoiAfter(continuationToken: String?, count: Int, realm: String): KeysetPage<PoiDto> =
+        poiDAO.getAfter(continuationToken, count, realm).map { poiDtoMapper.poiToPoiDto(it) }
+
     fun getPoiByID(id: String): List<PoiDto> {
         return poiDAO.getById(id).map { poiDtoMapper.poiToPoiDto(it) }
     }
 
+    /**
+     * The POIs with the given ids, in the order of the ids; the ids not found are left out.
+     */
+    fun getByIds(ids: List<String>): List<PoiDto> {
+        if (ids.isEmpty()) return emptyList()
+        val poisById = poiDAO.getByIds(ids.distinct()).associateBy { it.id }
+        return ids.mapNotNull { poisById[it] }.map { poiDtoMapper.poiToPoiDto(it) }
+    }
+
     fun doesPoiExist(id: String): Boolean = poiDAO.getById(id).isNotEmpty()
 
     fun getPoiByName(name: String, page: Int, count: Int): List<PoiDto> {
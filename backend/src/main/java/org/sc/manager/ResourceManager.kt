@@ -8,6 +8,7 @@ import org.sc.manager.regeneration.RegenerationEntryType
 import org.slf4j.LoggerFactory
 import org.springframework.stereotype.Component
 import java.util.*
+import javax.annotation.PostConstruct
 
 @Component
 class ResourceManager constructor(private val resourceDao: ResourceDao,
@@ -15,17 +16,66 @@ class ResourceManager constructor(private val resourceDao: ResourceDao,
 
     private val logger = LoggerFactory.getLogger(javaClass)
 
+    private val debounceMillis = appProperties.resourcesQueueDebounceSeconds * 1000L
+    private val leaseMillis = appProperties.resourcesQueueLeaseSeconds * 1000L
+    private val maxWaitMillis = appProperties.resourcesQueueMaxWaitSeconds * 1000L
+
+    @PostConstruct
+    fun coalesceEntries() {
+        try {
+            val entries = resourceDao.getUncoalescedByInstanceId(appProperties.instanceId)
+            if (entries.isEmpty()) return
+            entries.distinctBy { it.targetingTrail }.forEach {
+                addEntry(it.targetingTrail, RegenerationEntryType.valueOf(it.entryType),
+                        it.entryId, it.userPrompting ?: "", RegenerationActionType.valueOf(it.action))
+            }
+            resourceDao.deleteByIds(entries.map { it.id })
+            logger.info("Coalesced ${entries.size} resource entries")
+        } catch (e: Exception) {
+            logger.error("Could not coalesce resource entries", e)
+        }
+    }
+
+    /**
+     * Requests the regeneration of the trail resources, merged with any other
+     * request for the same trail not yet claimed and postponed by the debounce window,
+     * up to the max wait since the first of them.
+     */
     fun addEntry(targetTrailId: String, entryCausingRegeneration: RegenerationEntryType,
                  entryId: String, user: String, action: RegenerationActionType): List<ResourceEntry> {
-        return resourceDao.insert(ResourceEntry("", appProperties.instanceId,
-                entryCausingRegeneration.name, entryId, targetTrailId, action.name, Date(), user))
+        val now = Date()
+        return resourceDao.enqueue(ResourceEntry(null, appProperties.instanceId,
+                entryCausingRegeneration.name, entryId, targetTrailId, action.name, now, user,
+                appProperties.instanceRealm, Date(now.time + debounceMillis), 0), Date(now.time + maxWaitMillis))
     }
 
-    fun getTrailEntries(): List<ResourceEntry> {
-        val byInstanceId = resourceDao.getByInstanceId(appProperties.instanceId);
-        byInstanceId.forEach { logger.trace("Found to process: $it") }
-        return byInstanceId
+    /**
+     * Claims up to [max] due entries of the instance realm, at most one per trail,
+     * leased to the returned owner. Entries that ran out of attempts are dropped first.
+     */
+    fun claimEntries(max: Int): ClaimedEntries {
+        val owner = "${appProperties.instanceId}-${UUID.randomUUID()}"
+        val now = Date()
+        val leaseUntil = Date(now.time + leaseMillis)
+        val maxAttempts = appProperties.resourcesQueueMaxAttempts
+        resourceDao.deleteExhausted(appProperties.instanceRealm, maxAttempts, now).forEach {
+            logger.warn("Dropped the resource regeneration of trail '$it' after $maxAttempts attempts")
+        }
+        val claimedTrailIds = mutableSetOf<String>()
+        val entries = generateSequence {
+            resourceDao.claim(appProperties.instanceRealm, owner, now, leaseUntil, claimedTrailIds, maxAttempts)
+                    .orElse(null)
+                    ?.also { claimedTrailIds.add(it.targetingTrail) }
+        }.take(max).toList()
+        entries.forEach { logger.trace("Found to process: $it") }
+        return ClaimedEntries(owner, entries)
     }
 
-    fun deleteEntries(entries: List<ResourceEntry>) = entries.forEach { resourceDao.delete(it.id) }
-}
\ No newline at end of file
+    /**
+     * Removes the processed entries, unless their lease ran out and another owner took them over.
+     */
+    fun deleteEntries(claimed: ClaimedEntries, entries: List<ResourceEntry>) =
+            resourceDao.deleteClaimed(entries.map { it.id }, claimed.owner)
+
+    data class ClaimedEntries(val owner: String, val entries: List<ResourceEntry>)
+}
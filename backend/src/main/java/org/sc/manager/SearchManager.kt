@@ -0,0 +1,75 @@
+package org.sc.manager
+
+import org.sc.common.rest.SearchResultDto
+import org.sc.data.model.TrailStatus
+import org.sc.data.repository.PlaceDAO
+import org.sc.data.repository.TrailDAO
+import org.sc.data.repository.helper.StatusFilterHelper
+import org.sc.data.search.SearchEntryType
+import org.sc.data.search.SearchIndex
+import org.sc.data.search.SearchPage
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+import java.util.logging.Logger
+import javax.annotation.PostConstruct
+
+@Component
+class SearchManager @Autowired constructor(
+    private val trailDAO: TrailDAO,
+    private val placeDAO: PlaceDAO,
+    private val searchIndex: SearchIndex,
+    private val statusFilterHelper: StatusFilterHelper
+) {
+    private val logger = Logger.getLogger(SearchManager::class.java.name)
+
+    @PostConstruct
+    fun loadSearchIndex() {
+        try {
+            searchIndex.load(SearchEntryType.TRAIL, trailDAO.trailSearchEntries)
+            searchIndex.load(SearchEntryType.PLACE, placeDAO.searchEntries)
+            logger.info("Loaded ${searchIndex.size} trails and places into the search index")
+        } catch (e: Exception) {
+            logger.severe("Could not load the search index, it will be loaded on the first search: $e")
+        }
+    }
+
+    fun search(query: String,
+               types: Collection<SearchEntryType>,
+               realm: String,
+               isDraftTrailVisible: Boolean,
+               skip: Int,
+               limit: Int): SearchPage {
+        val statuses = statusFilterHelper.getInFilter(isDraftTrailVisible).map { TrailStatus.valueOf(it) }
+        searchIndex.search(query, types, realm, statuses, skip, limit)?.let { return it }
+        synchronized(this) {
+            if (!searchIndex.isReady) loadSearchIndex()
+        }
+        return searchIndex.search(query, types, realm, statuses, skip, limit)
+            ?: throw IllegalStateException("Search index is not available")
+    }
+
+    fun toResults(page: SearchPage): List<SearchResultDto> =
+        page.hits.map { SearchResultDto(it.entry.id, it.entry.type.name, it.entry.label, it.score) }
+
+    fun refreshTrails(ids: List<String>) {
+        if (ids.isEmpty()) return
+        val entries = trailDAO.getTrailSearchEntries(ids)
+        entries.forEach { searchIndex.put(it) }
+        val foundIds = entries.map { it.id }.toSet()
+        ids.filterNot { foundIds.contains(it) }.forEach { searchIndex.remove(SearchEntryType.TRAIL, it) }
+    }
+
+    fun removeTrail(id: String) = searchIndex.remove(SearchEntryType.TRAIL, id)
+
+    fun refreshPlace(id: String) = refreshPlaces(listOf(id))
+
+    fun refreshPlaces(ids: List<String>) {
+        if (ids.isEmpty()) return
+        val entries = placeDAO.getSearchEntries(ids)
+        entries.forEach { searchIndex.put(it) }
+        val foundIds = entries.map { it.id }.toSet()
+        ids.filterNot { foundIds.contains(it) }.forEach { searchIndex.remove(SearchEntryType.PLACE, it) }
+    }
+
+    fun removePlace(id: String) = searchIndex.remove(SearchEntryType.PLACE, id)
+}
@@ -10,10 +10,12 @@ import org.sc.configuration.AppProperties
 import org.sc.configuration.AppProperties.DISPLAYED_VERSION
 import org.sc.data.mapper.TrailCoordinatesMapper
 import org.sc.data.model.Coordinates
-import org.sc.data.model.TrailCoordinates
 import org.sc.data.validator.FileNameValidator
 import org.sc.processor.GpxFileHandlerHelper
-import org.sc.processor.TrailsStatsCalculator
+import org.sc.processor.GpxTrack
+import org.sc.processor.TrailCoordinatesBuffer
+import org.sc.processor.TrailResourceDigest
+import org.sc.processor.TrailStatsEngine
 import org.sc.processor.pdf.PdfFileHelper
 import org.sc.adapter.AltitudeServiceAdapter
 import org.sc.configuration.auth.AuthData
@@ -31,16 +33,18 @@ import java.time.Instant.now
 import java.util.*
 import java.util.function.Consumer
 import java.util.logging.Logger
+import java.util.zip.GZIPOutputStream
 
 @Component
 class TrailFileManager @Autowired constructor(
     private val gpxFileHandlerHelper: GpxFileHandlerHelper,
     private val pdfFileHandlerHelper: PdfFileHelper,
-    private val trailsStatsCalculator: TrailsStatsCalculator,
+    private val trailStatsEngine: TrailStatsEngine,
     private val altitudeService: AltitudeServiceAdapter,
     private val trailCoordinatesMapper: TrailCoordinatesMapper,
     private val fileManagementUtil: FileManagementUtil,
     private val fileNameValidator: FileNameValidator,
+    private val trailResourceDigest: TrailResourceDigest,
     appProps: AppProperties
 ) {
 
@@ -51,8 +55,14 @@ class TrailFileManager @Autowired constructor(
         const val PDF_TRAIL_MID = "$TRAIL_MID/pdf"
 
         const val IMPORT_FILE_EXTENSION = "gpx"
+        private const val GZIP_EXTENSION = ".gz"
     }
 
+    /**
+     * A written static resource, with the digest of the inputs it was written from.
+     */
+    data class ResourceFile(val fileName: String, val digest: String)
+
     private val logger = Logger.getLogger(TrailFileManager::class.java.name)
 
     private val customItineraryStoredFiles = File(fileManagementUtil.getCustomItineraryPath()).toPath()
@@ -61,7 +71,6 @@ class TrailFileManager @Autowired constructor(
     private val pathToPdfStoredFiles = File(fileManagementUtil.getTrailPdfStoragePath()).toPath()
 
     private val uploadDir = File(appProps.tempStorage)
-    private val emptyDefaultString = ""
 
     fun saveRawGpx(fileName: String, tempFile: Path): Path {
         val pathToSavedFile = makePathToSavedFile(fileName)
@@ -76,42 +85,24 @@ class TrailFileManager @Autowired constructor(
     fun getTrailRawModel(
         uniqueFileName: String,
         originalFilename: String,
-        tempFile: Path,
+        track: GpxTrack,
         authData: AuthData
     ): TrailRawDto {
-        val gpx = gpxFileHandlerHelper.readFromFile(tempFile)
-        val track = gpx.tracks.first()
-        val segment = track.segments.first()
-
-        val altitudeResultOrderedList = altitudeService.getElevationsByLongLat(segment.points.map { coord ->
-            Pair(
-                coord.latitude.toDegrees(),
-                coord.longitude.toDegrees()
-            )
+        val buffer = track.points
+        val altitudeResultOrderedList = altitudeService.getElevationsByLongLat((0 until buffer.size).map {
+            Pair(buffer.latitude(it), buffer.longitude(it))
         })
 
-        val coordinatesWithAltitude = mutableListOf<Coordinates>()
-
-        segment.points.forEachIndexed { index, coord ->
-            coordinatesWithAltitude.add(
-                CoordinatesDto(
-                    coord.longitude.toDegrees(), coord.latitude.toDegrees(),
-                    altitudeResultOrderedList[index]
-                )
-            )
+        (0 until buffer.size).forEach {
+            buffer.set(it, buffer.latitude(it), buffer.longitude(it), altitudeResultOrderedList[it])
         }
 
-        val trailCoordinates = coordinatesWithAltitude.map {
-            TrailCoordinates(
-                it.longitude, it.latitude, it.altitude,
-                trailsStatsCalculator.calculateLengthFromTo(coordinatesWithAltitude, it)
-            )
-        }
+        val trailCoordinates = trailStatsEngine.calculate(buffer).toTrailCoordinates()
 
         return TrailRawDto(
             "",
-            track.name.orElse(emptyDefaultString),
-            track.description.orElse(emptyDefaultString),
+            track.name,
+            track.description,
             trailCoordinatesMapper.map(trailCoordinates.first()),
             trailCoordinatesMapper.map(trailCoordinates.last()),
             trailCoordinates.map { trailCoordinatesMapper.map(it) },
@@ -122,13 +113,21 @@ class TrailFileManager @Autowired constructor(
         )
     }
 
-    fun writeTrailToOfficialGpx(trail: TrailDto, fileName: String): String {
+    fun writeTrailToOfficialGpx(trail: TrailDto, fileName: String): ResourceFile {
+        val generatedFilename = "$fileName.gpx"
+        val digest = trailResourceDigest.gpx(trail)
+        val path = pathToGpxStoredFiles.resolve(generatedFilename)
+        if (isUpToDate(path, generatedFilename, digest, trail.staticTrailDetails?.pathGpx, trail.staticTrailDetails?.digestGpx)) {
+            logger.info("GPX for trail with id '${trail.id}' is up to date")
+            writeGzipVariant(path)
+            return ResourceFile(generatedFilename, digest)
+        }
         logger.info("Writing GPX trail for trail with id '${trail.id}'")
         val creator = "S&C_$DISPLAYED_VERSION"
         val gpx = buildTrailGpx(creator, trail)
-        val generatedFilename = "$fileName.gpx"
-        gpxFileHandlerHelper.writeToFile(gpx, pathToGpxStoredFiles.resolve(generatedFilename))
-        return generatedFilename
+        writeAtomically(path) { gpxFileHandlerHelper.writeToFile(gpx, it) }
+        writeGzipVariant(path)
+        return ResourceFile(generatedFilename, digest)
     }
 
     fun buildCustomGpx(coordinates: List<Coordinates>): ByteArray {
@@ -168,27 +167,72 @@ class TrailFileManager @Autowired constructor(
                 }
             }
 
-    fun writeTrailToKml(trail: TrailDto, fileName: String): String {
+    fun writeTrailToKml(trail: TrailDto, fileName: String): ResourceFile {
+        val generatedFilename = "$fileName.kml"
+        val digest = trailResourceDigest.kml(trail)
+        val path = pathToKmlStoredFiles.resolve(generatedFilename)
+        if (isUpToDate(path, generatedFilename, digest, trail.staticTrailDetails?.pathKml, trail.staticTrailDetails?.digestKml)) {
+            logger.info("KML for trail with id '${trail.id}' is up to date")
+            writeGzipVariant(path)
+            return ResourceFile(generatedFilename, digest)
+        }
         logger.info("Writing KML for trail with id '${trail.id}'")
         val kml = Kml()
         val lineString: LineString = LineString().withAltitudeMode(AltitudeMode.ABSOLUTE)
         trail.coordinates.forEach { lineString.addToCoordinates(it.longitude, it.latitude, it.altitude) }
         kml.createAndSetDocument().createAndAddPlacemark().withGeometry(lineString)
-        val generatedFilename = "$fileName.kml"
-        kml.marshal(pathToKmlStoredFiles.resolve(generatedFilename).toFile())
-        return generatedFilename
+        writeAtomically(path) { kml.marshal(it.toFile()) }
+        writeGzipVariant(path)
+        return ResourceFile(generatedFilename, digest)
     }
 
     fun writeTrailToPdf(
         trail: TrailDto, places: List<PlaceDto>, lastMaintenance: List<MaintenanceDto>,
         reportedOpenIssues: List<AccessibilityNotificationDto>,
         fileName: String
-    ): String {
+    ): ResourceFile {
         val generatedFilename = "$fileName.pdf"
+        val digest = trailResourceDigest.pdf(trail, places, lastMaintenance, reportedOpenIssues)
         val pathname = pathToPdfStoredFiles.resolve(generatedFilename)
-        pdfFileHandlerHelper.exportPdf(trail, places, lastMaintenance, reportedOpenIssues, pathname)
+        if (isUpToDate(pathname, generatedFilename, digest, trail.staticTrailDetails?.pathPdf, trail.staticTrailDetails?.digestPdf)) {
+            logger.info("PDF for trail with id '${trail.id}' is up to date")
+            return ResourceFile(generatedFilename, digest)
+        }
+        writeAtomically(pathname) {
+            pdfFileHandlerHelper.exportPdf(trail, places, lastMaintenance, reportedOpenIssues, it)
+        }
         logger.info("Exported pdf for trail with 'id' ${trail.id} in path: $pathname")
-        return generatedFilename
+        return ResourceFile(generatedFilename, digest)
+    }
+
+    private fun isUpToDate(path: Path, fileName: String, digest: String,
+                           storedFileName: String?, storedDigest: String?) =
+        fileName == storedFileName && digest == storedDigest && Files.exists(path)
+
+    /**
+     * Writes the file next to its target and moves it in place, so that
+     * the file being served is never a partly written one.
+     */
+    private fun writeAtomically(target: Path, writer: (Path) -> Unit) {
+        val tempFile = Files.createTempFile(target.parent, ".${target.fileName}", ".tmp")
+        try {
+            writer(tempFile)
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } finally {
+            Files.deleteIfExists(tempFile)
+        }
+    }
+
+    /**
+     * Writes the precompressed copy served to the clients accepting gzip, unless one at least
+     * as recent as the file is already there: files written by older versions get theirs too.
+     */
+    private fun writeGzipVariant(path: Path) {
+        val variant = path.resolveSibling("${path.fileName}$GZIP_EXTENSION")
+        if (Files.exists(variant) && Files.getLastModifiedTime(variant) >= Files.getLastModifiedTime(path)) return
+        writeAtomically(variant) { tempFile ->
+            GZIPOutputStream(Files.newOutputStream(tempFile)).use { Files.copy(path, it) }
+        }
     }
 
     fun getGPXFilesTempPathList(uploadedFiles: List<MultipartFile>): Map<String, Optional<Path>> {
@@ -237,7 +281,7 @@ class TrailFileManager @Autowired constructor(
     private fun hasFileBeenSaved(saveFile: Long) = saveFile != 0L
 
     private fun saveFile(tempFile: Path, fileName: String) =
-        Files.copy(tempFile, FileOutputStream(makePathToSavedFile(fileName)))
+        FileOutputStream(makePathToSavedFile(fileName)).use { Files.copy(tempFile, it) }
 
     private fun makePathToSavedFile(fileName: String) =
         fileManagementUtil.getRawTrailStoragePath() + fileName
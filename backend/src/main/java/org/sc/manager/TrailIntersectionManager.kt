@@ -15,27 +15,30 @@ import org.springframework.stereotype.Component
 @Component
 class TrailIntersectionManager @Autowired constructor(
     private val trailDAO: TrailDAO,
+    private val trailManager: TrailManager,
     private val trailIntersectionProcessor: TrailIntersectionProcessor,
     private val trailIntersectionMapper: TrailIntersectionMapper,
     private val altitudeServiceAdapter: AltitudeServiceAdapter
 ) {
 
     fun findIntersection(geoLineDto: GeoLineDto, skip: Int, limit: Int): List<TrailIntersectionDto> {
+        val intersectingTrailIds = trailManager.findTrailIdsIntersecting(geoLineDto.coordinates, skip + limit, true)
+            ?: return findIntersectionOnDatabase(geoLineDto, skip, limit)
+
+        val trails = trailManager.getByIdsInOrder(intersectingTrailIds.drop(skip), TrailSimplifierLevel.FULL)
+        return trailIntersectionProcessor.getTrailsCrosswayIntersectionPoints(geoLineDto.coordinates, trails)
+            .map { toTrailIntersectionWithElevationData(it) }
+    }
+
+    private fun findIntersectionOnDatabase(geoLineDto: GeoLineDto, skip: Int, limit: Int): List<TrailIntersectionDto> {
         val outerGeoSquare = GeoCalculator.getOuterSquareForCoordinates(geoLineDto.coordinates, 0.001)
         val foundTrailsInGeoSquare = trailDAO.findTrailsWithinGeoSquare(
             outerGeoSquare, skip, limit,
             TrailSimplifierLevel.FULL, true, emptyList()
         )
 
-        return foundTrailsInGeoSquare.filter {
-            GeoCalculator.areSegmentsIntersecting(
-                geoLineDto.coordinates, it.geoLineString
-            )
-        }.map { trail ->
-            trailIntersectionProcessor.getTrailCrosswayIntersectionPoints(geoLineDto.coordinates, trail)
-        }.map {
-            toTrailIntersectionWithElevationData(it)
-        }
+        return trailIntersectionProcessor.getTrailsCrosswayIntersectionPoints(geoLineDto.coordinates, foundTrailsInGeoSquare)
+            .map { toTrailIntersectionWithElevationData(it) }
     }
 
     private fun toTrailIntersectionWithElevationData(trailToIntersectionPoints: Pair<Trail, List<Coordinates2D>>): TrailIntersectionDto {
@@ -4,14 +4,25 @@ import org.sc.common.rest.*
 import org.sc.common.rest.geo.RectangleDto
 import org.sc.data.entity.mapper.StaticTrailDetailsMapper
 import org.sc.data.geo.CoordinatesRectangle
+import org.sc.data.geo.TrailGeometry
 import org.sc.data.geo.TrailPlacesAligner
+import org.sc.data.geo.TrailSpatialIndex
 import org.sc.data.mapper.*
 import org.sc.data.model.*
+import org.sc.data.repository.KeysetPage
 import org.sc.data.repository.PlaceDAO
+import org.sc.data.repository.TrailDatasetVersionDao
 import org.sc.data.repository.TrailDAO
+import org.sc.data.repository.TrailField
+import org.sc.data.repository.helper.StatusFilterHelper
+import org.sc.processor.CrosswayLinkPlan
+import org.sc.processor.CrosswayLinkPlanner
 import org.sc.processor.TrailSimplifierLevel
+import org.sc.processor.tile.TileCache
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Component
+import java.util.logging.Logger
+import javax.annotation.PostConstruct
 
 @Component
 class TrailManager @Autowired constructor(
@@ -22,30 +33,76 @@ class TrailManager @Autowired constructor(
     private val placeRefMapper: PlaceRefMapper,
     private val trailMappingMapper: TrailMappingMapper,
     private val trailPlacesAligner: TrailPlacesAligner,
-    private val staticTrailDetailsMapper: StaticTrailDetailsMapper
+    private val crosswayLinkPlanner: CrosswayLinkPlanner,
+    private val staticTrailDetailsMapper: StaticTrailDetailsMapper,
+    private val trailSpatialIndex: TrailSpatialIndex,
+    private val statusFilterHelper: StatusFilterHelper,
+    private val tileCache: TileCache,
+    private val trailDatasetVersionDao: TrailDatasetVersionDao,
+    private val trailPreviewCache: TrailPreviewCache,
+    private val searchManager: SearchManager
 ) {
+    private val logger = Logger.getLogger(TrailManager::class.java.name)
+
+    @PostConstruct
+    fun loadSpatialIndex() {
+        try {
+            trailSpatialIndex.load(trailDAO.trailGeometries)
+            logger.info("Loaded ${trailSpatialIndex.size} trail geometries into the spatial index")
+        } catch (e: Exception) {
+            logger.severe("Could not load the trail spatial index, geo lookups will query the database: $e")
+        }
+    }
 
+    @JvmOverloads
     fun get(
             page: Int,
             count: Int,
             trailSimplifierLevel: TrailSimplifierLevel,
             realm: String,
             isDraftTrailVisible: Boolean,
-    ): List<TrailDto> = trailDAO.getTrails(page, count, trailSimplifierLevel, realm, isDraftTrailVisible)
+            fields: Set<TrailField> = emptySet()
+    ): List<TrailDto> = trailDAO.getTrails(page, count, trailSimplifierLevel, realm, isDraftTrailVisible, fields)
             .map { trailMapper.map(it) }
 
-    fun getById(id: String, level: TrailSimplifierLevel): List<TrailDto> =
-            trailDAO.getTrailById(id, level).map { trailMapper.map(it) }
+    fun getAfter(
+            continuationToken: String?,
+            count: Int,
+            trailSimplifierLevel: TrailSimplifierLevel,
+            realm: String,
+            isDraftTrailVisible: Boolean,
+            fields: Set<TrailField>
+    ): KeysetPage<TrailDto> =
+            trailDAO.getTrailsAfter(continuationToken, count, trailSimplifierLevel, realm, isDraftTrailVisible, fields)
+                    .map { trailMapper.map(it) }
+
+    @JvmOverloads
+    fun getById(id: String, level: TrailSimplifierLevel, fields: Set<TrailField> = emptySet()): List<TrailDto> =
+            trailDAO.getTrailById(id, level, fields).map { trailMapper.map(it) }
 
     fun getByIds(id: String, level: TrailSimplifierLevel): List<TrailDto> =
             trailDAO.getTrailById(id, level).map { trailMapper.map(it) }
 
-    fun getByPlaceRefId(code: String, page: Int, limit: Int, level: TrailSimplifierLevel): List<TrailDto> =
-            trailDAO.getTrailByPlaceId(code, page, limit, level).map { trailMapper.map(it) }
+    /**
+     * The trails with the given ids, in the order of the ids; the ids not found are left out.
+     */
+    @JvmOverloads
+    fun getByIds(ids: List<String>, level: TrailSimplifierLevel, fields: Set<TrailField> = emptySet()): List<TrailDto> =
+            getByIdsInOrder(ids, level, fields).map { trailMapper.map(it) }
+
+    @JvmOverloads
+    fun getByPlaceRefId(code: String, page: Int, limit: Int, level: TrailSimplifierLevel,
+                        fields: Set<TrailField> = emptySet()): List<TrailDto> =
+            trailDAO.getTrailByPlaceId(code, page, limit, level, fields).map { trailMapper.map(it) }
 
     fun deleteById(id: String): List<TrailDto> {
         propagateChangesToTrails(id)
         val deletedTrailInMem = trailDAO.delete(id)
+        val previousBounds = trailSpatialIndex.getBounds(id)
+        trailSpatialIndex.remove(id)
+        previousBounds?.let { tileCache.invalidate(it) }
+        onTrailDataChanged()
+        searchManager.removeTrail(id)
         return deletedTrailInMem.map { trailMapper.map(it) }
     }
 
@@ -57,28 +114,43 @@ class TrailManager @Autowired constructor(
     }
 
     fun save(trail: Trail): List<TrailDto> {
-        return trailDAO.upsert(trail).map { trailMapper.map(it) }
+        val savedTrails = trailDAO.upsert(trail)
+        savedTrails.forEach { indexGeometry(it) }
+        onTrailsChanged(savedTrails.map { it.id })
+        return savedTrails.map { trailMapper.map(it) }
     }
 
     fun update(trail: Trail): List<TrailDto> {
-        return trailDAO.update(trail).map { trailMapper.map(it) }
+        val updatedTrails = trailDAO.update(trail)
+        updatedTrails.forEach { indexGeometry(it) }
+        onTrailsChanged(updatedTrails.map { it.id })
+        return updatedTrails.map { trailMapper.map(it) }
     }
 
     fun updateTrailPlaceNamesReference(trailId: String, placeId: String, placeName: String): List<TrailDto> {
-        return trailDAO.updateTrailNamePlaceReference(trailId, placeId, placeName).map { trailMapper.map(it) }
+        val updatedTrails = trailDAO.updateTrailNamePlaceReference(trailId, placeId, placeName)
+        onTrailsChanged(listOf(trailId))
+        return updatedTrails.map { trailMapper.map(it) }
     }
 
     fun linkMedia(id: String, linkedMediaRequest: LinkedMediaDto): List<TrailDto> {
         val linkMedia = linkedMediaMapper.map(linkedMediaRequest)
         val result = trailDAO.linkMedia(id, linkMedia)
+        onTrailDataChanged()
         return result.map { trailMapper.map(it) }
     }
 
     fun unlinkMedia(id: String, unLinkeMediaRequestDto: UnLinkeMediaRequestDto): List<TrailDto> {
         val unlinkedTrail = trailDAO.unlinkMedia(id, unLinkeMediaRequestDto.id)
+        onTrailDataChanged()
         return unlinkedTrail.map { trailMapper.map(it) }
     }
 
+    fun unlinkMediaFromAllTrails(mediaId: String) {
+        trailDAO.unlinkMediaByAllTrails(mediaId)
+        onTrailDataChanged()
+    }
+
     fun doesTrailExist(id: String): Boolean = trailDAO.getTrailById(id, TrailSimplifierLevel.LOW).isNotEmpty()
 
     fun linkTrailToPlace(targetTrailId: String, placeRef: PlaceRefDto): List<TrailDto> {
@@ -91,10 +163,33 @@ class TrailManager @Autowired constructor(
         val place = linkedPlace.first()
         ensureLinkingTrailToExistingCrosswayReferences(place, targetTrailId)
         ensureCreatingNewCrosswayReferences(place, targetTrailId, placeRef)
+        onTrailsChanged(place.crossingTrailIds.plus(targetTrailId).distinct())
 
         return getById(targetTrailId, TrailSimplifierLevel.LOW)
     }
 
+    /**
+     * Links the trail to all the places of its locations at once, and the trails crossing
+     * them to each other: the places and trails are read once, the changes planned in memory
+     * and written with a bulk write per collection.
+     */
+    fun linkTrailToPlaces(trailId: String, placeRefs: List<PlaceRefDto>): CrosswayLinkPlan {
+        if (placeRefs.isEmpty()) return CrosswayLinkPlan(emptyList(), emptyList())
+        val locations = placeRefs.map { placeRefMapper.map(it) }
+        val placeIds = locations.map { it.placeId }.distinct()
+        val places = placeDAO.getByIds(placeIds)
+        val crossingTrailIds = places.flatMap { it.crossingTrailIds.orEmpty() }.plus(trailId).distinct()
+        val trails = trailDAO.getTrailPreviewsByIdsOrPlaceIds(crossingTrailIds, placeIds)
+
+        val plan = crosswayLinkPlanner.plan(trailId, locations, places, trails) { ids ->
+            trailDAO.getTrailsByIds(ids, TrailSimplifierLevel.HIGH).associate { it.id to it.coordinates }
+        }
+        placeDAO.linkTrailsToPlaces(plan.placeLinks)
+        trailDAO.updateLocations(plan.trailUpdates)
+        onTrailsChanged(plan.trailUpdates.map { it.trailId }.plus(trailId).distinct())
+        return plan
+    }
+
     private fun ensureLinkingTrailToExistingCrosswayReferences(place: Place, targetTrailId: String) {
         trailDAO.linkAllExistingTrailConnectionWithNewTrailId(place.id, targetTrailId)
     }
@@ -139,13 +234,21 @@ class TrailManager @Autowired constructor(
 
     fun unlinkPlace(id: String, placeRef: PlaceRefDto): List<TrailDto> {
         val unLinkPlace = trailDAO.unLinkPlace(id, placeRefMapper.map(placeRef))
+        onTrailsChanged(listOf(id))
         return unLinkPlace.map { trailMapper.map(it) }
     }
 
     fun count(): Long = trailDAO.countTrail()
 
+    fun countByRealm(realm: String): Long = trailDAO.countTrailByRealm(realm, true)
+
+    fun forEachTrailId(realm: String, consumer: (String) -> Unit) =
+            trailDAO.forEachTrailId(realm, true) { consumer(it) }
+
     fun removePlaceRefFromTrails(placeId: String) {
+        val trailIds = trailDAO.getTrailIdsByPlaceIds(listOf(placeId))
         trailDAO.unlinkPlaceFromAllTrails(placeId)
+        onTrailsChanged(trailIds)
     }
 
     fun findTrailsWithinRectangle(
@@ -155,14 +258,52 @@ class TrailManager @Autowired constructor(
             level: TrailSimplifierLevel,
             isDraftTrailVisible: Boolean
     ): List<TrailDto> {
-        val trails = trailDAO.findTrailsWithinGeoSquare(
-            CoordinatesRectangle(bottomLeft, topRight), 0, 100,
-            level, isDraftTrailVisible,
-            excludedTrails
+        val rectangle = CoordinatesRectangle(bottomLeft, topRight)
+        val trailIds = trailSpatialIndex.findWithinRectangle(
+            rectangle, getVisibleStatuses(isDraftTrailVisible), excludedTrails, 100
         )
+        val trails = if (trailIds != null) getByIdsInOrder(trailIds, level)
+        else trailDAO.findTrailsWithinGeoSquare(rectangle, 0, 100, level, isDraftTrailVisible, excludedTrails)
         return trails.map { trailMapper.map(it) }
     }
 
+    /**
+     * Returns the ids of the trails crossing the given line, or null when the spatial index
+     * is not available and the lookup has to go through the database.
+     */
+    fun findTrailIdsIntersecting(coordinates: List<Coordinates2D>, limit: Int, isDraftTrailVisible: Boolean): List<String>? =
+        trailSpatialIndex.findIntersecting(coordinates, getVisibleStatuses(isDraftTrailVisible), limit)
+
+    fun getByIdsInOrder(ids: List<String>, level: TrailSimplifierLevel,
+                        fields: Set<TrailField> = emptySet()): List<Trail> {
+        if (ids.isEmpty()) return emptyList()
+        val trailsById = trailDAO.getTrailsByIds(ids.distinct(), level, fields).associateBy { it.id }
+        return ids.mapNotNull { trailsById[it] }
+    }
+
+    private fun getVisibleStatuses(isDraftTrailVisible: Boolean): List<TrailStatus> =
+        statusFilterHelper.getInFilter(isDraftTrailVisible).map { TrailStatus.valueOf(it) }
+
+    private fun onTrailsChanged(trailIds: List<String>) {
+        onTrailDataChanged()
+        searchManager.refreshTrails(trailIds)
+    }
+
+    // Stored tiles and cached previews are only valid as long as the version stays the same
+    private fun onTrailDataChanged() {
+        trailDatasetVersionDao.increaseVersion()
+        trailPreviewCache.invalidate()
+    }
+
+    private fun indexGeometry(trail: Trail) {
+        if (trail.geoLineString == null) return
+        val previousBounds = trailSpatialIndex.getBounds(trail.id)
+        trailSpatialIndex.put(TrailGeometry(trail.id, trail.status, trail.geoLineString))
+        // Tiles covering either the old or the new trail extent are now stale
+        previousBounds?.let { tileCache.invalidate(it) }
+        trailSpatialIndex.getBounds(trail.id)?.let { tileCache.invalidate(it) }
+    }
+
     fun findTrailMappingsWithinRectangle(rectangleDto: RectangleDto): List<TrailMappingDto> {
         val trailMappings = trailDAO.findTrailMappingWithinGeoSquare(
                 CoordinatesRectangle(rectangleDto.bottomLeft, rectangleDto.topRight), 0, 100)
@@ -174,18 +315,30 @@ class TrailManager @Autowired constructor(
     private fun getPreviewById(id: String): List<TrailPreview> =
             trailDAO.getTrailPreviewById(id)
 
-    fun updateTrailPlaceReferences(oldId: String, id: String, name: String) {
-        trailDAO.updateAllPlaceReferencesWithNewPlaceId(oldId, id, name)
+    fun replacePlaceReferences(replacementsByPlaceId: Map<String, Place>) {
+        if (replacementsByPlaceId.isEmpty()) return
+        val trailIds = trailDAO.getTrailIdsByPlaceIds(replacementsByPlaceId.keys)
+        trailDAO.replacePlaceReferences(replacementsByPlaceId)
+        onTrailsChanged(trailIds)
     }
 
     fun updateStaticResources(id: String, resources: StaticTrailDetails) {
         trailDAO.updateStaticResources(id, staticTrailDetailsMapper.mapToDocument(resources))
+        onTrailDataChanged()
     }
 
     fun getTrailsWithoutMunicipalities() : List<Trail> {
         return trailDAO.trailWoMunicipialities
     }
 
+    fun convertCoordinatesFormat(afterId: String?, limit: Int, toBinary: Boolean): List<String> =
+        trailDAO.convertCoordinatesFormat(afterId, limit, toBinary)
+
+    fun backfillSimplifiedGeoLine(afterId: String?, limit: Int): List<String> =
+        trailDAO.backfillSimplifiedGeoLine(afterId, limit)
+
+    fun refreshSimplifiedGeoLineState(): Boolean = trailDAO.refreshSimplifiedGeoLineState()
+
     fun getMunicipality() : List<MunicipalityDetails> {
         return trailDAO.distinctMunicipality()
     }
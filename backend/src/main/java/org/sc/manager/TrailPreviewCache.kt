@@ -0,0 +1,109 @@
+package org.sc.manager
+
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import org.sc.configuration.AppProperties
+import org.sc.data.repository.TrailDatasetVersionDao
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+
+/**
+ * Trail preview pages and counts, keyed by their query and by the trail dataset version,
+ * which every trail change moves on. The version is re-read every few seconds, so that
+ * changes made on other instances are picked up, and right away after a change made here.
+ * Entries of a previous version are never hit again and age out of the LRU segments.
+ */
+@Component
+class TrailPreviewCache(
+    private val versionSource: () -> Long,
+    private val versionRefreshMillis: Long,
+    maxEntries: Int,
+    meterRegistry: MeterRegistry
+) {
+
+    companion object {
+        const val METRIC_NAME = "trail.preview.cache"
+        private const val SEGMENTS = 16
+    }
+
+    private val segments = Array(SEGMENTS) { Segment(maxOf(1, maxEntries / SEGMENTS)) }
+
+    @Volatile
+    private var datasetVersion = 0L
+    @Volatile
+    private var datasetVersionReadAt = 0L
+
+    private val hits = Counter.builder(METRIC_NAME).tag("result", "hit").register(meterRegistry)
+    private val misses = Counter.builder(METRIC_NAME).tag("result", "miss").register(meterRegistry)
+
+    @Autowired
+    constructor(trailDatasetVersionDao: TrailDatasetVersionDao,
+                appProperties: AppProperties,
+                meterRegistry: MeterRegistry) :
+            this({ trailDatasetVersionDao.last.version },
+                appProperties.previewCacheVersionRefreshSeconds * 1000L,
+                appProperties.previewCacheSize,
+                meterRegistry)
+
+    init {
+        meterRegistry.gauge("$METRIC_NAME.size", this) { cache -> cache.size().toDouble() }
+    }
+
+    /**
+     * The version the cached entries are currently read at, usable as an ETag.
+     */
+    val currentVersion: String
+        get() = getDatasetVersion().toString()
+
+    @Suppress("UNCHECKED_CAST")
+    fun <T : Any> get(query: String, parameters: List<Any?>, loader: () -> T): T {
+        val key = Key(query, parameters, currentVersion)
+        val segment = segments[Math.floorMod(key.hashCode(), SEGMENTS)]
+        segment.get(key)?.let {
+            hits.increment()
+            return it as T
+        }
+        misses.increment()
+        val value = loader()
+        segment.put(key, value)
+        return value
+    }
+
+    /**
+     * Re-reads the dataset version on the next lookup, after it was moved on by a trail change
+     * made through this instance.
+     */
+    fun invalidate() {
+        datasetVersionReadAt = 0L
+    }
+
+    fun size(): Int = segments.sumOf { it.size() }
+
+    private fun getDatasetVersion(): Long {
+        val now = System.currentTimeMillis()
+        if (now - datasetVersionReadAt >= versionRefreshMillis) {
+            datasetVersion = versionSource()
+            datasetVersionReadAt = now
+        }
+        return datasetVersion
+    }
+
+    private data class Key(val query: String, val parameters: List<Any?>, val version: String)
+
+    private class Segment(private val maxEntries: Int) {
+        private val entries = object : LinkedHashMap<Key, Any>(16, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, Any>?) = size > maxEntries
+        }
+
+        @Synchronized
+        fun get(key: Key): Any? = entries[key]
+
+        @Synchronized
+        fun put(key: Key, value: Any) {
+            entries[key] = value
+        }
+
+        @Synchronized
+        fun size(): Int = entries.size
+    }
+}
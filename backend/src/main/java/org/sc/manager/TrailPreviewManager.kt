@@ -5,8 +5,10 @@ import org.sc.common.rest.TrailPreviewDto
 import org.sc.data.mapper.TrailMappingMapper
 import org.sc.data.mapper.TrailPreviewMapper
 import org.sc.data.model.TrailPreview
+import org.sc.data.repository.KeysetPage
 import org.sc.data.repository.TrailDAO
 import org.sc.data.repository.TrailRawDAO
+import org.sc.data.search.SearchEntryType
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Component
 
@@ -15,7 +17,9 @@ class TrailPreviewManager @Autowired constructor(
     private val trailPreviewMapper: TrailPreviewMapper,
     private val trailMappingMapper: TrailMappingMapper,
     private val trailDAO: TrailDAO,
-    private val trailRawDAO: TrailRawDAO
+    private val trailRawDAO: TrailRawDAO,
+    private val trailPreviewCache: TrailPreviewCache,
+    private val searchManager: SearchManager
 ) {
 
     fun getMappings(
@@ -35,6 +39,15 @@ class TrailPreviewManager @Autowired constructor(
     ): List<TrailPreview> =
         trailDAO.getTrailPreviews(skip, limit, realm, isDraftTrailVisible)
 
+    fun getPreviewsAfter(
+        continuationToken: String?,
+        limit: Int,
+        realm: String,
+        isDraftTrailVisible: Boolean
+    ): KeysetPage<TrailPreviewDto> =
+        trailDAO.getTrailPreviewsAfter(continuationToken, limit, realm, isDraftTrailVisible)
+            .map { trailPreviewMapper.map(it) }
+
     fun findPreviewsByMunicipality(
         municipality: String,
         skip: Int,
@@ -65,13 +78,13 @@ class TrailPreviewManager @Autowired constructor(
         isDraftTrailVisible: Boolean,
         skip: Int,
         limit: Int
-    ): List<TrailPreviewDto> {
-        return trailDAO.searchByLocationOrTrailNameCode(
-            name, realm,
-            isDraftTrailVisible, skip, limit
-        )
-            .map { trailPreviewMapper.map(it) }
-    }
+    ): List<TrailPreviewDto> =
+        trailPreviewCache.get("searchByName", listOf(name, realm, isDraftTrailVisible, skip, limit)) {
+            val trailIds = searchManager.search(name, listOf(SearchEntryType.TRAIL), realm, isDraftTrailVisible, skip, limit)
+                .hits.map { it.entry.id }
+            val previewsById = trailDAO.getTrailPreviewsByIds(trailIds).associateBy { it.id }
+            trailIds.mapNotNull { previewsById[it] }.map { trailPreviewMapper.map(it) }
+        }
 
     fun getRawPreviews(skip: Int, limit: Int, realm: String): List<TrailPreviewDto> =
         trailRawDAO.get(skip, limit, realm).map { trailPreviewMapper.map(it) }
@@ -81,13 +94,17 @@ class TrailPreviewManager @Autowired constructor(
 
     fun countPreview(): Long = trailDAO.countTrail()
     fun countPreviewByRealm(realm: String, isDraftTrailVisible: Boolean): Long =
-        trailDAO.countTrailByRealm(realm, isDraftTrailVisible)
+        trailPreviewCache.get("countByRealm", listOf(realm, isDraftTrailVisible)) {
+            trailDAO.countTrailByRealm(realm, isDraftTrailVisible)
+        }
 
     fun countFindingByCode(realm: String, code: String, isDraftTrailVisible: Boolean): Long =
         trailDAO.countTotalByCode(realm, code, isDraftTrailVisible)
 
     fun countFindingByNameOrLocationName(name: String, realm: String, isDraftTrailVisible: Boolean): Long =
-        trailDAO.countFindingByNameOrLocationName(name, realm, isDraftTrailVisible)
+        trailPreviewCache.get("countByName", listOf(name, realm, isDraftTrailVisible)) {
+            searchManager.search(name, listOf(SearchEntryType.TRAIL), realm, isDraftTrailVisible, 0, 0).totalCount
+        }
 
     fun countRaw(realm: String): Long = trailRawDAO.count(realm)
     fun countFindingByMunicipality(realm: String, municipality: String, isDraftTrailVisible: Boolean): Long {
@@ -0,0 +1,61 @@
+package org.sc.manager
+
+import org.sc.data.geo.TrailSpatialIndex
+import org.sc.data.model.TrailStatus
+import org.sc.data.repository.TrailDAO
+import org.sc.processor.tile.TileCache
+import org.sc.processor.tile.TileKey
+import org.sc.processor.tile.VectorTileEncoder
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+
+@Component
+class TrailTileManager @Autowired constructor(
+    private val trailDAO: TrailDAO,
+    private val trailSpatialIndex: TrailSpatialIndex,
+    private val tileCache: TileCache
+) {
+
+    companion object {
+        const val TRAIL_LAYER_NAME = "trails"
+        private const val MAX_TRAILS_WITHOUT_INDEX = 1000
+    }
+
+    fun getTile(key: TileKey): ByteArray {
+        tileCache.get(key)?.let { return it }
+
+        val renderedAt = tileCache.currentGeneration
+        val indexedTrailIds = trailSpatialIndex.findWithinRectangle(
+            key.bounds, listOf(TrailStatus.PUBLIC), emptyList(), Int.MAX_VALUE
+        )
+        val trailIds = indexedTrailIds ?: trailDAO.findTrailsWithinGeoSquare(
+            key.bounds, 0, MAX_TRAILS_WITHOUT_INDEX, key.simplifierLevel, false, emptyList()
+        ).map { it.id }
+
+        val tile = render(key, trailIds)
+        // Without the index, changed trails could not be traced back to their tiles
+        if (indexedTrailIds != null) tileCache.put(key, tile, renderedAt)
+        return tile
+    }
+
+    private fun render(key: TileKey, trailIds: List<String>): ByteArray {
+        val encoder = VectorTileEncoder(TRAIL_LAYER_NAME)
+        if (trailIds.isEmpty()) return encoder.encode()
+
+        trailDAO.getTrailTileFeatures(trailIds, key.simplifierLevel).forEach { feature ->
+            val points = IntArray(feature.coordinates.size * 2)
+            feature.coordinates.forEachIndexed { index, coordinates ->
+                points[index * 2] = key.toTileX(coordinates.longitude)
+                points[index * 2 + 1] = key.toTileY(coordinates.latitude)
+            }
+            val properties = listOf(
+                "id" to feature.id,
+                "code" to feature.code,
+                "name" to feature.name,
+                "classification" to feature.classification
+            ).mapNotNull { (name, value) -> value?.let { name to it } }.toMap()
+            encoder.addLine(properties, points)
+        }
+        return encoder.encode()
+    }
+}
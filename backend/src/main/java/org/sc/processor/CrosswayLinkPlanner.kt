@@ -0,0 +1,142 @@
+package org.sc.processor
+
+import org.sc.data.geo.TrailPlacesAligner
+import org.sc.data.model.CoordinatesWithAltitude
+import org.sc.data.model.Place
+import org.sc.data.model.PlaceRef
+import org.sc.data.model.TrailCoordinates
+import org.sc.data.model.TrailPreview
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+
+/**
+ * Works out, in memory, what linking a trail to the places of its locations changes:
+ * each place gets the trail among its crossing ones, every trail crossing a place
+ * references it, and every reference to a place lists all the trails crossing it.
+ * Dynamic crossways are named after the codes of the trails crossing them.
+ *
+ * The result is a single update per place and per changed trail, for the caller
+ * to write in bulk.
+ */
+@Component
+class CrosswayLinkPlanner @Autowired constructor(private val trailPlacesAligner: TrailPlacesAligner) {
+
+    companion object {
+        const val DYNAMIC_CROSSWAY_NAME_PREFIX = "Crocevia "
+    }
+
+    /**
+     * @param trails the trails referencing or crossing the places, linked trail included
+     * @param coordinatesOf the coordinates of the given trails, called once and only if
+     * some of them get a new location, to be sorted along the trail
+     */
+    fun plan(trailId: String,
+             locations: List<PlaceRef>,
+             places: List<Place>,
+             trails: List<TrailPreview>,
+             coordinatesOf: (List<String>) -> Map<String, List<TrailCoordinates>>): CrosswayLinkPlan {
+        val placesById = places.associateBy { it.id }
+        val locationsByTrailId = trails.associate { trail -> trail.id to trail.locations.map { copyOf(it) }.toMutableList() }
+        val startPosNames = mutableMapOf<String, String>()
+        val finalPosNames = mutableMapOf<String, String>()
+        val changedTrailIds = linkedSetOf<String>()
+        val unsortedTrailIds = linkedSetOf<String>()
+        val addedPlaceIds = mutableMapOf<String, MutableSet<String>>()
+        val renamedPlaceIds = mutableMapOf<String, MutableSet<String>>()
+        val placeLinks = mutableListOf<PlaceLink>()
+
+        locations.distinctBy { it.placeId }.forEach { location ->
+            val place = placesById[location.placeId] ?: return@forEach
+            val crossingTrailIds = place.crossingTrailIds.orEmpty().plus(trailId).distinct()
+
+            crossingTrailIds.forEach { crossingTrailId ->
+                val trailLocations = locationsByTrailId[crossingTrailId] ?: return@forEach
+                if (trailLocations.none { it.placeId == place.id }) {
+                    trailLocations.add(copyOf(location))
+                    addedPlaceIds.getOrPut(crossingTrailId) { mutableSetOf() }.add(place.id)
+                    unsortedTrailIds.add(crossingTrailId)
+                    changedTrailIds.add(crossingTrailId)
+                }
+            }
+            locationsByTrailId.forEach { (id, trailLocations) ->
+                trailLocations.filter { it.placeId == place.id }.forEach { placeRef ->
+                    val encounteredTrailIds = placeRef.encounteredTrailIds.orEmpty().plus(crossingTrailIds).distinct()
+                    if (encounteredTrailIds.size != placeRef.encounteredTrailIds.orEmpty().size) {
+                        placeRef.encounteredTrailIds = encounteredTrailIds
+                        changedTrailIds.add(id)
+                    }
+                }
+            }
+
+            val name = if (location.isDynamicCrossway && place.isDynamic)
+                getDynamicCrosswayName(trails, crossingTrailIds) else null
+            val rename = name?.takeIf { it != place.name }
+            if (rename != null) {
+                trails.filter { crossingTrailIds.contains(it.id) }.forEach { trail ->
+                    locationsByTrailId.getValue(trail.id).filter { it.placeId == place.id }.forEach { it.name = rename }
+                    renamedPlaceIds.getOrPut(trail.id) { mutableSetOf() }.add(place.id)
+                    if (trail.startPos?.placeId == place.id) startPosNames[trail.id] = rename
+                    if (trail.finalPos?.placeId == place.id) finalPosNames[trail.id] = rename
+                    changedTrailIds.add(trail.id)
+                }
+            }
+            placeLinks.add(PlaceLink(place.id, trailId, location.coordinates, rename, crossingTrailIds))
+        }
+
+        if (unsortedTrailIds.isNotEmpty()) {
+            val coordinatesByTrailId = coordinatesOf(unsortedTrailIds.toList())
+            unsortedTrailIds.forEach { id ->
+                val coordinates = coordinatesByTrailId[id]
+                if (coordinates.isNullOrEmpty()) return@forEach
+                val sorted = trailPlacesAligner.sortLocationsByTrailCoordinates(coordinates, locationsByTrailId.getValue(id))
+                locationsByTrailId[id] = sorted.toMutableList()
+            }
+        }
+
+        return CrosswayLinkPlan(
+            placeLinks,
+            changedTrailIds.map {
+                TrailLocationsUpdate(it, locationsByTrailId.getValue(it), addedPlaceIds[it].orEmpty(),
+                    renamedPlaceIds[it].orEmpty(), startPosNames[it], finalPosNames[it])
+            })
+    }
+
+    // Ordered as the trails are stored, as the name always was
+    private fun getDynamicCrosswayName(trails: List<TrailPreview>, crossingTrailIds: List<String>) =
+        DYNAMIC_CROSSWAY_NAME_PREFIX + trails.filter { crossingTrailIds.contains(it.id) }.joinToString(", ") { it.code }
+
+    private fun copyOf(placeRef: PlaceRef) =
+        PlaceRef(placeRef.name, placeRef.coordinates, placeRef.placeId,
+            placeRef.encounteredTrailIds.orEmpty().toList(), placeRef.isDynamicCrossway)
+}
+
+/**
+ * The changes to write: one update per linked place, and one per trail whose locations changed.
+ */
+data class CrosswayLinkPlan(val placeLinks: List<PlaceLink>,
+                            val trailUpdates: List<TrailLocationsUpdate>) {
+    val renamedPlaces: List<PlaceLink>
+        get() = placeLinks.filter { it.name != null }
+}
+
+/**
+ * Adds the trail and the coordinates it crosses the place at, and renames the place if [name] is set.
+ */
+data class PlaceLink(val placeId: String,
+                     val trailId: String,
+                     val coordinates: CoordinatesWithAltitude,
+                     val name: String?,
+                     val crossingTrailIds: List<String>)
+
+/**
+ * The trail locations as planned: the references to [addedPlaceIds] are added where they are
+ * in [locations], the trails encountered at each location are added to the stored ones, and
+ * the references to [renamedPlaceIds] take the planned name, as do the start and final
+ * positions when their name is set.
+ */
+data class TrailLocationsUpdate(val trailId: String,
+                                val locations: List<PlaceRef>,
+                                val addedPlaceIds: Set<String>,
+                                val renamedPlaceIds: Set<String>,
+                                val startPosName: String?,
+                                val finalPosName: String?)
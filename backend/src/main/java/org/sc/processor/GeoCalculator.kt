@@ -21,15 +21,6 @@ object GeoCalculator {
         return CoordinatesRectangle(bottomLeft, topRight)
     }
 
-    fun areSegmentsIntersecting(subjectSegment: List<Coordinates2D>, foundSegment: GeoLineString): Boolean {
-        val subjectMappedCoordinates = mapToCoords(subjectSegment)
-        val foundSegmentCoordinates = mapToCoords(foundSegment.coordinates)
-        val subjectSegmentEuclidean = geometryFactory.createLineString(subjectMappedCoordinates.toTypedArray())
-        val targetSegmentEuclidean = geometryFactory.createLineString(foundSegmentCoordinates.toTypedArray())
-
-        return subjectSegmentEuclidean.intersects(targetSegmentEuclidean)
-    }
-
     fun getIntersectionPointsBetweenSegments(subjectSegment: List<Coordinates2D>, foundSegment: GeoLineString)
             : List<Coordinates2D> {
         val subjectMappedCoordinates = mapToCoords(subjectSegment)
@@ -0,0 +1,11 @@
+package org.sc.processor
+
+/**
+ * First track segment of a GPX file, as read by [GpxTrackReader].
+ * Points carry no altitude: that is enriched afterwards by the altitude service.
+ */
+data class GpxTrack(
+    val name: String,
+    val description: String,
+    val points: TrailCoordinatesBuffer
+)
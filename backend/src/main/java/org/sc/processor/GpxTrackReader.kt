@@ -0,0 +1,115 @@
+package org.sc.processor
+
+import org.springframework.stereotype.Component
+import java.io.IOException
+import java.io.InputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import javax.xml.stream.XMLInputFactory
+import javax.xml.stream.XMLStreamConstants
+import javax.xml.stream.XMLStreamException
+import javax.xml.stream.XMLStreamReader
+
+/**
+ * Streaming (StAX) reader for the first segment of the first track of a GPX file.
+ * Points are collected straight into a primitive buffer and reading stops as soon as
+ * the segment closes, so no full GPX object graph is ever built.
+ */
+@Component
+class GpxTrackReader {
+
+    companion object {
+        private const val TRACK = "trk"
+        private const val SEGMENT = "trkseg"
+        private const val POINT = "trkpt"
+        private const val NAME = "name"
+        private const val DESCRIPTION = "desc"
+        private const val LATITUDE = "lat"
+        private const val LONGITUDE = "lon"
+        private const val INITIAL_POINTS_CAPACITY = 1024
+    }
+
+    private val inputFactory: XMLInputFactory = XMLInputFactory.newInstance().apply {
+        setProperty(XMLInputFactory.SUPPORT_DTD, false)
+        setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false)
+    }
+
+    @Throws(IOException::class)
+    fun read(path: Path): GpxTrack = Files.newInputStream(path).use { read(it) }
+
+    @Throws(IOException::class)
+    fun read(inputStream: InputStream): GpxTrack {
+        val reader = try {
+            inputFactory.createXMLStreamReader(inputStream)
+        } catch (e: XMLStreamException) {
+            throw IOException("Could not open GPX stream", e)
+        }
+        try {
+            return readTrack(reader)
+        } catch (e: XMLStreamException) {
+            throw IOException("Malformed GPX: ${e.message}", e)
+        } catch (e: NumberFormatException) {
+            throw IOException("Malformed GPX point coordinates: ${e.message}", e)
+        } finally {
+            reader.close()
+        }
+    }
+
+    private fun readTrack(reader: XMLStreamReader): GpxTrack {
+        var name = ""
+        var description = ""
+        var values = DoubleArray(INITIAL_POINTS_CAPACITY * TrailCoordinatesBuffer.STRIDE)
+        var pointsCount = 0
+
+        var depth = 0
+        var trackDepth = -1
+        var isInSegment = false
+
+        loop@ while (reader.hasNext()) {
+            when (reader.next()) {
+                XMLStreamConstants.START_ELEMENT -> {
+                    depth++
+                    val element = reader.localName
+                    when {
+                        trackDepth == -1 && element == TRACK -> trackDepth = depth
+                        trackDepth != -1 && depth == trackDepth + 1 && element == NAME -> {
+                            name = reader.elementText.trim()
+                            depth--
+                        }
+                        trackDepth != -1 && depth == trackDepth + 1 && element == DESCRIPTION -> {
+                            description = reader.elementText.trim()
+                            depth--
+                        }
+                        trackDepth != -1 && depth == trackDepth + 1 && element == SEGMENT -> isInSegment = true
+                        isInSegment && element == POINT -> {
+                            if ((pointsCount + 1) * TrailCoordinatesBuffer.STRIDE > values.size) {
+                                values = values.copyOf(values.size * 2)
+                            }
+                            val offset = pointsCount * TrailCoordinatesBuffer.STRIDE
+                            values[offset] = readCoordinate(reader, LATITUDE)
+                            values[offset + 1] = readCoordinate(reader, LONGITUDE)
+                            pointsCount++
+                        }
+                    }
+                }
+                XMLStreamConstants.END_ELEMENT -> {
+                    val element = reader.localName
+                    if (isInSegment && element == SEGMENT) break@loop
+                    if (depth == trackDepth && element == TRACK) break@loop
+                    depth--
+                }
+            }
+        }
+
+        if (pointsCount == 0) throw IOException("GPX does not contain any track point")
+
+        return GpxTrack(
+            name, description,
+            TrailCoordinatesBuffer(values.copyOf(pointsCount * TrailCoordinatesBuffer.STRIDE))
+        )
+    }
+
+    private fun readCoordinate(reader: XMLStreamReader, attribute: String): Double =
+        reader.getAttributeValue(null, attribute)?.toDouble()
+            ?: throw IOException("GPX track point is missing its '$attribute' attribute")
+}
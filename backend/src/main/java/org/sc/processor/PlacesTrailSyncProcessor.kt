@@ -15,25 +15,13 @@ class PlacesTrailSyncProcessor @Autowired constructor(private val trailManager:
     private val logger = LoggerFactory.getLogger(javaClass)
 
     fun populatePlacesWithTrailData(trailSaved: TrailDto) {
-        trailSaved.locations.map {
-            logger.info("Connecting place with Id '${it.placeId}' to newly created trail with Id '${trailSaved.id}'")
-            trailManager.linkTrailToPlace(trailSaved.id, it)
-
-
-            val updatedPlace = placeManager.getById(it.placeId).first()
-            updatedPlace.crossingTrailIds
-                    .forEach { encounteredTrailNotTrailSaved ->
-                        run {
-                            logger.info("Ensuring also place with Id '${it.placeId}' " +
-                                    "to other existing trail with Id '${encounteredTrailNotTrailSaved}'")
-                            trailManager.linkTrailToPlace(encounteredTrailNotTrailSaved, it)
-                        }
-                    }
-
-            if (it.isDynamicCrossway) {
-                updateDynamicCrosswayNameWithTrailsPassingCodes(it.placeId)
-            }
+        logger.info("Connecting places ${trailSaved.locations.map { it.placeId }} to newly created trail " +
+                "with Id '${trailSaved.id}' and to the trails crossing them")
+        val plan = trailManager.linkTrailToPlaces(trailSaved.id, trailSaved.locations)
+        plan.renamedPlaces.forEach {
+            logger.info("Updated dynamic crossway with id ${it.placeId} with new name='${it.name}'")
         }
+        placeManager.onPlacesRenamed(plan.renamedPlaces)
     }
 
     fun ensureEmptyDynamicCrosswayDeletion(placeId: String) {
@@ -0,0 +1,43 @@
+package org.sc.processor
+
+import org.sc.data.model.Coordinates
+
+/**
+ * Flat, primitive representation of a trail's points: each point takes
+ * [STRIDE] consecutive slots (latitude, longitude, altitude) of [values].
+ */
+class TrailCoordinatesBuffer(val values: DoubleArray) {
+
+    companion object {
+        const val STRIDE = 3
+        private const val LAT_OFFSET = 0
+        private const val LON_OFFSET = 1
+        private const val ALT_OFFSET = 2
+
+        fun of(coordinates: List<Coordinates>): TrailCoordinatesBuffer {
+            val buffer = TrailCoordinatesBuffer(coordinates.size)
+            coordinates.forEachIndexed { index, it -> buffer.set(index, it.latitude, it.longitude, it.altitude) }
+            return buffer
+        }
+    }
+
+    init {
+        require(values.size % STRIDE == 0) { "Buffer length must be a multiple of $STRIDE" }
+    }
+
+    constructor(size: Int) : this(DoubleArray(size * STRIDE))
+
+    val size: Int
+        get() = values.size / STRIDE
+
+    fun latitude(index: Int) = values[index * STRIDE + LAT_OFFSET]
+    fun longitude(index: Int) = values[index * STRIDE + LON_OFFSET]
+    fun altitude(index: Int) = values[index * STRIDE + ALT_OFFSET]
+
+    fun set(index: Int, latitude: Double, longitude: Double, altitude: Double) {
+        val offset = index * STRIDE
+        values[offset + LAT_OFFSET] = latitude
+        values[offset + LON_OFFSET] = longitude
+        values[offset + ALT_OFFSET] = altitude
+    }
+}
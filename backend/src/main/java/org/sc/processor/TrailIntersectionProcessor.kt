@@ -1,9 +1,27 @@
 package org.sc.processor
 
+import com.vividsolutions.jts.geom.Coordinate
+import com.vividsolutions.jts.geom.Geometry
+import com.vividsolutions.jts.geom.GeometryFactory
+import com.vividsolutions.jts.geom.prep.PreparedGeometry
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory
 import org.sc.data.model.Coordinates2D
 import org.sc.data.model.Trail
 import org.springframework.stereotype.Component
-
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.Callable
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import javax.annotation.PreDestroy
+
+/**
+ * Finds where a line crosses trails.
+ *
+ * The line is converted and prepared once per lookup, and each candidate is tested against
+ * the geometry of the coordinates it was read with, so that an edited trail is never tested
+ * against an older version of itself. Candidates are worked on in parallel.
+ */
 @Component
 class TrailIntersectionProcessor {
 
@@ -11,64 +29,63 @@ class TrailIntersectionProcessor {
         private const val DISTANCE_THRESHOLD_BETWEEN_SAME_TRAIL_CROSSWAYS = 250
     }
 
-    fun getTrailCrosswayIntersectionPoints(coordinates: List<Coordinates2D>, trail: Trail): Pair<Trail, List<Coordinates2D>> {
-        val intersectingPoints = GeoCalculator.getIntersectionPointsBetweenSegments(
-            coordinates, trail.geoLineString
-        )
-
-        val selectedCoordinates = intersectingPoints.filter {
-            isIntersectionElectableCrossway(it, intersectingPoints)
-        }
+    private val geometryFactory = GeometryFactory()
 
-        return Pair(trail, selectedCoordinates)
+    private val executor: ThreadPoolExecutor = Runtime.getRuntime().availableProcessors().let { workers ->
+        val threadCounter = AtomicInteger()
+        ThreadPoolExecutor(
+            workers, workers, 0L, TimeUnit.MILLISECONDS,
+            ArrayBlockingQueue(workers * 4),
+            { runnable -> Thread(runnable, "trail-intersection-${threadCounter.incrementAndGet()}").apply { isDaemon = true } },
+            ThreadPoolExecutor.CallerRunsPolicy()
+        )
     }
 
-    private fun isIntersectionElectableCrossway(
-        it: Coordinates2D,
-        intersectingPoints: List<Coordinates2D>
-    ): Boolean {
-
-        val indexOf = intersectingPoints.indexOf(it)
-
-        val nextIndex = indexOf + 1
-        val previousIndex = indexOf - 1
-
-        val nextElementOrNull = intersectingPoints.elementAtOrNull(nextIndex)
-        val previousElementOrNull = intersectingPoints.elementAtOrNull(previousIndex)
-
-        val isIntersectionIsolated =
-            nextElementOrNull == null &&
-                    previousElementOrNull == null
-
-        if (isIntersectionIsolated) return true
-
-        val isCrosswayAtAOverlayStart = nextElementOrNull != null &&
-                intersectingPoints.elementAtOrNull(previousIndex) == null
-
-        if (isCrosswayAtAOverlayStart) {
-            return true
+    /**
+     * Returns the trails the line crosses, in the given order, each with its crossways.
+     */
+    fun getTrailsCrosswayIntersectionPoints(coordinates: List<Coordinates2D>,
+                                            trails: List<Trail>): List<Pair<Trail, List<Coordinates2D>>> {
+        val line = toLineString(coordinates) ?: return emptyList()
+        val preparedLine = PreparedGeometryFactory.prepare(line)
+        val futures = trails.map { trail ->
+            executor.submit(Callable { getCrossways(line, preparedLine, trail)?.let { Pair(trail, it) } })
         }
+        return futures.mapNotNull { it.get() }
+    }
 
-        val isCrosswayAtAOverlayEnd = nextElementOrNull == null && intersectingPoints.elementAtOrNull(previousIndex) != null
-
-        if (isCrosswayAtAOverlayEnd) {
-            return true
-        }
+    /**
+     * @return the crossways of the trail, or null if the line does not cross it
+     */
+    private fun getCrossways(line: Geometry, preparedLine: PreparedGeometry, trail: Trail): List<Coordinates2D>? {
+        val trailGeometry = getTrailGeometry(trail) ?: return null
+        if (!preparedLine.intersects(trailGeometry)) return null
+        val intersectingPoints = line.intersection(trailGeometry).coordinates.map { Coordinates2D(it.x, it.y) }
+        return selectCrossways(intersectingPoints)
+    }
 
-        val isNextCrossingSpanningSetDistance = nextElementOrNull != null &&
-                getRadialDistance(it, nextElementOrNull) >= DISTANCE_THRESHOLD_BETWEEN_SAME_TRAIL_CROSSWAYS
+    private fun getTrailGeometry(trail: Trail): Geometry? =
+        trail.geoLineString?.coordinates?.let { toLineString(it) }
 
-        if (isNextCrossingSpanningSetDistance) {
-            return true
-        }
+    private fun toLineString(coordinates: List<Coordinates2D>): Geometry? {
+        if (coordinates.size < 2) return null
+        return geometryFactory.createLineString(
+            coordinates.map { Coordinate(it.longitude, it.latitude) }.toTypedArray()
+        )
+    }
 
-        val isPreviousCrossingSpanningSetDistance = previousElementOrNull != null &&
-                getRadialDistance(it, previousElementOrNull) >= DISTANCE_THRESHOLD_BETWEEN_SAME_TRAIL_CROSSWAYS
-        if (isPreviousCrossingSpanningSetDistance) {
-            return true
+    /**
+     * Collapses runs of close intersection points, as where the line overlays the trail,
+     * into the points at their ends: the first and last points are kept, and the others
+     * only if at least [DISTANCE_THRESHOLD_BETWEEN_SAME_TRAIL_CROSSWAYS] from a neighbour.
+     */
+    internal fun selectCrossways(intersectingPoints: List<Coordinates2D>): List<Coordinates2D> {
+        val lastIndex = intersectingPoints.lastIndex
+        return intersectingPoints.filterIndexed { index, point ->
+            index == 0 || index == lastIndex ||
+                    getRadialDistance(point, intersectingPoints[index + 1]) >= DISTANCE_THRESHOLD_BETWEEN_SAME_TRAIL_CROSSWAYS ||
+                    getRadialDistance(point, intersectingPoints[index - 1]) >= DISTANCE_THRESHOLD_BETWEEN_SAME_TRAIL_CROSSWAYS
         }
-
-        return false
     }
 
     private fun getRadialDistance(it: Coordinates2D, nextElementOrNull: Coordinates2D) =
@@ -77,4 +94,8 @@ class TrailIntersectionProcessor {
             lat2 = nextElementOrNull.latitude, lon2 = nextElementOrNull.longitude
         )
 
-}
\ No newline at end of file
+    @PreDestroy
+    fun shutdown() {
+        executor.shutdownNow()
+    }
+}
@@ -0,0 +1,58 @@
+package org.sc.processor
+
+import com.fasterxml.jackson.databind.MapperFeature
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.SerializationFeature
+import com.fasterxml.jackson.databind.node.ObjectNode
+import org.sc.common.rest.AccessibilityNotificationDto
+import org.sc.common.rest.MaintenanceDto
+import org.sc.common.rest.PlaceDto
+import org.sc.common.rest.TrailDto
+import org.sc.configuration.AppProperties.DISPLAYED_VERSION
+import org.springframework.stereotype.Component
+import java.security.MessageDigest
+
+/**
+ * SHA-256 digests of everything each static trail resource is generated from,
+ * so that a resource is only written again when one of its inputs changed.
+ * The application version is part of every digest, as a new version may lay the files out differently.
+ */
+@Component
+class TrailResourceDigest {
+
+    companion object {
+        private const val ALGORITHM = "SHA-256"
+        // Written again on every regeneration, and so not an input
+        private const val STATIC_TRAIL_DETAILS = "staticTrailDetails"
+    }
+
+    // Own mapper: the digests must not change with the configuration of the one serving the API
+    private val objectMapper = ObjectMapper()
+        .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+
+    fun gpx(trail: TrailDto): String =
+        digest("gpx", trail.code, trail.lastUpdate?.time, coordinatesOf(trail))
+
+    fun kml(trail: TrailDto): String =
+        digest("kml", coordinatesOf(trail))
+
+    fun pdf(trail: TrailDto,
+            places: List<PlaceDto>,
+            lastMaintenance: List<MaintenanceDto>,
+            openIssues: List<AccessibilityNotificationDto>): String {
+        val trailNode = objectMapper.valueToTree<ObjectNode>(trail)
+        trailNode.remove(STATIC_TRAIL_DETAILS)
+        return digest("pdf", trailNode, places, lastMaintenance, openIssues)
+    }
+
+    private fun coordinatesOf(trail: TrailDto) =
+        trail.coordinates.map { listOf(it.latitude, it.longitude, it.altitude) }
+
+    private fun digest(vararg inputs: Any?): String {
+        val messageDigest = MessageDigest.getInstance(ALGORITHM)
+        messageDigest.update(DISPLAYED_VERSION.toByteArray())
+        messageDigest.update(objectMapper.writeValueAsBytes(inputs))
+        return messageDigest.digest().joinToString("") { "%02x".format(it) }
+    }
+}
@@ -0,0 +1,35 @@
+package org.sc.processor
+
+import org.sc.common.rest.StatsTrailMetadataDto
+import org.sc.data.model.StatsTrailMetadata
+import org.sc.data.model.TrailCoordinates
+
+/**
+ * Result of a single [TrailStatsEngine] sweep over a [TrailCoordinatesBuffer].
+ * [distancesFromStart] holds, for each point, the rounded meters walked from the first one.
+ */
+class TrailStats(
+    private val buffer: TrailCoordinatesBuffer,
+    val distancesFromStart: IntArray,
+    val totalRise: Double,
+    val totalFall: Double,
+    val length: Double,
+    val eta: Double,
+    val highestPlace: Double,
+    val lowestPlace: Double
+) {
+
+    fun toTrailCoordinates(): List<TrailCoordinates> =
+        (0 until buffer.size).map {
+            TrailCoordinates(
+                buffer.latitude(it), buffer.longitude(it),
+                buffer.altitude(it), distancesFromStart[it]
+            )
+        }
+
+    fun toStatsTrailMetadata() =
+        StatsTrailMetadata(totalRise, totalFall, eta, length, highestPlace, lowestPlace)
+
+    fun toStatsTrailMetadataDto() =
+        StatsTrailMetadataDto(totalRise, totalFall, eta, length, highestPlace, lowestPlace)
+}
@@ -0,0 +1,67 @@
+package org.sc.processor
+
+import org.springframework.stereotype.Component
+import kotlin.math.abs
+import kotlin.math.exp
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.roundToInt
+
+/**
+ * Computes every per-point and aggregated trail statistic in a single linear pass,
+ * producing the same figures as [TrailsStatsCalculator] without its per-point prefix scans.
+ */
+@Component
+class TrailStatsEngine {
+
+    companion object {
+        private const val AVERAGE_SPEED_ON_FLAT_TERRAIN = 3.5
+        private const val MINUTES_IN_HOUR = 60
+    }
+
+    fun calculate(buffer: TrailCoordinatesBuffer): TrailStats {
+        require(buffer.size > 0) { "Cannot calculate stats on an empty trail" }
+
+        val distancesFromStart = IntArray(buffer.size)
+        var rise = 0.0
+        var fall = 0.0
+        var length = 0.0
+        var speedSum = 0.0
+        var highest = buffer.altitude(0)
+        var lowest = buffer.altitude(0)
+        var distanceFromStart = 0
+
+        for (i in 1 until buffer.size) {
+            val previousAltitude = buffer.altitude(i - 1)
+            val altitude = buffer.altitude(i)
+            val segmentDistance = DistanceProcessor.distance(
+                buffer.latitude(i - 1), buffer.latitude(i),
+                buffer.longitude(i - 1), buffer.longitude(i),
+                previousAltitude, altitude
+            )
+            val altitudeDelta = altitude - previousAltitude
+
+            if (altitudeDelta > 0) rise += altitudeDelta
+            else fall -= altitudeDelta
+
+            length += segmentDistance
+            speedSum += calculateSpeedForSegment(segmentDistance, altitudeDelta)
+            distanceFromStart += segmentDistance.roundToInt()
+            distancesFromStart[i] = distanceFromStart
+            highest = max(highest, altitude)
+            lowest = min(lowest, altitude)
+        }
+
+        val averageTravelSpeed = speedSum / (buffer.size - 1)
+        val eta = (length / 1000 / averageTravelSpeed) * MINUTES_IN_HOUR
+
+        return TrailStats(buffer, distancesFromStart, rise, fall, length, eta, highest, lowest)
+    }
+
+    private fun calculateSpeedForSegment(distanceBetweenPoints: Double, altitudeDelta: Double): Double {
+        val electedDistance = if (distanceBetweenPoints > 0) distanceBetweenPoints else 1.0
+        return AVERAGE_SPEED_ON_FLAT_TERRAIN * exp(
+            -3.5 * abs((altitudeDelta / 1000) / (electedDistance / 1000) + 0.05)
+        )
+    }
+}
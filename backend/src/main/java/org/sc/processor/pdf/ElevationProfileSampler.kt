@@ -0,0 +1,95 @@
+package org.sc.processor.pdf
+
+import org.sc.common.rest.TrailDto
+import org.springframework.stereotype.Component
+import kotlin.math.abs
+
+/**
+ * Reduces the trail elevation profile to the points a chart of a given width can show,
+ * with the Largest-Triangle-Three-Buckets algorithm: of each bucket of consecutive points
+ * it keeps the one forming the largest triangle with the point kept before and the average
+ * of the next bucket, which preserves peaks and saddles that plain decimation would miss.
+ *
+ * Profiles are kept per trail, until its points change, so reports regenerated for other
+ * reasons reuse them.
+ */
+@Component
+class ElevationProfileSampler {
+
+    companion object {
+        private const val CACHE_SIZE = 256
+    }
+
+    private val cache = object : LinkedHashMap<String, CachedProfile>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, CachedProfile>?) = size > CACHE_SIZE
+    }
+
+    fun sample(trail: TrailDto, maxPoints: Int): ElevationProfile {
+        val coordinates = trail.coordinates
+        val fingerprint = listOf(maxPoints, coordinates.size,
+            coordinates.lastOrNull()?.distanceFromTrailStart, trail.lastUpdate?.time)
+        synchronized(cache) {
+            cache[trail.id]?.takeIf { it.fingerprint == fingerprint }?.let { return it.profile }
+        }
+        val distances = DoubleArray(coordinates.size) { coordinates[it].distanceFromTrailStart.toDouble() }
+        val altitudes = DoubleArray(coordinates.size) { coordinates[it].altitude }
+        val indices = largestTriangleThreeBuckets(distances, altitudes, maxPoints)
+        val profile = ElevationProfile(
+            DoubleArray(indices.size) { distances[indices[it]] },
+            DoubleArray(indices.size) { altitudes[indices[it]] })
+        synchronized(cache) {
+            cache[trail.id] = CachedProfile(fingerprint, profile)
+        }
+        return profile
+    }
+
+    /**
+     * Indices of the points to keep, first and last included, in order.
+     */
+    fun largestTriangleThreeBuckets(x: DoubleArray, y: DoubleArray, threshold: Int): IntArray {
+        val size = x.size
+        if (threshold >= size || threshold < 3) return IntArray(size) { it }
+
+        val sampled = IntArray(threshold)
+        // The first and last points are always kept, the others are split in equal buckets
+        val bucketSize = (size - 2).toDouble() / (threshold - 2)
+        var previous = 0
+        for (bucket in 0 until threshold - 2) {
+            val nextStart = ((bucket + 1) * bucketSize).toInt() + 1
+            val nextEnd = maxOf(minOf(((bucket + 2) * bucketSize).toInt() + 1, size), nextStart + 1)
+            var averageX = 0.0
+            var averageY = 0.0
+            for (i in nextStart until nextEnd) {
+                averageX += x[i]
+                averageY += y[i]
+            }
+            val nextCount = nextEnd - nextStart
+            averageX /= nextCount
+            averageY /= nextCount
+
+            val start = (bucket * bucketSize).toInt() + 1
+            val end = ((bucket + 1) * bucketSize).toInt() + 1
+            var maxArea = -1.0
+            var selected = start
+            for (i in start until end) {
+                val area = abs((x[previous] - averageX) * (y[i] - y[previous]) -
+                        (x[previous] - x[i]) * (averageY - y[previous]))
+                if (area > maxArea) {
+                    maxArea = area
+                    selected = i
+                }
+            }
+            sampled[bucket + 1] = selected
+            previous = selected
+        }
+        sampled[threshold - 1] = size - 1
+        return sampled
+    }
+
+    private data class CachedProfile(val fingerprint: List<Any?>, val profile: ElevationProfile)
+}
+
+class ElevationProfile(val distances: DoubleArray, val altitudes: DoubleArray) {
+    val size: Int
+        get() = distances.size
+}
@@ -1,6 +1,7 @@
 package org.sc.processor.pdf
 
 import com.itextpdf.text.*
+import com.itextpdf.text.pdf.BaseFont
 import com.itextpdf.text.pdf.PdfPCell
 import com.itextpdf.text.pdf.PdfPTable
 import com.itextpdf.text.pdf.PdfWriter
@@ -9,16 +10,26 @@ import org.sc.common.rest.*
 import org.sc.configuration.AppProperties
 import org.sc.data.model.*
 import org.springframework.stereotype.Component
+import java.io.BufferedOutputStream
 import java.io.File
-import java.io.FileOutputStream
+import java.io.OutputStream
+import java.nio.file.Files
 import java.nio.file.Path
 import java.time.LocalDate
 import java.time.ZoneId
 import java.time.format.DateTimeFormatter
+import java.util.Locale
 import kotlin.math.roundToInt
 
+/**
+ * Renders the trail reports.
+ *
+ * Fonts and decoded logos are loaded once and shared, read-only, by all the reports;
+ * everything else, writer included, belongs to the report being rendered, so that
+ * reports for different trails can be rendered on concurrent threads.
+ */
 @Component
-class PdfFileHelper {
+class PdfFileHelper(private val elevationProfileSampler: ElevationProfileSampler) {
 
     companion object {
         const val MEDIA_PATH = "media/pdf"
@@ -35,6 +46,7 @@ class PdfFileHelper {
         const val FEASABILITY_DATA_TITLE = "Dati di percorrenza"
         const val FEASABILITY_TITLE = "Percorrenza"
         const val PLACE_TITLE = "Località di rilievo"
+        const val ELEVATION_PROFILE_TITLE = "Profilo altimetrico"
 
         private const val SMALL_MARGIN = 5f
         private const val COMMON_MARGIN = SMALL_MARGIN * 2
@@ -46,48 +58,51 @@ class PdfFileHelper {
 
         private const val COLUMN_NUMBER = 3
 
+        private const val PROFILE_HEIGHT = 140f
+        private const val PROFILE_AXIS_WIDTH = 35f
+        private const val PROFILE_AXIS_HEIGHT = 15f
+        private const val PROFILE_LABEL_SIZE = 8f
+        private const val PROFILE_FILL_GRAY = 0.85f
+        private const val PROFILE_LINE_GRAY = 0.25f
+
         private val TABLE_COLUMN_WIDTHS = floatArrayOf(1f, 3f, 2f)
+        private val DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT)
+        private val HTML_TAG = Regex("<.*?>")
     }
 
-    private val hugeBold: Font = Font(
-            Font.FontFamily.HELVETICA, 15f,
-            Font.BOLD, BaseColor.BLACK
-    )
-
-    private val bigBold: Font = Font(
-            Font.FontFamily.HELVETICA, 13f,
-            Font.BOLD, BaseColor.BLACK
-    )
-
-    private val smallBold: Font = Font(
-            Font.FontFamily.HELVETICA, 12f,
-            Font.BOLD, BaseColor.BLACK
-    )
+    private val regularBaseFont = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.CP1252, BaseFont.NOT_EMBEDDED)
+    private val boldBaseFont = BaseFont.createFont(BaseFont.HELVETICA_BOLD, BaseFont.CP1252, BaseFont.NOT_EMBEDDED)
 
-    private val paragraphFont: Font = Font(
-            Font.FontFamily.HELVETICA, 10f,
-            Font.NORMAL, BaseColor.BLACK
-    )
+    private val hugeBold: Font = Font(boldBaseFont, 15f, Font.NORMAL, BaseColor.BLACK)
+    private val bigBold: Font = Font(boldBaseFont, 13f, Font.NORMAL, BaseColor.BLACK)
+    private val smallBold: Font = Font(boldBaseFont, 12f, Font.NORMAL, BaseColor.BLACK)
+    private val paragraphFont: Font = Font(regularBaseFont, 10f, Font.NORMAL, BaseColor.BLACK)
+    private val summaryFont: Font = Font(regularBaseFont, 11f, Font.NORMAL, BaseColor.BLACK)
+    private val caiFont: Font = Font(regularBaseFont, 12f, Font.NORMAL, BaseColor.BLACK)
 
-    private val summaryFont: Font = Font(
-            Font.FontFamily.HELVETICA, 11f,
-            Font.NORMAL, BaseColor.BLACK
-    )
-
-    private val caiFont: Font = Font(
-            Font.FontFamily.HELVETICA, 12f,
-            Font.NORMAL, BaseColor.BLACK
-    )
+    // Decoded once, each report draws them through its own copy
+    private val secLogo: Image = loadImage(SEC_LOGO)
+    private val caiLogo: Image = loadImage(CAI_LOGO)
 
     fun exportPdf(trail: TrailDto,
                   places: List<PlaceDto>,
                   lastMaintenance: List<MaintenanceDto>,
                   reportedStillOpenIssue: List<AccessibilityNotificationDto>,
                   filePath: Path) {
+        BufferedOutputStream(Files.newOutputStream(filePath)).use {
+            exportPdf(trail, places, lastMaintenance, reportedStillOpenIssue, it)
+        }
+    }
+
+    fun exportPdf(trail: TrailDto,
+                  places: List<PlaceDto>,
+                  lastMaintenance: List<MaintenanceDto>,
+                  reportedStillOpenIssue: List<AccessibilityNotificationDto>,
+                  outputStream: OutputStream) {
         val document = Document()
         val elements = mutableListOf<Element>()
 
-        PdfWriter.getInstance(document, FileOutputStream(filePath.toFile()))
+        val writer = PdfWriter.getInstance(document, outputStream)
         addMetadata(trail, document)
 
         document.open()
@@ -96,26 +111,12 @@ class PdfFileHelper {
         val date = Paragraph(getGeneratedOnString(), summaryFont)
         val title = Paragraph(getTitle(trail.code), hugeBold)
 
-        val secLogoResource = javaClass.classLoader.getResource(MEDIA_PATH + File.separator + SEC_LOGO)
-        val openStream = secLogoResource!!.openStream()
-        val toByteArray = IOUtils.toByteArray(openStream)
-        val imgSec = Image.getInstance(toByteArray)
-        imgSec.scaleAbsolute(SEC_LOGO_WIDTH, COMMON_MARGIN)
-        imgSec.spacingAfter = COMMON_MARGIN
-
-        val caiLogoResource = javaClass.classLoader.getResource(MEDIA_PATH + File.separator + CAI_LOGO)
-        val openStreamCaiLogo = caiLogoResource!!.openStream()
-        val caiLogotoByteArray = IOUtils.toByteArray(openStreamCaiLogo)
-        val imgCAI = Image.getInstance(caiLogotoByteArray)
-        imgCAI.scaleAbsolute(CAI_LOGO_SQUARE_SIZE, CAI_LOGO_SQUARE_SIZE)
-
         val topTable = PdfPTable(COLUMN_NUMBER)
         topTable.widthPercentage = FULL_WIDTH
         topTable.setWidths(TABLE_COLUMN_WIDTHS)
 
         val imageCell = PdfPCell()
-        imageCell.addElement(imgSec)
-        imageCell.addElement(imgCAI)
+        imageCell.addElement(makeLogosImage(writer))
         imageCell.border = Rectangle.NO_BORDER
         imageCell.horizontalAlignment = Element.ALIGN_LEFT
 
@@ -144,6 +145,14 @@ class PdfFileHelper {
         summary.spacingAfter = COMMON_MARGIN
         elements.add(summary)
 
+        makeElevationProfile(trail, writer, document.right() - document.left())?.let {
+            val profileTitle = Paragraph(ELEVATION_PROFILE_TITLE, bigBold)
+            profileTitle.spacingAfter = COMMON_MARGIN
+            elements.add(profileTitle)
+            it.spacingAfter = COMMON_MARGIN
+            elements.add(it)
+        }
+
         // Adding Description
         val paragraphDesTitle = Paragraph(DESCRIPTION_TITLE, bigBold)
         paragraphDesTitle.spacingAfter = COMMON_MARGIN
@@ -228,6 +237,76 @@ class PdfFileHelper {
         finalizeDocument(elements, document)
     }
 
+    /**
+     * Draws both logos, as laid out in the header, once into a form XObject of the report.
+     */
+    private fun makeLogosImage(writer: PdfWriter): Image {
+        val template = writer.directContent.createTemplate(CAI_LOGO_SQUARE_SIZE,
+                CAI_LOGO_SQUARE_SIZE + COMMON_MARGIN + COMMON_MARGIN)
+        template.addImage(Image.getInstance(caiLogo),
+                CAI_LOGO_SQUARE_SIZE, 0f, 0f, CAI_LOGO_SQUARE_SIZE, 0f, 0f)
+        template.addImage(Image.getInstance(secLogo),
+                SEC_LOGO_WIDTH, 0f, 0f, COMMON_MARGIN, 0f, CAI_LOGO_SQUARE_SIZE + COMMON_MARGIN)
+        return Image.getInstance(template)
+    }
+
+    /**
+     * Draws the elevation profile as vector paths, with one sampled point per unit of width.
+     */
+    private fun makeElevationProfile(trail: TrailDto, writer: PdfWriter, width: Float): Image? {
+        if (trail.coordinates == null || trail.coordinates.size < 2) return null
+        val plotWidth = width - PROFILE_AXIS_WIDTH
+        val plotHeight = PROFILE_HEIGHT - PROFILE_AXIS_HEIGHT - SMALL_MARGIN
+        val profile = elevationProfileSampler.sample(trail, plotWidth.toInt())
+
+        val lowest = profile.altitudes.minOrNull()!!
+        val highest = profile.altitudes.maxOrNull()!!
+        val altitudeRange = maxOf(highest - lowest, 1.0)
+        val length = maxOf(profile.distances.last(), 1.0)
+        val x = { i: Int -> PROFILE_AXIS_WIDTH + (profile.distances[i] / length * plotWidth).toFloat() }
+        val y = { i: Int -> PROFILE_AXIS_HEIGHT + ((profile.altitudes[i] - lowest) / altitudeRange * plotHeight).toFloat() }
+
+        val template = writer.directContent.createTemplate(width, PROFILE_HEIGHT)
+        template.setGrayFill(PROFILE_FILL_GRAY)
+        template.moveTo(x(0), PROFILE_AXIS_HEIGHT)
+        (0 until profile.size).forEach { template.lineTo(x(it), y(it)) }
+        template.lineTo(x(profile.size - 1), PROFILE_AXIS_HEIGHT)
+        template.closePath()
+        template.fill()
+
+        template.setGrayStroke(PROFILE_LINE_GRAY)
+        template.setLineWidth(1f)
+        template.moveTo(x(0), y(0))
+        (1 until profile.size).forEach { template.lineTo(x(it), y(it)) }
+        template.stroke()
+
+        template.setGrayStroke(0f)
+        template.setLineWidth(0.5f)
+        template.moveTo(PROFILE_AXIS_WIDTH, PROFILE_AXIS_HEIGHT + plotHeight)
+        template.lineTo(PROFILE_AXIS_WIDTH, PROFILE_AXIS_HEIGHT)
+        template.lineTo(PROFILE_AXIS_WIDTH + plotWidth, PROFILE_AXIS_HEIGHT)
+        template.stroke()
+
+        template.setGrayFill(0f)
+        template.beginText()
+        template.setFontAndSize(regularBaseFont, PROFILE_LABEL_SIZE)
+        val labelX = PROFILE_AXIS_WIDTH - SMALL_MARGIN
+        template.showTextAligned(Element.ALIGN_RIGHT, "${highest.roundToInt()} m",
+                labelX, PROFILE_AXIS_HEIGHT + plotHeight - PROFILE_LABEL_SIZE / 2, 0f)
+        template.showTextAligned(Element.ALIGN_RIGHT, "${lowest.roundToInt()} m",
+                labelX, PROFILE_AXIS_HEIGHT, 0f)
+        val distanceLabelY = PROFILE_AXIS_HEIGHT - PROFILE_LABEL_SIZE - 2f
+        template.showTextAligned(Element.ALIGN_LEFT, "0 km", PROFILE_AXIS_WIDTH, distanceLabelY, 0f)
+        template.showTextAligned(Element.ALIGN_RIGHT, String.format(Locale.ITALY, "%.1f km", length / 1000),
+                PROFILE_AXIS_WIDTH + plotWidth, distanceLabelY, 0f)
+        template.endText()
+        return Image.getInstance(template)
+    }
+
+    private fun loadImage(name: String): Image =
+            javaClass.classLoader.getResourceAsStream(MEDIA_PATH + File.separator + name)!!
+                    .use { Image.getInstance(IOUtils.toByteArray(it)) }
+
     private fun getCycloTitle(): Paragraph {
         val cicloRouteTitle = Paragraph(CYCLO_ESCURSIONISM_TITLE, hugeBold)
         cicloRouteTitle.spacingBefore = COMMON_MARGIN
@@ -302,18 +381,18 @@ class PdfFileHelper {
             if (maintenanceListDto.isNotEmpty())
                 "Ultima manutenzione: " + maintenanceListDto.first().date.toInstant()
                         .atZone(ZoneId.systemDefault())
-                        .toLocalDate().format(DateTimeFormatter.ofPattern(DATE_FORMAT)) else ""
+                        .toLocalDate().format(DATE_FORMATTER) else ""
 
 
     private fun getEtaString(trail: TrailDto): String =
             if (trail.officialEta == -1) "stimato" else "ufficiale"
 
     private fun getGeneratedOnString() = "Generata il " +
-            LocalDate.now().format(DateTimeFormatter.ofPattern(DATE_FORMAT))
+            LocalDate.now().format(DATE_FORMATTER)
 
     private fun getTitle(code: String) = """$DOC_NAME_TITLE${code}"""
 
-    private fun stripHtml(string: String) = string.replace(Regex("<.*?>"), "")
+    private fun stripHtml(string: String) = string.replace(HTML_TAG, "")
 
     private fun addMetadata(trail: TrailDto,
                             document: Document) {
@@ -0,0 +1,148 @@
+package org.sc.processor.tile
+
+import org.sc.configuration.AppProperties
+import org.sc.data.geo.CoordinatesRectangle
+import org.sc.data.repository.TrailDatasetVersionDao
+import org.sc.util.FileManagementUtil
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.ConcurrentHashMap
+import java.util.logging.Logger
+
+/**
+ * Rendered vector tiles, kept on disk under `v{version}/{z}/{x}/{y}.mvt` with the most
+ * recently used ones also held in memory. Tiles are dropped when a trail crossing them changes.
+ * The trail dataset version moves on with every trail change, so at startup the tiles stored
+ * at the current version are served again and only the ones of older versions are discarded.
+ */
+@Component
+class TileCache(baseDirectory: Path, datasetVersion: Long, private val maxEntriesInMemory: Int) {
+
+    companion object {
+        private const val VERSION_DIRECTORY_PREFIX = "v"
+        private const val TILE_EXTENSION = ".mvt"
+    }
+
+    private val logger: Logger = Logger.getLogger(TileCache::class.java.name)
+    private val directory: Path = baseDirectory.resolve("$VERSION_DIRECTORY_PREFIX$datasetVersion")
+
+    private val memory = object : LinkedHashMap<TileKey, ByteArray>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<TileKey, ByteArray>?) = size > maxEntriesInMemory
+    }
+    private val storedTiles = ConcurrentHashMap.newKeySet<TileKey>()
+
+    // Bumped on every invalidation, so that tiles rendered before it are not cached
+    private var generation = 0L
+
+    @Autowired
+    constructor(fileManagementUtil: FileManagementUtil,
+                trailDatasetVersionDao: TrailDatasetVersionDao,
+                appProperties: AppProperties) :
+            this(Paths.get(fileManagementUtil.getTileCachePath()), trailDatasetVersionDao.last.version,
+                appProperties.tileCacheSize)
+
+    init {
+        // Anything else than a version directory was left by an older layout
+        baseDirectory.toFile().listFiles()
+            ?.filter { getVersion(it.name)?.let { version -> version < datasetVersion } ?: true }
+            ?.forEach { it.deleteRecursively() }
+        loadStoredTiles()
+    }
+
+    val currentGeneration: Long
+        @Synchronized get() = generation
+
+    fun get(key: TileKey): ByteArray? {
+        synchronized(this) {
+            memory[key]?.let { return it }
+        }
+        if (!storedTiles.contains(key)) return null
+        return try {
+            val tile = Files.readAllBytes(pathOf(key))
+            synchronized(this) { if (storedTiles.contains(key)) memory[key] = tile }
+            tile
+        } catch (e: IOException) {
+            storedTiles.remove(key)
+            null
+        }
+    }
+
+    /**
+     * Stores a tile rendered at the given [currentGeneration], unless the cache
+     * was invalidated while rendering it. The disk write happens under the lock,
+     * so that a tile rendered before an invalidation can never overwrite a newer one.
+     */
+    @Synchronized
+    fun put(key: TileKey, tile: ByteArray, renderedAt: Long) {
+        if (generation != renderedAt) return
+        if (maxEntriesInMemory > 0) memory[key] = tile
+        try {
+            val target = pathOf(key)
+            Files.createDirectories(target.parent)
+            val temp = Files.createTempFile(target.parent, key.y.toString(), ".tmp")
+            Files.write(temp, tile)
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+            storedTiles.add(key)
+        } catch (e: IOException) {
+            logger.warning("Could not store tile $key on disk: $e")
+        }
+    }
+
+    /**
+     * Drops every cached tile overlapping the given area.
+     */
+    fun invalidate(area: CoordinatesRectangle) {
+        val staleTiles = synchronized(this) {
+            generation++
+            val stale = (storedTiles + memory.keys).filter { overlaps(it.bounds, area) }
+            stale.forEach {
+                memory.remove(it)
+                storedTiles.remove(it)
+            }
+            stale
+        }
+        staleTiles.forEach {
+            try {
+                Files.deleteIfExists(pathOf(it))
+            } catch (e: IOException) {
+                logger.warning("Could not delete stale tile $it: $e")
+            }
+        }
+    }
+
+    fun size(): Int = storedTiles.size
+
+    private fun pathOf(key: TileKey): Path =
+        directory.resolve(key.z.toString()).resolve(key.x.toString()).resolve("${key.y}$TILE_EXTENSION")
+
+    private fun loadStoredTiles() {
+        directory.toFile().walkTopDown().filter { it.isFile }.forEach { file ->
+            val z = file.parentFile?.parentFile?.name?.toIntOrNull()
+            val x = file.parentFile?.name?.toIntOrNull()
+            val y = file.name.removeSuffix(TILE_EXTENSION).takeIf { file.name.endsWith(TILE_EXTENSION) }?.toIntOrNull()
+            // Temporary files of writes cut short by the previous run are dropped too
+            if (z != null && x != null && y != null && TileKey.isValid(z, x, y)) storedTiles.add(TileKey(z, x, y))
+            else file.delete()
+        }
+        if (storedTiles.isNotEmpty()) logger.info("Serving ${storedTiles.size} tiles stored by a previous run")
+    }
+
+    private fun getVersion(directoryName: String): Long? =
+        if (directoryName.startsWith(VERSION_DIRECTORY_PREFIX))
+            directoryName.removePrefix(VERSION_DIRECTORY_PREFIX).toLongOrNull()
+        else null
+
+    private fun overlaps(first: CoordinatesRectangle, second: CoordinatesRectangle): Boolean =
+        overlaps(first.bottomLeft.longitude, first.topRight.longitude,
+            second.bottomLeft.longitude, second.topRight.longitude) &&
+                overlaps(first.bottomLeft.latitude, first.topRight.latitude,
+                    second.bottomLeft.latitude, second.topRight.latitude)
+
+    private fun overlaps(from1: Double, to1: Double, from2: Double, to2: Double): Boolean =
+        minOf(from1, to1) <= maxOf(from2, to2) && minOf(from2, to2) <= maxOf(from1, to1)
+}
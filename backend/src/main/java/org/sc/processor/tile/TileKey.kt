@@ -0,0 +1,74 @@
+package org.sc.processor.tile
+
+import org.sc.data.geo.CoordinatesRectangle
+import org.sc.data.model.Coordinates2D
+import org.sc.processor.TrailSimplifierLevel
+import kotlin.math.PI
+import kotlin.math.atan
+import kotlin.math.cos
+import kotlin.math.ln
+import kotlin.math.sinh
+import kotlin.math.tan
+
+/**
+ * A web mercator (EPSG:3857) tile address, following the XYZ scheme: x grows eastwards
+ * and y southwards from the top-left tile.
+ */
+data class TileKey(val z: Int, val x: Int, val y: Int) {
+
+    companion object {
+        const val MAX_ZOOM = 20
+        const val EXTENT = 4096
+
+        // Beyond this the mercator projection goes to infinity
+        private const val MAX_LATITUDE = 85.0511287798
+
+        @JvmStatic
+        fun isValid(z: Int, x: Int, y: Int): Boolean {
+            if (z < 0 || z > MAX_ZOOM) return false
+            val tilesPerSide = 1 shl z
+            return x in 0 until tilesPerSide && y in 0 until tilesPerSide
+        }
+    }
+
+    /**
+     * Coarser geometries for the wider views, so that a tile never carries
+     * more vertices than it can display.
+     */
+    val simplifierLevel: TrailSimplifierLevel
+        get() = when {
+            z <= 10 -> TrailSimplifierLevel.LOW
+            z <= 13 -> TrailSimplifierLevel.MEDIUM
+            else -> TrailSimplifierLevel.HIGH
+        }
+
+    val bounds: CoordinatesRectangle
+        get() = CoordinatesRectangle(
+            Coordinates2D(tileToLongitude(x), tileToLatitude(y + 1)),
+            Coordinates2D(tileToLongitude(x + 1), tileToLatitude(y))
+        )
+
+    /**
+     * Projects a point to this tile's pixel grid, where (0, 0) is the top-left corner
+     * and ([EXTENT], [EXTENT]) the bottom-right one. Points outside the tile
+     * get coordinates beyond that range.
+     */
+    fun toTileX(longitude: Double): Int =
+        Math.round((worldX(longitude) - x) * EXTENT).toInt()
+
+    fun toTileY(latitude: Double): Int =
+        Math.round((worldY(latitude) - y) * EXTENT).toInt()
+
+    private fun worldX(longitude: Double): Double = (longitude + 180.0) / 360.0 * (1 shl z)
+
+    private fun worldY(latitude: Double): Double {
+        val clamped = latitude.coerceIn(-MAX_LATITUDE, MAX_LATITUDE)
+        val radians = Math.toRadians(clamped)
+        return (1.0 - ln(tan(radians) + 1.0 / cos(radians)) / PI) / 2.0 * (1 shl z)
+    }
+
+    private fun tileToLongitude(tileX: Int): Double = tileX.toDouble() / (1 shl z) * 360.0 - 180.0
+
+    private fun tileToLatitude(tileY: Int): Double =
+        Math.toDegrees(atan(sinh(PI * (1.0 - 2.0 * tileY / (1 shl z)))))
+}
@@ -0,0 +1,13 @@
+package org.sc.processor.tile
+
+import org.sc.data.model.Coordinates2D
+
+/**
+ * The few trail fields drawn on a vector tile, with the coordinates
+ * of the simplification level matching the tile zoom.
+ */
+data class TrailTileFeature(val id: String,
+                            val code: String?,
+                            val name: String?,
+                            val classification: String?,
+                            val coordinates: List<Coordinates2D>)
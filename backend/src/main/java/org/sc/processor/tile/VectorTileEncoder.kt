@@ -0,0 +1,181 @@
+package org.sc.processor.tile
+
+import java.io.ByteArrayOutputStream
+
+/**
+ * Minimal Mapbox Vector Tile (v2.1) writer for a single layer of line features.
+ * Lines are given in tile pixel coordinates (see [TileKey.toTileX]) and are cut
+ * down to the segments crossing the tile plus a [buffer] around it, so that
+ * features spanning many tiles do not repeat their whole geometry in each of them.
+ */
+class VectorTileEncoder(private val layerName: String,
+                        private val extent: Int = TileKey.EXTENT,
+                        private val buffer: Int = DEFAULT_BUFFER) {
+
+    companion object {
+        const val DEFAULT_BUFFER = 64
+
+        private const val LAYER_VERSION = 2
+        private const val GEOMETRY_TYPE_LINESTRING = 2
+        private const val COMMAND_MOVE_TO = 1
+        private const val COMMAND_LINE_TO = 2
+
+        private const val TILE_LAYERS = 3
+        private const val LAYER_NAME = 1
+        private const val LAYER_FEATURES = 2
+        private const val LAYER_KEYS = 3
+        private const val LAYER_VALUES = 4
+        private const val LAYER_EXTENT = 5
+        private const val LAYER_VERSION_FIELD = 15
+        private const val FEATURE_TAGS = 2
+        private const val FEATURE_TYPE = 3
+        private const val FEATURE_GEOMETRY = 4
+        private const val VALUE_STRING = 1
+    }
+
+    private val keys = LinkedHashMap<String, Int>()
+    private val values = LinkedHashMap<String, Int>()
+    private val features = mutableListOf<ByteArray>()
+
+    val isEmpty: Boolean
+        get() = features.isEmpty()
+
+    /**
+     * Adds a line whose vertices are stored as x0, y0, x1, y1... in [points].
+     * Lines not crossing the buffered tile are skipped.
+     */
+    fun addLine(properties: Map<String, String>, points: IntArray) {
+        val parts = clip(points)
+        if (parts.isEmpty()) return
+
+        val tags = IntArray(properties.size * 2)
+        properties.entries.forEachIndexed { index, (key, value) ->
+            tags[index * 2] = keys.getOrPut(key) { keys.size }
+            tags[index * 2 + 1] = values.getOrPut(value) { values.size }
+        }
+
+        val feature = ProtobufWriter()
+        feature.writePackedVarints(FEATURE_TAGS, tags)
+        feature.writeVarint(FEATURE_TYPE, GEOMETRY_TYPE_LINESTRING.toLong())
+        feature.writePackedVarints(FEATURE_GEOMETRY, encodeGeometry(parts))
+        features.add(feature.toByteArray())
+    }
+
+    fun encode(): ByteArray {
+        val layer = ProtobufWriter()
+        layer.writeVarint(LAYER_VERSION_FIELD, LAYER_VERSION.toLong())
+        layer.writeString(LAYER_NAME, layerName)
+        features.forEach { layer.writeBytes(LAYER_FEATURES, it) }
+        keys.keys.forEach { layer.writeString(LAYER_KEYS, it) }
+        values.keys.forEach {
+            val value = ProtobufWriter()
+            value.writeString(VALUE_STRING, it)
+            layer.writeBytes(LAYER_VALUES, value.toByteArray())
+        }
+        layer.writeVarint(LAYER_EXTENT, extent.toLong())
+
+        val tile = ProtobufWriter()
+        tile.writeBytes(TILE_LAYERS, layer.toByteArray())
+        return tile.toByteArray()
+    }
+
+    /**
+     * Splits the line into the runs of consecutive segments touching the buffered tile,
+     * dropping repeated vertices.
+     */
+    private fun clip(points: IntArray): List<IntArray> {
+        val parts = mutableListOf<IntArray>()
+        var current = ArrayList<Int>()
+        for (i in 0 until points.size / 2 - 1) {
+            val x0 = points[i * 2]
+            val y0 = points[i * 2 + 1]
+            val x1 = points[i * 2 + 2]
+            val y1 = points[i * 2 + 3]
+            if (isSegmentInBufferedTile(x0, y0, x1, y1)) {
+                if (current.isEmpty()) {
+                    current.add(x0)
+                    current.add(y0)
+                }
+                if (current[current.size - 2] != x1 || current[current.size - 1] != y1) {
+                    current.add(x1)
+                    current.add(y1)
+                }
+            } else if (current.isNotEmpty()) {
+                if (current.size >= 4) parts.add(current.toIntArray())
+                current = ArrayList()
+            }
+        }
+        if (current.size >= 4) parts.add(current.toIntArray())
+        return parts
+    }
+
+    private fun isSegmentInBufferedTile(x0: Int, y0: Int, x1: Int, y1: Int): Boolean {
+        val min = -buffer
+        val max = extent + buffer
+        return minOf(x0, x1) <= max && maxOf(x0, x1) >= min &&
+                minOf(y0, y1) <= max && maxOf(y0, y1) >= min
+    }
+
+    private fun encodeGeometry(parts: List<IntArray>): IntArray {
+        val commands = ArrayList<Int>()
+        var cursorX = 0
+        var cursorY = 0
+        parts.forEach { part ->
+            val vertices = part.size / 2
+            commands.add(command(COMMAND_MOVE_TO, 1))
+            commands.add(zigZag(part[0] - cursorX))
+            commands.add(zigZag(part[1] - cursorY))
+            cursorX = part[0]
+            cursorY = part[1]
+            commands.add(command(COMMAND_LINE_TO, vertices - 1))
+            for (i in 1 until vertices) {
+                commands.add(zigZag(part[i * 2] - cursorX))
+                commands.add(zigZag(part[i * 2 + 1] - cursorY))
+                cursorX = part[i * 2]
+                cursorY = part[i * 2 + 1]
+            }
+        }
+        return commands.toIntArray()
+    }
+
+    private fun command(id: Int, count: Int): Int = (id and 0x7) or (count shl 3)
+
+    private fun zigZag(value: Int): Int = (value shl 1) xor (value shr 31)
+
+    private class ProtobufWriter {
+        private val out = ByteArrayOutputStream()
+
+        fun writeVarint(field: Int, value: Long) {
+            writeTag(field, 0)
+            writeRawVarint(value)
+        }
+
+        fun writeString(field: Int, value: String) = writeBytes(field, value.toByteArray(Charsets.UTF_8))
+
+        fun writeBytes(field: Int, value: ByteArray) {
+            writeTag(field, 2)
+            writeRawVarint(value.size.toLong())
+            out.write(value)
+        }
+
+        fun writePackedVarints(field: Int, values: IntArray) {
+            val packed = ProtobufWriter()
+            // Packed uint32 values: zig-zag encoded parameters are already unsigned
+            values.forEach { packed.writeRawVarint(it.toLong() and 0xFFFFFFFFL) }
+            writeBytes(field, packed.toByteArray())
+        }
+
+        fun toByteArray(): ByteArray = out.toByteArray()
+
+        private fun writeTag(field: Int, wireType: Int) = writeRawVarint(((field shl 3) or wireType).toLong())
+
+        private fun writeRawVarint(value: Long) {
+            var remaining = value
+            while (remaining and 0x7FL.inv() != 0L) {
+                out.write(((remaining and 0x7F) or 0x80).toInt())
+                remaining = remaining ushr 7
+            }
+            out.write(remaining.toInt())
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.sc.service
 
 import org.sc.common.rest.AnnouncementDto
+import org.sc.data.repository.KeysetPage
 import org.sc.manager.AnnouncementManager
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Service
@@ -14,6 +15,9 @@ class AnnouncementService @Autowired constructor(private val announcementManager
     fun get(skip: Int, limit: Int, realm: String) : List<AnnouncementDto> =
         announcementManager.get(skip, limit, realm)
 
+    fun getAfter(continuationToken: String?, limit: Int, realm: String): KeysetPage<AnnouncementDto> =
+        announcementManager.getAfter(continuationToken, limit, realm)
+
     fun delete(id: String) =
         announcementManager.delete(id)
 
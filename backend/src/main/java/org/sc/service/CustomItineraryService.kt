@@ -3,15 +3,14 @@ package org.sc.service
 import org.sc.adapter.AltitudeServiceAdapter
 import org.sc.common.rest.CustomItineraryRequestDto
 import org.sc.common.rest.CustomItineraryResultDto
-import org.sc.common.rest.StatsTrailMetadataDto
 import org.sc.common.rest.TrailPreviewDto
 import org.sc.data.mapper.TrailPreviewMapper
 import org.sc.data.model.Coordinates2D
-import org.sc.data.model.TrailCoordinates
 import org.sc.manager.AccessibilityNotificationManager
 import org.sc.manager.TrailFileManager
 import org.sc.manager.TrailIntersectionManager
-import org.sc.processor.TrailsStatsCalculator
+import org.sc.processor.TrailCoordinatesBuffer
+import org.sc.processor.TrailStatsEngine
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Service
 
@@ -20,7 +19,7 @@ class CustomItineraryService @Autowired constructor(
     private val trailPreviewMapper: TrailPreviewMapper,
     private val accessibilityNotificationManager: AccessibilityNotificationManager,
     private val altitudeService: AltitudeServiceAdapter,
-    private val trailsStatsCalculator: TrailsStatsCalculator,
+    private val trailStatsEngine: TrailStatsEngine,
     private val trailIntersectionManager: TrailIntersectionManager,
     private val trailFileManager: TrailFileManager
 ) {
@@ -28,20 +27,9 @@ class CustomItineraryService @Autowired constructor(
     fun calculateItinerary(customItinerary: CustomItineraryRequestDto): CustomItineraryResultDto {
         val coordinatesWithAltitudes =
             altitudeService.mapCoordsWithElevations(customItinerary.geoLineDto.coordinates)
-        val coordinates = coordinatesWithAltitudes.map {
-            TrailCoordinates(
-                it.latitude, it.longitude, it.altitude,
-                trailsStatsCalculator.calculateLengthFromTo(coordinatesWithAltitudes, it)
-            )
-        }
-        val statsTrailMetadata = StatsTrailMetadataDto(
-            trailsStatsCalculator.calculateTotRise(coordinates),
-            trailsStatsCalculator.calculateTotFall(coordinates),
-            trailsStatsCalculator.calculateEta(coordinates),
-            trailsStatsCalculator.calculateTrailLength(coordinates),
-            trailsStatsCalculator.calculateHighestPlace(coordinates),
-            trailsStatsCalculator.calculateLowestPlace(coordinates)
-        )
+        val trailStats = trailStatsEngine.calculate(TrailCoordinatesBuffer.of(coordinatesWithAltitudes))
+        val coordinates = trailStats.toTrailCoordinates()
+        val statsTrailMetadata = trailStats.toStatsTrailMetadataDto()
         val trailIntersections =
             trailIntersectionManager
                 .findIntersection(customItinerary.geoLineDto, 0, Integer.MAX_VALUE)
@@ -17,9 +17,9 @@ class DiagnosticService @Autowired constructor(
     }
 
     fun testAltitudeService() : CompletionStage<DiagnoseResponse> {
-        val hasCallMadeCorrectly = altitudeServiceAdapter.getElevationsByLongLat(0.0, 0.0)
+        val hasCallMadeCorrectly = altitudeServiceAdapter.isServiceReachable()
         return CompletableFuture.completedFuture(DiagnoseResponse(
-                altitudeServiceName, hasCallMadeCorrectly.isNotEmpty(), Date()))
+                altitudeServiceName, hasCallMadeCorrectly, Date()))
     }
 
 
@@ -0,0 +1,174 @@
+package org.sc.service
+
+import org.apache.logging.log4j.LogManager
+import org.sc.configuration.AppProperties
+import org.sc.data.geo.PlaceGrid
+import org.sc.data.model.Coordinates2D
+import org.sc.data.model.Place
+import org.sc.manager.PlaceCluster
+import org.sc.manager.PlaceManager
+import org.sc.manager.PlacesCreatedEvent
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.event.EventListener
+import org.springframework.stereotype.Service
+import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import javax.annotation.PreDestroy
+
+/**
+ * Merges the non-dynamic places inserted more than once: a place absorbs the newer
+ * places within the consistency distance whose name starts with its own.
+ *
+ * Created places are checked against their neighbours on a single background thread,
+ * one at a time, once their creator had the time to reference them; when too many are
+ * waiting they are left to the clustering job, which reconciles the places updated
+ * since its last run. The job clusters on the same thread, so that no two merges run
+ * at once.
+ */
+@Service
+class PlaceClusteringService @Autowired constructor(
+        private val placeManager: PlaceManager,
+        private val appProperties: AppProperties) {
+
+    private val logger = LogManager.getLogger(PlaceClusteringService::class.java)
+
+    companion object {
+        private const val QUEUE_SIZE = 256
+        // Neighbours of the touched places looked up per query
+        private const val BOXES_PER_QUERY = 200
+    }
+
+    private val executor = ScheduledThreadPoolExecutor(1) { runnable ->
+        Thread(runnable, "place-clustering").apply { isDaemon = true }
+    }
+
+    @EventListener
+    fun onPlacesCreated(event: PlacesCreatedEvent) {
+        if (executor.queue.size >= QUEUE_SIZE) {
+            logger.warn("Too many places waiting to be clustered, leaving ${event.placeIds} to the clustering job")
+            return
+        }
+        executor.schedule({
+            try {
+                clusterAround(placeManager.getPlacesByIds(event.placeIds).filter { !it.isDynamic })
+            } catch (e: Exception) {
+                logger.error("Could not cluster the created places ${event.placeIds}", e)
+            }
+        }, appProperties.jobCrosswayConsistencyDelaySeconds, TimeUnit.SECONDS)
+    }
+
+    /**
+     * Clusters all the non-dynamic places of the instance, read from a single cursor,
+     * on the clustering thread.
+     */
+    fun clusterAll(): List<PlaceCluster> = onClusteringThread {
+        val grid = newGrid()
+        val places = mutableListOf<Place>()
+        placeManager.forEachNotDynamicPlace(appProperties.instanceRealm) { place ->
+            places.add(place)
+            grid.put(place.id, getPoints(place))
+        }
+        merge(findClusters(places, grid))
+    }
+
+    /**
+     * Clusters the non-dynamic places of the instance updated from the given date on
+     * with their neighbours, on the clustering thread.
+     */
+    fun clusterUpdatedSince(since: Date): List<PlaceCluster> = onClusteringThread {
+        val places = mutableListOf<Place>()
+        placeManager.forEachNotDynamicPlaceUpdatedSince(appProperties.instanceRealm, since) { places.add(it) }
+        clusterAround(places)
+    }
+
+    /**
+     * Clusters the touched places with the places within the consistency distance of them,
+     * looked up by the boxes around their centres.
+     */
+    fun clusterAround(touchedPlaces: List<Place>): List<PlaceCluster> {
+        val placesToCheck = touchedPlaces.filter { !it.coordinates.isNullOrEmpty() }
+        if (placesToCheck.isEmpty()) return emptyList()
+
+        val grid = newGrid()
+        val placesById = LinkedHashMap<String, Place>()
+        placesToCheck.map { grid.boxAround(getCenter(it)) }
+                .chunked(BOXES_PER_QUERY)
+                .forEach { boxes ->
+                    placeManager.forEachNotDynamicPlaceWithin(appProperties.instanceRealm, boxes) {
+                        placesById[it.id] = it
+                    }
+                }
+        placesToCheck.forEach { placesById.putIfAbsent(it.id, it) }
+        placesById.values.forEach { grid.put(it.id, getPoints(it)) }
+        return merge(findClusters(placesById.values.toList(), grid))
+    }
+
+    /**
+     * Clusters the places taking them oldest first: a place already absorbed neither
+     * absorbs others nor is absorbed again, and leaves the grid.
+     */
+    internal fun findClusters(places: List<Place>, grid: PlaceGrid): List<PlaceCluster> {
+        val placesById = places.associateBy { it.id }
+        val absorbedIds = HashSet<String>()
+        val clusters = mutableListOf<PlaceCluster>()
+        places.filter { it.recordDetails?.uploadedOn != null && !it.coordinates.isNullOrEmpty() }
+                .sortedBy { it.recordDetails.uploadedOn }
+                .forEach { subjectPlace ->
+                    if (absorbedIds.contains(subjectPlace.id)) return@forEach
+                    val absorbedPlaces = grid.findWithin(getCenter(subjectPlace))
+                            .filter { it != subjectPlace.id }
+                            .mapNotNull { placesById[it] }
+                            .filter { isSamePlace(subjectPlace, it) }
+                    if (absorbedPlaces.isEmpty()) return@forEach
+
+                    logger.info("Going to cluster NOT DYNAMIC places '${subjectPlace.id}' " +
+                            "with ${absorbedPlaces.map { it.id }}")
+                    absorbedPlaces.forEach {
+                        absorbedIds.add(it.id)
+                        grid.remove(it.id)
+                    }
+                    clusters.add(PlaceCluster(subjectPlace, absorbedPlaces))
+                }
+        return clusters
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        executor.shutdownNow()
+    }
+
+    // Waits for the task, queued after the created places already waiting
+    private fun <T> onClusteringThread(task: () -> T): T =
+            try {
+                executor.submit(Callable { task() }).get()
+            } catch (e: ExecutionException) {
+                throw e.cause ?: e
+            }
+
+    private fun merge(clusters: List<PlaceCluster>): List<PlaceCluster> {
+        placeManager.mergePlaces(clusters)
+        return clusters
+    }
+
+    private fun newGrid() = PlaceGrid(appProperties.jobCrosswayConsistencyDistance)
+
+    private fun isSamePlace(subjectPlace: Place, match: Place) =
+            match.name.orEmpty().lowercase().startsWith(subjectPlace.name.orEmpty().lowercase()) &&
+                    match.coordinates.orEmpty().size >= subjectPlace.coordinates.size &&
+                    match.recordDetails?.uploadedOn?.let { subjectPlace.recordDetails.uploadedOn.before(it) } == true
+
+    // The middle of the place coordinates, which the places near it are looked up from
+    private fun getCenter(place: Place): Coordinates2D {
+        val coordinates = place.coordinates
+        return Coordinates2D(
+                (coordinates.maxOf { it.longitude } + coordinates.minOf { it.longitude }) / 2,
+                (coordinates.maxOf { it.latitude } + coordinates.minOf { it.latitude }) / 2)
+    }
+
+    private fun getPoints(place: Place): List<Coordinates2D> =
+            place.points?.coordinates2D?.map { Coordinates2D(it[0], it[1]) }
+                    ?: place.coordinates.orEmpty().map { Coordinates2D(it.longitude, it.latitude) }
+}
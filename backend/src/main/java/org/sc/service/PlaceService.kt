@@ -1,6 +1,7 @@
 package org.sc.service
 
 import org.sc.common.rest.PlaceDto
+import org.sc.data.repository.KeysetPage
 import org.sc.manager.PlaceManager
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Service
@@ -14,6 +15,9 @@ class PlaceService @Autowired constructor(private val placeManager: PlaceManager
         return placeManager.getPaginated(skip, limit, realm, isDynamicShowing)
     }
 
+    fun fetchAfter(continuationToken: String?, limit: Int, realm: String, isDynamic: Boolean?): KeysetPage<PlaceDto> =
+            placeManager.getAfter(continuationToken, limit, realm, isDynamic == true)
+
 
     fun countByRealm(realm: String, isDynamic: Boolean): Long =
             placeManager.countByRealm(realm, isDynamic)
@@ -0,0 +1,183 @@
+package org.sc.service
+
+import org.sc.common.rest.ResourceGenerationProgressDto
+import org.sc.configuration.AppProperties
+import org.sc.data.model.StaticTrailDetails
+import org.sc.manager.*
+import org.sc.processor.TrailSimplifierLevel
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Service
+import java.util.*
+import java.util.concurrent.*
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+import javax.annotation.PreDestroy
+
+/**
+ * Regenerates the GPX, KML and PDF files of trails on a bounded worker pool,
+ * writing the three files of each trail in parallel.
+ *
+ * Whole-realm runs stream trail ids from the database, and only a trail being
+ * worked on is held in memory; when the workers and their queue are full the
+ * thread feeding them runs a trail itself, which throttles reading.
+ * Only one run started from [regenerateAll] or [regenerate] goes at a time,
+ * and its progress is kept until the next one starts.
+ */
+@Service
+class ResourceRegenerationEngine @Autowired constructor(
+    private val trailManager: TrailManager,
+    private val placeManager: PlaceManager,
+    private val maintenanceManager: MaintenanceManager,
+    private val accessibilityNotificationManager: AccessibilityNotificationManager,
+    private val trailFileManager: TrailFileManager,
+    appProperties: AppProperties
+) {
+    private val logger = LoggerFactory.getLogger(javaClass)
+
+    private val workers = appProperties.resourcesRegenerationWorkers
+
+    private val workerPool = ThreadPoolExecutor(
+        workers, workers,
+        0L, TimeUnit.MILLISECONDS,
+        ArrayBlockingQueue(workers * 2),
+        threadFactory("resource-regeneration"),
+        ThreadPoolExecutor.CallerRunsPolicy()
+    )
+    // Separate from the workers, which wait on the files being written
+    private val writerPool = Executors.newFixedThreadPool(workers * 3, threadFactory("resource-writer"))
+    private val runner = Executors.newSingleThreadExecutor(threadFactory("resource-regeneration-run"))
+
+    private val currentRun = AtomicReference<RegenerationRun?>(null)
+
+    val isRunning: Boolean
+        get() = currentRun.get()?.isOver == false
+
+    /**
+     * Progress of the current run, or of the last one if none is going.
+     */
+    val progress: ResourceGenerationProgressDto?
+        get() = currentRun.get()?.toDto()
+
+    /**
+     * Starts regenerating all the trails of the given realm, unless a run is already going.
+     */
+    fun regenerateAll(realm: String): Boolean = start { run ->
+        run.total.set(trailManager.countByRealm(realm))
+        trailManager.forEachTrailId(realm) { trailId -> run.submit { regenerateTrail(trailId, realm) } }
+    }
+
+    /**
+     * Starts regenerating the given trails of the given realm, unless a run is already going.
+     */
+    fun regenerate(trailIds: List<String>, realm: String): Boolean = start { run ->
+        run.total.set(trailIds.size.toLong())
+        trailIds.forEach { trailId -> run.submit { regenerateTrail(trailId, realm) } }
+    }
+
+    private fun start(feed: (RegenerationRun) -> Unit): Boolean {
+        val previous = currentRun.get()
+        if (previous != null && !previous.isOver) return false
+        val run = RegenerationRun()
+        if (!currentRun.compareAndSet(previous, run)) return false
+        runner.execute {
+            try {
+                feed(run)
+                run.awaitSubmitted()
+            } catch (e: Exception) {
+                logger.error("Resource regeneration run stopped", e)
+            } finally {
+                run.finish()
+                logger.info("Resource regeneration run over: ${run.done.get()} done, ${run.failed.get()} failed")
+            }
+        }
+        return true
+    }
+
+    private fun regenerateTrail(trailId: String, realm: String) {
+        val trail = trailManager.getById(trailId, TrailSimplifierLevel.FULL).firstOrNull()
+            ?: throw IllegalStateException("Trail '$trailId' does not exist")
+        if (trail.fileDetails.realm != realm) {
+            throw IllegalStateException("Trail '$trailId' does not belong to realm '$realm'")
+        }
+        logger.info("Regenerating resources for trail '$trailId'")
+        val places = placeManager.getByIds(trail.locations.map { it.placeId })
+        val lastMaintenance = maintenanceManager.getPastMaintenanceForTrailId(trailId, 0, Int.MAX_VALUE)
+            .maxByOrNull { it.date }
+        val openIssues = accessibilityNotificationManager.getUnresolvedByTrailId(trailId, 0, Int.MAX_VALUE)
+        val fileName = trailFileManager.getFilename(trail)
+
+        val gpx = write { trailFileManager.writeTrailToOfficialGpx(trail, fileName) }
+        val kml = write { trailFileManager.writeTrailToKml(trail, fileName) }
+        val pdf = write {
+            trailFileManager.writeTrailToPdf(trail, places, listOfNotNull(lastMaintenance), openIssues, fileName)
+        }
+        val gpxFile = gpx.join()
+        val kmlFile = kml.join()
+        val pdfFile = pdf.join()
+        trailManager.updateStaticResources(trailId, StaticTrailDetails(gpxFile.fileName, kmlFile.fileName,
+            pdfFile.fileName, gpxFile.digest, kmlFile.digest, pdfFile.digest))
+    }
+
+    private fun write(writer: () -> TrailFileManager.ResourceFile): CompletableFuture<TrailFileManager.ResourceFile> =
+        CompletableFuture.supplyAsync(writer, writerPool)
+
+    private inner class RegenerationRun {
+        val total = AtomicLong()
+        val done = AtomicLong()
+        val failed = AtomicLong()
+        private val startedAt = Date()
+        private val submitted = ConcurrentLinkedQueue<Future<*>>()
+        @Volatile
+        private var endedAt: Date? = null
+
+        val isOver: Boolean
+            get() = endedAt != null
+
+        fun submit(task: () -> Unit) {
+            submitted.add(workerPool.submit {
+                try {
+                    task()
+                    done.incrementAndGet()
+                } catch (e: Exception) {
+                    failed.incrementAndGet()
+                    logger.warn("Could not regenerate resources: ${e.message}", e)
+                }
+            })
+        }
+
+        fun awaitSubmitted() {
+            submitted.forEach { it.get() }
+        }
+
+        fun finish() {
+            endedAt = Date()
+        }
+
+        fun toDto(): ResourceGenerationProgressDto {
+            val processed = done.get() + failed.get()
+            val elapsedMillis = (endedAt ?: Date()).time - startedAt.time
+            val remaining = total.get() - processed
+            val etaSeconds = if (isOver) 0L
+            else if (processed == 0L || remaining <= 0) null
+            else elapsedMillis * remaining / processed / 1000
+            return ResourceGenerationProgressDto(total.get(), done.get(), failed.get(),
+                startedAt, endedAt, etaSeconds)
+        }
+    }
+
+    private fun threadFactory(name: String): ThreadFactory {
+        val counter = AtomicInteger()
+        return ThreadFactory { runnable ->
+            Thread(runnable, "$name-${counter.incrementAndGet()}").apply { isDaemon = true }
+        }
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        runner.shutdownNow()
+        workerPool.shutdownNow()
+        writerPool.shutdownNow()
+    }
+}
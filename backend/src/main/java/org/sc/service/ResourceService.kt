@@ -18,57 +18,78 @@ class ResourceService @Autowired constructor(
         private val placeManager: PlaceManager,
         private val trailFileManager: TrailFileManager) {
 
+    companion object {
+        private const val CLAIM_BATCH_SIZE = 20
+    }
+
     val isJobRunning = AtomicBoolean(false)
 
     private val logger = LoggerFactory.getLogger(javaClass)
 
     fun execute() {
-        if (!isJobRunning.get()) {
-            logger.trace("Resource generation Job is not running. Executing...")
-            isJobRunning.set(true)
+        if (!isJobRunning.compareAndSet(false, true)) {
+            logger.trace("Previous resource generation job is still running...")
+            return
+        }
+        logger.trace("Resource generation Job is not running. Executing...")
+        try {
             generateResources()
             logger.trace("Resource generation Job completed.")
+        } finally {
             isJobRunning.set(false)
         }
-        logger.trace("Previous resource generation job is still running...")
     }
 
     private fun generateResources() {
-        val entries = resourceManager.getTrailEntries()
-        val distinctEntries = entries.distinctBy { it.targetingTrail }
-        distinctEntries.forEach {
-            val trailList = trailManager.getById(it.targetingTrail, TrailSimplifierLevel.LOW)
-            if(trailList.isNotEmpty()) {
-                val targetTrail = trailList.first()
-                logger.info("Ri-generating resource for trail with id: $targetTrail")
-                generatePdfFile(targetTrail)
+        do {
+            val claimed = resourceManager.claimEntries(CLAIM_BATCH_SIZE)
+            val processed = claimed.entries.filter {
+                try {
+                    // At the level of the regeneration engine and the import, which the PDF digest is compared with
+                    val trailList = trailManager.getById(it.targetingTrail, TrailSimplifierLevel.FULL)
+                    if (trailList.isNotEmpty()) {
+                        val targetTrail = trailList.first()
+                        logger.info("Ri-generating resource for trail with id: ${targetTrail.id}")
+                        generatePdfFile(targetTrail)
+                    } else {
+                        logger.trace("Trail '${it.targetingTrail}' seems be removed while waiting for jobs to complete. Skipping...")
+                    }
+                    true
+                } catch (e: Exception) {
+                    // Left claimed, so that it is retried once its lease runs out
+                    logger.error("Could not regenerate resources for trail '${it.targetingTrail}'", e)
+                    false
+                }
             }
-            logger.trace("Trail '${it.targetingTrail}' seems be removed while waiting for jobs to complete. Skipping...")
-
-        }
-        logger.trace("Resolved n.${distinctEntries.size} entries for processing")
-        resourceManager.deleteEntries(entries)
+            logger.trace("Resolved n.${processed.size} entries for processing")
+            resourceManager.deleteEntries(claimed, processed)
+        } while (claimed.entries.size == CLAIM_BATCH_SIZE)
     }
 
     private fun generatePdfFile(trailSaved: TrailDto) {
         val trailId = trailSaved.id
-        val places = trailSaved.locations.flatMap { placeManager.getById(it.placeId) }
+        val places = placeManager.getByIds(trailSaved.locations.map { it.placeId })
         val maintenancesByTrailId = maintenanceManager.getPastMaintenanceForTrailId(trailId, 0, Int.MAX_VALUE)
         val lastMaintenance = maintenancesByTrailId.maxByOrNull { it.date }
         val openIssues = accessibilityNotificationManager.getUnresolvedByTrailId(trailId, 0, Int.MAX_VALUE)
         logger.info("Generating PDF file for trail '$trailId'")
-        val resolvedName = trailFileManager.writeTrailToPdf(
+        val pdf = trailFileManager.writeTrailToPdf(
             trailSaved,
             places,
             listOfNotNull(lastMaintenance),
             openIssues,
             fileName = trailFileManager.getFilename(trailSaved)
         )
+        val current = trailSaved.staticTrailDetails
+        if (pdf.fileName == current.pathPdf && pdf.digest == current.digestPdf) return
         trailManager.updateStaticResources(
             trailId, StaticTrailDetails(
-            trailSaved.staticTrailDetails.pathGpx,
-            trailSaved.staticTrailDetails.pathKml,
-            resolvedName)
+            current.pathGpx,
+            current.pathKml,
+            pdf.fileName,
+            current.digestGpx,
+            current.digestKml,
+            pdf.digest)
         )
     }
 
@@ -30,7 +30,7 @@ class TrailImporterService @Autowired constructor(
     private val placeManager: PlaceManager,
     private val resourceManager: ResourceManager,
     private val placesTrailSyncProcessor: PlacesTrailSyncProcessor,
-    private val trailsStatsCalculator: TrailsStatsCalculator,
+    private val trailStatsEngine: TrailStatsEngine,
     private val trailDatasetVersionDao: TrailDatasetVersionDao,
     private val coordinatesMapper: CoordinatesMapper,
     private val trailPlacesAligner: TrailPlacesAligner,
@@ -52,38 +52,27 @@ class TrailImporterService @Autowired constructor(
     fun save(importingTrail: TrailImportDto): List<TrailDto> {
         logger.info("Importing Trail with code:${importingTrail.code}...")
 
-        logger.debug("Enforcing point calculation...")
-        val coordinates = importingTrail.coordinates.map {
-            TrailCoordinates(
-                it.latitude, it.longitude, it.altitude,
-                trailsStatsCalculator.calculateLengthFromTo(importingTrail.coordinates, it)
-            )
-        }
-
-        logger.debug("Calculating stats...")
-        val statsTrailMetadata = StatsTrailMetadata(
-            trailsStatsCalculator.calculateTotRise(coordinates),
-            trailsStatsCalculator.calculateTotFall(coordinates),
-            trailsStatsCalculator.calculateEta(coordinates),
-            trailsStatsCalculator.calculateTrailLength(coordinates),
-            trailsStatsCalculator.calculateHighestPlace(coordinates),
-            trailsStatsCalculator.calculateLowestPlace(coordinates)
-        )
+        logger.debug("Calculating points distance and stats...")
+        val trailStats = trailStatsEngine.calculate(TrailCoordinatesBuffer.of(importingTrail.coordinates))
+        val coordinates = trailStats.toTrailCoordinates()
+        val statsTrailMetadata = trailStats.toStatsTrailMetadata()
 
         val createdOn = Date()
 
         val authHelper = authFacade.authHelper
 
         logger.info("Creating or retrieving crossway places for trail import...")
+        val createdPlaceIds = mutableListOf<String>()
         val trailCrosswaysFromLocations: List<PlaceDto> = getLocationFromPlaceRef(
-            listOf(), importingTrail.crossways, authHelper
+            listOf(), importingTrail.crossways, authHelper, createdPlaceIds
         )
 
         logger.info("Creating or retrieving other places for trail import...")
         val placesLocations: List<PlaceDto> = getLocationFromPlaceRef(
             trailCrosswaysFromLocations,
             importingTrail.locations,
-            authHelper
+            authHelper,
+            createdPlaceIds
         )
 
         logger.debug("Mapping retrieved places to refs")
@@ -166,19 +155,22 @@ class TrailImporterService @Autowired constructor(
         logger.info("Linking places to trail...")
         placesTrailSyncProcessor.populatePlacesWithTrailData(trailSaved)
 
+        // Only now that the trail references them, the places it created may be merged away
+        placeManager.requestClustering(createdPlaceIds)
+
         logger.info("Generated name for static resources...")
         val fileName = trailFileManager.getFilename(trailSaved)
 
         logger.info("Generating static resources for trail...")
-        val targetPlaces = trailSaved.locations.flatMap { placeManager.getById(it.placeId) }
+        val targetPlaces = placeManager.getByIds(trailSaved.locations.map { it.placeId })
         val resources = updateResourcesForTrail(trailSaved, targetPlaces, fileName)
 
         trailsManager.updateStaticResources(trailSaved.id, resources)
 
-        trailSaved.locations
+        val relatedTrailIds = trailSaved.locations
             .flatMap { it.encounteredTrailIds }
             .filter { it != trailSaved.id }
-            .flatMap { trailsManager.getById(it, TrailSimplifierLevel.LOW) }
+        trailsManager.getByIds(relatedTrailIds, TrailSimplifierLevel.LOW)
             .forEach {
                 logger.info("Ri-generating static resources for related trail '${it.id}'...")
                 resourceManager.addEntry(
@@ -221,12 +213,12 @@ class TrailImporterService @Autowired constructor(
         return trailsManager.getByMatchingStartEndPoint(targetTrailRaw.startPos, targetTrailRaw.finalPos)
     }
 
-    fun updateResourcesForTrail(targetTrail: TrailDto, targetPlaces: List<PlaceDto>, fileName: String) =
-        StaticTrailDetails(
-            trailFileManager.writeTrailToOfficialGpx(targetTrail, fileName),
-            trailFileManager.writeTrailToKml(targetTrail, fileName),
-            trailFileManager.writeTrailToPdf(targetTrail, targetPlaces, emptyList(), emptyList(), fileName)
-        )
+    fun updateResourcesForTrail(targetTrail: TrailDto, targetPlaces: List<PlaceDto>, fileName: String): StaticTrailDetails {
+        val gpx = trailFileManager.writeTrailToOfficialGpx(targetTrail, fileName)
+        val kml = trailFileManager.writeTrailToKml(targetTrail, fileName)
+        val pdf = trailFileManager.writeTrailToPdf(targetTrail, targetPlaces, emptyList(), emptyList(), fileName)
+        return StaticTrailDetails(gpx.fileName, kml.fileName, pdf.fileName, gpx.digest, kml.digest, pdf.digest)
+    }
 
 
     fun updateTrail(trailDto: TrailDto): List<TrailDto> {
@@ -284,7 +276,8 @@ class TrailImporterService @Autowired constructor(
     private fun getLocationFromPlaceRef(
         otherPlacesBeingSaved: List<PlaceDto>,
         elements: List<PlaceRefDto>,
-        authHelper: AuthHelper
+        authHelper: AuthHelper,
+        createdPlaceIds: MutableList<String>
     ): List<PlaceDto> =
         elements.map {
 
@@ -317,8 +310,9 @@ class TrailImporterService @Autowired constructor(
                             authHelper.instance,
                             authHelper.realm
                         )
-                    )
+                    ), false
                 ).first()
+                createdPlaceIds.add(created.id)
                 created.coordinates = created.coordinates.plus(it.coordinates)
                 created.crossingTrailIds = it.encounteredTrailIds
                 created
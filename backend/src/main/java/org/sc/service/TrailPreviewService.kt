@@ -2,7 +2,9 @@ package org.sc.service
 
 import org.sc.common.rest.TrailPreviewDto
 import org.sc.data.mapper.TrailPreviewMapper
+import org.sc.data.repository.KeysetPage
 import org.sc.manager.TrailManager
+import org.sc.manager.TrailPreviewCache
 import org.sc.manager.TrailPreviewManager
 import org.sc.processor.TrailExporter
 import org.springframework.beans.factory.annotation.Autowired
@@ -13,12 +15,20 @@ class TrailPreviewService @Autowired constructor(
     private val trailPreviewManager: TrailPreviewManager,
     private val trailManager: TrailManager,
     private val trailPreviewMapper: TrailPreviewMapper,
-    private val trailExporter: TrailExporter
+    private val trailExporter: TrailExporter,
+    private val trailPreviewCache: TrailPreviewCache
 ) {
     fun getTrailPreviews(skip: Int, limits: Int, realm: String, isDraftTrailVisible: Boolean): List<TrailPreviewDto> =
-        trailPreviewManager.getPreviews(skip, limits, realm, isDraftTrailVisible).map { trailPreviewMapper.map(it) }
+        trailPreviewCache.get("previews", listOf(realm, isDraftTrailVisible, skip, limits)) {
+            trailPreviewManager.getPreviews(skip, limits, realm, isDraftTrailVisible).map { trailPreviewMapper.map(it) }
+        }
 
 
+    fun getTrailPreviewsAfter(
+        continuationToken: String?, limit: Int, realm: String, isDraftTrailVisible: Boolean
+    ): KeysetPage<TrailPreviewDto> =
+        trailPreviewManager.getPreviewsAfter(continuationToken, limit, realm, isDraftTrailVisible)
+
     fun exportList(realm: String): ByteArray {
         val allPreviews = trailPreviewManager.getPreviews(
             0, Integer.MAX_VALUE,
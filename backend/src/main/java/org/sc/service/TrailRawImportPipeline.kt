@@ -0,0 +1,105 @@
+package org.sc.service
+
+import org.sc.common.rest.TrailRawDto
+import org.sc.configuration.AppProperties
+import org.sc.configuration.auth.AuthData
+import org.sc.manager.TrailFileManager
+import org.sc.processor.GpxTrackReader
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Service
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import javax.annotation.PreDestroy
+
+/**
+ * Imports uploaded GPX files as raw trails. Each file goes, on a bounded worker pool,
+ * through three stages: streaming parse, altitude enrichment and raw persistence.
+ * When all workers are busy and the queue is full the submitting thread runs the
+ * file itself, which throttles large uploads instead of piling them up in memory.
+ */
+@Service
+class TrailRawImportPipeline @Autowired constructor(
+    private val gpxTrackReader: GpxTrackReader,
+    private val trailFileManager: TrailFileManager,
+    private val trailImporterService: TrailImporterService,
+    appProperties: AppProperties
+) {
+    private val logger = LoggerFactory.getLogger(javaClass)
+
+    private val executor = ThreadPoolExecutor(
+        appProperties.importWorkers, appProperties.importWorkers,
+        0L, TimeUnit.MILLISECONDS,
+        ArrayBlockingQueue(appProperties.importQueueSize),
+        importThreadFactory(),
+        ThreadPoolExecutor.CallerRunsPolicy()
+    )
+
+    fun importFiles(originalFileNamesToPaths: Map<String, Path>, authData: AuthData): TrailRawImportResult {
+        val total = originalFileNamesToPaths.size
+        val processed = AtomicInteger()
+        logger.info("Importing $total GPX file(s)...")
+
+        val submitted = originalFileNamesToPaths.map { (originalFilename, path) ->
+            originalFilename to executor.submit(Callable {
+                val outcome = importFile(originalFilename, path, authData)
+                logger.info("Processed GPX file '$originalFilename' (${processed.incrementAndGet()}/$total)")
+                outcome
+            })
+        }
+
+        val imported = mutableListOf<TrailRawDto>()
+        val failures = mutableMapOf<String, String>()
+        submitted.forEach { (originalFilename, future) ->
+            try {
+                future.get().fold({ imported.add(it) }, { failures[originalFilename] = describe(it) })
+            } catch (e: ExecutionException) {
+                failures[originalFilename] = describe(e.cause ?: e)
+            }
+        }
+
+        logger.info("Done importing GPX files: ${imported.size} imported, ${failures.size} failed")
+        return TrailRawImportResult(imported, failures)
+    }
+
+    private fun importFile(originalFilename: String, tempFile: Path, authData: AuthData): Result<TrailRawDto> =
+        try {
+            runCatching {
+                val track = gpxTrackReader.read(tempFile)
+
+                val uniqueFileName = trailFileManager.makeUniqueFileName(originalFilename)
+                val trailRaw = trailFileManager.getTrailRawModel(uniqueFileName, originalFilename, track, authData)
+
+                trailFileManager.saveRawGpx(uniqueFileName, tempFile)
+                trailImporterService.saveRaw(trailRaw)
+            }.onFailure { logger.warn("Could not import GPX file '$originalFilename'", it) }
+        } finally {
+            Files.deleteIfExists(tempFile)
+        }
+
+    private fun describe(throwable: Throwable) = throwable.message ?: throwable.javaClass.simpleName
+
+    private fun importThreadFactory(): ThreadFactory {
+        val counter = AtomicInteger()
+        return ThreadFactory { runnable ->
+            Thread(runnable, "gpx-import-${counter.incrementAndGet()}").apply { isDaemon = true }
+        }
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        executor.shutdown()
+    }
+}
+
+data class TrailRawImportResult(
+    val imported: List<TrailRawDto>,
+    val failures: Map<String, String>
+)
@@ -17,6 +17,7 @@ class FileManagementUtil @Autowired constructor(val appProperties: AppProperties
         const val TRAIL_PDF_FOLDER_NAME = "pdf"
         const val RAW_TRAIL_FOLDER_NAME = "raw"
         const val CSV_FOLDER_NAME = "csv"
+        const val TILE_FOLDER_NAME = "tiles"
     }
 
     /*
@@ -29,6 +30,7 @@ class FileManagementUtil @Autowired constructor(val appProperties: AppProperties
      * /trail/pdf <- contains .pdf
      * /trail/csv <- contains .csv
      * /raw <- contains the raw trails uploaded by management
+     * /tiles <- contains the cached vector tiles, as /tiles/{z}/{x}/{y}.mvt
      */
     fun getMediaStoragePath() = appProperties.storage + File.separator + MEDIA_FOLDER_NAME + File.separator
     fun getCustomItineraryPath() = appProperties.storage + File.separator + CUSTOM_ITINERARY_FOLDER_NAME + File.separator
@@ -38,4 +40,5 @@ class FileManagementUtil @Autowired constructor(val appProperties: AppProperties
     fun getTrailKmlStoragePath() = getTrailStoragePath() + TRAIL_KML_FOLDER_NAME + File.separator
     fun getTrailPdfStoragePath() = getTrailStoragePath() + TRAIL_PDF_FOLDER_NAME + File.separator
     fun getTrailCsvStoragePath() = getTrailStoragePath() + CSV_FOLDER_NAME + File.separator
+    fun getTileCachePath() = appProperties.storage + File.separator + TILE_FOLDER_NAME + File.separator
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package org.sc.adapter.elevation
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+
+class SrtmElevationProviderTest {
+
+    private val demDirectory: Path = Files.createTempDirectory("dem")
+
+    @After
+    fun tearDown() {
+        demDirectory.toFile().deleteRecursively()
+    }
+
+    /**
+     * Writes a 3x3 tile whose sample at (row, column) is 100 * row + 10 * column,
+     * i.e. elevation grows going south and going east.
+     */
+    private fun writeTile(name: String, voidAt: Pair<Int, Int>? = null) {
+        val samples = ByteBuffer.allocate(3 * 3 * 2)
+        for (row in 0..2) {
+            for (column in 0..2) {
+                val value = if (voidAt == Pair(row, column)) -32768 else 100 * row + 10 * column
+                samples.putShort(value.toShort())
+            }
+        }
+        Files.write(demDirectory.resolve(name), samples.array())
+    }
+
+    @Test
+    fun `read samples on grid nodes`() {
+        writeTile("N44E011.hgt")
+        val provider = SrtmElevationProvider(demDirectory)
+
+        assertEquals(200.0, provider.getElevation(44.0, 11.0)!!, 0.000001)
+        assertEquals(210.0, provider.getElevation(44.0, 11.5)!!, 0.000001)
+        assertEquals(100.0, provider.getElevation(44.5, 11.0)!!, 0.000001)
+        assertEquals(110.0, provider.getElevation(44.5, 11.5)!!, 0.000001)
+    }
+
+    @Test
+    fun `interpolate between grid nodes`() {
+        writeTile("N44E011.hgt")
+        val provider = SrtmElevationProvider(demDirectory)
+
+        assertEquals(55.0, provider.getElevation(44.75, 11.25)!!, 0.000001)
+    }
+
+    @Test
+    fun `resolve batches in order and leave uncovered points empty`() {
+        writeTile("N44E011.hgt")
+        writeTile("S01W002.hgt")
+        val provider = SrtmElevationProvider(demDirectory)
+
+        val elevations = provider.getElevations(
+            listOf(Pair(44.5, 11.5), Pair(10.0, 10.0), Pair(-0.5, -1.5))
+        )
+
+        assertEquals(listOf(110.0, null, 110.0), elevations)
+    }
+
+    @Test
+    fun `leave points next to void samples empty`() {
+        writeTile("N44E011.hgt", voidAt = Pair(1, 1))
+        val provider = SrtmElevationProvider(demDirectory)
+
+        assertNull(provider.getElevation(44.75, 11.25))
+        assertEquals(200.0, provider.getElevation(44.0, 11.0)!!, 0.000001)
+    }
+
+    @Test
+    fun `provide nothing without a DEM directory`() {
+        val provider = SrtmElevationProvider(null as Path?)
+
+        assertEquals(listOf(null, null), provider.getElevations(listOf(Pair(44.5, 11.5), Pair(0.0, 0.0))))
+    }
+
+    @Test
+    fun `skip tiles that are not square grids`() {
+        File(demDirectory.toFile(), "N44E011.hgt").writeBytes(ByteArray(10))
+        val provider = SrtmElevationProvider(demDirectory)
+
+        assertNull(provider.getElevation(44.5, 11.5))
+    }
+}
@@ -0,0 +1,100 @@
+package org.sc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sc.job.scalingalgorithms.ImageSource;
+import org.sc.job.scalingalgorithms.ProportionalScaling;
+import org.sc.job.scalingalgorithms.ScalingAlgorithm;
+import org.sc.job.scalingalgorithms.ThumbnailGenerator;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory and time to make the thumbnail and the XL variant of a large synthetic photo,
+ * decoding the whole image first, as the compression job used to, or decoding only
+ * the pixels each variant needs; the bytes allocated per operation are reported by
+ * the GC profiler as gc.alloc.rate.norm.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass=org.sc.benchmark.ImageDecodingBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class ImageDecodingBenchmark {
+
+    @Param({"4000x3000", "6000x4000"})
+    public String size;
+
+    private final ScalingAlgorithm thumbnail = new ThumbnailGenerator();
+    private final ScalingAlgorithm extraLow = new ProportionalScaling(0.25f);
+
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        final String[] dimensions = size.split("x");
+        final int width = Integer.parseInt(dimensions[0]);
+        final int height = Integer.parseInt(dimensions[1]);
+
+        // Gradients with some noise, so that the JPEG is about as large as a photo
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        final Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int red = (x * 255 / width + random.nextInt(24)) & 0xff;
+                final int green = (y * 255 / height + random.nextInt(24)) & 0xff;
+                final int blue = ((x + y) * 255 / (width + height) + random.nextInt(24)) & 0xff;
+                image.setRGB(x, y, red << 16 | green << 8 | blue);
+            }
+        }
+        file = Files.createTempFile("benchmark", ".jpg").toFile();
+        ImageIO.write(image, "jpg", file);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public BufferedImage thumbnailFromFullDecode() throws IOException {
+        return thumbnail.scale(ImageIO.read(file));
+    }
+
+    @Benchmark
+    public BufferedImage thumbnailFromRegionRead() throws IOException {
+        try (ImageSource source = ImageSource.open(file)) {
+            return thumbnail.scale(source);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage extraLowFromFullDecode() throws IOException {
+        return extraLow.scale(ImageIO.read(file));
+    }
+
+    @Benchmark
+    public BufferedImage extraLowFromSubsampledRead() throws IOException {
+        try (ImageSource source = ImageSource.open(file)) {
+            return extraLow.scale(source);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ImageDecodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
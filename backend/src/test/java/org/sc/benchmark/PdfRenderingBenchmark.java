@@ -0,0 +1,104 @@
+package org.sc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sc.common.rest.*;
+import org.sc.data.model.CycloClassification;
+import org.sc.data.model.TrailClassification;
+import org.sc.processor.pdf.ElevationProfileSampler;
+import org.sc.processor.pdf.PdfFileHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of PdfFileHelper rendering the report of a fixed trail, with ten places
+ * and a few open issues, to memory: from a single thread, and from four threads sharing
+ * the helper as the resource regeneration workers do.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass=org.sc.benchmark.PdfRenderingBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PdfRenderingBenchmark {
+
+    private final PdfFileHelper pdfFileHelper = new PdfFileHelper(new ElevationProfileSampler());
+
+    private TrailDto trail;
+    private List<PlaceDto> places;
+    private List<AccessibilityNotificationDto> openIssues;
+
+    @Setup
+    public void setUp() {
+        final PlaceRefDto start = new PlaceRefDto("Rifugio", new CoordinatesDto(44.49, 11.31, 200),
+                "p0", Collections.emptyList(), false);
+        final PlaceRefDto end = new PlaceRefDto("Passo", new CoordinatesDto(44.52, 11.35, 800),
+                "p9", Collections.emptyList(), false);
+
+        trail = new TrailDto();
+        trail.setId("5f6e6e1d3b1a2c0001a1b2c3");
+        trail.setCode("100BO");
+        trail.setName("Sentiero di prova");
+        trail.setDescription("<p>Il sentiero sale lungo il crinale fino al passo, " +
+                "attraversando boschi di castagno e faggio.</p>");
+        trail.setClassification(TrailClassification.values()[0]);
+        trail.setOfficialEta(-1);
+        trail.setMaintainingSection("CAI Bologna");
+        trail.setStartLocation(start);
+        trail.setEndLocation(end);
+        trail.setLocations(List.of(start, end));
+        trail.setStatsTrailMetadata(new StatsTrailMetadataDto(600, 0, 180, 7500, 800, 200));
+        trail.setCycloDetails(new CycloDetailsDto(CycloClassification.MC, 90,
+                new CycloFeasibilityDto(true, 0), new CycloFeasibilityDto(false, 2),
+                "Percorribile in salita con qualche tratto a spinta."));
+
+        places = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            places.add(new PlaceDto("p" + i, "Località " + i,
+                    "<b>Località " + i + "</b>: punto di sosta con fontana e vista sulla valle.",
+                    Collections.emptyList(), Collections.emptyList(),
+                    List.of(new CoordinatesDto(44.49 + i * 0.003, 11.31 + i * 0.004, 200 + i * 60)),
+                    Collections.emptyList(), false, null));
+        }
+
+        openIssues = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final AccessibilityNotificationDto issue = new AccessibilityNotificationDto();
+            issue.setDescription("Albero caduto sul sentiero " + i);
+            issue.setReportDate(new Date());
+            openIssues.add(issue);
+        }
+    }
+
+    @Benchmark
+    public byte[] render() {
+        return renderReport();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] renderConcurrently() {
+        return renderReport();
+    }
+
+    private byte[] renderReport() {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(16 * 1024);
+        pdfFileHelper.exportPdf(trail, places, Collections.emptyList(), openIssues, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PdfRenderingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,130 @@
+package org.sc.benchmark;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sc.data.entity.mapper.TrailCoordinatesMapper;
+import org.sc.data.model.Coordinates;
+import org.sc.data.model.GeoLineString;
+import org.sc.data.model.Trail;
+import org.sc.data.model.TrailCoordinates;
+import org.sc.data.repository.TrailDAO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares reading a whole trail document with reading the one projected by TrailDAO
+ * for the LOW level, which drops the other coordinates arrays and the geoLine.
+ * The bytes each document takes over the wire are printed on setup; the benchmark
+ * measures decoding them and mapping the LOW coordinates, as the DAO does on every read.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass=org.sc.benchmark.TrailProjectionBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class TrailProjectionBenchmark {
+
+    @Param({"1000", "10000"})
+    private int points;
+
+    private final DocumentCodec codec = new DocumentCodec();
+    private final TrailCoordinatesMapper trailCoordinatesMapper = new TrailCoordinatesMapper();
+
+    private byte[] fullDocument;
+    private byte[] projectedDocument;
+
+    @Setup
+    public void setUp() {
+        final Document trail = buildTrailDocument();
+        fullDocument = toBytes(trail);
+
+        final Document projected = new Document(trail);
+        TrailDAO.COORDINATES_FIELDS.stream()
+                .filter(field -> !field.equals(Trail.COORDINATES_LOW))
+                .forEach(projected::remove);
+        projected.remove(Trail.GEO_LINE);
+        projectedDocument = toBytes(projected);
+
+        System.out.printf("%n%d points: full document %d bytes, LOW projection %d bytes (%.1fx smaller)%n",
+                points, fullDocument.length, projectedDocument.length,
+                (double) fullDocument.length / projectedDocument.length);
+    }
+
+    @Benchmark
+    public void readFullDocument(final Blackhole blackhole) {
+        blackhole.consume(readLowCoordinates(fullDocument));
+    }
+
+    @Benchmark
+    public void readProjectedDocument(final Blackhole blackhole) {
+        blackhole.consume(readLowCoordinates(projectedDocument));
+    }
+
+    private List<TrailCoordinates> readLowCoordinates(final byte[] bytes) {
+        final Document document = new RawBsonDocument(bytes).decode(codec);
+        return document.getList(Trail.COORDINATES_LOW, Document.class).stream()
+                .map(trailCoordinatesMapper::mapToObject)
+                .collect(Collectors.toList());
+    }
+
+    private byte[] toBytes(final Document document) {
+        final RawBsonDocument raw = new RawBsonDocument(document, codec);
+        final byte[] bytes = new byte[raw.getByteBuffer().remaining()];
+        raw.getByteBuffer().get(bytes);
+        return bytes;
+    }
+
+    private Document buildTrailDocument() {
+        final Random random = new Random(42);
+        final List<Document> coordinates = new ArrayList<>(points);
+        final List<List<Double>> geoLine = new ArrayList<>(points);
+        double latitude = 44.49;
+        double longitude = 11.31;
+        for (int i = 0; i < points; i++) {
+            latitude += (random.nextDouble() - 0.5) * 0.0002;
+            longitude += (random.nextDouble() - 0.5) * 0.0002;
+            coordinates.add(new Document(Coordinates.COORDINATES, Arrays.asList(longitude, latitude))
+                    .append(TrailCoordinates.ALTITUDE, 200 + random.nextDouble() * 100)
+                    .append(TrailCoordinates.DISTANCE_FROM_START, i * 10));
+            geoLine.add(Arrays.asList(longitude, latitude));
+        }
+        return new Document(Trail.ID, "5f6e6e1d3b1a2c0001a1b2c3")
+                .append(Trail.NAME, "Sentiero di prova")
+                .append(Trail.CODE, "100BO")
+                .append(Trail.DESCRIPTION, "Descrizione del sentiero di prova")
+                .append(Trail.CLASSIFICATION, "E")
+                .append(Trail.COORDINATES, coordinates)
+                .append(Trail.COORDINATES_HIGH, everyNth(coordinates, 2))
+                .append(Trail.COORDINATES_MEDIUM, everyNth(coordinates, 4))
+                .append(Trail.COORDINATES_LOW, everyNth(coordinates, 10))
+                .append(Trail.GEO_LINE, new Document(GeoLineString.TYPE, GeoLineString.GEO_TYPE)
+                        .append(GeoLineString.COORDINATES, geoLine));
+    }
+
+    private static List<Document> everyNth(final List<Document> coordinates, final int step) {
+        final List<Document> result = new ArrayList<>();
+        for (int i = 0; i < coordinates.size(); i += step) {
+            result.add(coordinates.get(i));
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TrailProjectionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
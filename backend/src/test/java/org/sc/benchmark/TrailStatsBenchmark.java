@@ -0,0 +1,84 @@
+package org.sc.benchmark;
+
+import org.sc.data.model.Coordinates;
+import org.sc.data.model.CoordinatesWithAltitude;
+import org.sc.data.model.TrailCoordinates;
+import org.sc.processor.TrailCoordinatesBuffer;
+import org.sc.processor.TrailStats;
+import org.sc.processor.TrailStatsEngine;
+import org.sc.processor.TrailsStatsCalculator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-point {@link TrailsStatsCalculator} import path with the single pass {@link TrailStatsEngine}.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass=org.sc.benchmark.TrailStatsBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class TrailStatsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int points;
+
+    private final TrailsStatsCalculator trailsStatsCalculator = new TrailsStatsCalculator();
+    private final TrailStatsEngine trailStatsEngine = new TrailStatsEngine();
+
+    private List<Coordinates> coordinates;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        coordinates = new ArrayList<>(points);
+        double latitude = 44.49;
+        double longitude = 11.31;
+        double altitude = 200;
+        for (int i = 0; i < points; i++) {
+            latitude += (random.nextDouble() - 0.5) * 0.0002;
+            longitude += (random.nextDouble() - 0.5) * 0.0002;
+            altitude += (random.nextDouble() - 0.5) * 4;
+            coordinates.add(new CoordinatesWithAltitude(latitude, longitude, altitude));
+        }
+    }
+
+    @Benchmark
+    public void calculatorPerPoint(final Blackhole blackhole) {
+        final List<TrailCoordinates> trailCoordinates = new ArrayList<>(coordinates.size());
+        for (Coordinates it : coordinates) {
+            trailCoordinates.add(new TrailCoordinates(it.getLatitude(), it.getLongitude(), it.getAltitude(),
+                    trailsStatsCalculator.calculateLengthFromTo(coordinates, it)));
+        }
+        blackhole.consume(trailCoordinates);
+        blackhole.consume(trailsStatsCalculator.calculateTotRise(trailCoordinates));
+        blackhole.consume(trailsStatsCalculator.calculateTotFall(trailCoordinates));
+        blackhole.consume(trailsStatsCalculator.calculateEta(trailCoordinates));
+        blackhole.consume(trailsStatsCalculator.calculateTrailLength(trailCoordinates));
+        blackhole.consume(trailsStatsCalculator.calculateHighestPlace(trailCoordinates));
+        blackhole.consume(trailsStatsCalculator.calculateLowestPlace(trailCoordinates));
+    }
+
+    @Benchmark
+    public void engineSinglePass(final Blackhole blackhole) {
+        final TrailStats trailStats = trailStatsEngine.calculate(TrailCoordinatesBuffer.Companion.of(coordinates));
+        blackhole.consume(trailStats.toTrailCoordinates());
+        blackhole.consume(trailStats.toStatsTrailMetadata());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TrailStatsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package org.sc.controller
+
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.springframework.http.HttpHeaders
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.web.servlet.HandlerMapping
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+import java.util.zip.GZIPOutputStream
+
+class StaticFileHandlerTest {
+
+    private val root = Files.createTempDirectory("static-files")
+    private val content = ByteArray(1000) { (it % 251).toByte() }
+    private val handler = StaticFileHandler(root, 3600)
+
+    init {
+        Files.write(root.resolve("100BO.gpx"), content)
+    }
+
+    @After
+    fun tearDown() {
+        root.toFile().deleteRecursively()
+    }
+
+    @Test
+    fun `serves the whole file with a strong etag`() {
+        val response = get("100BO.gpx")
+
+        assertEquals(200, response.status)
+        assertArrayEquals(content, response.contentAsByteArray)
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES))
+        assertEquals(false, response.getHeader(HttpHeaders.ETAG)!!.startsWith("W/"))
+    }
+
+    @Test
+    fun `answers not modified to the current etag`() {
+        val eTag = get("100BO.gpx").getHeader(HttpHeaders.ETAG)
+
+        val response = get("100BO.gpx") { addHeader(HttpHeaders.IF_NONE_MATCH, eTag!!) }
+
+        assertEquals(304, response.status)
+        assertEquals(0, response.contentAsByteArray.size)
+    }
+
+    @Test
+    fun `serves byte ranges`() {
+        val response = get("100BO.gpx") { addHeader(HttpHeaders.RANGE, "bytes=100-199") }
+
+        assertEquals(206, response.status)
+        assertEquals("bytes 100-199/1000", response.getHeader(HttpHeaders.CONTENT_RANGE))
+        assertArrayEquals(content.copyOfRange(100, 200), response.contentAsByteArray)
+
+        val suffix = get("100BO.gpx") { addHeader(HttpHeaders.RANGE, "bytes=-10") }
+        assertArrayEquals(content.copyOfRange(990, 1000), suffix.contentAsByteArray)
+    }
+
+    @Test
+    fun `refuses ranges past the end and ignores stale ones`() {
+        assertEquals(416, get("100BO.gpx") { addHeader(HttpHeaders.RANGE, "bytes=1000-") }.status)
+
+        val response = get("100BO.gpx") {
+            addHeader(HttpHeaders.RANGE, "bytes=0-9")
+            addHeader(HttpHeaders.IF_RANGE, "\"stale\"")
+        }
+        assertEquals(200, response.status)
+        assertEquals(1000, response.contentAsByteArray.size)
+    }
+
+    @Test
+    fun `serves the gzip variant only if not older than the file`() {
+        val variant = root.resolve("100BO.gpx.gz")
+        GZIPOutputStream(Files.newOutputStream(variant)).use { it.write(content) }
+
+        val response = get("100BO.gpx") { addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate") }
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING))
+        assertArrayEquals(Files.readAllBytes(variant), response.contentAsByteArray)
+
+        Files.setLastModifiedTime(variant, FileTime.fromMillis(0))
+        val stale = get("100BO.gpx") { addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip") }
+        assertNull(stale.getHeader(HttpHeaders.CONTENT_ENCODING))
+        assertArrayEquals(content, stale.contentAsByteArray)
+    }
+
+    @Test
+    fun `does not serve files outside the root or being written`() {
+        Files.write(root.resolve(".100BO.gpx123.tmp"), content)
+
+        assertEquals(404, get("../100BO.gpx").status)
+        assertEquals(404, get(".100BO.gpx123.tmp").status)
+        assertEquals(404, get("missing.gpx").status)
+    }
+
+    private fun get(path: String, configure: MockHttpServletRequest.() -> Unit = {}): MockHttpServletResponse {
+        val request = MockHttpServletRequest("GET", "/trail/file/gpx/$path")
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path)
+        request.configure()
+        val response = MockHttpServletResponse()
+        handler.handleRequest(request, response)
+        return response
+    }
+}
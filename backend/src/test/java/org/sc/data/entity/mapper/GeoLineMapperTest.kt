@@ -0,0 +1,38 @@
+package org.sc.data.entity.mapper
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+import org.sc.data.model.BoundingBox
+import org.sc.data.model.GeoLineString
+import org.sc.data.model.TrailCoordinates
+
+class GeoLineMapperTest {
+
+    private val geoLineMapper = GeoLineMapper()
+
+    private val coordinates = listOf(
+        TrailCoordinates(44.49, 11.31, 200.0, 0),
+        TrailCoordinates(44.52, 11.28, 450.0, 4000),
+        TrailCoordinates(44.50, 11.35, 800.0, 9000))
+
+    @Test
+    fun `bounding box spans every point of the line`() {
+        val bbox = geoLineMapper.mapBoundingBoxToDocument(geoLineMapper.mapCoordsToDocument(coordinates))
+
+        assertEquals(11.28, bbox.getDouble(BoundingBox.MIN_LONGITUDE), 0.0)
+        assertEquals(11.35, bbox.getDouble(BoundingBox.MAX_LONGITUDE), 0.0)
+        assertEquals(44.49, bbox.getDouble(BoundingBox.MIN_LATITUDE), 0.0)
+        assertEquals(44.52, bbox.getDouble(BoundingBox.MAX_LATITUDE), 0.0)
+    }
+
+    @Test
+    fun `simplified line falls back to the full one when too short`() {
+        val geoLine = geoLineMapper.mapCoordsToDocument(coordinates)
+
+        assertSame(geoLine, geoLineMapper.mapSimplifiedToDocument(coordinates.take(1), geoLine))
+        assertSame(geoLine, geoLineMapper.mapSimplifiedToDocument(null, geoLine))
+        assertEquals(2, geoLineMapper.mapSimplifiedToDocument(listOf(coordinates.first(), coordinates.last()), geoLine)
+            .getList(GeoLineString.COORDINATES, List::class.java).size)
+    }
+}
@@ -0,0 +1,61 @@
+package org.sc.data.entity.mapper
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.data.model.TrailCoordinates
+
+class TrailCoordinatesCodecTest {
+
+    private val trailCoordinatesMapper = TrailCoordinatesMapper()
+
+    private val coordinates = listOf(
+        TrailCoordinates(44.4949121, 11.3426163, 54.25, 0),
+        TrailCoordinates(44.4950337, 11.3428012, 55.5, 19),
+        TrailCoordinates(44.4947001, 11.3425001, 51.0, 62),
+        TrailCoordinates(-33.8688197, 151.2092955, -3.75, 20000000)
+    )
+
+    @Test
+    fun `decode encoded coordinates within a centimetre`() {
+        val decoded = TrailCoordinatesCodec.decode(TrailCoordinatesCodec.encode(coordinates))
+
+        assertEquals(coordinates.size, decoded.size)
+        coordinates.zip(decoded).forEach { (expected, actual) ->
+            assertEquals(expected.latitude, actual.latitude, 1e-7)
+            assertEquals(expected.longitude, actual.longitude, 1e-7)
+            assertEquals(expected.altitude, actual.altitude, 1e-2)
+            assertEquals(expected.distanceFromTrailStart, actual.distanceFromTrailStart)
+        }
+    }
+
+    @Test
+    fun `encode close points in few bytes each`() {
+        val track = (0 until 1000).map { TrailCoordinates(44.49 + it * 1e-5, 11.34 - it * 1e-5, 200.0 + it % 7, it * 2) }
+
+        val encoded = TrailCoordinatesCodec.encode(track)
+
+        assertTrue("${encoded.size} bytes", encoded.size < track.size * 10)
+    }
+
+    @Test
+    fun `encode no coordinates`() {
+        assertEquals(emptyList<TrailCoordinates>(), TrailCoordinatesCodec.decode(TrailCoordinatesCodec.encode(emptyList())))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `reject truncated data`() {
+        val encoded = TrailCoordinatesCodec.encode(coordinates)
+        TrailCoordinatesCodec.decode(encoded.copyOf(encoded.size - 1))
+    }
+
+    @Test
+    fun `map stored coordinates in either format`() {
+        val fromDocuments = trailCoordinatesMapper.mapStoredToObjects(trailCoordinatesMapper.mapToDocuments(coordinates))
+        val fromBinary = trailCoordinatesMapper.mapStoredToObjects(trailCoordinatesMapper.mapToBinary(coordinates))
+
+        assertEquals(coordinates, fromDocuments)
+        assertEquals(coordinates.map { it.distanceFromTrailStart }, fromBinary.map { it.distanceFromTrailStart })
+        assertEquals(coordinates.size, fromBinary.size)
+    }
+}
@@ -0,0 +1,34 @@
+package org.sc.data.geo
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.data.model.Coordinates2D
+
+class PlaceGridTest {
+
+    // 100 meters is about 0.0009° of latitude, and 0.00125° of longitude at latitude 44
+    private val grid = PlaceGrid(100.0)
+
+    @Test
+    fun `finds the places with a point within the distance, across cells`() {
+        grid.put("near", listOf(Coordinates2D(11.0, 44.0008)))
+        grid.put("east", listOf(Coordinates2D(11.0012, 44.0)))
+        grid.put("far", listOf(Coordinates2D(11.0, 44.002)))
+        grid.put("twoPoints", listOf(Coordinates2D(11.1, 44.1), Coordinates2D(10.9995, 43.9995)))
+
+        assertEquals(setOf("near", "east", "twoPoints"), grid.findWithin(Coordinates2D(11.0, 44.0)).toSet())
+    }
+
+    @Test
+    fun `forgets the removed and replaced places`() {
+        grid.put("a", listOf(Coordinates2D(11.0, 44.0)))
+        grid.put("b", listOf(Coordinates2D(11.0, 44.0)))
+        grid.remove("a")
+        grid.put("b", listOf(Coordinates2D(12.0, 45.0)))
+
+        assertTrue(grid.findWithin(Coordinates2D(11.0, 44.0)).isEmpty())
+        assertEquals(listOf("b"), grid.findWithin(Coordinates2D(12.0, 45.0)))
+        assertEquals(1, grid.size)
+    }
+}
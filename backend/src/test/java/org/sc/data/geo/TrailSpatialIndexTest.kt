@@ -0,0 +1,122 @@
+package org.sc.data.geo
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.data.model.Coordinates2D
+import org.sc.data.model.GeoLineString
+import org.sc.data.model.TrailStatus
+
+class TrailSpatialIndexTest {
+
+    private val allStatuses = listOf(TrailStatus.PUBLIC, TrailStatus.DRAFT)
+
+    // Horizontal line at latitude 44.0, between longitudes 11.0 and 11.1
+    private val horizontalTrail = trailGeometry("a", TrailStatus.PUBLIC, Pair(11.0, 44.0), Pair(11.1, 44.0))
+    // Vertical line at longitude 11.05, between latitudes 43.95 and 44.05
+    private val verticalTrail = trailGeometry("b", TrailStatus.DRAFT, Pair(11.05, 43.95), Pair(11.05, 44.05))
+    // Far away line
+    private val farTrail = trailGeometry("c", TrailStatus.PUBLIC, Pair(12.0, 45.0), Pair(12.1, 45.1))
+
+    private fun trailGeometry(id: String, status: TrailStatus, vararg longLats: Pair<Double, Double>) =
+        TrailGeometry(id, status, GeoLineString(longLats.map { Coordinates2D(it.first, it.second) }))
+
+    private fun rectangle(fromLong: Double, fromLat: Double, toLong: Double, toLat: Double) =
+        CoordinatesRectangle(Coordinates2D(fromLong, fromLat), Coordinates2D(toLong, toLat))
+
+    @Test
+    fun `answer nothing before being loaded`() {
+        val index = TrailSpatialIndex()
+
+        assertFalse(index.isReady)
+        assertNull(index.findWithinRectangle(rectangle(10.0, 43.0, 13.0, 46.0), allStatuses, emptyList(), 100))
+    }
+
+    @Test
+    fun `find trails crossing a rectangle`() {
+        val index = TrailSpatialIndex()
+        index.load(listOf(horizontalTrail, verticalTrail, farTrail))
+
+        assertTrue(index.isReady)
+        assertEquals(listOf("a", "b"),
+            index.findWithinRectangle(rectangle(11.04, 43.99, 11.06, 44.01), allStatuses, emptyList(), 100))
+        assertEquals(listOf("a"),
+            index.findWithinRectangle(rectangle(11.04, 43.99, 11.06, 44.01), listOf(TrailStatus.PUBLIC), emptyList(), 100))
+        assertEquals(listOf("b"),
+            index.findWithinRectangle(rectangle(11.04, 43.99, 11.06, 44.01), allStatuses, listOf("a"), 100))
+    }
+
+    @Test
+    fun `accept rectangles with swapped corners`() {
+        val index = TrailSpatialIndex()
+        index.load(listOf(horizontalTrail, farTrail))
+
+        assertEquals(listOf("a"),
+            index.findWithinRectangle(rectangle(11.06, 44.01, 11.04, 43.99), allStatuses, emptyList(), 100))
+    }
+
+    @Test
+    fun `match on bounding boxes as the database does`() {
+        val index = TrailSpatialIndex()
+        index.load(listOf(trailGeometry("diagonal", TrailStatus.PUBLIC, Pair(11.0, 44.0), Pair(11.1, 44.1))))
+
+        assertEquals(listOf("diagonal"),
+            index.findWithinRectangle(rectangle(11.08, 44.0, 11.1, 44.02), allStatuses, emptyList(), 100))
+    }
+
+    @Test
+    fun `find trails intersecting a line`() {
+        val index = TrailSpatialIndex()
+        index.load(listOf(horizontalTrail, verticalTrail, farTrail))
+
+        val crossingLine = listOf(Coordinates2D(11.02, 43.9), Coordinates2D(11.02, 44.1))
+
+        assertEquals(listOf("a"), index.findIntersecting(crossingLine, allStatuses, 100))
+    }
+
+    @Test
+    fun `keep up with saved and deleted trails`() {
+        val index = TrailSpatialIndex()
+        index.load(listOf(horizontalTrail))
+        val area = rectangle(11.9, 44.9, 12.2, 45.2)
+
+        assertEquals(emptyList<String>(), index.findWithinRectangle(area, allStatuses, emptyList(), 100))
+
+        index.put(farTrail)
+        assertEquals(listOf("c"), index.findWithinRectangle(area, allStatuses, emptyList(), 100))
+
+        index.put(trailGeometry("c", TrailStatus.DRAFT, Pair(12.0, 45.0), Pair(12.1, 45.1)))
+        assertEquals(emptyList<String>(), index.findWithinRectangle(area, listOf(TrailStatus.PUBLIC), emptyList(), 100))
+
+        index.remove("c")
+        assertEquals(emptyList<String>(), index.findWithinRectangle(area, allStatuses, emptyList(), 100))
+        assertEquals(1, index.size)
+    }
+
+    @Test
+    fun `keep up with more saved and deleted trails than it holds before a rebuild`() {
+        val index = TrailSpatialIndex()
+        index.load(listOf(horizontalTrail))
+        val area = rectangle(10.9, 43.9, 11.2, 44.1)
+        val savedIds = (0 until 100).map { "saved-$it" }
+
+        savedIds.forEach { index.put(trailGeometry(it, TrailStatus.PUBLIC, Pair(11.0, 44.0), Pair(11.1, 44.0))) }
+        index.remove("a")
+        index.remove(savedIds[0])
+
+        assertEquals(99, index.size)
+        assertEquals(savedIds.drop(1).sorted(), index.findWithinRectangle(area, allStatuses, emptyList(), 1000))
+        assertNull(index.getBounds("a"))
+    }
+
+    @Test
+    fun `limit results in id order`() {
+        val index = TrailSpatialIndex()
+        index.load(listOf(verticalTrail, horizontalTrail))
+
+        assertEquals(listOf("a"),
+            index.findWithinRectangle(rectangle(11.04, 43.99, 11.06, 44.01), allStatuses, emptyList(), 1))
+    }
+}
@@ -0,0 +1,71 @@
+package org.sc.data.repository
+
+import org.bson.Document
+import org.bson.types.ObjectId
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.*
+
+class KeysetPaginationTest {
+
+    private val documents = listOf(
+        Document("_id", "a").append("name", "Alpe"),
+        Document("_id", "b").append("name", "Bosco"))
+
+    @Test
+    fun `builds the token of the next page from the last document of a full page`() {
+        val page = KeysetPagination.toPage(documents, 2, "name") { it.getString("_id") }
+
+        assertEquals(listOf("a", "b"), page.content)
+        val filter = KeysetPagination.getFilter(Document("realm", "S&C"), page.continuationToken, "name", true)
+        assertEquals(
+            Document("\$and", listOf(
+                Document("realm", "S&C"),
+                Document("\$or", listOf(
+                    Document("name", Document("\$gt", "Bosco")),
+                    Document("name", "Bosco").append("_id", Document("\$gt", "b")))))),
+            filter)
+    }
+
+    @Test
+    fun `carries dates and object ids through the token with their types`() {
+        val date = Date(1_600_000_000_123L)
+        val id = ObjectId()
+        val page = KeysetPagination.toPage(listOf(Document("_id", id).append("date", date)), 1, "date") { it }
+
+        val filter = KeysetPagination.getFilter(Document(), page.continuationToken, "date", false)
+        assertEquals(
+            Document("\$and", listOf(
+                Document(),
+                Document("\$or", listOf(
+                    Document("date", Document("\$lt", date)),
+                    Document("date", date).append("_id", Document("\$lt", id)))))),
+            filter)
+    }
+
+    @Test
+    fun `leaves the last page without a token`() {
+        assertNull(KeysetPagination.toPage(documents, 3, "name") { it }.continuationToken)
+    }
+
+    @Test
+    fun `pages by id alone when sorting by id`() {
+        val token = KeysetPagination.toPage(documents, 2, "_id") { it }.continuationToken
+
+        assertEquals(Document("_id", -1), KeysetPagination.getSort("_id", false))
+        assertEquals(
+            Document("\$and", listOf(Document(), Document("_id", Document("\$lt", "b")))),
+            KeysetPagination.getFilter(Document(), token, "_id", false))
+    }
+
+    @Test
+    fun `takes an empty token for the first page and rejects malformed ones`() {
+        assertTrue(KeysetPagination.isValid(""))
+        assertEquals(Document("realm", "S&C"), KeysetPagination.getFilter(Document("realm", "S&C"), "", "name", true))
+        assertFalse(KeysetPagination.isValid("not a token"))
+        assertFalse(KeysetPagination.isValid("e30"))
+    }
+}
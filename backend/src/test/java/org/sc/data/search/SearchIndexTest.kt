@@ -0,0 +1,103 @@
+package org.sc.data.search
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.sc.data.model.TrailStatus
+
+class SearchIndexTest {
+
+    private val allTypes = SearchEntryType.values().toList()
+    private val publicOnly = listOf(TrailStatus.PUBLIC)
+
+    private fun trail(id: String, code: String, name: String, status: TrailStatus = TrailStatus.PUBLIC,
+                      realm: String = "bologna", vararg locations: String) =
+        SearchEntry(id, SearchEntryType.TRAIL, "$code - $name", realm, status,
+            listOf(SearchField(code, SearchField.CODE_WEIGHT), SearchField(name, SearchField.NAME_WEIGHT)) +
+                    locations.map { SearchField(it, SearchField.LOCATION_WEIGHT) })
+
+    private fun place(id: String, name: String, vararg tags: String) =
+        SearchEntry(id, SearchEntryType.PLACE, name, "bologna", null,
+            listOf(SearchField(name, SearchField.NAME_WEIGHT)) + tags.map { SearchField(it, SearchField.TAG_WEIGHT) })
+
+    private fun loadedIndex(trails: List<SearchEntry>, places: List<SearchEntry>) = SearchIndex().apply {
+        load(SearchEntryType.TRAIL, trails)
+        load(SearchEntryType.PLACE, places)
+    }
+
+    private fun SearchIndex.ids(query: String, realm: String = "*", statuses: List<TrailStatus> = publicOnly) =
+        search(query, allTypes, realm, statuses, 0, 100)!!.hits.map { it.entry.id }
+
+    @Test
+    fun `answer nothing before being loaded`() {
+        val index = SearchIndex()
+        index.load(SearchEntryType.TRAIL, listOf(trail("t1", "100", "Sentiero dei Bregoli")))
+
+        assertNull(index.search("bregoli", allTypes, "*", publicOnly, 0, 10))
+    }
+
+    @Test
+    fun `match word prefixes regardless of case and accents`() {
+        val index = loadedIndex(
+            listOf(trail("t1", "100BO", "Sentiero di Città", TrailStatus.PUBLIC, "bologna", "Rifugio Duca degli Abruzzi")),
+            listOf(place("p1", "Monte Cimone", "vetta"))
+        )
+
+        assertEquals(listOf("t1"), index.ids("citta"))
+        assertEquals(listOf("t1"), index.ids("RIF duca"))
+        assertEquals(listOf("p1"), index.ids("vet"))
+        assertEquals(emptyList<String>(), index.ids("ontE"))
+    }
+
+    @Test
+    fun `rank by field weight, whole words and matching starts`() {
+        val index = loadedIndex(
+            listOf(
+                trail("t1", "200", "Anello", TrailStatus.PUBLIC, "bologna", "Monte Adone"),
+                trail("t2", "300", "Via degli Dei"),
+                trail("t3", "MONTE1", "Salita")
+            ),
+            listOf(place("p1", "Monte Adone"), place("p2", "Montecalvo"))
+        )
+
+        assertEquals(listOf("p1", "t3", "p2", "t1"), index.ids("monte"))
+    }
+
+    @Test
+    fun `filter by realm and trail status`() {
+        val index = loadedIndex(
+            listOf(
+                trail("t1", "100", "Bregoli"),
+                trail("t2", "101", "Bregoli alto", TrailStatus.DRAFT),
+                trail("t3", "102", "Bregoli basso", TrailStatus.PUBLIC, "modena")
+            ),
+            emptyList()
+        )
+
+        assertEquals(listOf("t1", "t3"), index.ids("bregoli"))
+        assertEquals(listOf("t1"), index.ids("bregoli", realm = "bologna"))
+        assertEquals(listOf("t1", "t2", "t3"), index.ids("bregoli", statuses = listOf(TrailStatus.PUBLIC, TrailStatus.DRAFT)))
+    }
+
+    @Test
+    fun `page results and count all of them`() {
+        val index = loadedIndex((1..25).map { trail("t$it", "$it", "Sentiero") }, emptyList())
+
+        val page = index.search("sentiero", allTypes, "*", publicOnly, 10, 10)!!
+
+        assertEquals(25L, page.totalCount)
+        assertEquals(10, page.hits.size)
+    }
+
+    @Test
+    fun `follow updates and removals`() {
+        val index = loadedIndex(listOf(trail("t1", "100", "Bregoli")), emptyList())
+
+        index.put(trail("t1", "100", "Gessi"))
+        index.put(trail("t2", "101", "Bregoli"))
+        index.remove(SearchEntryType.TRAIL, "t2")
+
+        assertEquals(emptyList<String>(), index.ids("bregoli"))
+        assertEquals(listOf("t1"), index.ids("gessi"))
+    }
+}
@@ -0,0 +1,34 @@
+package org.sc.data.validator
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.common.rest.BatchRequestDto
+
+internal class BatchRequestValidatorTest {
+
+    private val batchRequestValidator = BatchRequestValidator()
+
+    @Test
+    fun `accepts up to the maximum number of ids`() {
+        val ids = (1..BatchRequestValidator.MAX_IDS).map { "id$it" }
+
+        assertTrue(batchRequestValidator.validate(BatchRequestDto(ids)).isEmpty())
+    }
+
+    @Test
+    fun `rejects more ids than the maximum`() {
+        val ids = (0..BatchRequestValidator.MAX_IDS).map { "id$it" }
+
+        assertEquals(setOf(String.format(BatchRequestValidator.TOO_MANY_IDS_ERROR, BatchRequestValidator.MAX_IDS)),
+            batchRequestValidator.validate(BatchRequestDto(ids)))
+    }
+
+    @Test
+    fun `rejects no ids and blank ids`() {
+        val emptyIdsError = setOf(String.format(ValidatorUtils.emptyFieldError, "ids"))
+
+        assertEquals(emptyIdsError, batchRequestValidator.validate(BatchRequestDto(emptyList())))
+        assertEquals(emptyIdsError, batchRequestValidator.validate(BatchRequestDto(listOf("id1", " "))))
+    }
+}
@@ -0,0 +1,55 @@
+package org.sc.importer
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.common.rest.CoordinatesDto
+import org.sc.processor.TrailCoordinatesBuffer
+import org.sc.processor.TrailStatsEngine
+import org.sc.processor.TrailsStatsCalculator
+
+class TrailStatsEngineTest {
+
+    private val coordinates = listOf(
+        CoordinatesDto(44.501026, 11.321588, 0.0),
+        CoordinatesDto(44.497017, 11.318903, 10.0),
+        CoordinatesDto(44.497895, 11.313611, 5.0),
+        CoordinatesDto(44.49298, 11.30439, 12.0)
+    )
+
+    @Test
+    fun `calculate distances from start in a single pass`() {
+        val trailStats = TrailStatsEngine().calculate(TrailCoordinatesBuffer.of(coordinates))
+        val calculator = TrailsStatsCalculator()
+
+        assertArrayEquals(
+            coordinates.map { calculator.calculateLengthFromTo(coordinates, it) }.toIntArray(),
+            trailStats.distancesFromStart
+        )
+    }
+
+    @Test
+    fun `calculate stats matching the per-point calculator`() {
+        val trailStats = TrailStatsEngine().calculate(TrailCoordinatesBuffer.of(coordinates))
+        val calculator = TrailsStatsCalculator()
+
+        assertEquals(calculator.calculateTotRise(coordinates), trailStats.totalRise, 0.0)
+        assertEquals(calculator.calculateTotFall(coordinates), trailStats.totalFall, 0.0)
+        assertEquals(calculator.calculateTrailLength(coordinates), trailStats.length, 0.000001)
+        assertEquals(calculator.calculateEta(coordinates), trailStats.eta, 0.000001)
+        assertEquals(12.0, trailStats.highestPlace, 0.0)
+        assertEquals(0.0, trailStats.lowestPlace, 0.0)
+    }
+
+    @Test
+    fun `closing point of a loop trail keeps its walked distance`() {
+        val loop = coordinates.plus(coordinates.first())
+        val trailStats = TrailStatsEngine().calculate(TrailCoordinatesBuffer.of(loop))
+
+        val closingDistance = trailStats.distancesFromStart.last()
+
+        assertTrue(closingDistance > trailStats.distancesFromStart[loop.lastIndex - 1])
+        assertEquals(closingDistance, trailStats.toTrailCoordinates().last().distanceFromTrailStart)
+    }
+}
@@ -0,0 +1,205 @@
+package org.sc.integration;
+
+import org.hikit.common.datasource.Datasource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.sc.common.rest.BatchRequestDto;
+import org.sc.common.rest.MediaDto;
+import org.sc.common.rest.PlaceDto;
+import org.sc.common.rest.PlaceRefDto;
+import org.sc.common.rest.PoiDto;
+import org.sc.common.rest.RecordDetailsDto;
+import org.sc.common.rest.Status;
+import org.sc.common.rest.TrailDto;
+import org.sc.common.rest.TrailImportDto;
+import org.sc.common.rest.response.MediaResponse;
+import org.sc.common.rest.response.PlaceResponse;
+import org.sc.common.rest.response.PoiResponse;
+import org.sc.common.rest.response.TrailResponse;
+import org.sc.controller.MediaController;
+import org.sc.controller.POIController;
+import org.sc.controller.PlaceController;
+import org.sc.controller.TrailController;
+import org.sc.controller.admin.AdminMediaController;
+import org.sc.controller.admin.AdminPlaceController;
+import org.sc.controller.admin.AdminPoiController;
+import org.sc.controller.admin.AdminTrailController;
+import org.sc.data.validator.BatchRequestValidator;
+import org.sc.processor.TrailSimplifierLevel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class BatchRestIntegrationTest {
+
+    private static final String MISSING_ID = "missing";
+    private static final List<String> POI_IDS = Arrays.asList("BATCH_POI_1", "BATCH_POI_2");
+
+    @Autowired
+    private Datasource dataSource;
+
+    @Autowired
+    private PlaceController placeController;
+    @Autowired
+    private TrailController trailController;
+    @Autowired
+    private AdminPlaceController adminPlaceController;
+    @Autowired
+    private AdminTrailController adminTrailController;
+    @Autowired
+    private POIController poiController;
+    @Autowired
+    private AdminPoiController adminPoiController;
+    @Autowired
+    private MediaController mediaController;
+    @Autowired
+    private AdminMediaController adminMediaController;
+
+    private List<String> placeIds;
+    private String firstTrailId;
+    private String secondTrailId;
+    private List<String> mediaIds;
+
+    @Before
+    public void setUp() {
+        IntegrationUtils.clearCollections(dataSource);
+        final TrailImportDto trailImport = TrailImportRestIntegrationTest.createThreePointsTrailImport(adminPlaceController);
+        placeIds = trailImport.getLocations().stream().map(PlaceRefDto::getPlaceId).collect(toList());
+        firstTrailId = adminTrailController.importTrail(trailImport).getContent().get(0).getId();
+        secondTrailId = adminTrailController.importTrail(
+                TrailImportRestIntegrationTest.createThreePointsTrailImport(adminPlaceController)).getContent().get(0).getId();
+        POI_IDS.forEach(poiId -> assertThat(adminPoiController.create(newPoi(poiId)).getStatus()).isEqualTo(Status.OK));
+        mediaIds = Arrays.asList(uploadMedia(), uploadMedia());
+    }
+
+    @Test
+    public void places_shouldComeInTheOrderOfTheIds_repeatingDuplicates_andLeavingMissingOut() {
+        final PlaceResponse response = placeController.getByIds(new BatchRequestDto(
+                Arrays.asList(placeIds.get(2), MISSING_ID, placeIds.get(0), placeIds.get(2))));
+
+        assertThat(response.getStatus()).isEqualTo(Status.OK);
+        assertThat(response.getContent().stream().map(PlaceDto::getId).collect(toList()))
+                .containsExactly(placeIds.get(2), placeIds.get(0), placeIds.get(2));
+    }
+
+    @Test
+    public void trails_shouldComeInTheOrderOfTheIds_repeatingDuplicates_andLeavingMissingOut() {
+        final TrailResponse response = trailController.getByIds(new BatchRequestDto(
+                        Arrays.asList(secondTrailId, MISSING_ID, firstTrailId, secondTrailId)),
+                TrailSimplifierLevel.LOW, null);
+
+        assertThat(response.getStatus()).isEqualTo(Status.OK);
+        assertThat(response.getContent().stream().map(TrailDto::getId).collect(toList()))
+                .containsExactly(secondTrailId, firstTrailId, secondTrailId);
+    }
+
+    @Test
+    public void pois_shouldComeInTheOrderOfTheIds_repeatingDuplicates_andLeavingMissingOut() {
+        final PoiResponse response = poiController.getByIds(new BatchRequestDto(
+                Arrays.asList(POI_IDS.get(1), MISSING_ID, POI_IDS.get(0), POI_IDS.get(1))));
+
+        assertThat(response.getStatus()).isEqualTo(Status.OK);
+        assertThat(response.getContent().stream().map(PoiDto::getId).collect(toList()))
+                .containsExactly(POI_IDS.get(1), POI_IDS.get(0), POI_IDS.get(1));
+    }
+
+    @Test
+    public void media_shouldComeInTheOrderOfTheIds_repeatingDuplicates_andLeavingMissingOut() {
+        final MediaResponse response = mediaController.getByIds(new BatchRequestDto(
+                Arrays.asList(mediaIds.get(1), MISSING_ID, mediaIds.get(0), mediaIds.get(1))));
+
+        assertThat(response.getStatus()).isEqualTo(Status.OK);
+        assertThat(response.getContent().stream().map(MediaDto::getId).collect(toList()))
+                .containsExactly(mediaIds.get(1), mediaIds.get(0), mediaIds.get(1));
+    }
+
+    @Test
+    public void onlyMissingIds_shouldFindNone() {
+        final BatchRequestDto onlyMissing = new BatchRequestDto(Collections.singletonList(MISSING_ID));
+        final PlaceResponse places = placeController.getByIds(onlyMissing);
+        final PoiResponse pois = poiController.getByIds(onlyMissing);
+        final MediaResponse media = mediaController.getByIds(onlyMissing);
+
+        assertThat(places.getStatus()).isEqualTo(Status.OK);
+        assertThat(places.getContent()).isEmpty();
+        assertThat(pois.getStatus()).isEqualTo(Status.OK);
+        assertThat(pois.getContent()).isEmpty();
+        assertThat(media.getStatus()).isEqualTo(Status.OK);
+        assertThat(media.getContent()).isEmpty();
+    }
+
+    @Test
+    public void noIdsOrTooMany_shouldBeAnError() {
+        final List<String> tooManyIds = IntStream.rangeClosed(0, BatchRequestValidator.MAX_IDS)
+                .mapToObj(i -> placeIds.get(i % placeIds.size())).collect(toList());
+
+        final PlaceResponse noIds = placeController.getByIds(new BatchRequestDto(Collections.emptyList()));
+        final TrailResponse tooMany = trailController.getByIds(new BatchRequestDto(tooManyIds),
+                TrailSimplifierLevel.LOW, null);
+
+        assertThat(noIds.getStatus()).isEqualTo(Status.ERROR);
+        assertThat(noIds.getContent()).isEmpty();
+        assertThat(tooMany.getStatus()).isEqualTo(Status.ERROR);
+        assertThat(tooMany.getContent()).isEmpty();
+
+        final PoiResponse noPoiIds = poiController.getByIds(new BatchRequestDto(Collections.emptyList()));
+        final PoiResponse tooManyPois = poiController.getByIds(new BatchRequestDto(tooManyIds));
+        final MediaResponse noMediaIds = mediaController.getByIds(new BatchRequestDto(Collections.emptyList()));
+        final MediaResponse tooManyMedia = mediaController.getByIds(new BatchRequestDto(tooManyIds));
+
+        assertThat(noPoiIds.getStatus()).isEqualTo(Status.ERROR);
+        assertThat(tooManyPois.getStatus()).isEqualTo(Status.ERROR);
+        assertThat(tooManyPois.getContent()).isEmpty();
+        assertThat(noMediaIds.getStatus()).isEqualTo(Status.ERROR);
+        assertThat(tooManyMedia.getStatus()).isEqualTo(Status.ERROR);
+        assertThat(tooManyMedia.getContent()).isEmpty();
+    }
+
+    @After
+    public void setDown() {
+        IntegrationUtils.clearCollections(dataSource);
+    }
+
+    private PoiDto newPoi(final String poiId) {
+        return new PoiDto(poiId, PoiRestIntegrationTest.EXPECTED_NAME, PoiRestIntegrationTest.EXPECTED_DESCRIPTION,
+                PoiRestIntegrationTest.EXPECTED_TAGS, PoiRestIntegrationTest.EXPECTED_MACRO_TYPE,
+                PoiRestIntegrationTest.EXPECTED_MICRO_TYPES,
+                PoiRestIntegrationTest.EXPECTED_MEDIA_IDS, Collections.singletonList(firstTrailId),
+                PoiRestIntegrationTest.EXPECTED_COORDINATE,
+                PoiRestIntegrationTest.EXPECTED_EXTERNAL_RESOURCES,
+                PoiRestIntegrationTest.EXPECTED_KEY_VALS, new RecordDetailsDto(new Date(),
+                "AnyUser", "SeC-Bo-123", TrailImportRestIntegrationTest.REALM),
+                "", "");
+    }
+
+    private String uploadMedia() {
+        final String fileName = MediaRestIntegrationTest.FILE_NAME;
+        try {
+            final MediaResponse response = adminMediaController.upload(
+                    new MockMultipartFile("file", fileName, "multipart/form-data",
+                            getClass().getClassLoader().getResourceAsStream("media" + File.separator + fileName)));
+            assertThat(response.getStatus()).isEqualTo(Status.OK);
+            return response.getContent().get(0).getId();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
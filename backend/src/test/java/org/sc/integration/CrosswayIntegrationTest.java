@@ -226,7 +226,7 @@ public class CrosswayIntegrationTest extends ImportTrailIT {
         TrailDto trail400_4Imported = trail400_4Resp.getContent().get(0);
 
         // Reload previous trail
-        var trail345 = trailController.getById(trail345Imported.getId(), TrailSimplifierLevel.FULL)
+        var trail345 = trailController.getById(trail345Imported.getId(), TrailSimplifierLevel.FULL, null)
                 .getContent().stream().findFirst().get();
 
         var foundFirstCrossway = trail345.getLocations().stream()
@@ -244,8 +244,8 @@ public class CrosswayIntegrationTest extends ImportTrailIT {
 
     @Test
     public void shouldUpdateAutomaticCrossway() {
-        final TrailResponse retrievedInitialTrailResp = trailController.getById(importedTrail.getId(), TrailSimplifierLevel.LOW);
-        final TrailResponse retrievedCrossingTrailResp = trailController.getById(crossingImportedTrail.getId(), TrailSimplifierLevel.LOW);
+        final TrailResponse retrievedInitialTrailResp = trailController.getById(importedTrail.getId(), TrailSimplifierLevel.LOW, null);
+        final TrailResponse retrievedCrossingTrailResp = trailController.getById(crossingImportedTrail.getId(), TrailSimplifierLevel.LOW, null);
         final TrailDto retrievedTrail = retrievedInitialTrailResp.getContent().stream().findFirst().get();
         final TrailDto retrievedCrossingTrail = retrievedCrossingTrailResp.getContent().stream().findFirst().get();
 
@@ -266,8 +266,8 @@ public class CrosswayIntegrationTest extends ImportTrailIT {
 
     @Test
     public void shouldEnsureCrosswayDeletionWhenNoTrailsCrossIt() {
-        final TrailResponse retrievedInitialTrailResp = trailController.getById(importedTrail.getId(), TrailSimplifierLevel.LOW);
-        final TrailResponse retrievedCrossingTrailResp = trailController.getById(crossingImportedTrail.getId(), TrailSimplifierLevel.LOW);
+        final TrailResponse retrievedInitialTrailResp = trailController.getById(importedTrail.getId(), TrailSimplifierLevel.LOW, null);
+        final TrailResponse retrievedCrossingTrailResp = trailController.getById(crossingImportedTrail.getId(), TrailSimplifierLevel.LOW, null);
 
         assertEquals(OK, retrievedInitialTrailResp.getStatus());
         assertEquals(OK, retrievedCrossingTrailResp.getStatus());
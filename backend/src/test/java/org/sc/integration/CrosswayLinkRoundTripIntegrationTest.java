@@ -0,0 +1,212 @@
+package org.sc.integration;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonValue;
+import org.hikit.common.datasource.Datasource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.sc.common.rest.*;
+import org.sc.controller.PlaceController;
+import org.sc.controller.TrailController;
+import org.sc.controller.admin.AdminPlaceController;
+import org.sc.controller.admin.AdminTrailController;
+import org.sc.data.model.Place;
+import org.sc.data.model.Trail;
+import org.sc.data.model.TrailStatus;
+import org.sc.processor.PlacesTrailSyncProcessor;
+import org.sc.processor.TrailSimplifierLevel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sc.integration.TrailImportRestIntegrationTest.*;
+
+/**
+ * Links a trail to many dynamic crossways already on another trail, counting the commands
+ * sent to the trail and place collections: they must not grow with the number of crossways.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class CrosswayLinkRoundTripIntegrationTest extends ImportTrailIT {
+
+    private static final int CROSSWAYS = 8;
+    private static final String FIRST_TRAIL_CODE = "100BO";
+    private static final String SECOND_TRAIL_CODE = "101BO";
+
+    // Places and trails read once, the trails again for their coordinates and the search index,
+    // the places for the search index, and a bulk write to each collection
+    private static final int MAX_TRAIL_ROUND_TRIPS = 4;
+    private static final int MAX_PLACE_ROUND_TRIPS = 3;
+
+    @Autowired
+    private Datasource dataSource;
+    @Autowired
+    private AdminPlaceController adminPlaceController;
+    @Autowired
+    private PlaceController placeController;
+    @Autowired
+    private AdminTrailController adminTrailController;
+    @Autowired
+    private TrailController trailController;
+    @Autowired
+    private PlacesTrailSyncProcessor placesTrailSyncProcessor;
+    @Autowired
+    private RoundTripCounter roundTripCounter;
+
+    private PlaceRefDto startRef;
+    private PlaceRefDto finalRef;
+    private final List<PlaceRefDto> crosswayRefs = new ArrayList<>();
+    private TrailDto firstTrail;
+    private TrailDto secondTrail;
+
+    @Before
+    public void setUp() {
+        IntegrationUtils.clearCollections(dataSource);
+        startRef = toRef(adminPlaceController.create(START_CORRECT_PLACE_DTO).getContent().get(0), false);
+        finalRef = toRef(adminPlaceController.create(END_CORRECT_PLACE_DTO).getContent().get(0), false);
+
+        crosswayRefs.clear();
+        for (int i = 1; i <= CROSSWAYS; i++) {
+            final double fraction = (double) i / (CROSSWAYS + 1);
+            final CoordinatesDto coordinates = new CoordinatesDto(
+                    START_COORDINATES_DTO.getLatitude() + (END_COORDINATES_DTO.getLatitude() - START_COORDINATES_DTO.getLatitude()) * fraction,
+                    START_COORDINATES_DTO.getLongitude() + (END_COORDINATES_DTO.getLongitude() - START_COORDINATES_DTO.getLongitude()) * fraction,
+                    250.0);
+            final PlaceDto crossway = new PlaceDto(null, "Crossway " + i, PLACE_EXPECTED_DESCRIPTION,
+                    TAGS, emptyList(), Collections.singletonList(coordinates), emptyList(), true, null);
+            crosswayRefs.add(toRef(adminPlaceController.create(crossway).getContent().get(0), true));
+        }
+
+        firstTrail = importTrail(FIRST_TRAIL_CODE, allLocations());
+        secondTrail = importTrail(SECOND_TRAIL_CODE, asList(startRef, finalRef));
+    }
+
+    @Test
+    public void linkingManyCrossways_shouldTakeAFixedNumberOfRoundTrips() {
+        secondTrail.setLocations(allLocations());
+
+        roundTripCounter.start();
+        placesTrailSyncProcessor.populatePlacesWithTrailData(secondTrail);
+        roundTripCounter.stop();
+
+        assertThat(roundTripCounter.get(Trail.COLLECTION_NAME)).isLessThanOrEqualTo(MAX_TRAIL_ROUND_TRIPS);
+        assertThat(roundTripCounter.get(Place.COLLECTION_NAME)).isLessThanOrEqualTo(MAX_PLACE_ROUND_TRIPS);
+
+        final List<String> bothTrailIds = asList(firstTrail.getId(), secondTrail.getId());
+        final TrailDto linkedTrail = trailController.getById(secondTrail.getId(), TrailSimplifierLevel.FULL, null)
+                .getContent().get(0);
+        assertThat(linkedTrail.getLocations().stream().map(PlaceRefDto::getPlaceId).collect(toList()))
+                .containsExactlyInAnyOrderElementsOf(allLocations().stream().map(PlaceRefDto::getPlaceId).collect(toList()));
+
+        for (final PlaceRefDto crosswayRef : crosswayRefs) {
+            final PlaceDto crossway = placeController.get(crosswayRef.getPlaceId()).getContent().get(0);
+            assertThat(crossway.getCrossingTrailIds()).containsAll(bothTrailIds);
+            assertThat(crossway.getName()).isEqualTo("Crocevia " + FIRST_TRAIL_CODE + ", " + SECOND_TRAIL_CODE);
+
+            for (final String trailId : bothTrailIds) {
+                final TrailDto trail = trailController.getById(trailId, TrailSimplifierLevel.LOW, null)
+                        .getContent().get(0);
+                final PlaceRefDto ref = trail.getLocations().stream()
+                        .filter(it -> it.getPlaceId().equals(crosswayRef.getPlaceId()))
+                        .findFirst().get();
+                assertThat(ref.getEncounteredTrailIds()).containsAll(bothTrailIds);
+                assertThat(ref.getName()).isEqualTo(crossway.getName());
+            }
+        }
+    }
+
+    private List<PlaceRefDto> allLocations() {
+        final List<PlaceRefDto> locations = new ArrayList<>();
+        locations.add(startRef);
+        locations.addAll(crosswayRefs);
+        locations.add(finalRef);
+        return locations;
+    }
+
+    private TrailDto importTrail(final String code, final List<PlaceRefDto> locations) {
+        final TrailImportDto trailImport = new TrailImportDto(code, "crosswayTrail", "crossing trail desc",
+                ANY_OFFICIAL_ETA, startRef, finalRef, locations, emptyList(),
+                EXPECTED_TRAIL_CLASSIFICATION, EXPECTED_COUNTRY,
+                EXPECTED_TRAIL_COORDINATES, REALM,
+                IS_VARIANT, EXPECTED_TERRITORIAL_DIVISION,
+                emptyList(), new Date(),
+                IMPORTED_FILE_DETAILS,
+                TrailStatus.PUBLIC);
+        return adminTrailController.importTrail(trailImport).getContent().get(0);
+    }
+
+    private static PlaceRefDto toRef(final PlaceDto place, final boolean isDynamicCrossway) {
+        return new PlaceRefDto(place.getName(), place.getCoordinates().get(0), place.getId(),
+                emptyList(), isDynamicCrossway);
+    }
+
+    @TestConfiguration
+    static class RoundTripCounterConfiguration {
+        @Bean
+        public RoundTripCounter roundTripCounter() {
+            return new RoundTripCounter();
+        }
+    }
+
+    /**
+     * Counts the commands sent by the counting thread, by collection: the synchronous driver
+     * notifies the listener on the thread sending the command, so scheduled jobs are left out.
+     */
+    static class RoundTripCounter implements CommandListener {
+
+        private final Map<String, AtomicInteger> countByCollection = new ConcurrentHashMap<>();
+        private volatile Thread countingThread;
+
+        void start() {
+            countByCollection.clear();
+            countingThread = Thread.currentThread();
+        }
+
+        void stop() {
+            countingThread = null;
+        }
+
+        int get(final String collectionName) {
+            final AtomicInteger count = countByCollection.get(collectionName);
+            return count == null ? 0 : count.get();
+        }
+
+        @Override
+        public void commandStarted(final CommandStartedEvent event) {
+            if (Thread.currentThread() != countingThread) {
+                return;
+            }
+            // The collection is the value of the command name, but for getMore
+            final BsonValue target = event.getCommand().get(
+                    event.getCommandName().equals("getMore") ? "collection" : event.getCommandName());
+            if (target != null && target.isString()) {
+                countByCollection.computeIfAbsent(target.asString().getValue(), key -> new AtomicInteger())
+                        .incrementAndGet();
+            }
+        }
+
+        @Override
+        public void commandSucceeded(final CommandSucceededEvent event) {
+        }
+
+        @Override
+        public void commandFailed(final CommandFailedEvent event) {
+        }
+    }
+}
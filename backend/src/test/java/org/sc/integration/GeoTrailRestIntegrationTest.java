@@ -185,10 +185,10 @@ public class GeoTrailRestIntegrationTest {
 
 
         assertThat(trailController.getById(
-                        trailResponse.getContent().stream().findFirst().get().getId(), LEVEL)
+                        trailResponse.getContent().stream().findFirst().get().getId(), LEVEL, null)
                 .getContent().size()).isEqualTo(1);
         importedId = trailResponse.getContent().get(0).getId();
-        trailController.getById(importedId, LEVEL);
+        trailController.getById(importedId, LEVEL, null);
     }
 
 
@@ -226,7 +226,7 @@ public class GeoTrailRestIntegrationTest {
         TrailResponse trail2Response = adminTrailController.importTrail(trail2Import);
 
         assertThat(trailController.getById(
-                        trail2Response.getContent().stream().findFirst().get().getId(), LEVEL)
+                        trail2Response.getContent().stream().findFirst().get().getId(), LEVEL, null)
                 .getContent().size()).isEqualTo(1);
         secondTrailId = trail2Response.getContent().get(0).getId();
     }
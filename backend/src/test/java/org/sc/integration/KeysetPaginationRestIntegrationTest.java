@@ -0,0 +1,178 @@
+package org.sc.integration;
+
+import org.hikit.common.datasource.Datasource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.sc.common.rest.MaintenanceDto;
+import org.sc.common.rest.PlaceDto;
+import org.sc.common.rest.RecordDetailsDto;
+import org.sc.common.rest.TrailImportDto;
+import org.sc.common.rest.TrailPreviewDto;
+import org.sc.common.rest.response.MaintenanceResponse;
+import org.sc.common.rest.response.PlaceResponse;
+import org.sc.common.rest.response.RESTResponse;
+import org.sc.common.rest.response.TrailPreviewResponse;
+import org.sc.controller.MaintenanceController;
+import org.sc.controller.PlaceController;
+import org.sc.controller.TrailPreviewController;
+import org.sc.controller.admin.AdminPlaceController;
+import org.sc.controller.admin.AdminTrailController;
+import org.sc.data.mapper.MaintenanceMapper;
+import org.sc.data.repository.MaintenanceDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sc.data.repository.MongoUtils.NO_FILTERING_TOKEN;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class KeysetPaginationRestIntegrationTest {
+
+    private static final String FIRST_PAGE = "";
+    private static final int MAX_PAGES = 100;
+    private static final long DAY_IN_MILLIS = 24 * 60 * 60 * 1000L;
+
+    @Autowired
+    private Datasource dataSource;
+
+    @Autowired
+    private PlaceController placeController;
+    @Autowired
+    private TrailPreviewController trailPreviewController;
+    @Autowired
+    private MaintenanceController maintenanceController;
+    @Autowired
+    private AdminPlaceController adminPlaceController;
+    @Autowired
+    private AdminTrailController adminTrailController;
+
+    // Skip validation, and add past maintenance
+    @Autowired
+    private MaintenanceDAO maintenanceDAO;
+    @Autowired
+    private MaintenanceMapper maintenanceMapper;
+
+    private String importedTrailId;
+
+    @Before
+    public void setUp() {
+        IntegrationUtils.clearCollections(dataSource);
+        // Two trails share their code, to page through a tie on the sort key
+        for (final String code : new String[]{"B1", "A1", "C1", "A1"}) {
+            final TrailImportDto trailImport = TrailImportRestIntegrationTest.createThreePointsTrailImport(adminPlaceController);
+            importedTrailId = adminTrailController.importTrail(withCode(trailImport, code)).getContent().get(0).getId();
+        }
+    }
+
+    @Test
+    public void places_shouldBePagedByTokenAsBySkip() {
+        final List<PlaceDto> listed = placeController.get(0, 1000, false, NO_FILTERING_TOKEN, null).getContent();
+        final List<PlaceDto> paged = readAllPages(token ->
+                placeController.get(0, 1, false, NO_FILTERING_TOKEN, token), PlaceResponse::getContent);
+
+        final List<String> pagedIds = paged.stream().map(PlaceDto::getId).collect(toList());
+        assertThat(listed).isNotEmpty();
+        assertThat(pagedIds).doesNotHaveDuplicates().isSorted()
+                .containsExactlyInAnyOrderElementsOf(listed.stream().map(PlaceDto::getId).collect(toList()));
+    }
+
+    @Test
+    public void trailPreviews_shouldBePagedByTokenAsBySkip_throughTiesOnCode() {
+        final List<TrailPreviewDto> listed = trailPreviewController
+                .getTrailPreviews(0, 1000, NO_FILTERING_TOKEN, true, null).getContent();
+        final List<TrailPreviewDto> paged = readAllPages(token ->
+                trailPreviewController.getTrailPreviews(0, 1, NO_FILTERING_TOKEN, true, token),
+                TrailPreviewResponse::getContent);
+
+        assertThat(paged.stream().map(TrailPreviewDto::getCode).collect(toList()))
+                .containsExactly("A1", "A1", "B1", "C1")
+                .isEqualTo(listed.stream().map(TrailPreviewDto::getCode).collect(toList()));
+        assertThat(paged.stream().map(TrailPreviewDto::getId).collect(toList()))
+                .doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(listed.stream().map(TrailPreviewDto::getId).collect(toList()));
+    }
+
+    @Test
+    public void pastMaintenance_shouldBePagedByDateTokenAsBySkip() {
+        final Date now = new Date();
+        final Date sameDay = new Date(now.getTime() - 2 * DAY_IN_MILLIS);
+        // Two past maintenance share their date, which the token carries as a BSON date
+        addMaintenance(sameDay);
+        addMaintenance(sameDay);
+        addMaintenance(new Date(now.getTime() - 5 * DAY_IN_MILLIS));
+        addMaintenance(new Date(now.getTime() - DAY_IN_MILLIS));
+        addMaintenance(new Date(now.getTime() + 15 * DAY_IN_MILLIS));
+
+        final List<MaintenanceDto> listed = maintenanceController
+                .getPastMaintenance(0, 100, NO_FILTERING_TOKEN, null).getContent();
+        final List<MaintenanceDto> paged = readAllPages(token ->
+                maintenanceController.getPastMaintenance(0, 1, NO_FILTERING_TOKEN, token),
+                MaintenanceResponse::getContent);
+
+        assertThat(paged).hasSize(4);
+        assertThat(paged.stream().map(MaintenanceDto::getDate).collect(toList()))
+                .isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(paged.stream().map(MaintenanceDto::getId).collect(toList()))
+                .doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(listed.stream().map(MaintenanceDto::getId).collect(toList()));
+
+        final MaintenanceResponse firstPage = maintenanceController.getPastMaintenance(0, 1, NO_FILTERING_TOKEN, FIRST_PAGE);
+        assertThat(firstPage.getTotalCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void lastPage_shouldHaveNoToken_andMalformedToken_shouldBeAnError() {
+        final PlaceResponse allPlaces = placeController.get(0, 1000, false, NO_FILTERING_TOKEN, FIRST_PAGE);
+        assertThat(allPlaces.getContent()).isNotEmpty();
+        assertThat(allPlaces.getContinuationToken()).isNull();
+
+        final PlaceResponse malformed = placeController.get(0, 1, false, NO_FILTERING_TOKEN, "not a token");
+        assertThat(malformed.getContent()).isEmpty();
+        assertThat(malformed.getMessages()).isNotEmpty();
+    }
+
+    @After
+    public void setDown() {
+        IntegrationUtils.clearCollections(dataSource);
+    }
+
+    private static <R extends RESTResponse, T> List<T> readAllPages(final Function<String, R> pageReader,
+                                                                    final Function<R, List<T>> contentReader) {
+        final List<T> content = new ArrayList<>();
+        String token = FIRST_PAGE;
+        for (int page = 0; token != null; page++) {
+            assertThat(page).as("pages read before the last one").isLessThan(MAX_PAGES);
+            final R response = pageReader.apply(token);
+            content.addAll(contentReader.apply(response));
+            token = response.getContinuationToken();
+        }
+        return content;
+    }
+
+    private void addMaintenance(final Date date) {
+        maintenanceDAO.upsert(maintenanceMapper.map(new MaintenanceDto(null, date, importedTrailId, "",
+                "ANY", "ANY_DESCRIPTION", "ANY_2", new RecordDetailsDto())));
+    }
+
+    private static TrailImportDto withCode(final TrailImportDto trailImport, final String code) {
+        return new TrailImportDto(code, trailImport.getName(), trailImport.getDescription(),
+                trailImport.getOfficialEta(), trailImport.getStartLocation(), trailImport.getEndLocation(),
+                trailImport.getLocations(), trailImport.getCrossways(), trailImport.getClassification(),
+                trailImport.getCountry(), trailImport.getCoordinates(), trailImport.getMaintainingSection(),
+                trailImport.isVariant(), trailImport.getTerritorialDivision(), trailImport.getLinkedMediaDtos(),
+                trailImport.getLastUpdate(), trailImport.getFileDetailsDto(), trailImport.getTrailStatus());
+    }
+}
@@ -86,7 +86,7 @@ public class MaintenanceRestIntegrationTest {
 
     @Test
     public void getPast_shouldFindOne() {
-        MaintenanceResponse response = maintenanceController.getPastMaintenance(0, 2, NO_FILTERING_TOKEN);
+        MaintenanceResponse response = maintenanceController.getPastMaintenance(0, 2, NO_FILTERING_TOKEN, null);
         assertThat(response.getContent().size()).isEqualTo(1);
         assertThat(response.getContent().get(0).getTrailId()).isEqualTo(importedTrailId);
     }
@@ -96,7 +96,7 @@ public class MaintenanceRestIntegrationTest {
         adminMaintenanceController.create(new MaintenanceDto(null, EXPECTED_DATE_IN_FUTURE(), importedTrailId, "",
                 EXPECTED_NAME, EXPECTED_DESCRIPTION, EXPECTED_NAME_2, new RecordDetailsDto()));
 
-        MaintenanceResponse response = maintenanceController.getFutureMaintenance(0, 2, NO_FILTERING_TOKEN);
+        MaintenanceResponse response = maintenanceController.getFutureMaintenance(0, 2, NO_FILTERING_TOKEN, null);
         assertThat(response.getContent().size()).isEqualTo(1);
         assertThat(response.getContent().get(0).getTrailId()).isEqualTo(importedTrailId);
     }
@@ -105,7 +105,7 @@ public class MaintenanceRestIntegrationTest {
     public void whenMaintenanceIsCreatedWithTrailCodeAndNotTrailId_shouldCreateAndGet() {
         adminMaintenanceController.create(new MaintenanceDto(null, EXPECTED_DATE_IN_FUTURE(), "", EXPECTED_TRAIL_CODE,
                 EXPECTED_NAME, EXPECTED_DESCRIPTION, EXPECTED_NAME_2, new RecordDetailsDto()));
-        MaintenanceResponse response = maintenanceController.getFutureMaintenance(0, 1, NO_FILTERING_TOKEN);
+        MaintenanceResponse response = maintenanceController.getFutureMaintenance(0, 1, NO_FILTERING_TOKEN, null);
         assertThat(response.getContent().size()).isEqualTo(1);
         assertThat(response.getContent().get(0).getTrailCode()).isEqualTo(EXPECTED_TRAIL_CODE);
     }
@@ -115,13 +115,13 @@ public class MaintenanceRestIntegrationTest {
         adminMaintenanceController.create(new MaintenanceDto(null, EXPECTED_DATE_IN_FUTURE(), importedTrailId, "",
                 EXPECTED_NAME, EXPECTED_DESCRIPTION, EXPECTED_NAME_2, new RecordDetailsDto()));
 
-        MaintenanceResponse response = maintenanceController.getFutureMaintenance(0, 2, NO_FILTERING_TOKEN);
+        MaintenanceResponse response = maintenanceController.getFutureMaintenance(0, 2, NO_FILTERING_TOKEN, null);
         String id = response.getContent().get(0).getId();
 
         MaintenanceResponse maintenanceResponse = adminMaintenanceController.deleteMaintenance(id);
         assertThat(maintenanceResponse.getContent().get(0).getId()).isEqualTo(id);
 
-        MaintenanceResponse responseAfterSecondCall = maintenanceController.getFutureMaintenance(0, 2, NO_FILTERING_TOKEN);
+        MaintenanceResponse responseAfterSecondCall = maintenanceController.getFutureMaintenance(0, 2, NO_FILTERING_TOKEN, null);
         Assert.assertTrue(responseAfterSecondCall.getContent().isEmpty());
     }
 
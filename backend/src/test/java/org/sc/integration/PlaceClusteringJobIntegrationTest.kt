@@ -60,7 +60,7 @@ class PlaceClusteringJobIntegrationTest {
 
     @Test
     fun `on importing a third trail and running consistency job, should ensure consistency`() {
-        val allTrailsId = trailController.get(0, Int.MAX_VALUE, appProperties.instanceRealm, TrailSimplifierLevel.LOW, true).content.map { it.id }
+        val allTrailsId = trailController.get(0, Int.MAX_VALUE, appProperties.instanceRealm, TrailSimplifierLevel.LOW, true, null, null).content.map { it.id }
         // given
         val trail029Import = ImportTrailIT.importRawTrail(importerController, TRAIL_029_IMPORT_FILENAME, this.javaClass)
         val firstCoordinateDto = CoordinatesDto(
@@ -113,7 +113,7 @@ class PlaceClusteringJobIntegrationTest {
     }
 
     private fun ensureNoOrphanPlaceIdsAreLeftOnDb() {
-        val allTrails = trailController.get(0, Int.MAX_VALUE, appProperties.instanceRealm, TrailSimplifierLevel.LOW, true);
+        val allTrails = trailController.get(0, Int.MAX_VALUE, appProperties.instanceRealm, TrailSimplifierLevel.LOW, true, null, null);
         val notFoundResultsIds: List<Boolean> = allTrails.content.flatMap { it.locations.map { place -> !castiglionePlaceIds.contains(place.placeId) } }
         assertThat(!notFoundResultsIds.contains(false));
     }
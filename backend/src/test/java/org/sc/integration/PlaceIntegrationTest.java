@@ -93,7 +93,7 @@ public class PlaceIntegrationTest extends ImportTrailIT {
                 new PlaceRefDto("ANYZ", INTERMEDIATE_EXPECTED_COORDINATE, placeId, Collections.emptyList(), false));
 
         assertThat(addPlaceToTrailResponse.getStatus()).isEqualTo(Status.OK);
-        TrailResponse trailResponse = trailController.getByPlaceId(placeId, LEVEL, 0, 10);
+        TrailResponse trailResponse = trailController.getByPlaceId(placeId, LEVEL, 0, 10, null);
 
         assertThat(trailResponse.getContent().isEmpty()).isEqualTo(false);
 
@@ -110,7 +110,7 @@ public class PlaceIntegrationTest extends ImportTrailIT {
         assertThat(placeResponse.getContent().isEmpty()).isEqualTo(true);
 
         // Check has been removed from trails too
-        trailResponse = trailController.getByPlaceId(placeId, LEVEL, 0, 10);
+        trailResponse = trailController.getByPlaceId(placeId, LEVEL, 0, 10, null);
         assertThat(trailResponse.getContent().isEmpty()).isEqualTo(true);
     }
 
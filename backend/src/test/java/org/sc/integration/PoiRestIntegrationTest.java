@@ -90,7 +90,7 @@ public class PoiRestIntegrationTest {
 
     @Test
     public void getByRealm_shouldFindOne() {
-        PoiResponse getPoi = poiController.get(0, 1, authHelper.getAuthHelper().getRealm());
+        PoiResponse getPoi = poiController.get(0, 1, authHelper.getAuthHelper().getRealm(), null);
         PoiDto firstElement = getPoi.getContent().get(0);
         assertThat(getPoi.getContent().size()).isEqualTo(1);
         assertGetFirstElement(firstElement);
@@ -99,7 +99,7 @@ public class PoiRestIntegrationTest {
     @Test
     public void getByAnotherRealm_shouldFindOne() {
         // when
-        PoiResponse getPoi = poiController.get(0, 1, "AnotherS&CRealm");
+        PoiResponse getPoi = poiController.get(0, 1, "AnotherS&CRealm", null);
         List<PoiDto> responseContent = getPoi.getContent();
 
         // then
@@ -108,13 +108,13 @@ public class PoiRestIntegrationTest {
 
     @Test
     public void getByUnknownRealm_shouldReturnEmpty() {
-        PoiResponse getPoi = poiController.get(0, 1, "Any other sec realm");
+        PoiResponse getPoi = poiController.get(0, 1, "Any other sec realm", null);
         assertThat(getPoi.getContent()).isEmpty();
     }
 
     @Test
     public void getAllPaged_shouldFindOne() {
-        PoiResponse getPoi = poiController.get(0, 1, NO_FILTERING_TOKEN);
+        PoiResponse getPoi = poiController.get(0, 1, NO_FILTERING_TOKEN, null);
         PoiDto firstElement = getPoi.getContent().get(0);
         assertThat(getPoi.getContent().size()).isEqualTo(1);
         assertGetFirstElement(firstElement);
@@ -168,7 +168,7 @@ public class PoiRestIntegrationTest {
                 EXPECTED_COORDINATE,
                 EXPECTED_EXTERNAL_RESOURCES, EXPECTED_KEY_VALS, null, "" ,""));
 
-        PoiResponse getPoi = poiController.get(0, 3, NO_FILTERING_TOKEN);
+        PoiResponse getPoi = poiController.get(0, 3, NO_FILTERING_TOKEN, null);
         PoiDto firstElement = getPoi.getContent().get(0);
         assertGetFirstElement(firstElement);
         PoiDto secondElement = getPoi.getContent().get(1);
@@ -191,7 +191,7 @@ public class PoiRestIntegrationTest {
                 EXPECTED_COORDINATE,
                 EXPECTED_EXTERNAL_RESOURCES, expectedKeyVals, null, "", ""));
 
-        PoiResponse getPoi = poiController.get(0, 3, NO_FILTERING_TOKEN);
+        PoiResponse getPoi = poiController.get(0, 3, NO_FILTERING_TOKEN, null);
         PoiDto firstElement = getPoi.getContent().get(0);
         assertGetFirstElement(firstElement);
         PoiDto secondElement = getPoi.getContent().get(1);
@@ -205,7 +205,7 @@ public class PoiRestIntegrationTest {
                 EXPECTED_COORDINATE,
                 EXPECTED_EXTERNAL_RESOURCES, EXPECTED_KEY_VALS, null, "", ""));
 
-        PoiResponse getAgainPoi = poiController.get(0, 3, NO_FILTERING_TOKEN);
+        PoiResponse getAgainPoi = poiController.get(0, 3, NO_FILTERING_TOKEN, null);
 
         PoiDto actual = getAgainPoi.getContent()
                 .stream()
@@ -234,7 +234,7 @@ public class PoiRestIntegrationTest {
                 EXPECTED_COORDINATE,
                 EXPECTED_EXTERNAL_RESOURCES, expectedKeyVals, null, "", ""));
 
-        PoiResponse getPoi = poiController.get(0, 3, NO_FILTERING_TOKEN);
+        PoiResponse getPoi = poiController.get(0, 3, NO_FILTERING_TOKEN, null);
         PoiDto firstElement = getPoi.getContent().get(0);
         assertGetFirstElement(firstElement);
         PoiDto secondElement = getPoi.getContent().get(1);
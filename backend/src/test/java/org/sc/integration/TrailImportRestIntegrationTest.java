@@ -84,7 +84,7 @@ public class TrailImportRestIntegrationTest extends ImportTrailIT {
     @Test
     public void getById_shouldFindOne() {
         String importedTrailId = trailResponse.getContent().get(0).getId();
-        TrailResponse getTrail = trailController.getById(importedTrailId, TrailSimplifierLevel.FULL);
+        TrailResponse getTrail = trailController.getById(importedTrailId, TrailSimplifierLevel.FULL, null);
         TrailDto firstElement = getTrail.getContent().get(0);
         assertThat(getTrail.getContent().size()).isEqualTo(1);
         assertFirtElement(firstElement);
@@ -93,7 +93,7 @@ public class TrailImportRestIntegrationTest extends ImportTrailIT {
     @Test
     public void getPaged_shouldFindOne() {
         TrailResponse getTrail = trailController.get(0, 1, REALM,
-                TrailSimplifierLevel.FULL, true);
+                TrailSimplifierLevel.FULL, true, null, null);
         TrailDto firstElement = getTrail.getContent().get(0);
         assertThat(getTrail.getContent().size()).isEqualTo(1);
         assertFirtElement(firstElement);
@@ -104,7 +104,7 @@ public class TrailImportRestIntegrationTest extends ImportTrailIT {
         String importedTrailId = trailResponse.getContent().get(0).getId();
         TrailResponse deletedById = adminTrailController.deleteById(importedTrailId);
         assertThat(deletedById.getContent().get(0).getCode()).isEqualTo(EXPECTED_TRAIL_CODE);
-        TrailResponse getTrail = trailController.getById(importedTrailId, TrailSimplifierLevel.FULL);
+        TrailResponse getTrail = trailController.getById(importedTrailId, TrailSimplifierLevel.FULL, null);
         Assert.assertTrue(getTrail.getContent().isEmpty());
     }
 
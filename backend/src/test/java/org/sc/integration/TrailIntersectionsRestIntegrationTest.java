@@ -310,7 +310,7 @@ public class TrailIntersectionsRestIntegrationTest {
     public void deleteOneShallRemoveAllReferences() {
         whenCreatingMoreThanOneTrail_shouldCheckCrosswayIntegrity();
 
-        TrailResponse otherTrailSharingCrossway = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW);
+        TrailResponse otherTrailSharingCrossway = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW, null);
         List<String> encounteredTrails = otherTrailSharingCrossway.getContent().get(0).getLocations().stream().map(PlaceRefDto::getEncounteredTrailIds)
                 .flatMap(Collection::stream).collect(Collectors.toList());
 
@@ -319,12 +319,12 @@ public class TrailIntersectionsRestIntegrationTest {
         // Delete the first imported one
         adminTrailController.deleteById(trail001aBO.getId());
 
-        TrailResponse otherTrailSharingCrosswayReloaded = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW);
+        TrailResponse otherTrailSharingCrosswayReloaded = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW, null);
         List<String> encounteredTrailsReloaded = otherTrailSharingCrosswayReloaded.getContent().get(0).getLocations().stream().map(PlaceRefDto::getEncounteredTrailIds)
                 .flatMap(Collection::stream).collect(Collectors.toList());
         assertThat(encounteredTrailsReloaded.contains(trail001aBO.getId())).isFalse();
 
-        PlaceResponse placeResponse = placeController.get(0, 1000, false, NO_FILTERING_TOKEN);
+        PlaceResponse placeResponse = placeController.get(0, 1000, false, NO_FILTERING_TOKEN, null);
         List<String> allPlaces = placeResponse.getContent().stream().map(PlaceDto::getCrossingTrailIds).flatMap(Collection::stream).collect(Collectors.toList());
 
         assertThat(allPlaces.contains(trail001aBO.getId())).isFalse();
@@ -334,14 +334,14 @@ public class TrailIntersectionsRestIntegrationTest {
     public void onePublishedTrailShallBeSetToDraftAndBackToPublished() {
         whenCreatingMoreThanOneTrail_shouldCheckCrosswayIntegrity();
 
-        TrailResponse otherTrailSharingCrossway = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW);
+        TrailResponse otherTrailSharingCrossway = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW, null);
         List<String> encounteredTrails = otherTrailSharingCrossway.getContent().get(0).getLocations().stream().map(PlaceRefDto::getEncounteredTrailIds)
                 .flatMap(Collection::stream).collect(Collectors.toList());
 
         assertThat(encounteredTrails.contains(trail001aBO.getId())).isTrue();
 
         // Changed the status
-        TrailDto trail001aBo = trailController.getById(trail001aBO.getId(), TrailSimplifierLevel.LOW).getContent().stream().findFirst().get();
+        TrailDto trail001aBo = trailController.getById(trail001aBO.getId(), TrailSimplifierLevel.LOW, null).getContent().stream().findFirst().get();
         assertThat(trail001aBo.getStatus()).isEqualTo(TrailStatus.PUBLIC);
         trail001aBo.setStatus(TrailStatus.DRAFT);
 
@@ -351,18 +351,18 @@ public class TrailIntersectionsRestIntegrationTest {
         assertThat(trailToBeDrafted.getStatus()).isEqualTo(TrailStatus.DRAFT);
 
         // Ensure the trail is like 'deleted'
-        TrailResponse otherTrailSharingCrosswayReloaded = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW);
+        TrailResponse otherTrailSharingCrosswayReloaded = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW, null);
         List<String> encounteredTrailsReloaded = otherTrailSharingCrosswayReloaded.getContent().get(0).getLocations().stream().map(PlaceRefDto::getEncounteredTrailIds)
                 .flatMap(Collection::stream).collect(Collectors.toList());
         assertThat(encounteredTrailsReloaded.contains(trail001aBO.getId())).isFalse();
 
-        PlaceResponse placeResponse = placeController.get(0, 1000, false, NO_FILTERING_TOKEN);
+        PlaceResponse placeResponse = placeController.get(0, 1000, false, NO_FILTERING_TOKEN, null);
         List<String> allPlaces = placeResponse.getContent().stream().map(PlaceDto::getCrossingTrailIds).flatMap(Collection::stream).collect(Collectors.toList());
         assertThat(allPlaces.contains(trail001aBO.getId())).isFalse();
 
         // SUT - DRAFT -> PUBLISHED
         TrailDto byIdReloaded = trailController.getById(trail001aBO.getId(),
-                TrailSimplifierLevel.LOW).getContent().stream().findFirst().get();
+                TrailSimplifierLevel.LOW, null).getContent().stream().findFirst().get();
         assertThat(byIdReloaded.getStatus()).isEqualTo(TrailStatus.DRAFT);
         byIdReloaded.setStatus(TrailStatus.PUBLIC);
         adminTrailController.updateTrailStatus(byIdReloaded);
@@ -373,7 +373,7 @@ public class TrailIntersectionsRestIntegrationTest {
                     assertThat(placeDto.getCrossingTrailIds().contains(byIdReloaded.getId())).isTrue();
                 }
         );
-        TrailResponse trail001BOReloaded = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW);
+        TrailResponse trail001BOReloaded = trailController.getById(trail001BO.getId(), TrailSimplifierLevel.LOW, null);
         List<PlaceRefDto> encounteredIntersectionPlaceReloaded = trail001BOReloaded
                 .getContent().get(0).getLocations().stream()
                 .filter(t -> t.getName().equals(intersectionPlaceRef.getName())).collect(Collectors.toList());
@@ -430,7 +430,7 @@ public class TrailIntersectionsRestIntegrationTest {
 
 
     private TrailResponse getById(String trailId) {
-        return trailController.getById(trailId, TrailSimplifierLevel.LOW);
+        return trailController.getById(trailId, TrailSimplifierLevel.LOW, null);
     }
 
     private TrailResponse importTrail(TrailImportDto trailImportDto) {
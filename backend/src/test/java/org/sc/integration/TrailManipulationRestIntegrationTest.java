@@ -129,9 +129,9 @@ public class TrailManipulationRestIntegrationTest {
 
 
         assertThat(trailController.getById(
-                trailResponse.getContent().stream().findFirst().get().getId(), LEVEL)
+                trailResponse.getContent().stream().findFirst().get().getId(), LEVEL, null)
                 .getContent().size()).isEqualTo(1);
-        trailController.getById(trailResponse.getContent().get(0).getId(), LEVEL);
+        trailController.getById(trailResponse.getContent().get(0).getId(), LEVEL, null);
 
         TrailResponse geoLocateTrail = geoTrailController.geoLocateTrail(
                 new LocateDto(new RectangleDto(
@@ -184,9 +184,9 @@ public class TrailManipulationRestIntegrationTest {
 
 
         assertThat(trailController.getById(
-                trailResponse.getContent().stream().findFirst().get().getId(), LEVEL)
+                trailResponse.getContent().stream().findFirst().get().getId(), LEVEL, null)
                 .getContent().size()).isEqualTo(1);
-        trailController.getById(trailResponse.getContent().get(0).getId(), LEVEL);
+        trailController.getById(trailResponse.getContent().get(0).getId(), LEVEL, null);
 
         //
         //  Check the second trail import, and use the coordinates to find intersection
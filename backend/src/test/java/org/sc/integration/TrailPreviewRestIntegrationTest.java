@@ -66,10 +66,10 @@ public class TrailPreviewRestIntegrationTest {
     @Test
     public void getByAnotherRealm_shouldResultIntoNoFindings() {
         TrailPreviewResponse sameRealmResponse = controller.getTrailPreviews(0, 10,
-                ANY_REALM, false);
+                ANY_REALM, false, null);
         assertThat(sameRealmResponse.getContent()).isNotEmpty();
         TrailPreviewResponse anotherRealmResponse = controller.getTrailPreviews(0, 10,
-                "AnotherRealm", false);
+                "AnotherRealm", false, null);
         assertThat(anotherRealmResponse.getContent()).isEmpty();
     }
 
@@ -83,7 +83,7 @@ public class TrailPreviewRestIntegrationTest {
     @Test
     public void getPaged_shouldFindOne() {
         TrailPreviewResponse response = controller
-                .getTrailPreviews(0, 1, ANY_REALM, true);
+                .getTrailPreviews(0, 1, ANY_REALM, true, null);
         assertThat(response.getContent().size()).isEqualTo(1);
         TrailPreviewDto firstResult = response.getContent().get(0);
         assertAll(firstResult);
@@ -0,0 +1,48 @@
+package org.sc.job.scalingalgorithms
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.awt.Color
+import java.awt.Rectangle
+import java.awt.image.BufferedImage
+import java.io.File
+import javax.imageio.ImageIO
+
+class ImageSourceTest {
+
+    private val file: File = File.createTempFile("image-source", ".jpg").apply {
+        val image = BufferedImage(1200, 900, BufferedImage.TYPE_3BYTE_BGR)
+        image.createGraphics().apply { color = Color.WHITE; fillRect(0, 0, 1200, 900); dispose() }
+        ImageIO.write(image, "jpg", this)
+    }
+
+    @After
+    fun tearDown() {
+        file.delete()
+    }
+
+    @Test
+    fun `reads the size without decoding and subsampled regions`() {
+        ImageSource.open(file).use {
+            assertEquals(1200, it.width)
+            assertEquals(900, it.height)
+
+            val region = it.read(Rectangle(100, 100, 400, 300), 4)
+            assertEquals(100, region.width)
+            assertEquals(75, region.height)
+        }
+    }
+
+    @Test
+    fun `variants decoded from the source have the sizes of the ones scaled from the whole image`() {
+        val whole = ImageIO.read(file)
+        listOf(ThumbnailGenerator(), ProportionalScaling(0.25f), ProportionalScaling(0.5f)).forEach { algorithm ->
+            val expected = algorithm.scale(whole)
+            val actual = ImageSource.open(file).use { algorithm.scale(it) }
+
+            assertEquals(expected.width, actual.width)
+            assertEquals(expected.height, actual.height)
+        }
+    }
+}
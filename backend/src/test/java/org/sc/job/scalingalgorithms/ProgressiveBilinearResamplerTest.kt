@@ -0,0 +1,37 @@
+package org.sc.job.scalingalgorithms
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.awt.Color
+import java.awt.image.BufferedImage
+
+class ProgressiveBilinearResamplerTest {
+
+    private val resampler = ProgressiveBilinearResampler()
+
+    @Test
+    fun `resizes to the exact target size across several halvings`() {
+        val resized = resampler.resize(BufferedImage(1000, 750, BufferedImage.TYPE_INT_RGB), 100, 33)
+
+        assertEquals(100, resized.width)
+        assertEquals(33, resized.height)
+    }
+
+    @Test
+    fun `enlarges in a single step`() {
+        val resized = resampler.resize(BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), 40, 30)
+
+        assertEquals(40, resized.width)
+        assertEquals(30, resized.height)
+    }
+
+    @Test
+    fun `keeps the colour of uniform images`() {
+        val image = BufferedImage(512, 512, BufferedImage.TYPE_INT_RGB)
+        image.createGraphics().apply { color = Color(200, 100, 50); fillRect(0, 0, 512, 512); dispose() }
+
+        val resized = resampler.resize(image, 16, 16)
+
+        assertEquals(Color(200, 100, 50).rgb, resized.getRGB(8, 8))
+    }
+}
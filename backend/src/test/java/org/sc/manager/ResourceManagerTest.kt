@@ -0,0 +1,96 @@
+package org.sc.manager
+
+import io.mockk.every
+import io.mockk.mockkClass
+import io.mockk.slot
+import io.mockk.verify
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.configuration.AppProperties
+import org.sc.data.model.ResourceEntry
+import org.sc.data.repository.ResourceDao
+import org.sc.manager.regeneration.RegenerationActionType
+import org.sc.manager.regeneration.RegenerationEntryType
+import java.util.*
+
+internal class ResourceManagerTest {
+
+    private val resourceDao = mockkClass(ResourceDao::class)
+    private val appProperties = mockkClass(AppProperties::class)
+    private val resourceManager: ResourceManager
+
+    init {
+        every { appProperties.instanceId } returns "instance"
+        every { appProperties.instanceRealm } returns "realm"
+        every { appProperties.resourcesQueueDebounceSeconds } returns 30
+        every { appProperties.resourcesQueueLeaseSeconds } returns 600
+        every { appProperties.resourcesQueueMaxWaitSeconds } returns 300
+        every { appProperties.resourcesQueueMaxAttempts } returns 5
+        every { resourceDao.deleteExhausted("realm", 5, any()) } returns emptyList()
+        resourceManager = ResourceManager(resourceDao, appProperties)
+    }
+
+    @Test
+    fun `enqueues the entry for the instance realm due after the debounce window`() {
+        val enqueued = slot<ResourceEntry>()
+        val dueBy = slot<Date>()
+        every { resourceDao.enqueue(capture(enqueued), capture(dueBy)) } returns emptyList()
+
+        resourceManager.addEntry("t1", RegenerationEntryType.PLACE, "p1", "user", RegenerationActionType.UPDATE)
+
+        assertEquals("realm", enqueued.captured.realm)
+        assertEquals("t1", enqueued.captured.targetingTrail)
+        assertEquals(30_000L, enqueued.captured.dueOn.time - enqueued.captured.createdOn.time)
+        assertEquals(300_000L, dueBy.captured.time - enqueued.captured.createdOn.time)
+    }
+
+    @Test
+    fun `claims entries under one owner until none is due or the batch is full`() {
+        val owners = mutableListOf<String>()
+        every { resourceDao.claim("realm", capture(owners), any(), any(), any(), 5) } returnsMany listOf(
+                Optional.of(entry("e1", "t1")), Optional.of(entry("e2", "t2")), Optional.empty())
+
+        val claimed = resourceManager.claimEntries(5)
+
+        assertEquals(listOf("e1", "e2"), claimed.entries.map { it.id })
+        assertTrue(owners.all { it == claimed.owner })
+
+        every { resourceDao.deleteClaimed(any(), any()) } returns 1
+        resourceManager.deleteEntries(claimed, claimed.entries.take(1))
+        verify { resourceDao.deleteClaimed(listOf("e1"), claimed.owner) }
+    }
+
+    @Test
+    fun `does not claim more than the batch size`() {
+        every { resourceDao.claim(any(), any(), any(), any(), any(), any()) } returns Optional.of(entry("e", "t1"))
+
+        assertEquals(3, resourceManager.claimEntries(3).entries.size)
+        verify(exactly = 3) { resourceDao.claim(any(), any(), any(), any(), any(), any()) }
+    }
+
+    @Test
+    fun `leaves out the trails already claimed in the batch`() {
+        val heldTrailIds = mutableListOf<Set<String>>()
+        every { resourceDao.claim(any(), any(), any(), any(), any(), any()) } answers {
+            heldTrailIds.add(arg<Collection<String>>(4).toSet())
+            Optional.of(entry("e${heldTrailIds.size}", "t${heldTrailIds.size}"))
+        }
+
+        resourceManager.claimEntries(3)
+
+        assertEquals(listOf(emptySet(), setOf("t1"), setOf("t1", "t2")), heldTrailIds)
+    }
+
+    @Test
+    fun `drops the entries out of attempts before claiming`() {
+        every { resourceDao.deleteExhausted("realm", 5, any()) } returns listOf("t1")
+        every { resourceDao.claim(any(), any(), any(), any(), any(), any()) } returns Optional.empty()
+
+        assertTrue(resourceManager.claimEntries(3).entries.isEmpty())
+        verify { resourceDao.deleteExhausted("realm", 5, any()) }
+    }
+
+    private fun entry(id: String, trailId: String) = ResourceEntry(id, "instance", RegenerationEntryType.PLACE.name,
+            "p1", trailId, RegenerationActionType.UPDATE.name, Date(), "user", "realm", Date(), 1)
+}
@@ -0,0 +1,73 @@
+package org.sc.manager
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class TrailPreviewCacheTest {
+
+    private val meterRegistry = SimpleMeterRegistry()
+    private var datasetVersion = 1L
+    private var loads = 0
+
+    private fun cache(versionRefreshMillis: Long = 0L, maxEntries: Int = 100) =
+        TrailPreviewCache({ datasetVersion }, versionRefreshMillis, maxEntries, meterRegistry)
+
+    private fun TrailPreviewCache.load(skip: Int) = get("previews", listOf("realm", false, skip, 10)) { ++loads }
+
+    @Test
+    fun `serve the same query from the cache`() {
+        val cache = cache()
+
+        assertEquals(1, cache.load(0))
+        assertEquals(1, cache.load(0))
+        assertEquals(2, cache.load(10))
+
+        assertEquals(1.0, meterRegistry.get(TrailPreviewCache.METRIC_NAME).tag("result", "hit").counter().count(), 0.0)
+        assertEquals(2.0, meterRegistry.get(TrailPreviewCache.METRIC_NAME).tag("result", "miss").counter().count(), 0.0)
+    }
+
+    @Test
+    fun `reload after a local change`() {
+        val cache = cache(versionRefreshMillis = 60_000)
+        val versionBefore = cache.currentVersion
+        cache.load(0)
+
+        datasetVersion++
+        cache.invalidate()
+
+        assertNotEquals(versionBefore, cache.currentVersion)
+        assertEquals(2, cache.load(0))
+    }
+
+    @Test
+    fun `reload after a new dataset version`() {
+        val cache = cache()
+        cache.load(0)
+
+        datasetVersion++
+
+        assertEquals(2, cache.load(0))
+    }
+
+    @Test
+    fun `keep reading the dataset version it last read until it is refreshed`() {
+        val cache = cache(versionRefreshMillis = 60_000)
+        cache.load(0)
+
+        datasetVersion++
+
+        assertEquals(1, cache.load(0))
+    }
+
+    @Test
+    fun `evict least recently used entries`() {
+        val cache = cache(maxEntries = 16)
+
+        (0 until 1000).forEach { cache.load(it) }
+
+        assertTrue(cache.size() <= 16)
+    }
+}
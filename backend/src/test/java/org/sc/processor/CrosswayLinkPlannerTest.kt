@@ -0,0 +1,99 @@
+package org.sc.processor
+
+import io.mockk.mockk
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.data.geo.TrailPlacesAligner
+import org.sc.data.model.CoordinatesWithAltitude
+import org.sc.data.model.Place
+import org.sc.data.model.PlaceRef
+import org.sc.data.model.TrailCoordinates
+import org.sc.data.model.TrailPreview
+
+class CrosswayLinkPlannerTest {
+
+    private val planner = CrosswayLinkPlanner(TrailPlacesAligner(mockk(), mockk()))
+
+    private val start = ref("start", 44.0, 11.0)
+    private val crossway = ref("crossway", 44.05, 11.0, isDynamic = true)
+    private val end = ref("end", 44.1, 11.0)
+
+    @Test
+    fun `links the trail and every trail crossing the place to each other and renames the crossway`() {
+        val existing = trail("a", "100BO", start, crossway.copy(encounteredTrailIds = listOf("a")), end)
+        val linked = trail("b", "101BO", crossway)
+        val place = place("crossway", "Crocevia 100BO", listOf("a"), isDynamic = true)
+
+        val plan = planner.plan("b", listOf(crossway), listOf(place), listOf(existing, linked)) {
+            throw AssertionError("No location was added")
+        }
+
+        val link = plan.placeLinks.single()
+        assertEquals("b", link.trailId)
+        assertEquals("Crocevia 100BO, 101BO", link.name)
+        assertEquals(listOf("a", "b"), link.crossingTrailIds)
+        assertEquals(listOf("a", "b"), plan.trailUpdates.map { it.trailId })
+        plan.trailUpdates.forEach { update ->
+            val crosswayRef = update.locations.single { it.placeId == "crossway" }
+            assertEquals(listOf("a", "b"), crosswayRef.encounteredTrailIds)
+            assertEquals("Crocevia 100BO, 101BO", crosswayRef.name)
+            assertEquals(setOf("crossway"), update.renamedPlaceIds)
+            assertTrue(update.addedPlaceIds.isEmpty())
+        }
+        assertEquals("Crocevia 100BO, 101BO", plan.trailUpdates.single { it.trailId == "b" }.startPosName)
+    }
+
+    @Test
+    fun `adds the place to a crossing trail missing it, along the trail`() {
+        val existing = trail("a", "100BO", start, end)
+        val linked = trail("b", "101BO", crossway)
+        val place = place("crossway", "A crossway", listOf("a"), isDynamic = false)
+        val requested = mutableListOf<List<String>>()
+
+        val plan = planner.plan("b", listOf(crossway), listOf(place), listOf(existing, linked)) { ids ->
+            requested.add(ids)
+            mapOf("a" to listOf(
+                TrailCoordinates(44.0, 11.0, 100.0, 0),
+                TrailCoordinates(44.05, 11.0, 100.0, 5000),
+                TrailCoordinates(44.1, 11.0, 100.0, 10000)))
+        }
+
+        assertEquals(listOf(listOf("a")), requested)
+        val update = plan.trailUpdates.single { it.trailId == "a" }
+        assertEquals(listOf("start", "crossway", "end"), update.locations.map { it.placeId })
+        assertEquals(setOf("crossway"), update.addedPlaceIds)
+        assertTrue(update.renamedPlaceIds.isEmpty())
+        assertNull(plan.placeLinks.single().name)
+    }
+
+    @Test
+    fun `leaves the trails already linked untouched`() {
+        val linkedRef = crossway.copy(encounteredTrailIds = listOf("a", "b"))
+        val existing = trail("a", "100BO", start, linkedRef, end)
+        val linked = trail("b", "101BO", linkedRef)
+        val place = place("crossway", "Crocevia 100BO, 101BO", listOf("a", "b"), isDynamic = true)
+
+        val plan = planner.plan("b", listOf(linkedRef), listOf(place), listOf(existing, linked)) {
+            throw AssertionError("No location was added")
+        }
+
+        assertTrue(plan.trailUpdates.isEmpty())
+        assertTrue(plan.renamedPlaces.isEmpty())
+        assertEquals(1, plan.placeLinks.size)
+    }
+
+    private fun ref(placeId: String, latitude: Double, longitude: Double, isDynamic: Boolean = false) =
+        PlaceRef(placeId, CoordinatesWithAltitude(latitude, longitude, 100.0), placeId, emptyList(), isDynamic)
+
+    private fun PlaceRef.copy(encounteredTrailIds: List<String>) =
+        PlaceRef(name, coordinates, placeId, encounteredTrailIds, isDynamicCrossway)
+
+    private fun trail(id: String, code: String, vararg locations: PlaceRef) =
+        TrailPreview.builder().id(id).code(code).locations(locations.toList())
+            .startPos(locations.first()).finalPos(locations.last()).build()
+
+    private fun place(id: String, name: String, crossingTrailIds: List<String>, isDynamic: Boolean) =
+        Place.builder().id(id).name(name).crossingTrailIds(crossingTrailIds).isDynamic(isDynamic).build()
+}
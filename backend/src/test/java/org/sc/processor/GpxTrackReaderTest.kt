@@ -0,0 +1,39 @@
+package org.sc.processor
+
+import io.jenetics.jpx.GPX
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.IOException
+import java.nio.file.Paths
+
+class GpxTrackReaderTest {
+
+    private val trailPath = Paths.get(javaClass.classLoader.getResource("trails/001BO.gpx")!!.toURI())
+
+    @Test
+    fun `read first track segment as jpx does`() {
+        val expected = GPX.read(trailPath).tracks.first()
+        val expectedPoints = expected.segments.first().points
+
+        val actual = GpxTrackReader().read(trailPath)
+
+        assertEquals(expected.name.get(), actual.name)
+        assertEquals(expected.description.get(), actual.description)
+        assertEquals(expectedPoints.size, actual.points.size)
+        expectedPoints.forEachIndexed { index, point ->
+            assertEquals(point.latitude.toDegrees(), actual.points.latitude(index), 0.0)
+            assertEquals(point.longitude.toDegrees(), actual.points.longitude(index), 0.0)
+        }
+    }
+
+    @Test(expected = IOException::class)
+    fun `fail on a document without track points`() {
+        GpxTrackReader().read(ByteArrayInputStream("<gpx><trk><trkseg></trkseg></trk></gpx>".toByteArray()))
+    }
+
+    @Test(expected = IOException::class)
+    fun `fail on malformed documents`() {
+        GpxTrackReader().read(ByteArrayInputStream("<gpx><trk><trkseg><trkpt lat=".toByteArray()))
+    }
+}
@@ -0,0 +1,48 @@
+package org.sc.processor
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.sc.data.model.Coordinates2D
+import org.sc.data.model.GeoLineString
+import org.sc.data.model.Trail
+
+class TrailIntersectionProcessorTest {
+
+    private val trailIntersectionProcessor = TrailIntersectionProcessor()
+
+    @After
+    fun tearDown() {
+        trailIntersectionProcessor.shutdown()
+    }
+
+    @Test
+    fun `returns the crossed trails in order with their crossways`() {
+        val line = listOf(Coordinates2D(11.0, 44.0), Coordinates2D(11.0, 44.1))
+        val crossed = trail("a", Coordinates2D(10.95, 44.05), Coordinates2D(11.05, 44.05))
+        val apart = trail("b", Coordinates2D(11.2, 44.0), Coordinates2D(11.2, 44.1))
+        val crossedTwice = trail("c", Coordinates2D(10.95, 44.02), Coordinates2D(11.05, 44.02),
+            Coordinates2D(11.05, 44.08), Coordinates2D(10.95, 44.08))
+
+        val actual = trailIntersectionProcessor.getTrailsCrosswayIntersectionPoints(line, listOf(crossedTwice, apart, crossed))
+
+        assertEquals(listOf("c", "a"), actual.map { it.first.id })
+        assertEquals(2, actual[0].second.size)
+        assertEquals(listOf(Coordinates2D(11.0, 44.05)), actual[1].second)
+    }
+
+    @Test
+    fun `collapses close intersection points keeping the ends of the run`() {
+        // About 11 meters apart, then about 1.1 kilometers
+        val points = listOf(
+            Coordinates2D(11.0, 44.0), Coordinates2D(11.0, 44.0001), Coordinates2D(11.0, 44.0002),
+            Coordinates2D(11.0, 44.0003), Coordinates2D(11.0, 44.0103))
+
+        val actual = trailIntersectionProcessor.selectCrossways(points)
+
+        assertEquals(listOf(points[0], points[3], points[4]), actual)
+    }
+
+    private fun trail(id: String, vararg coordinates: Coordinates2D) =
+        Trail.builder().id(id).geoLineString(GeoLineString(coordinates.toList())).build()
+}
@@ -0,0 +1,58 @@
+package org.sc.processor
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotEquals
+import org.junit.Test
+import org.sc.common.rest.StaticTrailDetailsDto
+import org.sc.common.rest.TrailCoordinatesDto
+import org.sc.common.rest.TrailDto
+import java.util.*
+
+class TrailResourceDigestTest {
+
+    private val trailResourceDigest = TrailResourceDigest()
+
+    @Test
+    fun `digests do not depend on the stored static resources`() {
+        val trail = trail()
+        val regenerated = trail().apply {
+            staticTrailDetails = StaticTrailDetailsDto("100BO.gpx", "100BO.kml", "100BO.pdf", "a", "b", "c")
+        }
+
+        assertEquals(trailResourceDigest.gpx(trail), trailResourceDigest.gpx(regenerated))
+        assertEquals(trailResourceDigest.pdf(trail, emptyList(), emptyList(), emptyList()),
+            trailResourceDigest.pdf(regenerated, emptyList(), emptyList(), emptyList()))
+    }
+
+    @Test
+    fun `digests change with the coordinates`() {
+        val trail = trail()
+        val moved = trail().apply {
+            coordinates = listOf(TrailCoordinatesDto(44.5, 11.3, 120.0, 0), TrailCoordinatesDto(44.6, 11.4, 200.0, 100))
+        }
+
+        assertNotEquals(trailResourceDigest.gpx(trail), trailResourceDigest.gpx(moved))
+        assertNotEquals(trailResourceDigest.kml(trail), trailResourceDigest.kml(moved))
+        assertNotEquals(trailResourceDigest.pdf(trail, emptyList(), emptyList(), emptyList()),
+            trailResourceDigest.pdf(moved, emptyList(), emptyList(), emptyList()))
+    }
+
+    @Test
+    fun `only the pdf digest changes with the description`() {
+        val trail = trail()
+        val described = trail().apply { description = "Another description" }
+
+        assertEquals(trailResourceDigest.gpx(trail), trailResourceDigest.gpx(described))
+        assertEquals(trailResourceDigest.kml(trail), trailResourceDigest.kml(described))
+        assertNotEquals(trailResourceDigest.pdf(trail, emptyList(), emptyList(), emptyList()),
+            trailResourceDigest.pdf(described, emptyList(), emptyList(), emptyList()))
+    }
+
+    private fun trail() = TrailDto().apply {
+        id = "t1"
+        code = "100BO"
+        description = "A description"
+        lastUpdate = Date(1_600_000_000_000)
+        coordinates = listOf(TrailCoordinatesDto(44.5, 11.3, 120.0, 0), TrailCoordinatesDto(44.6, 11.4, 180.0, 100))
+    }
+}
@@ -0,0 +1,57 @@
+package org.sc.processor.pdf
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.common.rest.TrailCoordinatesDto
+import org.sc.common.rest.TrailDto
+import java.util.*
+import kotlin.math.sin
+
+class ElevationProfileSamplerTest {
+
+    private val sampler = ElevationProfileSampler()
+
+    @Test
+    fun `keeps every point when fewer than the threshold`() {
+        val x = doubleArrayOf(0.0, 1.0, 2.0)
+        val y = doubleArrayOf(10.0, 20.0, 15.0)
+
+        assertArrayEquals(intArrayOf(0, 1, 2), sampler.largestTriangleThreeBuckets(x, y, 10))
+    }
+
+    @Test
+    fun `keeps the endpoints and the peak in increasing order`() {
+        val size = 20_000
+        val peak = 12_345
+        val x = DoubleArray(size) { it.toDouble() }
+        val y = DoubleArray(size) { if (it == peak) 3000.0 else 500.0 + sin(it / 500.0) * 100 }
+
+        val sampled = sampler.largestTriangleThreeBuckets(x, y, 500)
+
+        assertEquals(500, sampled.size)
+        assertEquals(0, sampled.first())
+        assertEquals(size - 1, sampled.last())
+        assertTrue(sampled.contains(peak))
+        assertTrue((1 until sampled.size).all { sampled[it] > sampled[it - 1] })
+    }
+
+    @Test
+    fun `reuses the profile of an unchanged trail`() {
+        val trail = TrailDto().apply {
+            id = "t1"
+            lastUpdate = Date(1_600_000_000_000)
+            coordinates = (0 until 1000).map { TrailCoordinatesDto(44.5, 11.3, 200.0 + it % 50, it * 10) }
+        }
+
+        val profile = sampler.sample(trail, 100)
+
+        assertEquals(100, profile.size)
+        assertSame(profile, sampler.sample(trail, 100))
+        trail.coordinates = trail.coordinates.take(500)
+        assertEquals(100, sampler.sample(trail, 100).size)
+        assertEquals(4990.0, sampler.sample(trail, 100).distances.last(), 0.0)
+    }
+}
@@ -0,0 +1,86 @@
+package org.sc.processor.tile
+
+import org.junit.After
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.sc.data.geo.CoordinatesRectangle
+import org.sc.data.model.Coordinates2D
+import java.nio.file.Files
+import java.nio.file.Path
+
+class TileCacheTest {
+
+    private val directory: Path = Files.createTempDirectory("tiles")
+
+    // Around Bologna, at zoom 12 it falls in tile x=2177, y=1481
+    private val bologna = CoordinatesRectangle(Coordinates2D(11.33, 44.49), Coordinates2D(11.35, 44.50))
+    private val farAway = CoordinatesRectangle(Coordinates2D(-70.0, -30.0), Coordinates2D(-69.0, -29.0))
+    private val bolognaTile = TileKey(12, 2177, 1481)
+
+    @After
+    fun tearDown() {
+        directory.toFile().deleteRecursively()
+    }
+
+    @Test
+    fun `serve tiles from disk once out of memory`() {
+        val cache = TileCache(directory, 1, 1)
+        val otherTile = TileKey(12, 0, 0)
+
+        cache.put(bolognaTile, byteArrayOf(1, 2), cache.currentGeneration)
+        cache.put(otherTile, byteArrayOf(3), cache.currentGeneration)
+
+        assertArrayEquals(byteArrayOf(1, 2), cache.get(bolognaTile))
+        assertArrayEquals(byteArrayOf(3), cache.get(otherTile))
+        assertEquals(2, cache.size())
+    }
+
+    @Test
+    fun `drop only tiles overlapping the invalidated area`() {
+        val cache = TileCache(directory, 1, 10)
+        cache.put(bolognaTile, byteArrayOf(1), cache.currentGeneration)
+
+        cache.invalidate(farAway)
+        assertArrayEquals(byteArrayOf(1), cache.get(bolognaTile))
+
+        cache.invalidate(bologna)
+        assertNull(cache.get(bolognaTile))
+        assertFalse(Files.exists(directory.resolve("v1/12/2177/1481.mvt")))
+    }
+
+    @Test
+    fun `ignore tiles rendered before an invalidation`() {
+        val cache = TileCache(directory, 1, 10)
+        val renderedAt = cache.currentGeneration
+
+        cache.invalidate(farAway)
+        cache.put(bolognaTile, byteArrayOf(1), renderedAt)
+
+        assertNull(cache.get(bolognaTile))
+    }
+
+    @Test
+    fun `serve tiles left by a previous run at the same version`() {
+        TileCache(directory, 1, 10).put(bolognaTile, byteArrayOf(1), 0)
+
+        val restarted = TileCache(directory, 1, 10)
+        assertArrayEquals(byteArrayOf(1), restarted.get(bolognaTile))
+        assertEquals(1, restarted.size())
+    }
+
+    @Test
+    fun `discard only tiles of older versions`() {
+        TileCache(directory, 3, 10).put(bolognaTile, byteArrayOf(3), 0)
+        TileCache(directory, 1, 10).put(bolognaTile, byteArrayOf(1), 0)
+        // Left by the layout without versions
+        Files.createDirectories(directory.resolve("12"))
+
+        val restarted = TileCache(directory, 2, 10)
+
+        assertNull(restarted.get(bolognaTile))
+        assertEquals(listOf("v3"), directory.toFile().list()!!.toList())
+    }
+}
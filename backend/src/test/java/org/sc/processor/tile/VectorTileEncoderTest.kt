@@ -0,0 +1,78 @@
+package org.sc.processor.tile
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.processor.TrailSimplifierLevel
+
+class VectorTileEncoderTest {
+
+    private fun indexOf(bytes: ByteArray, sequence: ByteArray): Int =
+        (0..bytes.size - sequence.size).firstOrNull { start ->
+            sequence.indices.all { bytes[start + it] == sequence[it] }
+        } ?: -1
+
+    @Test
+    fun `encode a line as move-to and line-to commands`() {
+        val encoder = VectorTileEncoder("trails")
+        encoder.addLine(mapOf("id" to "a"), intArrayOf(0, 0, 10, 0, 10, 10))
+
+        val tile = encoder.encode()
+
+        // Packed geometry field: MoveTo(1) 0,0 then LineTo(2) +10,0 0,+10 (zig-zag encoded)
+        val geometry = byteArrayOf(0x22, 8, 9, 0, 0, 18, 20, 0, 0, 20)
+        assertTrue(indexOf(tile, geometry) >= 0)
+        assertTrue(indexOf(tile, "trails".toByteArray()) >= 0)
+        assertTrue(indexOf(tile, "id".toByteArray()) >= 0)
+    }
+
+    @Test
+    fun `drop repeated vertices`() {
+        val encoder = VectorTileEncoder("trails")
+        encoder.addLine(emptyMap(), intArrayOf(0, 0, 10, 0, 10, 0, 10, 10))
+
+        val geometry = byteArrayOf(0x22, 8, 9, 0, 0, 18, 20, 0, 0, 20)
+        assertTrue(indexOf(encoder.encode(), geometry) >= 0)
+    }
+
+    @Test
+    fun `skip lines outside the buffered tile`() {
+        val encoder = VectorTileEncoder("trails")
+        encoder.addLine(mapOf("id" to "a"), intArrayOf(-5000, -5000, -4000, -4000))
+        encoder.addLine(mapOf("id" to "b"), intArrayOf(5, 5, 5, 5))
+
+        assertTrue(encoder.isEmpty)
+    }
+
+    @Test
+    fun `keep lines crossing the tile`() {
+        val encoder = VectorTileEncoder("trails")
+        encoder.addLine(emptyMap(), intArrayOf(-5000, 2000, 9000, 2000))
+
+        assertFalse(encoder.isEmpty)
+    }
+
+    @Test
+    fun `project points on tiles`() {
+        val world = TileKey(0, 0, 0)
+        assertEquals(2048, world.toTileX(0.0))
+        assertEquals(2048, world.toTileY(0.0))
+        assertEquals(0, world.toTileX(-180.0))
+        assertEquals(-180.0, world.bounds.bottomLeft.longitude, 0.000001)
+        assertEquals(85.0511287798, world.bounds.topRight.latitude, 0.000001)
+
+        val northEast = TileKey(1, 1, 0)
+        assertEquals(0, northEast.toTileX(0.0))
+        assertEquals(4096, northEast.toTileY(0.0))
+    }
+
+    @Test
+    fun `map zoom to simplification level`() {
+        assertEquals(TrailSimplifierLevel.LOW, TileKey(8, 0, 0).simplifierLevel)
+        assertEquals(TrailSimplifierLevel.MEDIUM, TileKey(12, 0, 0).simplifierLevel)
+        assertEquals(TrailSimplifierLevel.HIGH, TileKey(16, 0, 0).simplifierLevel)
+        assertFalse(TileKey.isValid(2, 4, 0))
+        assertFalse(TileKey.isValid(TileKey.MAX_ZOOM + 1, 0, 0))
+    }
+}
@@ -0,0 +1,93 @@
+package org.sc.service
+
+import io.mockk.every
+import io.mockk.mockkClass
+import io.mockk.slot
+import io.mockk.verify
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.sc.configuration.AppProperties
+import org.sc.data.geo.PlaceGrid
+import org.sc.data.model.Coordinates2D
+import org.sc.data.model.CoordinatesWithAltitude
+import org.sc.data.model.Place
+import org.sc.data.model.RecordDetails
+import org.sc.manager.PlaceCluster
+import org.sc.manager.PlaceManager
+import java.util.Date
+
+class PlaceClusteringServiceTest {
+
+    private val placeManager = mockkClass(PlaceManager::class, relaxed = true)
+    private val appProperties = mockkClass(AppProperties::class)
+
+    private val service: PlaceClusteringService
+
+    init {
+        every { appProperties.instanceRealm } returns "realm"
+        every { appProperties.jobCrosswayConsistencyDistance } returns 100.0
+        service = PlaceClusteringService(placeManager, appProperties)
+    }
+
+    @After
+    fun tearDown() {
+        service.shutdown()
+    }
+
+    @Test
+    fun `merges the newer places named alike into the oldest, once`() {
+        val oldest = place("a", "Castiglione", 1000L, 44.0)
+        val newer = place("b", "Castiglione dei Pepoli", 2000L, 44.0005)
+        val newest = place("c", "castiglione dei pepoli", 3000L, 44.0008)
+        val otherName = place("d", "Lagaro", 4000L, 44.0)
+        val far = place("e", "Castiglione", 5000L, 44.1)
+        val places = listOf(newest, otherName, oldest, far, newer)
+        val grid = PlaceGrid(100.0)
+        places.forEach { grid.put(it.id, listOf(Coordinates2D(11.0, it.coordinates.first().latitude))) }
+
+        val clusters = service.findClusters(places, grid)
+
+        assertEquals(1, clusters.size)
+        assertEquals("a", clusters.first().place.id)
+        assertEquals(setOf("b", "c"), clusters.first().absorbedPlaces.map { it.id }.toSet())
+    }
+
+    @Test
+    fun `merges a touched place into the older neighbour looked up around it`() {
+        val neighbour = place("a", "Castiglione", 1000L, 44.0)
+        val touched = place("b", "Castiglione dei Pepoli", 2000L, 44.0005)
+        val boxes = slot<List<List<Coordinates2D>>>()
+        every { placeManager.forEachNotDynamicPlaceWithin("realm", capture(boxes), any()) } answers {
+            listOf(neighbour, touched).forEach(thirdArg<(Place) -> Unit>())
+        }
+
+        val clusters = service.clusterAround(listOf(touched))
+
+        val (bottomLeft, topRight) = boxes.captured.single()
+        assertEquals(44.0005, (bottomLeft.latitude + topRight.latitude) / 2, 1e-9)
+        assertEquals(listOf(PlaceCluster(neighbour, listOf(touched))), clusters)
+        verify { placeManager.mergePlaces(clusters) }
+    }
+
+    @Test
+    fun `clusters the updated places on the clustering thread`() {
+        val since = Date(1000L)
+        val threadNames = mutableListOf<String>()
+        every { placeManager.forEachNotDynamicPlaceUpdatedSince("realm", since, any()) } answers {
+            threadNames.add(Thread.currentThread().name)
+        }
+        every { placeManager.mergePlaces(any()) } answers { threadNames.add(Thread.currentThread().name) }
+
+        service.clusterUpdatedSince(since)
+        service.clusterAll()
+
+        assertEquals(listOf("place-clustering", "place-clustering"), threadNames)
+    }
+
+    private fun place(id: String, name: String, uploadedOn: Long, latitude: Double) =
+        Place.builder().id(id).name(name)
+            .coordinates(listOf(CoordinatesWithAltitude(latitude, 11.0, 100.0)))
+            .recordDetails(RecordDetails(Date(uploadedOn), "test", "test", "test"))
+            .build()
+}
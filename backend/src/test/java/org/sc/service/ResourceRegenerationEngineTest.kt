@@ -0,0 +1,101 @@
+package org.sc.service
+
+import io.mockk.every
+import io.mockk.mockkClass
+import io.mockk.verify
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.sc.common.rest.FileDetailsDto
+import org.sc.common.rest.TrailDto
+import org.sc.configuration.AppProperties
+import org.sc.manager.*
+import org.sc.processor.TrailSimplifierLevel
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+internal class ResourceRegenerationEngineTest {
+
+    private val realm = "realm"
+    private val trailManager = mockkClass(TrailManager::class, relaxed = true)
+    private val trailFileManager = mockkClass(TrailFileManager::class, relaxed = true)
+    private val appProperties = mockkClass(AppProperties::class)
+
+    private val engine: ResourceRegenerationEngine
+
+    init {
+        every { appProperties.resourcesRegenerationWorkers } returns 2
+        engine = ResourceRegenerationEngine(trailManager,
+            mockkClass(PlaceManager::class, relaxed = true),
+            mockkClass(MaintenanceManager::class, relaxed = true),
+            mockkClass(AccessibilityNotificationManager::class, relaxed = true),
+            trailFileManager,
+            appProperties)
+    }
+
+    @After
+    fun tearDown() {
+        engine.shutdown()
+    }
+
+    @Test
+    fun `regenerates the trails of the realm and counts the ones that could not be`() {
+        givenTrail("t1", realm)
+        givenTrail("t2", "other")
+        every { trailManager.getById("t3", TrailSimplifierLevel.FULL) } returns emptyList()
+        every { trailManager.countByRealm(realm) } returns 3
+        every { trailManager.forEachTrailId(realm, any()) } answers {
+            listOf("t1", "t2", "t3").forEach(secondArg<(String) -> Unit>())
+        }
+
+        assertTrue(engine.regenerateAll(realm))
+        awaitRun()
+
+        val progress = engine.progress!!
+        assertEquals(3, progress.total)
+        assertEquals(1, progress.done)
+        assertEquals(2, progress.failed)
+        assertEquals(0L, progress.etaSeconds)
+        verify(exactly = 1) { trailManager.updateStaticResources("t1", any()) }
+        verify(exactly = 0) { trailManager.updateStaticResources("t2", any()) }
+    }
+
+    @Test
+    fun `does not start a run while another one is going`() {
+        val release = CountDownLatch(1)
+        givenTrail("t1", realm)
+        every { trailFileManager.writeTrailToPdf(any(), any(), any(), any(), any()) } answers {
+            release.await(5, TimeUnit.SECONDS)
+            TrailFileManager.ResourceFile("t1.pdf", "digest")
+        }
+
+        assertTrue(engine.regenerate(listOf("t1"), realm))
+        assertTrue(engine.isRunning)
+        assertFalse(engine.regenerate(listOf("t1"), realm))
+
+        release.countDown()
+        awaitRun()
+        assertEquals(1, engine.progress!!.done)
+        assertTrue(engine.regenerate(listOf("t1"), realm))
+        awaitRun()
+    }
+
+    private fun givenTrail(id: String, trailRealm: String) {
+        val trail = TrailDto()
+        trail.id = id
+        trail.locations = emptyList()
+        trail.fileDetails = FileDetailsDto().apply { realm = trailRealm }
+        every { trailManager.getById(id, TrailSimplifierLevel.FULL) } returns listOf(trail)
+        every { trailFileManager.getFilename(trail) } returns id
+    }
+
+    private fun awaitRun() {
+        val deadline = System.currentTimeMillis() + 5000
+        while (engine.isRunning && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        assertFalse(engine.isRunning)
+    }
+}
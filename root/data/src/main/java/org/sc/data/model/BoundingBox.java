@@ -0,0 +1,16 @@
+package org.sc.data.model;
+
+/**
+ * Field names of the longitude and latitude bounds stored with a trail,
+ * to filter geo queries with plain range comparisons before any geometry is looked at.
+ */
+public class BoundingBox {
+
+    public static final String MIN_LONGITUDE = "minLng";
+    public static final String MIN_LATITUDE = "minLat";
+    public static final String MAX_LONGITUDE = "maxLng";
+    public static final String MAX_LATITUDE = "maxLat";
+
+    private BoundingBox() {
+    }
+}
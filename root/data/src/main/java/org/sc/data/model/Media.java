@@ -23,6 +23,8 @@ public class Media {
     public static final String RECORD_DETAILS = "recordDetails";
     public static final String IS_COMPRESSED = "isCompressed";
     public static final String RESOLUTIONS = "resolutions";
+    // Set while the media is being compressed, so that no other run picks it up
+    public static final String COMPRESSION_LEASE_UNTIL = "compressionLeaseUntil";
 
     private String id;
     private Date creationDate;
@@ -25,6 +25,7 @@ public class Place {
     public static final String CROSSING_IDS = "crossingIds";
     public static final String RECORD_DETAILS = "recordDetails";
     public static final String IS_DYNAMIC_CROSSWAY = "isDynamic";
+    public static final String LAST_UPDATE_DATE = "lastUpdate";
 
     private String id;
     private String name;
@@ -21,6 +21,13 @@ public class ResourceEntry {
     public static final String TARGETING_TRAIL = "targetingTrailId";
     public static final String CREATED_ON = "createdOn";
     public static final String USER_PROMPTING = "userPrompting";
+    public static final String REALM = "realm";
+    public static final String DUE_ON = "dueOn";
+    public static final String REQUEST_COUNT = "requestCount";
+    public static final String LEASE_OWNER = "leaseOwner";
+    public static final String LEASE_UNTIL = "leaseUntil";
+    public static final String DUE_BY = "dueBy";
+    public static final String CLAIM_COUNT = "claimCount";
 
     private String id;
     private String instanceId;
@@ -30,4 +37,7 @@ public class ResourceEntry {
     private String action;
     private Date createdOn;
     private String userPrompting;
+    private String realm;
+    private Date dueOn;
+    private int requestCount;
 }
@@ -11,8 +11,19 @@ public class StaticTrailDetails {
     public static final String PATH_GPX = "pathGpx";
     public static final String PATH_KML = "pathKml";
     public static final String PATH_PDF = "pathPdf";
+    public static final String DIGEST_GPX = "digestGpx";
+    public static final String DIGEST_KML = "digestKml";
+    public static final String DIGEST_PDF = "digestPdf";
 
     private String pathGpx;
     private String pathKml;
     private String pathPdf;
+    // Digests of the inputs each file was generated from
+    private String digestGpx;
+    private String digestKml;
+    private String digestPdf;
+
+    public StaticTrailDetails(final String pathGpx, final String pathKml, final String pathPdf) {
+        this(pathGpx, pathKml, pathPdf, null, null, null);
+    }
 }
@@ -33,6 +33,9 @@ public class Trail {
     public static final String TERRITORIAL_CARED_BY = "territorialDivision";
     public static final String LOCATIONS = "locations";
     public static final String GEO_LINE = "geoLine";
+    // Derived from the medium coordinates and the geoLine, to narrow geo queries down
+    public static final String GEO_LINE_SIMPLIFIED = "geoLineSimplified";
+    public static final String BBOX = "bbox";
 
     public static final String MEDIA = "media";
     public static final String STATUS = "status";
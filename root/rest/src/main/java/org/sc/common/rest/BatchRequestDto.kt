@@ -0,0 +1,3 @@
+package org.sc.common.rest
+
+data class BatchRequestDto (val ids : List<String>)
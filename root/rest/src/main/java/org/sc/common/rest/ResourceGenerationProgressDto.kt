@@ -0,0 +1,10 @@
+package org.sc.common.rest
+
+import java.util.Date
+
+data class ResourceGenerationProgressDto(val total: Long,
+                                         val done: Long,
+                                         val failed: Long,
+                                         val startedAt: Date,
+                                         val endedAt: Date?,
+                                         val etaSeconds: Long?)
@@ -0,0 +1,6 @@
+package org.sc.common.rest
+
+data class SearchResultDto(val id: String,
+                           val type: String,
+                           val label: String,
+                           val score: Int)
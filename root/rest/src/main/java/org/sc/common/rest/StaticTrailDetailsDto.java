@@ -12,5 +12,8 @@ public class StaticTrailDetailsDto {
     private String pathGpx;
     private String pathKml;
     private String pathPdf;
+    private String digestGpx;
+    private String digestKml;
+    private String digestPdf;
 }
 
@@ -4,4 +4,8 @@ abstract class RESTResponse constructor(
     open val currentPage: Long,
     open val totalPages: Long,
     open val size: Long,
-    open val totalCount: Long)
\ No newline at end of file
+    open val totalCount: Long) {
+
+    // Set on the pages read after a continuation token, to read the next one; null on the last
+    var continuationToken: String? = null
+}
@@ -1,7 +1,9 @@
 package org.sc.common.rest.response
 
 import org.sc.common.rest.BatchStatus
+import org.sc.common.rest.ResourceGenerationProgressDto
 
-data class ResourceGeneratorResponse (
-    val status: BatchStatus
+data class ResourceGeneratorResponse @JvmOverloads constructor(
+    val status: BatchStatus,
+    val progress: ResourceGenerationProgressDto? = null
 )
@@ -0,0 +1,15 @@
+package org.sc.common.rest.response
+
+import org.sc.common.rest.SearchResultDto
+import org.sc.common.rest.Status
+
+data class SearchResponse(
+    val status: Status,
+    val messages: Set<String>,
+    val content: List<SearchResultDto>,
+    override val currentPage: Long,
+    override val totalPages: Long,
+    override val size: Long,
+    override val totalCount: Long
+) :
+    RESTResponse(currentPage, totalPages, size, totalCount)